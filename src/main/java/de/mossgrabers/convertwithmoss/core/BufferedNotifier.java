@@ -0,0 +1,111 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+
+/**
+ * A notifier which collects the log output of a task which runs in the background. The output is
+ * written later on by calling {@link #replay(INotifier)}, e.g. to keep the output of several tasks
+ * in a fixed order. Must only be used by one thread at a time.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class BufferedNotifier implements INotifier
+{
+    private final INotifier                 delegate;
+    private final List<Consumer<INotifier>> buffered = new ArrayList<> ();
+
+
+    /**
+     * Constructor.
+     *
+     * @param delegate The notifier to which the calls are passed on which do not produce log output
+     */
+    public BufferedNotifier (final INotifier delegate)
+    {
+        this.delegate = delegate;
+    }
+
+
+    /**
+     * Writes all collected output to the given notifier and clears it.
+     *
+     * @param notifier Where to write the output
+     */
+    public void replay (final INotifier notifier)
+    {
+        for (final Consumer<INotifier> call: this.buffered)
+            call.accept (notifier);
+        this.buffered.clear ();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void log (final String messageID, final String... replaceStrings)
+    {
+        this.buffered.add (notifier -> notifier.log (messageID, replaceStrings));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logError (final String messageID, final String... replaceStrings)
+    {
+        this.buffered.add (notifier -> notifier.logError (messageID, replaceStrings));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logError (final String messageID, final Throwable throwable)
+    {
+        this.buffered.add (notifier -> notifier.logError (messageID, throwable));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logError (final Throwable throwable)
+    {
+        this.buffered.add (notifier -> notifier.logError (throwable));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logError (final Throwable throwable, final boolean logExceptionStack)
+    {
+        this.buffered.add (notifier -> notifier.logError (throwable, logExceptionStack));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logText (final String text)
+    {
+        this.buffered.add (notifier -> notifier.logText (text));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void updateButtonStates (final boolean canClose)
+    {
+        this.delegate.updateButtonStates (canClose);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void finished (final boolean cancelled)
+    {
+        this.delegate.finished (cancelled);
+    }
+}
@@ -17,8 +17,11 @@ import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.Set;
 
+import de.mossgrabers.convertwithmoss.core.algorithm.Resampler;
 import de.mossgrabers.convertwithmoss.core.creator.ICreator;
 import de.mossgrabers.convertwithmoss.core.detector.IDetector;
+import de.mossgrabers.convertwithmoss.file.DecodedSampleCache;
+import de.mossgrabers.convertwithmoss.file.wav.WaveFileCache;
 import de.mossgrabers.tools.ui.EndApplicationException;
 import de.mossgrabers.tools.ui.Functions;
 import picocli.CommandLine;
@@ -98,6 +101,12 @@ public class CLIBackend implements INotifier
             spec.addOption (OptionSpec.builder ("-a", "--analyze").paramLabel ("ANALYZE").description ("If present, only analyzes the potential source files.").build ());
             spec.addOption (OptionSpec.builder ("-f", "--flat").paramLabel ("FLAT").description ("If present, the folder structure is not recreated in the output folder.").build ());
             spec.addOption (OptionSpec.builder ("-l", "--library").paramLabel ("LIBRARY").type (String.class).description ("Name for the library. Set to create a library.").build ());
+            spec.addOption (OptionSpec.builder ("-j", "--threads").paramLabel ("THREADS").type (Integer.class).description ("The number of presets to process and write in parallel. Defaults to 1 (sequential).").build ());
+            spec.addOption (OptionSpec.builder ("-c", "--cache").paramLabel ("CACHE").type (Integer.class).description ("The maximum size in MB of the WAV audio data which is kept in memory. Defaults to a quarter of the available memory.").build ());
+            spec.addOption (OptionSpec.builder ("-k", "--decodecache").paramLabel ("DECODE_CACHE").type (Integer.class).description ("The maximum size in MB of the decoded FLAC, OGG and NCW files which are kept on disk. 0 disables it. Defaults to 2048.").build ());
+            spec.addOption (OptionSpec.builder ("-K", "--decodefolder").paramLabel ("DECODE_FOLDER").type (String.class).description ("The folder in which the decoded FLAC, OGG and NCW files are kept for the next conversions. Defaults to a temporary folder which is deleted after the conversion.").build ());
+            spec.addOption (OptionSpec.builder ("-i", "--incremental").paramLabel ("INCREMENTAL").description ("If present, only source files which were changed or added since the previous conversion into the output folder are converted.").build ());
+            spec.addOption (OptionSpec.builder ("-r", "--prune").paramLabel ("PRUNE").description ("If present, the output files of source files which do not exist anymore are removed. Requires the incremental mode.").build ());
             spec.addOption (OptionSpec.builder ("-p").paramLabel ("KEY=VALUE").description ("Key-value pairs in the form -pkey1=value1,key2=value2,...").required (false).arity ("0..*").type (Map.class).auxiliaryTypes (String.class, String.class).defaultValue (null).build ());
 
             // Processing parameters
@@ -110,6 +119,7 @@ public class CLIBackend implements INotifier
             spec.addOption (OptionSpec.builder ("-Zf", "--ProcessFrequency").paramLabel ("PROCESS_FREQUENCY").type (Integer.class).description ("Reduces the sample-rate of all samples to this maximum value, if processing is enabled. Valid numbers are: 48000, 44100, 32000, 31250, 30000, 28000, 27000, 24000, 22050, 16000, 12000, 11025 and 8000").build ());
             spec.addOption (OptionSpec.builder ("-Za", "--ProcessAlwaysResample").paramLabel ("PROCESS_ALWAYS_RESAMPLE").type (Boolean.class).description ("Does as well up-sampling to the set sample frequency and bit depth, if enabled.").build ());
             spec.addOption (OptionSpec.builder ("-Zl", "--ProcessLoopCrossfade").paramLabel ("PROCESS_LOOP_CROSSFADE").type (Integer.class).description ("Sets a fixed loop crossfade as a percentage. Valid values are 0-100.").build ());
+            spec.addOption (OptionSpec.builder ("-Zq", "--ProcessResampleQuality").paramLabel ("PROCESS_RESAMPLE_QUALITY").type (String.class).description ("The quality for changing the sample-rate, if processing is enabled or the destination format requires a different sample-rate. Valid values are: linear, low, medium and high (the default).").build ());
             spec.addOption (OptionSpec.builder ("-Zs", "--ProcessSnapLoops").paramLabel ("PROCESS_SNAP_LOOPS").type (Boolean.class).description ("Snaps forward loop boundaries to the nearest zero-crossing to remove loop clicks, if processing is enabled.").build ());
             spec.addOption (OptionSpec.builder ("-Zp", "--ProcessTranspose").paramLabel ("PROCESS_TRANSPOSE").type (Integer.class).description ("Transposes playback by the given number of semitones (-24 to 24) by moving the sample root keys, if processing is enabled. The key ranges are not changed.").build ());
 
@@ -165,6 +175,7 @@ public class CLIBackend implements INotifier
         }
 
         final DetectSettings detectSettings = new DetectSettings ();
+        detectSettings.setTaskParameters (detector.getSettings (), creator.getSettings ());
 
         // Processing parameters
         detectSettings.enableProcessing = parseResult.matchedOptionValue ("Ze", Boolean.FALSE).booleanValue ();
@@ -193,6 +204,16 @@ public class CLIBackend implements INotifier
             detectSettings.reduceFrequency = frequency.intValue ();
         }
         detectSettings.alwaysResample = parseResult.matchedOptionValue ("Za", Boolean.FALSE).booleanValue ();
+        final String resampleQuality = parseResult.matchedOptionValue ("Zq", "high");
+        try
+        {
+            detectSettings.resampleQuality = Resampler.Quality.valueOf (resampleQuality.toUpperCase (Locale.US));
+        }
+        catch (final IllegalArgumentException _)
+        {
+            System.err.println (Functions.getMessage ("IDS_CLI_WRONG_RESAMPLE_QUALITY", resampleQuality));
+            return 0;
+        }
         detectSettings.loopCrossfades = parseResult.matchedOptionValue ("Zl", Integer.valueOf (-1)).intValue () + 1;
         detectSettings.snapLoopsToZero = parseResult.matchedOptionValue ("Zs", Boolean.FALSE).booleanValue ();
         final Integer transpose = parseResult.matchedOptionValue ("Zp", Integer.valueOf (0));
@@ -225,6 +246,43 @@ public class CLIBackend implements INotifier
         detectSettings.wantsMultipleFiles = detectSettings.libraryName != null;
         detectSettings.createFolderStructure = parseResult.matchedOptionValue ('f', null) == null;
         final boolean onlyAnalyse = parseResult.matchedOptionValue ('a', null) != null;
+        final Integer threads = parseResult.matchedOptionValue ('j', Integer.valueOf (1));
+        if (threads.intValue () < 1)
+        {
+            System.err.println (Functions.getMessage ("IDS_CLI_WRONG_THREADS", threads.toString ()));
+            return 0;
+        }
+        detectSettings.numberOfThreads = threads.intValue ();
+        final Integer cacheSize = parseResult.matchedOptionValue ('c', null);
+        if (cacheSize != null)
+        {
+            if (cacheSize.intValue () < 0)
+            {
+                System.err.println (Functions.getMessage ("IDS_CLI_WRONG_CACHE_SIZE", cacheSize.toString ()));
+                return 0;
+            }
+            WaveFileCache.setMaximumSize (cacheSize.longValue () * 1024 * 1024);
+        }
+        final Integer decodeCacheSize = parseResult.matchedOptionValue ('k', null);
+        if (decodeCacheSize != null)
+        {
+            if (decodeCacheSize.intValue () < 0)
+            {
+                System.err.println (Functions.getMessage ("IDS_CLI_WRONG_CACHE_SIZE", decodeCacheSize.toString ()));
+                return 0;
+            }
+            DecodedSampleCache.setMaximumSize (decodeCacheSize.longValue () * 1024 * 1024);
+        }
+        final String decodeFolder = parseResult.matchedOptionValue ('K', null);
+        if (decodeFolder != null)
+            DecodedSampleCache.setFolder (new File (decodeFolder));
+        detectSettings.incremental = parseResult.matchedOptionValue ('i', null) != null;
+        detectSettings.pruneOutputs = parseResult.matchedOptionValue ('r', null) != null;
+        if (detectSettings.pruneOutputs && !detectSettings.incremental)
+        {
+            System.err.println (Functions.getMessage ("IDS_CLI_PRUNE_NEEDS_INCREMENTAL"));
+            return 0;
+        }
 
         this.backend.detect (detector, creator, detectSettings, detectPerformances, onlyAnalyse);
 
@@ -0,0 +1,426 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+
+/**
+ * The manifest of an incremental conversion. It is stored in the output folder and contains for
+ * each converted source file the size and modification date of the file and of the sample files it
+ * references as well as the output files which were created from it. Furthermore, it contains the
+ * identity of the conversion (detector, creator and all settings). If a source file, its' samples
+ * and the settings did not change and all its' output files still exist, it does not need to be
+ * converted again. Otherwise, its' previous output files are removed before it is converted, since
+ * the creators would add a number to the names of the new files.
+ *
+ * The output files are the files and folders which the creator reported for a source. If the
+ * identity of the conversion changed, the files in the output folder were created with other
+ * settings or even in another format. They are only removed if outdated files should be pruned.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class ConversionManifest
+{
+    /** The name of the manifest file in the output folder. */
+    public static final String            MANIFEST_FILENAME = "ConvertWithMoss.manifest";
+
+    private static final int              VERSION           = 2;
+
+    private final File                    outputFolder;
+    private final Map<String, String>     identity;
+    private final boolean                 hasSameIdentity;
+    private final Map<String, Entry>      previousEntries   = new HashMap<> ();
+    private final Map<String, Entry>      upToDateEntries   = new LinkedHashMap<> ();
+    private final Map<String, Conversion> conversions       = new LinkedHashMap<> ();
+
+
+    /**
+     * Constructor. Reads the manifest of the previous conversion if there is one. If the identity of
+     * the previous conversion is different, its' output files are only replaced or removed if
+     * outdated files should be pruned. Otherwise, they are treated like any other foreign file in
+     * the output folder.
+     *
+     * @param outputFolder The output folder which contains the manifest
+     * @param identity The detector, creator and settings of the conversion
+     * @param prune True to remove the outdated output files
+     * @throws IOException Could not read the manifest
+     */
+    public ConversionManifest (final File outputFolder, final Map<String, String> identity, final boolean prune) throws IOException
+    {
+        this.outputFolder = outputFolder;
+        this.identity = new TreeMap<> (identity);
+        this.hasSameIdentity = this.read ();
+        if (!this.hasSameIdentity && !prune)
+            this.previousEntries.clear ();
+    }
+
+
+    /**
+     * Check if the settings of the conversion are identical to the previous conversion.
+     *
+     * @return True if identical or if there was no previous conversion
+     */
+    public boolean hasSameIdentity ()
+    {
+        return this.hasSameIdentity;
+    }
+
+
+    /**
+     * Check if the output files of a source file are up to date. This is the case if the settings,
+     * the source file and its' samples did not change since the previous conversion and all output
+     * files still exist.
+     *
+     * @param sourceFile The source file
+     * @return True if the source file does not need to be converted again
+     */
+    public synchronized boolean isUpToDate (final File sourceFile)
+    {
+        final String key = sourceFile.getAbsolutePath ();
+        final Entry entry = this.previousEntries.get (key);
+        if (!this.hasSameIdentity || entry == null || entry.source == null || !entry.source.equals (Fingerprint.of (sourceFile)) || entry.outputs.isEmpty ())
+            return false;
+        for (final Map.Entry<String, Fingerprint> dependency: entry.dependencies.entrySet ())
+            if (!dependency.getValue ().equals (Fingerprint.of (new File (dependency.getKey ()))))
+                return false;
+        for (final String output: entry.outputs)
+            if (!new File (this.outputFolder, output).exists ())
+                return false;
+
+        this.upToDateEntries.put (key, entry);
+        return true;
+    }
+
+
+    /**
+     * Removes the output files of the previous conversion of a source file, which are not created
+     * by another source file as well (e.g. a sample with the same name in a shared sample folder).
+     *
+     * @param sourceFile The source file
+     * @return The number of removed files
+     */
+    public synchronized int removePreviousOutputs (final File sourceFile)
+    {
+        final String key = sourceFile.getAbsolutePath ();
+        final Entry entry = this.previousEntries.get (key);
+        if (entry == null)
+            return 0;
+
+        final Set<String> outputs = new TreeSet<> (entry.outputs);
+        for (final Map.Entry<String, Entry> other: this.previousEntries.entrySet ())
+            if (!other.getKey ().equals (key))
+                outputs.removeAll (other.getValue ().outputs);
+        return this.removeOutputFiles (outputs);
+    }
+
+
+    /**
+     * Add the conversion of a source. If several sources are read from the same source file, all
+     * their conversions are combined.
+     *
+     * @param sourceFile The source file
+     * @param dependencies The files (e.g. samples) which are referenced by the source
+     * @param outputFiles The files and folders which were created from the source
+     * @param start The time when the conversion started
+     * @param succeeded True if the output files were written without an error
+     */
+    public synchronized void addConversion (final File sourceFile, final Collection<File> dependencies, final Collection<File> outputFiles, final long start, final boolean succeeded)
+    {
+        final String key = sourceFile.getAbsolutePath ();
+        final Conversion conversion = this.conversions.computeIfAbsent (key, _ -> new Conversion ());
+        conversion.succeeded &= addFingerprint (conversion.files, sourceFile, start) && succeeded;
+        for (final File dependency: dependencies)
+            if (!dependency.equals (sourceFile))
+                conversion.succeeded &= addFingerprint (conversion.files, dependency, start);
+
+        final Path outputPath = this.outputFolder.toPath ().toAbsolutePath ().normalize ();
+        for (final File outputFile: outputFiles)
+        {
+            final Path file = outputFile.toPath ().toAbsolutePath ().normalize ();
+            if (file.startsWith (outputPath) && !file.equals (outputPath))
+                conversion.outputs.add (outputPath.relativize (file).toString ().replace (File.separatorChar, '/'));
+        }
+    }
+
+
+    /**
+     * Write the manifest. Optionally, removes the output files of source files which do not exist
+     * anymore.
+     *
+     * @param prune True to remove the outdated output files
+     * @return The number of removed output files
+     * @throws IOException Could not write the manifest
+     */
+    public synchronized int write (final boolean prune) throws IOException
+    {
+        final Map<String, Entry> entries = new TreeMap<> (this.upToDateEntries);
+        for (final Map.Entry<String, Conversion> c: this.conversions.entrySet ())
+        {
+            final String key = c.getKey ();
+            final Conversion conversion = c.getValue ();
+            final Fingerprint source = conversion.files.remove (key);
+            // A failed conversion is repeated next time
+            entries.put (key, new Entry (conversion.succeeded ? source : null, conversion.files, conversion.outputs));
+        }
+
+        final Set<String> outdatedOutputs = new TreeSet<> ();
+        for (final Map.Entry<String, Entry> p: this.previousEntries.entrySet ())
+        {
+            final String key = p.getKey ();
+            final Entry previous = p.getValue ();
+            if (entries.containsKey (key))
+                continue;
+            if (!prune || new File (key).exists ())
+            {
+                // Not detected in this run (e.g. cancelled), needs to be converted with the new
+                // settings if they were changed
+                entries.put (key, this.hasSameIdentity ? previous : new Entry (null, previous.dependencies, previous.outputs));
+            }
+            else
+                outdatedOutputs.addAll (previous.outputs);
+        }
+
+        int removed = 0;
+        if (prune)
+        {
+            for (final Entry entry: entries.values ())
+                outdatedOutputs.removeAll (entry.outputs);
+            removed = this.removeOutputFiles (outdatedOutputs);
+        }
+
+        this.writeManifest (entries);
+        return removed;
+    }
+
+
+    /**
+     * Reads the manifest of the previous conversion.
+     *
+     * @return True if there was no previous conversion or if it had the same identity
+     * @throws IOException Could not read the manifest
+     */
+    private boolean read () throws IOException
+    {
+        final File manifestFile = new File (this.outputFolder, MANIFEST_FILENAME);
+        if (!manifestFile.isFile ())
+            return true;
+
+        final JsonNode root;
+        try
+        {
+            root = new ObjectMapper ().readTree (manifestFile);
+        }
+        catch (final JsonProcessingException _)
+        {
+            // Not a valid manifest, all source files are converted and it is replaced
+            return false;
+        }
+        // Version 1 assigned the output files by their modification date, which is not reliable
+        if (root == null || root.path ("version").asInt () != VERSION)
+            return false;
+
+        for (final JsonNode sourceNode: root.path ("sources"))
+        {
+            final Map<String, Fingerprint> dependencies = new TreeMap<> ();
+            for (final JsonNode dependencyNode: sourceNode.path ("dependencies"))
+                dependencies.put (dependencyNode.path ("path").asText (), readFingerprint (dependencyNode));
+            final Set<String> outputs = new TreeSet<> ();
+            for (final JsonNode outputNode: sourceNode.path ("outputs"))
+                outputs.add (outputNode.asText ());
+            final Fingerprint source = readFingerprint (sourceNode);
+            this.previousEntries.put (sourceNode.path ("path").asText (), new Entry (source.size < 0 ? null : source, dependencies, outputs));
+        }
+
+        final Map<String, String> previousIdentity = new TreeMap<> ();
+        root.path ("identity").fields ().forEachRemaining (field -> previousIdentity.put (field.getKey (), field.getValue ().asText ()));
+        return this.previousEntries.isEmpty () || previousIdentity.equals (this.identity);
+    }
+
+
+    private void writeManifest (final Map<String, Entry> entries) throws IOException
+    {
+        final ObjectMapper mapper = new ObjectMapper ();
+        final ObjectNode root = mapper.createObjectNode ();
+        root.put ("version", VERSION);
+        final ObjectNode identityNode = root.putObject ("identity");
+        this.identity.forEach (identityNode::put);
+
+        final ArrayNode sourcesNode = root.putArray ("sources");
+        for (final Map.Entry<String, Entry> e: entries.entrySet ())
+        {
+            final Entry entry = e.getValue ();
+            final ObjectNode sourceNode = sourcesNode.addObject ();
+            sourceNode.put ("path", e.getKey ());
+            writeFingerprint (sourceNode, entry.source == null ? new Fingerprint (-1, -1) : entry.source);
+            final ArrayNode dependenciesNode = sourceNode.putArray ("dependencies");
+            for (final Map.Entry<String, Fingerprint> dependency: entry.dependencies.entrySet ())
+                writeFingerprint (dependenciesNode.addObject ().put ("path", dependency.getKey ()), dependency.getValue ());
+            final ArrayNode outputsNode = sourceNode.putArray ("outputs");
+            entry.outputs.forEach (outputsNode::add);
+        }
+
+        // Replace the previous manifest only if the new one was written completely
+        final File manifestFile = new File (this.outputFolder, MANIFEST_FILENAME);
+        final File tempFile = new File (this.outputFolder, MANIFEST_FILENAME + ".tmp");
+        mapper.writerWithDefaultPrettyPrinter ().writeValue (tempFile, root);
+        Files.move (tempFile.toPath (), manifestFile.toPath (), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+
+    /**
+     * Removes output files and the folders which are empty afterwards. Output folders are removed
+     * with all their content.
+     *
+     * @param outputs The output files relative to the output folder
+     * @return The number of removed files
+     */
+    private int removeOutputFiles (final Set<String> outputs)
+    {
+        final Path outputPath = this.outputFolder.toPath ().toAbsolutePath ().normalize ();
+        final Set<Path> folders = new HashSet<> ();
+        int removed = 0;
+        for (final String output: outputs)
+        {
+            final Path file = outputPath.resolve (output).normalize ();
+            // Never touch anything outside of the output folder
+            if (!file.startsWith (outputPath) || file.equals (outputPath))
+                continue;
+            try
+            {
+                final int count = Files.isDirectory (file) ? removeFolder (file) : Files.deleteIfExists (file) ? 1 : 0;
+                if (count > 0)
+                {
+                    removed += count;
+                    folders.add (file.getParent ());
+                }
+            }
+            catch (final IOException _)
+            {
+                // Ignore, the file is kept
+            }
+        }
+
+        for (final Path folder: folders)
+            for (Path current = folder; current != null && current.startsWith (outputPath) && !current.equals (outputPath); current = current.getParent ())
+            {
+                final String [] children = current.toFile ().list ();
+                if (children == null || children.length > 0 || !current.toFile ().delete ())
+                    break;
+            }
+        return removed;
+    }
+
+
+    /**
+     * Removes a folder with all its' content.
+     *
+     * @param folder The folder to remove
+     * @return The number of removed files
+     * @throws IOException Could not read the folder
+     */
+    private static int removeFolder (final Path folder) throws IOException
+    {
+        final int [] removed = new int [1];
+        Files.walkFileTree (folder, new SimpleFileVisitor<> ()
+        {
+            /** {@inheritDoc} */
+            @Override
+            public FileVisitResult visitFile (final Path file, final BasicFileAttributes attributes)
+            {
+                if (file.toFile ().delete ())
+                    removed[0]++;
+                return FileVisitResult.CONTINUE;
+            }
+
+
+            /** {@inheritDoc} */
+            @Override
+            public FileVisitResult visitFileFailed (final Path file, final IOException ex)
+            {
+                return FileVisitResult.CONTINUE;
+            }
+
+
+            /** {@inheritDoc} */
+            @Override
+            public FileVisitResult postVisitDirectory (final Path directory, final IOException ex)
+            {
+                // Fails and keeps the folder if one of its' files could not be removed
+                directory.toFile ().delete ();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return removed[0];
+    }
+
+
+    private static boolean addFingerprint (final Map<String, Fingerprint> files, final File file, final long start)
+    {
+        final Fingerprint fingerprint = Fingerprint.of (file);
+        files.put (file.getAbsolutePath (), fingerprint);
+        // Modified while it was converted
+        return fingerprint.lastModified < start;
+    }
+
+
+    private static Fingerprint readFingerprint (final JsonNode node)
+    {
+        return new Fingerprint (node.path ("size").asLong (-1), node.path ("modified").asLong (-1));
+    }
+
+
+    private static void writeFingerprint (final ObjectNode node, final Fingerprint fingerprint)
+    {
+        node.put ("size", fingerprint.size);
+        node.put ("modified", fingerprint.lastModified);
+    }
+
+
+    /** The conversions of the sources of one source file in this run. */
+    private static class Conversion
+    {
+        final Map<String, Fingerprint> files     = new TreeMap<> ();
+        final Set<String>              outputs   = new TreeSet<> ();
+        boolean                        succeeded = true;
+    }
+
+
+    private record Fingerprint (long size, long lastModified)
+    {
+        static Fingerprint of (final File file)
+        {
+            return new Fingerprint (file.length (), file.lastModified ());
+        }
+    }
+
+
+    /** A source file entry of the manifest. The fingerprint of the source is null if it needs to be converted again. */
+    private record Entry (Fingerprint source, Map<String, Fingerprint> dependencies, Set<String> outputs)
+    {
+        // Intentionally empty
+    }
+}
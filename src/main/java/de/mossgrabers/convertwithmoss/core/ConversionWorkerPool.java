@@ -0,0 +1,119 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.mossgrabers.convertwithmoss.core.OrderedNotifier.Section;
+
+
+/**
+ * A bounded pool of worker threads which processes and writes independent multi-sample or
+ * performance sources in parallel. Submitting blocks as long as all workers are busy and the queue
+ * of waiting sources is full, which keeps the number of parsed sources in memory limited. The log
+ * output of each source is written in the order in which the sources were submitted.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class ConversionWorkerPool
+{
+    private final OrderedNotifier notifier;
+    private final ExecutorService executor;
+    private final int             maxPendingTasks;
+    private final Semaphore       pendingTasks;
+    private final AtomicBoolean   isCancelled = new AtomicBoolean (false);
+
+
+    /**
+     * Constructor.
+     *
+     * @param numberOfThreads The number of worker threads
+     * @param notifier The notifier which keeps the order of the log output
+     */
+    public ConversionWorkerPool (final int numberOfThreads, final OrderedNotifier notifier)
+    {
+        this.notifier = notifier;
+        this.executor = Executors.newFixedThreadPool (numberOfThreads);
+        // Allows one waiting source per worker so that the workers never run idle
+        this.maxPendingTasks = 2 * numberOfThreads;
+        this.pendingTasks = new Semaphore (this.maxPendingTasks);
+    }
+
+
+    /**
+     * Executes the given task on one of the workers. Must always be called from the same (the
+     * detector) thread. Blocks if the maximum number of pending tasks is reached.
+     *
+     * @param task The task to execute
+     */
+    public void submit (final Runnable task)
+    {
+        this.pendingTasks.acquireUninterruptibly ();
+
+        // The output of the detector which was logged before is placed before the output of the
+        // task, everything the detector logs afterwards goes into a new section after the task
+        final Section previousSection = this.notifier.getAttachedSection ();
+        final Section taskSection = this.notifier.openSection ();
+        this.notifier.attach (this.notifier.openSection ());
+        if (previousSection != null)
+            this.notifier.closeSection (previousSection);
+
+        this.executor.execute (() -> {
+            this.notifier.attach (taskSection);
+            try
+            {
+                if (!this.isCancelled.get ())
+                    task.run ();
+            }
+            catch (final RuntimeException | OutOfMemoryError err)
+            {
+                this.notifier.logError (err);
+            }
+            finally
+            {
+                this.notifier.attach (null);
+                this.notifier.closeSection (taskSection);
+                this.pendingTasks.release ();
+            }
+        });
+    }
+
+
+    /**
+     * Waits until all submitted tasks are finished and their output is written. Must be called
+     * from the thread which submitted the tasks.
+     */
+    public void awaitCompletion ()
+    {
+        final Section section = this.notifier.getAttachedSection ();
+        this.notifier.attach (null);
+        if (section != null)
+            this.notifier.closeSection (section);
+
+        this.pendingTasks.acquireUninterruptibly (this.maxPendingTasks);
+        this.pendingTasks.release (this.maxPendingTasks);
+    }
+
+
+    /**
+     * Cancel all tasks which did not start yet.
+     */
+    public void cancel ()
+    {
+        this.isCancelled.set (true);
+    }
+
+
+    /**
+     * Stop all worker threads after the submitted tasks are finished.
+     */
+    public void shutdown ()
+    {
+        this.executor.shutdown ();
+    }
+}
@@ -9,8 +9,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.sound.sampled.UnsupportedAudioFileException;
 
@@ -23,9 +27,17 @@ import de.mossgrabers.convertwithmoss.core.detector.IDetector;
 import de.mossgrabers.convertwithmoss.core.model.IEnvelope;
 import de.mossgrabers.convertwithmoss.core.model.IGroup;
 import de.mossgrabers.convertwithmoss.core.model.ISampleLoop;
+import de.mossgrabers.convertwithmoss.core.model.ISampleData;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
+import de.mossgrabers.convertwithmoss.core.model.implementation.AbstractFileSampleData;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultEnvelope;
 import de.mossgrabers.convertwithmoss.core.settings.ICoreTaskSettings;
+import de.mossgrabers.convertwithmoss.file.AudioFileHeader;
+import de.mossgrabers.convertwithmoss.file.AudioFileUtils;
+import de.mossgrabers.convertwithmoss.file.DecodedSampleCache;
+import de.mossgrabers.convertwithmoss.file.FileNameIndex;
+import de.mossgrabers.convertwithmoss.file.ZipFileCache;
+import de.mossgrabers.convertwithmoss.file.wav.WaveFileCache;
 import de.mossgrabers.convertwithmoss.format.ableton.AbletonCreator;
 import de.mossgrabers.convertwithmoss.format.ableton.AbletonDetector;
 import de.mossgrabers.convertwithmoss.format.akai.akp.AkpDetector;
@@ -115,8 +127,9 @@ import de.mossgrabers.tools.ui.Functions;
 public class ConverterBackend
 {
     private static final String            IDS_NOTIFY_SAVE_FAILED      = "IDS_NOTIFY_SAVE_FAILED";
+    private static final String            IDS_NOTIFY_MANIFEST_ERROR   = "IDS_NOTIFY_INCREMENTAL_MANIFEST_ERROR";
 
-    protected INotifier                    notifier;
+    protected OrderedNotifier              notifier;
     protected final List<IDetector<?>>     detectors;
     protected final List<ICreator<?>>      creators;
 
@@ -124,6 +137,9 @@ public class ConverterBackend
     private ICreator<?>                    creator;
     private DetectSettings                 detectionSettings;
     private boolean                        onlyAnalyse;
+    private volatile ConversionWorkerPool  workerPool;
+    private ConversionManifest             manifest;
+    private File                           currentSourceFile;
 
     private final List<IMultisampleSource> collectedPresetSources      = new ArrayList<> ();
     private final List<IPerformanceSource> collectedPerformanceSources = new ArrayList<> ();
@@ -132,10 +148,12 @@ public class ConverterBackend
     /**
      * Constructor.
      *
-     * @param notifier The notifier for log-feedback
+     * @param outputNotifier The notifier for log-feedback
      */
-    public ConverterBackend (final INotifier notifier)
+    public ConverterBackend (final INotifier outputNotifier)
     {
+        // Keeps the output in order if the sources are converted in parallel
+        final OrderedNotifier notifier = new OrderedNotifier (outputNotifier);
         this.notifier = notifier;
 
         // Workaround for attribute limit of 200 which e.g. causes issues with TAL Sampler format
@@ -263,6 +281,8 @@ public class ConverterBackend
         this.detectionSettings = detectionSettings;
         this.onlyAnalyse = onlyAnalyse;
 
+        AudioFileUtils.setResampleQuality (detectionSettings.resampleQuality);
+
         this.collectedPresetSources.clear ();
         this.collectedPerformanceSources.clear ();
 
@@ -272,6 +292,27 @@ public class ConverterBackend
         else
             this.notifier.log ("IDS_NOTIFY_DETECTING", detector.getName (), creator.getName ());
         this.creator.clearCancelled ();
+
+        // Presets are processed and written in parallel if the creator supports it; parsing
+        // stays on the detector thread since detectors keep state while reading a file
+        this.workerPool = null;
+        if (detectionSettings.numberOfThreads > 1 && !onlyAnalyse)
+        {
+            if (creator.supportsParallelCreation ())
+            {
+                this.notifier.log ("IDS_NOTIFY_PARALLEL_CONVERSION", Integer.toString (detectionSettings.numberOfThreads));
+                this.workerPool = new ConversionWorkerPool (detectionSettings.numberOfThreads, this.notifier);
+            }
+            else
+                this.notifier.log ("IDS_NOTIFY_PARALLEL_NOT_SUPPORTED", creator.getName ());
+        }
+
+        // Only convert the source files which changed since the previous conversion
+        this.manifest = null;
+        this.currentSourceFile = null;
+        if (detectionSettings.incremental && !onlyAnalyse)
+            this.createManifest (detectionSettings, detectPerformances);
+        this.detector.setSourceFileFilter (this.manifest == null ? null : this::acceptSourceFile);
         this.detector.detect (detectionSettings.sourceFolder, this::acceptMultisample, this::acceptPerformance, detectPerformances);
     }
 
@@ -283,6 +324,9 @@ public class ConverterBackend
     {
         this.detector.cancel ();
         this.creator.cancel ();
+        final ConversionWorkerPool pool = this.workerPool;
+        if (pool != null)
+            pool.cancel ();
     }
 
 
@@ -293,6 +337,13 @@ public class ConverterBackend
      */
     public void finish (final boolean cancelled)
     {
+        if (this.workerPool != null)
+        {
+            this.workerPool.awaitCompletion ();
+            this.workerPool.shutdown ();
+            this.workerPool = null;
+        }
+
         if (!cancelled && !this.onlyAnalyse)
             try
             {
@@ -312,6 +363,22 @@ public class ConverterBackend
                 this.notifier.logError (IDS_NOTIFY_SAVE_FAILED, ex);
             }
 
+        this.writeManifest (cancelled);
+
+        // Release the ZIP files which were kept open for reading the samples
+        try
+        {
+            ZipFileCache.closeAll ();
+        }
+        catch (final IOException ex)
+        {
+            this.notifier.logError (ex);
+        }
+        WaveFileCache.clear ();
+        AudioFileHeader.clearCache ();
+        FileNameIndex.clear ();
+        DecodedSampleCache.clear ();
+
         this.notifier.log (cancelled ? "IDS_NOTIFY_CANCELLED" : "IDS_NOTIFY_FINISHED");
     }
 
@@ -321,12 +388,30 @@ public class ConverterBackend
         if (this.detector.isCancelled ())
             return;
 
+        // Add it on the detector thread to keep the order of the library identical to the order
+        // of the source files
+        if (this.detectionSettings.wantsMultipleFiles && !this.onlyAnalyse)
+            this.collectedPresetSources.add (multisampleSource);
+
+        final File sourceFile = this.currentSourceFile;
+        if (this.workerPool == null)
+            this.convertMultisample (multisampleSource, sourceFile);
+        else
+            this.workerPool.submit (() -> this.convertMultisample (multisampleSource, sourceFile));
+    }
+
+
+    private void convertMultisample (final IMultisampleSource multisampleSource, final File sourceFile)
+    {
+        if (this.detector.isCancelled ())
+            return;
+
+        // Collect the sample files before the processing replaces them
+        final Set<File> sampleFiles = this.getSampleFiles (List.of (multisampleSource));
         this.processSource (multisampleSource);
 
         if (this.detectionSettings.wantsMultipleFiles)
         {
-            if (!this.onlyAnalyse)
-                this.collectedPresetSources.add (multisampleSource);
             this.notifier.log ("IDS_NOTIFY_COLLECTING", multisampleSource.getName ());
             return;
         }
@@ -337,10 +422,15 @@ public class ConverterBackend
             return;
         }
 
+        final long start = System.currentTimeMillis ();
+        final List<File> outputFiles = new ArrayList<> ();
+        boolean succeeded = false;
+        this.creator.setOutputFileCollector (outputFiles);
         try
         {
             final File multisampleOutputFolder = calcOutputFolder (this.detectionSettings.outputFolder, multisampleSource.getSubPath (), this.detectionSettings.createFolderStructure);
             this.creator.createPreset (multisampleOutputFolder, multisampleSource);
+            succeeded = true;
         }
         catch (final NoSuchFileException | FileNotFoundException ex)
         {
@@ -350,25 +440,47 @@ public class ConverterBackend
         {
             this.notifier.logError (IDS_NOTIFY_SAVE_FAILED, ex);
         }
+        finally
+        {
+            this.creator.setOutputFileCollector (null);
+        }
+        this.addConversion (sourceFile, sampleFiles, outputFiles, start, succeeded);
     }
 
 
     private void acceptPerformance (final IPerformanceSource performanceSource)
     {
-        if (this.detector.isCancelled ())
+        if (this.detector.isCancelled () || performanceSource.getInstruments ().isEmpty ())
             return;
 
-        final List<IInstrumentSource> instrumentSources = performanceSource.getInstruments ();
-        if (instrumentSources.isEmpty ())
+        // Add it on the detector thread to keep the order of the library identical to the order
+        // of the source files
+        if (this.detectionSettings.wantsMultipleFiles && !this.onlyAnalyse)
+            this.collectedPerformanceSources.add (performanceSource);
+
+        final File sourceFile = this.currentSourceFile;
+        if (this.workerPool == null)
+            this.convertPerformance (performanceSource, sourceFile);
+        else
+            this.workerPool.submit (() -> this.convertPerformance (performanceSource, sourceFile));
+    }
+
+
+    private void convertPerformance (final IPerformanceSource performanceSource, final File sourceFile)
+    {
+        if (this.detector.isCancelled ())
             return;
 
+        final List<IInstrumentSource> instrumentSources = performanceSource.getInstruments ();
+        final List<IMultisampleSource> multisampleSources = new ArrayList<> ();
+        for (final IInstrumentSource instrumentSource: instrumentSources)
+            multisampleSources.add (instrumentSource.getMultisampleSource ());
+        final Set<File> sampleFiles = this.getSampleFiles (multisampleSources);
         for (final IInstrumentSource instrumentSource: instrumentSources)
             this.processSource (instrumentSource.getMultisampleSource ());
 
         if (this.detectionSettings.wantsMultipleFiles)
         {
-            if (!this.onlyAnalyse)
-                this.collectedPerformanceSources.add (performanceSource);
             this.notifier.log ("IDS_NOTIFY_COLLECTING", performanceSource.getName ());
             return;
         }
@@ -379,10 +491,15 @@ public class ConverterBackend
             return;
         }
 
+        final long start = System.currentTimeMillis ();
+        final List<File> outputFiles = new ArrayList<> ();
+        boolean succeeded = false;
+        this.creator.setOutputFileCollector (outputFiles);
         try
         {
             final File multisampleOutputFolder = calcOutputFolder (this.detectionSettings.outputFolder, instrumentSources.get (0).getMultisampleSource ().getSubPath (), this.detectionSettings.createFolderStructure);
             this.creator.createPerformance (multisampleOutputFolder, performanceSource);
+            succeeded = true;
         }
         catch (final NoSuchFileException | FileNotFoundException ex)
         {
@@ -392,6 +509,123 @@ public class ConverterBackend
         {
             this.notifier.logError (IDS_NOTIFY_SAVE_FAILED, ex);
         }
+        finally
+        {
+            this.creator.setOutputFileCollector (null);
+        }
+        this.addConversion (sourceFile, sampleFiles, outputFiles, start, succeeded);
+    }
+
+
+    /**
+     * Reads the manifest of the previous conversion from the output folder. The conversion is
+     * identified by the detector, the creator, the source folder and all settings which have an
+     * effect on the created files.
+     *
+     * @param detectionSettings The settings for the detection process
+     * @param detectPerformances If true, performances are detected otherwise presets
+     */
+    private void createManifest (final DetectSettings detectionSettings, final boolean detectPerformances)
+    {
+        // A library combines all sources into one file which needs to be written completely
+        if (detectionSettings.wantsMultipleFiles)
+        {
+            this.notifier.log ("IDS_NOTIFY_INCREMENTAL_NOT_SUPPORTED", this.creator.getName ());
+            return;
+        }
+
+        final Map<String, String> identity = detectionSettings.getConversionSettings ();
+        identity.put ("Detector", this.detector.getClass ().getName ());
+        identity.put ("Creator", this.creator.getClass ().getName ());
+        identity.put ("SourceFolder", detectionSettings.sourceFolder.getAbsolutePath ());
+        identity.put ("Performances", Boolean.toString (detectPerformances));
+        try
+        {
+            this.manifest = new ConversionManifest (detectionSettings.outputFolder, identity, detectionSettings.pruneOutputs);
+            if (!this.manifest.hasSameIdentity ())
+                this.notifier.log (detectionSettings.pruneOutputs ? "IDS_NOTIFY_INCREMENTAL_SETTINGS_CHANGED" : "IDS_NOTIFY_INCREMENTAL_SETTINGS_CHANGED_KEEP");
+        }
+        catch (final IOException | RuntimeException ex)
+        {
+            this.notifier.logError (IDS_NOTIFY_MANIFEST_ERROR, ex);
+        }
+    }
+
+
+    /**
+     * Called by the detector before a source file is read. Skips the file if its' output files are
+     * up to date, otherwise the output files of the previous conversion are removed.
+     *
+     * @param sourceFile The source file
+     * @return True if the source file needs to be converted
+     */
+    private boolean acceptSourceFile (final File sourceFile)
+    {
+        if (this.manifest.isUpToDate (sourceFile))
+        {
+            this.notifier.log ("IDS_NOTIFY_INCREMENTAL_UNCHANGED", sourceFile.getAbsolutePath ());
+            this.currentSourceFile = null;
+            return false;
+        }
+        this.manifest.removePreviousOutputs (sourceFile);
+        this.currentSourceFile = sourceFile;
+        return true;
+    }
+
+
+    private void addConversion (final File sourceFile, final Set<File> sampleFiles, final List<File> outputFiles, final long start, final boolean succeeded)
+    {
+        if (this.manifest != null && sourceFile != null)
+            this.manifest.addConversion (sourceFile, sampleFiles, outputFiles, start, succeeded);
+    }
+
+
+    /**
+     * Writes the manifest of the incremental conversion and removes the outdated output files if
+     * enabled.
+     *
+     * @param cancelled True if the process was cancelled, no files are removed in that case
+     */
+    private void writeManifest (final boolean cancelled)
+    {
+        if (this.manifest == null)
+            return;
+
+        try
+        {
+            final int removed = this.manifest.write (this.detectionSettings.pruneOutputs && !cancelled);
+            if (removed > 0)
+                this.notifier.log ("IDS_NOTIFY_INCREMENTAL_PRUNED", Integer.toString (removed));
+        }
+        catch (final IOException | RuntimeException ex)
+        {
+            this.notifier.logError (IDS_NOTIFY_MANIFEST_ERROR, ex);
+        }
+        this.manifest = null;
+    }
+
+
+    /**
+     * Get the files from which the samples of the sources are read.
+     *
+     * @param multisampleSources The sources
+     * @return The sample files, empty if the incremental mode is off
+     */
+    private Set<File> getSampleFiles (final Collection<IMultisampleSource> multisampleSources)
+    {
+        final Set<File> sampleFiles = new HashSet<> ();
+        if (this.manifest == null)
+            return sampleFiles;
+
+        for (final IMultisampleSource multisampleSource: multisampleSources)
+            for (final IGroup group: multisampleSource.getGroups ())
+                for (final ISampleZone zone: group.getSampleZones ())
+                {
+                    final Optional<ISampleData> sampleData = zone.getSampleData ();
+                    if (sampleData.isPresent () && sampleData.get () instanceof final AbstractFileSampleData fileSampleData)
+                        fileSampleData.getSourceFile ().ifPresent (sampleFiles::add);
+                }
+        return sampleFiles;
     }
 
 
@@ -492,10 +726,12 @@ public class ConverterBackend
                 this.notifier.log ("IDS_PROCESSING_REDUCE_FREQUENCY_TO", Integer.toString (this.detectionSettings.reduceFrequency));
             if (this.detectionSettings.alwaysResample)
                 this.notifier.log ("IDS_PROCESSING_ALWAYS_RESAMPLE");
+            if (this.detectionSettings.reduceFrequency > 0)
+                this.notifier.log ("IDS_PROCESSING_RESAMPLE_QUALITY_LOG", this.detectionSettings.resampleQuality.toString ());
             if (this.detectionSettings.enableNormalize)
                 this.notifier.log ("IDS_PROCESSING_NORMALIZING");
             this.notifier.log ("IDS_NOTIFY_LINE_FEED");
-            AudioSampleReducer.reduceSamples (sampleZones, this.detectionSettings.enableMakeMono, this.detectionSettings.enableTrimSample, this.detectionSettings.reduceBitDepth, this.detectionSettings.reduceFrequency, this.detectionSettings.alwaysResample, this.detectionSettings.enableNormalize);
+            AudioSampleReducer.reduceSamples (sampleZones, this.detectionSettings.enableMakeMono, this.detectionSettings.enableTrimSample, this.detectionSettings.reduceBitDepth, this.detectionSettings.reduceFrequency, this.detectionSettings.alwaysResample, this.detectionSettings.resampleQuality, this.detectionSettings.enableNormalize);
 
             // -----------------------------------------------------------
             // Snap forward loop boundaries to zero-crossings to remove loop clicks
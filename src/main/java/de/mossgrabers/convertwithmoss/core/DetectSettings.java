@@ -5,6 +5,15 @@
 package de.mossgrabers.convertwithmoss.core;
 
 import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.mossgrabers.convertwithmoss.core.algorithm.Resampler.Quality;
+import de.mossgrabers.convertwithmoss.core.settings.ICoreTaskSettings;
 
 
 /**
@@ -15,15 +24,23 @@ import java.io.File;
 public class DetectSettings
 {
     /** The folder where to start the detection process. */
-    public File    sourceFolder;
+    public File                sourceFolder;
     /** Where to write the result to. */
-    public File    outputFolder;
+    public File                outputFolder;
     /** The name to use in case that a library will be created. */
-    public String  libraryName;
+    public String              libraryName;
     /** True, if all files should be returned at once. */
-    public boolean wantsMultipleFiles;
+    public boolean             wantsMultipleFiles;
     /** True, if the source folder structure should be replicated in the output folder. */
-    public boolean createFolderStructure;
+    public boolean             createFolderStructure;
+    /** The number of threads to process and write sources in parallel. 1 is sequential. */
+    public int                 numberOfThreads = 1;
+    /** True, to only convert source files which were changed since the previous conversion. */
+    public boolean             incremental;
+    /** True, to remove output files of source files which do not exist anymore. */
+    public boolean             pruneOutputs;
+    /** The settings of the detector and creator, identify the conversion for the incremental mode. */
+    public Map<String, String> taskParameters  = new HashMap<> ();
 
     // Parameters for Processing
 
@@ -43,6 +60,8 @@ public class DetectSettings
     public int     reduceFrequency    = 0;
     /** Does up-sampling as well. */
     public boolean alwaysResample     = false;
+    /** The quality of changing the sample frequency. */
+    public Quality resampleQuality    = Quality.HIGH;
     /** The fixed loop cross-fade. 0 is off. */
     public int     loopCrossfades     = 0;
     /** Snap forward loop boundaries to the nearest zero-crossing to avoid loop clicks. */
@@ -60,4 +79,87 @@ public class DetectSettings
     {
         return this.enableProcessing && (this.maxNumberOfSamples > 0 || this.enableMakeMono || this.enableTrimSample || this.reduceBitDepth > 0 || this.reduceFrequency > 0 || this.enableNormalize || this.loopCrossfades > 0 || this.snapLoopsToZero || this.transposeSemitones != 0);
     }
+
+
+    /**
+     * Set the task parameters from the effective settings of the detector and creator. These are the
+     * values which were taken over from the user interface respectively the command line (including
+     * all defaults) when the settings were checked. Therefore, identical settings result in
+     * identical parameters, independent from where they were set.
+     *
+     * @param detectorSettings The checked settings of the detector
+     * @param creatorSettings The checked settings of the creator
+     */
+    public void setTaskParameters (final ICoreTaskSettings detectorSettings, final ICoreTaskSettings creatorSettings)
+    {
+        this.taskParameters = new TreeMap<> ();
+        addEffectiveSettings (this.taskParameters, "Detector.", detectorSettings);
+        addEffectiveSettings (this.taskParameters, "Creator.", creatorSettings);
+    }
+
+
+    /**
+     * Get all settings which have an effect on the created files.
+     *
+     * @return The settings as key/value pairs
+     */
+    public Map<String, String> getConversionSettings ()
+    {
+        final Map<String, String> settings = new TreeMap<> ();
+        this.taskParameters.forEach ((key, value) -> settings.put ("Task." + key, value));
+        settings.put ("CreateFolderStructure", Boolean.toString (this.createFolderStructure));
+        // Also used if a destination format requires a different sample rate
+        settings.put ("Processing.ResampleQuality", this.resampleQuality.name ());
+        if (!this.needsProcessing ())
+            return settings;
+
+        settings.put ("Processing.Normalize", Boolean.toString (this.enableNormalize));
+        settings.put ("Processing.MakeMono", Boolean.toString (this.enableMakeMono));
+        settings.put ("Processing.TrimSample", Boolean.toString (this.enableTrimSample));
+        settings.put ("Processing.MaxNumberOfSamples", Integer.toString (this.maxNumberOfSamples));
+        settings.put ("Processing.ReduceBitDepth", Integer.toString (this.reduceBitDepth));
+        settings.put ("Processing.ReduceFrequency", Integer.toString (this.reduceFrequency));
+        settings.put ("Processing.AlwaysResample", Boolean.toString (this.alwaysResample));
+        settings.put ("Processing.LoopCrossfades", Integer.toString (this.loopCrossfades));
+        settings.put ("Processing.SnapLoopsToZero", Boolean.toString (this.snapLoopsToZero));
+        settings.put ("Processing.TransposeSemitones", Integer.toString (this.transposeSemitones));
+        return settings;
+    }
+
+
+    /**
+     * Adds the values of all fields of the settings which hold a value (and not e.g. a widget).
+     *
+     * @param parameters Where to add the values
+     * @param prefix The prefix for the names of the values
+     * @param settings The settings
+     */
+    private static void addEffectiveSettings (final Map<String, String> parameters, final String prefix, final ICoreTaskSettings settings)
+    {
+        for (Class<?> settingsClass = settings.getClass (); settingsClass != null && settingsClass != Object.class; settingsClass = settingsClass.getSuperclass ())
+            for (final Field field: settingsClass.getDeclaredFields ())
+            {
+                if (Modifier.isStatic (field.getModifiers ()) || !isValueType (field.getType ()))
+                    continue;
+                try
+                {
+                    field.setAccessible (true);
+                    final Object value = field.get (settings);
+                    final String text = value instanceof final Object [] array ? Arrays.toString (array) : String.valueOf (value);
+                    parameters.put (prefix + settingsClass.getSimpleName () + "." + field.getName (), value == null ? "" : text);
+                }
+                catch (final ReflectiveOperationException | RuntimeException _)
+                {
+                    // Not accessible, ignore
+                }
+            }
+    }
+
+
+    private static boolean isValueType (final Class<?> type)
+    {
+        if (type.isArray ())
+            return isValueType (type.getComponentType ());
+        return type.isPrimitive () || type.isEnum () || type == String.class || type == File.class || Number.class.isAssignableFrom (type) || type == Boolean.class;
+    }
 }
@@ -0,0 +1,205 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+
+/**
+ * A notifier which keeps the log output of tasks, which run in parallel, in the order in which the
+ * tasks were started. Each task writes into its' own section. The output of the oldest section is
+ * passed on directly to the wrapped notifier, the output of all younger sections is buffered until
+ * all older sections are closed. Threads which are not attached to a section are passed through.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class OrderedNotifier implements INotifier
+{
+    private final INotifier            delegate;
+    private final Object               lock           = new Object ();
+    private final Deque<Section>       sections       = new ArrayDeque<> ();
+    private final ThreadLocal<Section> currentSection = new ThreadLocal<> ();
+
+
+    /**
+     * A section of the log output.
+     */
+    public static final class Section
+    {
+        private final List<Consumer<INotifier>> buffered = new ArrayList<> ();
+        private boolean                         isClosed = false;
+
+
+        /**
+         * Constructor.
+         */
+        Section ()
+        {
+            // Only created by the notifier
+        }
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param delegate The notifier to which to pass on the ordered output
+     */
+    public OrderedNotifier (final INotifier delegate)
+    {
+        this.delegate = delegate;
+    }
+
+
+    /**
+     * Appends a new section at the end of the output order.
+     *
+     * @return The new section
+     */
+    public Section openSection ()
+    {
+        synchronized (this.lock)
+        {
+            final Section section = new Section ();
+            this.sections.addLast (section);
+            return section;
+        }
+    }
+
+
+    /**
+     * Route all log output of the current thread into the given section.
+     *
+     * @param section The section, null to pass through the output of the thread directly
+     */
+    public void attach (final Section section)
+    {
+        if (section == null)
+            this.currentSection.remove ();
+        else
+            this.currentSection.set (section);
+    }
+
+
+    /**
+     * Get the section to which the current thread is attached.
+     *
+     * @return The section or null if not attached
+     */
+    public Section getAttachedSection ()
+    {
+        return this.currentSection.get ();
+    }
+
+
+    /**
+     * Closes the given section. If it is the oldest section, the output of all following closed
+     * sections is written as well.
+     *
+     * @param section The section to close
+     */
+    public void closeSection (final Section section)
+    {
+        synchronized (this.lock)
+        {
+            section.isClosed = true;
+
+            while (!this.sections.isEmpty () && this.sections.peekFirst ().isClosed)
+            {
+                this.sections.removeFirst ();
+
+                // The next section is now the oldest one, write everything it has collected
+                final Section next = this.sections.peekFirst ();
+                if (next != null)
+                {
+                    for (final Consumer<INotifier> call: next.buffered)
+                        call.accept (this.delegate);
+                    next.buffered.clear ();
+                }
+            }
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void log (final String messageID, final String... replaceStrings)
+    {
+        this.dispatch (notifier -> notifier.log (messageID, replaceStrings));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logError (final String messageID, final String... replaceStrings)
+    {
+        this.dispatch (notifier -> notifier.logError (messageID, replaceStrings));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logError (final String messageID, final Throwable throwable)
+    {
+        this.dispatch (notifier -> notifier.logError (messageID, throwable));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logError (final Throwable throwable)
+    {
+        this.dispatch (notifier -> notifier.logError (throwable));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logError (final Throwable throwable, final boolean logExceptionStack)
+    {
+        this.dispatch (notifier -> notifier.logError (throwable, logExceptionStack));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void logText (final String text)
+    {
+        this.dispatch (notifier -> notifier.logText (text));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void updateButtonStates (final boolean canClose)
+    {
+        this.delegate.updateButtonStates (canClose);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void finished (final boolean cancelled)
+    {
+        this.delegate.finished (cancelled);
+    }
+
+
+    private void dispatch (final Consumer<INotifier> call)
+    {
+        final Section section = this.currentSection.get ();
+        synchronized (this.lock)
+        {
+            if (section == null || this.sections.peekFirst () == section)
+                call.accept (this.delegate);
+            else
+                section.buffered.add (call);
+        }
+    }
+}
@@ -4,33 +4,42 @@
 
 package de.mossgrabers.convertwithmoss.core.algorithm;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
-import javax.sound.sampled.AudioFileFormat;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
-import de.mossgrabers.convertwithmoss.core.model.IAudioMetadata;
 import de.mossgrabers.convertwithmoss.core.model.ISampleData;
 import de.mossgrabers.convertwithmoss.core.model.ISampleLoop;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
+import de.mossgrabers.convertwithmoss.file.SampleBuffer;
+import de.mossgrabers.convertwithmoss.file.wav.DataChunk;
+import de.mossgrabers.convertwithmoss.file.wav.FormatChunk;
+import de.mossgrabers.convertwithmoss.file.wav.WaveFile;
 import de.mossgrabers.convertwithmoss.format.wav.WavFileSampleData;
 
 
 /**
- * Helper class to reduce the size of samples in different ways.
+ * Helper class to reduce the size of samples in different ways. Each sample is decoded and streamed
+ * in chunks through all enabled processing steps (trim, mono, bit depth, sample rate, normalize)
+ * into its final result buffer. The sample rate is converted with the {@link Resampler}. If the
+ * samples are normalized, a first pass streams all samples through the same steps to find the
+ * loudest peak without keeping any result. Only the WAV data of the sample which is currently
+ * processed is kept in memory in addition to the results.
  *
  * @author Jürgen Moßgraber
  */
 public class AudioSampleReducer
 {
+    private static final int CHUNK_SIZE = 0x10000;
+
+
     /**
      * Constructor. Private due to helper class.
      */
@@ -49,124 +58,97 @@ public class AudioSampleReducer
      * @param reduceBitDepth Maximum bit-depth to reduce to, negative to ignore
      * @param reduceFrequency Maximum sample rate to reduce to, negative to ignore
      * @param alwaysResample If true, do up-sample as well
+     * @param resampleQuality The quality to use for changing the sample rate
      * @param enableNormalize True to normalize all samples (across all samples)
      * @throws IOException Could not read a sample
      * @throws UnsupportedAudioFileException Can't happen since only WAV files are supported
      */
-    public static void reduceSamples (final List<ISampleZone> sampleZones, final boolean enableMakeMono, final boolean enableTrimSample, final int reduceBitDepth, final int reduceFrequency, final boolean alwaysResample, final boolean enableNormalize) throws IOException, UnsupportedAudioFileException
+    public static void reduceSamples (final List<ISampleZone> sampleZones, final boolean enableMakeMono, final boolean enableTrimSample, final int reduceBitDepth, final int reduceFrequency, final boolean alwaysResample, final Resampler.Quality resampleQuality, final boolean enableNormalize) throws IOException, UnsupportedAudioFileException
     {
-        final List<byte []> sampleCache = loadSampleData (sampleZones);
-
-        final int size = sampleCache.size ();
-        final int [] sourceSampleRates = new int [size];
-
-        final List<byte []> newSampleCache = new ArrayList<> ();
+        final int size = sampleZones.size ();
+        final ISampleData [] sampleData = new ISampleData [size];
+        final int [] [] ranges = new int [size] [];
         for (int i = 0; i < size; i++)
         {
-            byte [] data = sampleCache.get (i);
             final ISampleZone sampleZone = sampleZones.get (i);
-            final Optional<ISampleData> sampleData = sampleZone.getSampleData ();
-            if (sampleData.isEmpty ())
+            final Optional<ISampleData> optionalSampleData = sampleZone.getSampleData ();
+            if (optionalSampleData.isEmpty ())
                 throw new IOException ("Empty sample data in zone: " + sampleZone.getName ());
-            final IAudioMetadata audioMetadata = sampleData.get ().getAudioMetadata ();
-            sourceSampleRates[i] = audioMetadata.getSampleRate ();
-
-            // Trim start/end
-            if (enableTrimSample)
-                data = trimSample (data, sampleZone);
+            sampleData[i] = optionalSampleData.get ();
 
-            // Make mono if it is not already mono
-            if (enableMakeMono && !audioMetadata.isMono ())
-                data = convertToMono (data);
-
-            // Reduce bit depth & sample rate if needed
-            if (reduceBitDepth > 0 || reduceFrequency > 0)
-                data = resample (data, reduceBitDepth, reduceFrequency, alwaysResample);
-
-            newSampleCache.add (data);
+            // Trim start/end, updates the zone therefore only done once for both passes
+            ranges[i] = enableTrimSample ? trimSample (sampleZone) : new int []
+            {
+                0,
+                -1
+            };
         }
 
-        if (enableNormalize)
-            normalizeSample (newSampleCache);
+        // The buffers are re-used for all samples
+        final SampleBuffer sourceBuffer = new SampleBuffer ();
+        final byte [] chunk = new byte [CHUNK_SIZE];
 
-        adjustPositions (sampleZones, sourceSampleRates, newSampleCache);
-    }
-
-
-    private static void adjustPositions (final List<ISampleZone> sampleZones, final int [] sourceSampleRates, final List<byte []> newSampleCache) throws IOException
-    {
-        for (int i = 0; i < newSampleCache.size (); i++)
+        // Peak-scan pass: the peaks are normalized to the range of 0..1, otherwise samples with
+        // different bit depths could not be compared with each other
+        double scale = 1;
+        if (enableNormalize)
         {
-            final WavFileSampleData sampleData = new WavFileSampleData (new ByteArrayInputStream (newSampleCache.get (i)));
-            final ISampleZone sampleZone = sampleZones.get (i);
-            sampleZone.setSampleData (sampleData);
-
-            // Adjust all positions if sample rate did change!
-
-            final int newSampleRate = sampleData.getAudioMetadata ().getSampleRate ();
-            if (sourceSampleRates[i] == newSampleRate)
-                continue;
-
-            final double sampleRateRatio = newSampleRate / (double) sourceSampleRates[i];
-            final int start = sampleZone.getStart ();
-            if (start > 0)
-                sampleZone.setStart ((int) Math.round (start * sampleRateRatio));
-            final int stop = sampleZone.getStop ();
-            if (stop > 0)
-                sampleZone.setStop ((int) Math.round (stop * sampleRateRatio));
-
-            for (final ISampleLoop loop: sampleZone.getLoops ())
+            double maximumPeak = 0;
+            for (int i = 0; i < size; i++)
             {
-                final int loopStart = loop.getStart ();
-                if (loopStart > 0)
-                    loop.setStart ((int) Math.round (loopStart * sampleRateRatio));
-                final int loopEnd = loop.getEnd ();
-                if (loopEnd > 0)
-                    loop.setEnd ((int) Math.round (loopEnd * sampleRateRatio));
+                final ProcessedSample scanned = processSample (sampleData[i], ranges[i], enableMakeMono, reduceBitDepth, reduceFrequency, alwaysResample, resampleQuality, 1, false, sourceBuffer, chunk);
+                maximumPeak = Math.max (maximumPeak, scanned.getNormalizedPeak ());
             }
+            if (maximumPeak > 0)
+                scale = 1.0 / maximumPeak;
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            final int sourceSampleRate = sampleData[i].getAudioMetadata ().getSampleRate ();
+            final ProcessedSample processedSample = processSample (sampleData[i], ranges[i], enableMakeMono, reduceBitDepth, reduceFrequency, alwaysResample, resampleQuality, scale, true, sourceBuffer, chunk);
+            adjustPositions (sampleZones.get (i), sourceSampleRate, processedSample);
         }
     }
 
 
-    private static void normalizeSample (final List<byte []> newSampleCache) throws IOException, UnsupportedAudioFileException
+    private static void adjustPositions (final ISampleZone sampleZone, final int sourceSampleRate, final ProcessedSample processedSample) throws IOException
     {
-        // Find the loudest peak across all samples. The peaks are normalized to the range of 0..1,
-        // otherwise samples with different bit depths could not be compared with each other.
-        double maximumPeak = 0;
-        for (final byte [] data: newSampleCache)
-            maximumPeak = Math.max (maximumPeak, findMaxAmplitude (data));
-        // Normalize if needed
-        if (maximumPeak > 0)
-            for (int i = 0; i < newSampleCache.size (); i++)
-                newSampleCache.set (i, normalize (newSampleCache.get (i), maximumPeak));
-    }
+        sampleZone.setSampleData (processedSample.createSampleData ());
 
+        // Adjust all positions if sample rate did change!
 
-    private static byte [] resample (final byte [] wavData, final int reduceBitDepth, final int reduceFrequency, final boolean alwaysResample) throws IOException, UnsupportedAudioFileException
-    {
-        final boolean shouldResampleBitDepth = reduceBitDepth > 0;
-        final boolean shouldResampleFrequency = reduceFrequency > 0;
-        if (!shouldResampleBitDepth && !shouldResampleFrequency)
-            return wavData;
-
-        boolean needsBitDepthResampling = false;
-        boolean needsFrequencyResampling = false;
-        try (final AudioInputStream ais = AudioSystem.getAudioInputStream (new ByteArrayInputStream (wavData)))
+        final int newSampleRate = processedSample.sampleRate;
+        if (sourceSampleRate == newSampleRate)
+            return;
+
+        final double sampleRateRatio = newSampleRate / (double) sourceSampleRate;
+        final int start = sampleZone.getStart ();
+        if (start > 0)
+            sampleZone.setStart ((int) Math.round (start * sampleRateRatio));
+        final int stop = sampleZone.getStop ();
+        if (stop > 0)
+            sampleZone.setStop ((int) Math.round (stop * sampleRateRatio));
+
+        for (final ISampleLoop loop: sampleZone.getLoops ())
         {
-            final AudioFormat format = ais.getFormat ();
-            needsBitDepthResampling = shouldResampleBitDepth && (alwaysResample || format.getSampleSizeInBits () > reduceBitDepth);
-            needsFrequencyResampling = shouldResampleFrequency && (alwaysResample || format.getSampleRate () > reduceFrequency);
+            final int loopStart = loop.getStart ();
+            if (loopStart > 0)
+                loop.setStart ((int) Math.round (loopStart * sampleRateRatio));
+            final int loopEnd = loop.getEnd ();
+            if (loopEnd > 0)
+                loop.setEnd ((int) Math.round (loopEnd * sampleRateRatio));
         }
-        byte [] data = wavData;
-        if (needsBitDepthResampling)
-            data = reduceBitDepth (data, reduceBitDepth, alwaysResample);
-        if (needsFrequencyResampling)
-            data = resampleFrequency (data, reduceFrequency, alwaysResample);
-        return data;
     }
 
 
-    private static byte [] trimSample (final byte [] data, final ISampleZone sampleZone) throws IOException, UnsupportedAudioFileException
+    /**
+     * Moves the start, stop and loop positions of the zone to the trimmed sample.
+     *
+     * @param sampleZone The zone to update
+     * @return The start and stop frame of the region to keep in the original sample
+     */
+    private static int [] trimSample (final ISampleZone sampleZone)
     {
         final int start = Math.max (0, sampleZone.getStart ());
         int end = sampleZone.getStop ();
@@ -189,237 +171,163 @@ public class AudioSampleReducer
                     loop.setEnd (Math.max (0, loop.getEnd () - start));
             }
 
-        return trimSampleData (data, start, end);
-    }
-
-
-    /**
-     * Trim sample at beginning and end
-     *
-     * @param wavData The WAV data structure
-     * @param startFrame The start frame from which to trim to the beginning of the sample
-     * @param stopFrame All frames after this will be trimmed from the end
-     * @return The updated sample as a WAV audio structure
-     * @throws IOException Could not read the sample
-     * @throws UnsupportedAudioFileException Could not parse the WAV file
-     */
-    private static byte [] trimSampleData (final byte [] wavData, final int startFrame, final int stopFrame) throws IOException, UnsupportedAudioFileException
-    {
-        try (final AudioInputStream ais = AudioSystem.getAudioInputStream (new ByteArrayInputStream (wavData)))
+        return new int []
         {
-            final AudioFormat format = ais.getFormat ();
-            final int frameSize = format.getFrameSize ();
-            final byte [] allData = ais.readAllBytes ();
-
-            // Calculate total frames, if not provided by the API
-            long totalFrames = ais.getFrameLength ();
-            if (totalFrames == AudioSystem.NOT_SPECIFIED)
-                totalFrames = allData.length / frameSize;
-
-            // Calculate the trimmed region
-            final int actualStart = Math.max (0, startFrame);
-            final int actualStop = stopFrame > 0 && stopFrame < totalFrames ? stopFrame : (int) totalFrames;
-            if (actualStart >= actualStop)
-                return audioStreamToWavBytes (new AudioInputStream (new ByteArrayInputStream (new byte [0]), format, 0));
-            final int startByte = actualStart * frameSize;
-            final int endByte = actualStop * frameSize;
-            final int newLength = endByte - startByte;
-
-            // Copy trimmed region
-            final byte [] trimmedData = new byte [newLength];
-            System.arraycopy (allData, startByte, trimmedData, 0, newLength);
-            final long newFrameLength = newLength / frameSize;
-            return audioStreamToWavBytes (new AudioInputStream (new ByteArrayInputStream (trimmedData), format, newFrameLength));
-        }
+            start,
+            end
+        };
     }
 
 
     /**
-     * Convert stereo to mono.
+     * Decodes the sample into the source buffer and streams it through all processing steps.
      *
-     * @param wavData The WAV data structure
-     * @return The updated sample as a WAV audio structure
-     * @throws IOException Could not read the sample
-     * @throws UnsupportedAudioFileException Could not parse the WAV file
-     */
-    private static byte [] convertToMono (final byte [] wavData) throws IOException, UnsupportedAudioFileException
-    {
-        try (final AudioInputStream ais = AudioSystem.getAudioInputStream (new ByteArrayInputStream (wavData)))
-        {
-            final byte [] sourceData = ais.readAllBytes ();
-            final AudioFormat sourceFormat = ais.getFormat ();
-            final int channels = sourceFormat.getChannels ();
-            final int sampleSizeInBits = sourceFormat.getSampleSizeInBits ();
-            final int bytesPerSample = sampleSizeInBits / 8;
-            final int frameSize = channels * bytesPerSample;
-            final int numFrames = sourceData.length / frameSize;
-            final byte [] monoData = new byte [numFrames * bytesPerSample];
-            final boolean bigEndian = sourceFormat.isBigEndian ();
-
-            for (int frame = 0; frame < numFrames; frame++)
-            {
-                long sum = 0;
-                for (int ch = 0; ch < channels; ch++)
-                {
-                    final int offset = frame * frameSize + ch * bytesPerSample;
-                    final int sample = readSample (sourceData, offset, sampleSizeInBits, bigEndian);
-                    sum += sample;
-                }
-                final int average = (int) (sum / channels);
-                writeSample (monoData, frame * bytesPerSample, average, sampleSizeInBits, bigEndian);
-            }
-
-            final AudioFormat monoFormat = new AudioFormat (sourceFormat.getEncoding (), sourceFormat.getSampleRate (), sampleSizeInBits, 1, bytesPerSample, sourceFormat.getFrameRate (), bigEndian);
-            return audioStreamToWavBytes (new AudioInputStream (new ByteArrayInputStream (monoData), monoFormat, numFrames));
-        }
-    }
-
-
-    /**
-     * Reduce bit depth.
-     *
-     * @param wavData The WAV data structure
-     * @param targetBits The maximum bit-depth
+     * @param sampleData The sample to process
+     * @param range The start and stop frame of the region to keep
+     * @param enableMakeMono True if the sample should be reduced to mono
+     * @param reduceBitDepth Maximum bit-depth to reduce to, negative to ignore
+     * @param reduceFrequency Maximum sample rate to reduce to, negative to ignore
      * @param alwaysResample If true, do up-sample as well
-     * @return The updated sample as a WAV audio structure
+     * @param resampleQuality The quality to use for changing the sample rate
+     * @param scale The factor to apply for normalizing, 1 to keep the level
+     * @param keepData True to store the result, false to only scan the peak
+     * @param sourceBuffer The buffer to decode the sample into
+     * @param chunk The buffer to use for reading the chunks
+     * @return The processed sample
      * @throws IOException Could not read the sample
-     * @throws UnsupportedAudioFileException Could not parse the WAV file
+     * @throws UnsupportedAudioFileException Can't happen since only WAV files are supported
      */
-    private static byte [] reduceBitDepth (final byte [] wavData, final int targetBits, final boolean alwaysResample) throws IOException, UnsupportedAudioFileException
+    private static ProcessedSample processSample (final ISampleData sampleData, final int [] range, final boolean enableMakeMono, final int reduceBitDepth, final int reduceFrequency, final boolean alwaysResample, final Resampler.Quality resampleQuality, final double scale, final boolean keepData, final SampleBuffer sourceBuffer, final byte [] chunk) throws IOException, UnsupportedAudioFileException
     {
-        try (final AudioInputStream ais = AudioSystem.getAudioInputStream (new ByteArrayInputStream (wavData)))
+        sourceBuffer.reset ();
+        sampleData.writeSample (sourceBuffer);
+        try (final AudioInputStream ais = AudioSystem.getAudioInputStream (sourceBuffer.toInputStream ()))
         {
-            final AudioFormat sourceFormat = ais.getFormat ();
-            final int sourceBits = sourceFormat.getSampleSizeInBits ();
-            if (sourceBits == targetBits || sourceBits < targetBits && !alwaysResample)
-                return wavData;
-
-            final byte [] sourceData = ais.readAllBytes ();
-
-            final int channels = sourceFormat.getChannels ();
-            final int sourceBytesPerSample = (sourceBits + 7) / 8; // Support e.g. 12-bit
-            // Note: this works only for bit-depths which are aligned to 8! But other sizes don't
-            // safe any space since they need to be aligned to 8 as well!
-            final int targetBytesPerSample = targetBits / 8;
-            final int sourceFrameSize = channels * sourceBytesPerSample;
-            final int targetFrameSize = channels * targetBytesPerSample;
-            final int numFrames = sourceData.length / sourceFrameSize;
-
-            final byte [] targetData = new byte [numFrames * targetFrameSize];
-            final boolean bigEndian = sourceFormat.isBigEndian ();
-            final int shiftBits = sourceBits - targetBits;
-
-            for (int frame = 0; frame < numFrames; frame++)
-                for (int ch = 0; ch < channels; ch++)
-                {
-                    final int sourceOffset = frame * sourceFrameSize + ch * sourceBytesPerSample;
-                    final int targetOffset = frame * targetFrameSize + ch * targetBytesPerSample;
-
-                    final int sample = readSample (sourceData, sourceOffset, sourceBits, bigEndian);
-                    final int reduced = shiftBits <= 0 ? sample : sample >> shiftBits;
-                    writeSample (targetData, targetOffset, reduced, targetBits, bigEndian);
-                }
-
-            // WAV stores 8 bit samples as unsigned, which writeSample already applied. The format
-            // must say so as well, otherwise the WAV writer adds the bias a second time.
-            final AudioFormat.Encoding targetEncoding = targetBits == 8 ? AudioFormat.Encoding.PCM_UNSIGNED : sourceFormat.getEncoding ();
-            final AudioFormat targetFormat = new AudioFormat (targetEncoding, sourceFormat.getSampleRate (), targetBits, channels, targetFrameSize, sourceFormat.getFrameRate (), bigEndian);
-            return audioStreamToWavBytes (new AudioInputStream (new ByteArrayInputStream (targetData), targetFormat, numFrames));
+            return processSample (ais, range[0], range[1], enableMakeMono, reduceBitDepth, reduceFrequency, alwaysResample, resampleQuality, scale, keepData, chunk);
         }
     }
 
 
     /**
-     * Re-sample frequency using linear interpolation.
+     * Streams the audio data in chunks through all necessary processing steps in one pass: trim
+     * the sample at beginning and end, convert stereo to mono, reduce the bit depth, re-sample the
+     * frequency and normalize.
      *
-     * @param wavData The WAV data structure
-     * @param targetRate The maximum sample rate
+     * @param ais The stream to read the audio data from
+     * @param startFrame The start frame from which to trim to the beginning of the sample
+     * @param stopFrame All frames after this will be trimmed from the end, 0 or less to keep all
+     * @param enableMakeMono True if the sample should be reduced to mono
+     * @param reduceBitDepth Maximum bit-depth to reduce to, negative to ignore
+     * @param reduceFrequency Maximum sample rate to reduce to, negative to ignore
      * @param alwaysResample If true, do up-sample as well
-     * @return The updated sample as a WAV audio structure
+     * @param resampleQuality The quality to use for changing the sample rate
+     * @param scale The factor to apply for normalizing, 1 to keep the level
+     * @param keepData True to store the result, false to only scan the peak
+     * @param chunk The buffer to use for reading the chunks
+     * @return The processed sample
      * @throws IOException Could not read the sample
-     * @throws UnsupportedAudioFileException Could not parse the WAV file
      */
-    private static byte [] resampleFrequency (final byte [] wavData, final int targetRate, final boolean alwaysResample) throws IOException, UnsupportedAudioFileException
+    private static ProcessedSample processSample (final AudioInputStream ais, final int startFrame, final int stopFrame, final boolean enableMakeMono, final int reduceBitDepth, final int reduceFrequency, final boolean alwaysResample, final Resampler.Quality resampleQuality, final double scale, final boolean keepData, final byte [] chunk) throws IOException
     {
-        try (final AudioInputStream ais = AudioSystem.getAudioInputStream (new ByteArrayInputStream (wavData)))
+        final AudioFormat sourceFormat = ais.getFormat ();
+        final int sourceChannels = sourceFormat.getChannels ();
+        final int sourceBits = sourceFormat.getSampleSizeInBits ();
+        final int sourceBytesPerSample = (sourceBits + 7) / 8; // Support e.g. 12-bit
+        final int sourceFrameSize = sourceChannels * sourceBytesPerSample;
+        final int sourceRate = Math.round (sourceFormat.getSampleRate ());
+        final boolean bigEndian = sourceFormat.isBigEndian ();
+
+        // Calculate total frames, if not provided by the API
+        long totalFrames = ais.getFrameLength ();
+        if (totalFrames == AudioSystem.NOT_SPECIFIED)
+            totalFrames = ais.available () / sourceFrameSize;
+
+        // Calculate the trimmed region
+        final int actualStart = (int) Math.min (Math.max (0, startFrame), totalFrames);
+        final int actualStop = stopFrame > 0 && stopFrame < totalFrames ? stopFrame : (int) totalFrames;
+        final int sourceFrames = Math.max (0, actualStop - actualStart);
+
+        // Calculate the format of the result. Note: bit depth reduction works only for bit-depths
+        // which are aligned to 8! But other sizes don't safe any space since they need to be
+        // aligned to 8 as well!
+        final int targetChannels = enableMakeMono ? 1 : sourceChannels;
+        final boolean needsBitDepthResampling = reduceBitDepth > 0 && sourceBits != reduceBitDepth && (alwaysResample || sourceBits > reduceBitDepth);
+        final int targetBits = needsBitDepthResampling ? reduceBitDepth : sourceBits;
+        final int shiftBits = sourceBits - targetBits;
+        final boolean needsFrequencyResampling = reduceFrequency > 0 && sourceRate != reduceFrequency && (alwaysResample || sourceRate > reduceFrequency);
+        final int targetRate = needsFrequencyResampling ? reduceFrequency : sourceRate;
+        final Resampler resampler = needsFrequencyResampling ? Resampler.getInstance (sourceRate, targetRate, resampleQuality) : null;
+        final int targetFrames = resampler == null ? sourceFrames : resampler.getTargetLength (sourceFrames);
+
+        final ProcessedSample result = new ProcessedSample (targetChannels, targetRate, targetBits, targetFrames, scale, keepData);
+        final Resampler.Stream resamplerStream = resampler == null ? null : resampler.createStream (targetChannels, targetFrames, result::writeFrame);
+
+        skipFully (ais, (long) actualStart * sourceFrameSize);
+
+        // Only read complete frames into the chunk
+        final int chunkLength = Math.max (1, chunk.length / sourceFrameSize) * sourceFrameSize;
+        final byte [] buffer = chunkLength <= chunk.length ? chunk : new byte [chunkLength];
+
+        final int [] current = new int [targetChannels];
+        final float [] currentValues = new float [targetChannels];
+        int frame = 0;
+        while (frame < sourceFrames)
         {
-            final AudioFormat sourceFormat = ais.getFormat ();
-            final float sourceRate = sourceFormat.getSampleRate ();
-            if (sourceRate == targetRate || sourceRate < targetRate && !alwaysResample)
-                return wavData;
+            final int framesToRead = Math.min (chunkLength / sourceFrameSize, sourceFrames - frame);
+            final int bytesRead = ais.readNBytes (buffer, 0, framesToRead * sourceFrameSize);
+            final int framesRead = bytesRead / sourceFrameSize;
+            if (framesRead == 0)
+                break;
 
-            final byte [] sourceData = ais.readAllBytes ();
-
-            final double ratio = targetRate / sourceRate;
-            final int channels = sourceFormat.getChannels ();
-            final int sampleSizeInBits = sourceFormat.getSampleSizeInBits ();
-            final int bytesPerSample = (sampleSizeInBits + 7) / 8; // Support e.g. 12-bit
-            final int frameSize = channels * bytesPerSample;
-            final int sourceFrames = sourceData.length / frameSize;
-            final int targetFrames = (int) Math.round (sourceFrames * ratio);
-
-            final byte [] targetData = new byte [targetFrames * frameSize];
-            final boolean bigEndian = sourceFormat.isBigEndian ();
-
-            for (int targetFrame = 0; targetFrame < targetFrames; targetFrame++)
+            for (int i = 0; i < framesRead; i++, frame++)
             {
-                final double sourcePos = targetFrame / ratio;
-                // Can theoretically equal sourceFrames on the last iteration due to floating-point
-                // rounding
-                final int sourceFrame1 = Math.min ((int) sourcePos, sourceFrames - 1);
-                final int sourceFrame2 = Math.min (sourceFrame1 + 1, sourceFrames - 1);
-                final double frac = sourcePos - sourceFrame1;
-
-                for (int ch = 0; ch < channels; ch++)
+                // Mix down to mono if necessary and reduce the bit depth
+                final int frameOffset = i * sourceFrameSize;
+                if (targetChannels == sourceChannels)
+                    for (int ch = 0; ch < sourceChannels; ch++)
+                        current[ch] = reduceSample (readSample (buffer, frameOffset + ch * sourceBytesPerSample, sourceBits, bigEndian), shiftBits);
+                else
                 {
-                    final int offset1 = sourceFrame1 * frameSize + ch * bytesPerSample;
-                    final int offset2 = sourceFrame2 * frameSize + ch * bytesPerSample;
-
-                    final int sample1 = readSample (sourceData, offset1, sampleSizeInBits, bigEndian);
-                    final int sample2 = readSample (sourceData, offset2, sampleSizeInBits, bigEndian);
-
-                    final int interpolated = (int) (sample1 * (1 - frac) + sample2 * frac);
+                    long sum = 0;
+                    for (int ch = 0; ch < sourceChannels; ch++)
+                        sum += readSample (buffer, frameOffset + ch * sourceBytesPerSample, sourceBits, bigEndian);
+                    current[0] = reduceSample ((int) (sum / sourceChannels), shiftBits);
+                }
 
-                    final int targetOffset = targetFrame * frameSize + ch * bytesPerSample;
-                    writeSample (targetData, targetOffset, interpolated, sampleSizeInBits, bigEndian);
+                if (resamplerStream == null)
+                    result.writeFrame (frame, current);
+                else
+                {
+                    for (int ch = 0; ch < targetChannels; ch++)
+                        currentValues[ch] = current[ch];
+                    resamplerStream.push (currentValues);
                 }
             }
-
-            final AudioFormat targetFormat = new AudioFormat (sourceFormat.getEncoding (), targetRate, sampleSizeInBits, channels, frameSize, targetRate, bigEndian);
-            return audioStreamToWavBytes (new AudioInputStream (new ByteArrayInputStream (targetData), targetFormat, targetFrames));
         }
+
+        // The remaining target frames are positioned after the last source frame
+        if (resamplerStream != null)
+            resamplerStream.flush ();
+
+        return result;
     }
 
 
-    /**
-     * Find maximum amplitude in audio stream.
-     *
-     * @param wavData The WAV data structure
-     * @return The maximum value in the stream, normalized to the range of 0..1 which makes it
-     *         comparable across different bit depths
-     * @throws IOException Could not read the stream
-     * @throws UnsupportedAudioFileException Could not parse the WAV file
-     */
-    private static double findMaxAmplitude (final byte [] wavData) throws IOException, UnsupportedAudioFileException
+    private static int reduceSample (final int sample, final int shiftBits)
     {
-        try (final AudioInputStream ais = AudioSystem.getAudioInputStream (new ByteArrayInputStream (wavData)))
-        {
-            final AudioFormat format = ais.getFormat ();
-            final byte [] data = ais.readAllBytes ();
+        return shiftBits <= 0 ? sample : sample >> shiftBits;
+    }
 
-            final int sampleSizeInBits = format.getSampleSizeInBits ();
-            final int bytesPerSample = (sampleSizeInBits + 7) / 8; // Support e.g. 12-bit
-            final int numSamples = data.length / bytesPerSample;
-            final boolean bigEndian = format.isBigEndian ();
 
-            double max = 0.0;
-            for (int i = 0; i < numSamples; i++)
-            {
-                final int offset = i * bytesPerSample;
-                final int sample = readSample (data, offset, sampleSizeInBits, bigEndian);
-                max = Math.max (max, Math.abs (sample));
-            }
-            return max / maximumPositiveValue (sampleSizeInBits);
+    private static void skipFully (final InputStream inputStream, final long numberOfBytes) throws IOException
+    {
+        long remaining = numberOfBytes;
+        while (remaining > 0)
+        {
+            final long skipped = inputStream.skip (remaining);
+            if (skipped <= 0)
+                throw new EOFException ();
+            remaining -= skipped;
         }
     }
 
@@ -437,53 +345,6 @@ public class AudioSampleReducer
     }
 
 
-    /**
-     * Normalize audio to maximum amplitude.
-     *
-     * @param wavData The WAV data structure
-     * @param maximumPeak The loudest peak of all samples, normalized to the range of 0..1
-     * @return The updated sample as a WAV audio structure
-     * @throws IOException Could not read the sample
-     * @throws UnsupportedAudioFileException Could not parse the WAV file
-     */
-    private static byte [] normalize (final byte [] wavData, final double maximumPeak) throws IOException, UnsupportedAudioFileException
-    {
-        try (final AudioInputStream ais = AudioSystem.getAudioInputStream (new ByteArrayInputStream (wavData)))
-        {
-            if (maximumPeak == 0)
-                return wavData;
-
-            final AudioFormat format = ais.getFormat ();
-            final byte [] data = ais.readAllBytes ();
-            final int sampleSizeInBits = format.getSampleSizeInBits ();
-            final int bytesPerSample = (sampleSizeInBits + 7) / 8; // Support e.g. 12-bit
-            final int numSamples = data.length / bytesPerSample;
-            final boolean bigEndian = format.isBigEndian ();
-
-            // Calculate the range of values which can be stored with this bit depth
-            final int positiveLimit = maximumPositiveValue (sampleSizeInBits);
-            final int negativeLimit = -positiveLimit - 1;
-            // The peak is normalized to 0..1, therefore the factor which maps it exactly onto the
-            // positive full scale is the same for all bit depths
-            final double scale = 1.0 / maximumPeak;
-            if (scale == 1.0)
-                return wavData;
-
-            final byte [] normalized = new byte [data.length];
-            for (int i = 0; i < numSamples; i++)
-            {
-                final int offset = i * bytesPerSample;
-                final int sample = readSample (data, offset, sampleSizeInBits, bigEndian);
-                int scaled = (int) Math.round (sample * scale);
-                scaled = Math.clamp (scaled, negativeLimit, positiveLimit);
-                writeSample (normalized, offset, scaled, sampleSizeInBits, bigEndian);
-            }
-
-            return audioStreamToWavBytes (new AudioInputStream (new ByteArrayInputStream (normalized), format, ais.getFrameLength ()));
-        }
-    }
-
-
     private static int readSample (final byte [] data, final int offset, final int sampleSizeInBits, final boolean bigEndian)
     {
         // Missing handling of 32 bit float values
@@ -573,33 +434,108 @@ public class AudioSampleReducer
     }
 
 
-    private static List<byte []> loadSampleData (final List<ISampleZone> sampleZones) throws IOException
+    /**
+     * The result of processing one sample. The data is stored as little-endian PCM like in a WAV
+     * file. If the data is not kept, only the peak is collected.
+     */
+    private static class ProcessedSample
     {
-        final List<byte []> sampleCache = new ArrayList<> ();
-        for (final ISampleZone zone: sampleZones)
+        final int     channels;
+        final int     sampleRate;
+        final int     bitsPerSample;
+        final int     bytesPerSample;
+        final int     numberOfFrames;
+        final byte [] data;
+        final int     positiveLimit;
+        final double  scale;
+        int           peak = 0;
+
+
+        ProcessedSample (final int channels, final int sampleRate, final int bitsPerSample, final int numberOfFrames, final double scale, final boolean keepData)
         {
-            final ByteArrayOutputStream arrayOut = new ByteArrayOutputStream ();
-            final Optional<ISampleData> sampleData = zone.getSampleData ();
-            if (sampleData.isEmpty ())
-                throw new IOException ("Empty sample data in zone: " + zone.getName ());
-            sampleData.get ().writeSample (arrayOut);
-            sampleCache.add (arrayOut.toByteArray ());
+            this.channels = channels;
+            this.sampleRate = sampleRate;
+            this.bitsPerSample = bitsPerSample;
+            this.bytesPerSample = (bitsPerSample + 7) / 8;
+            this.numberOfFrames = numberOfFrames;
+            this.data = keepData ? new byte [numberOfFrames * channels * this.bytesPerSample] : null;
+            this.positiveLimit = maximumPositiveValue (bitsPerSample);
+            this.scale = scale;
         }
-        return sampleCache;
-    }
 
 
-    /**
-     * Convert AudioInputStream to WAV byte array.
-     *
-     * @param ais The audio input stream
-     * @return The WAV data structure
-     * @throws IOException Could not create the data
-     */
-    private static byte [] audioStreamToWavBytes (final AudioInputStream ais) throws IOException
-    {
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream ();
-        AudioSystem.write (ais, AudioFileFormat.Type.WAVE, baos);
-        return baos.toByteArray ();
+        /**
+         * Writes the values of all channels of one frame and keeps track of the peak value.
+         *
+         * @param frame The index of the frame
+         * @param values The values of the channels
+         */
+        void writeFrame (final int frame, final int [] values)
+        {
+            if (frame >= this.numberOfFrames)
+                return;
+            int offset = frame * this.channels * this.bytesPerSample;
+            for (int ch = 0; ch < this.channels; ch++)
+            {
+                this.write (offset, values[ch]);
+                offset += this.bytesPerSample;
+            }
+        }
+
+
+        /**
+         * Writes the re-sampled values of all channels of one frame. The values are rounded and
+         * limited to the range of the bit depth since the filter can overshoot.
+         *
+         * @param frame The index of the frame
+         * @param values The values of the channels
+         */
+        void writeFrame (final int frame, final float [] values)
+        {
+            if (frame >= this.numberOfFrames)
+                return;
+            int offset = frame * this.channels * this.bytesPerSample;
+            for (int ch = 0; ch < this.channels; ch++)
+            {
+                this.write (offset, Math.clamp (Math.round (values[ch]), -this.positiveLimit - 1, this.positiveLimit));
+                offset += this.bytesPerSample;
+            }
+        }
+
+
+        private void write (final int offset, final int value)
+        {
+            // The peak is normalized to 0..1, therefore the factor which maps it exactly onto the
+            // positive full scale is the same for all bit depths
+            final int scaled = this.scale == 1.0 ? value : Math.clamp (Math.round (value * this.scale), -this.positiveLimit - 1, this.positiveLimit);
+            this.peak = Math.max (this.peak, Math.abs (scaled));
+            if (this.data != null)
+                writeSample (this.data, offset, scaled, this.bitsPerSample, false);
+        }
+
+
+        /**
+         * Get the maximum value of the sample.
+         *
+         * @return The maximum value normalized to the range of 0..1 which makes it comparable
+         *         across different bit depths
+         */
+        double getNormalizedPeak ()
+        {
+            return this.peak / (double) maximumPositiveValue (this.bitsPerSample);
+        }
+
+
+        /**
+         * Wraps the processed data into a WAV sample without copying it.
+         *
+         * @return The sample data
+         * @throws IOException Could not create the sample data
+         */
+        ISampleData createSampleData () throws IOException
+        {
+            final FormatChunk formatChunk = new FormatChunk (this.channels, this.sampleRate, this.bitsPerSample, true);
+            return new WavFileSampleData (new WaveFile (formatChunk, new DataChunk (formatChunk, this.data)));
+        }
     }
-}
\ No newline at end of file
+}
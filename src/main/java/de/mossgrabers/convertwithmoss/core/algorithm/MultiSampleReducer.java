@@ -4,8 +4,10 @@
 
 package de.mossgrabers.convertwithmoss.core.algorithm;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.PriorityQueue;
 
 import de.mossgrabers.convertwithmoss.core.model.IGroup;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
@@ -24,34 +26,37 @@ import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
  * <li>Prefer zones centered near velocity 100.</li>
  * <li>Reduction is global across all groups.</li>
  * <li>Original ISampleZone objects are reused and mutated via setters.</li>
- * <li>Code clarity preferred over performance.</li>
  * <li>The exact same key×velocity coverage union must be preserved.</li>
  * <li>Zones may overlap.</li>
  * <ol>
  *
  * Strategy:
  * <ol>
- * <li>Build original 128×128 coverage mask.</li>
+ * <li>Count for each cell of the 128×128 key×velocity grid by how many zones it is covered.</li>
+ * <li>Put all possible merge candidates (adjacent zones of the same group) into a priority queue
+ * ordered by their score.</li>
  * <li>While total zones > maxSamples:
  * <ul>
- * <li>Generate all possible merge candidates (same group only).</li>
- * <li>For each candidate:
- * <ul>
- * <li>Simulate merge.</li>
- * <li>Rebuild coverage mask.</li>
- * <li>Accept only if mask equals original mask.</li>
- * <li>Select best scoring valid merge.</li>
- * <li>Apply merge.</li>
- * </ul>
- * </li>
+ * <li>Take the best candidate from the queue, drop it if one of its zones was changed or removed
+ * in the meantime.</li>
+ * <li>Check with the coverage counts of the cells touched by the candidate if the coverage union
+ * stays the same, otherwise put it aside until the next merge.</li>
+ * <li>Apply the merge and update the coverage counts.</li>
+ * <li>Add the new candidates of the merged zone.</li>
  * </ul>
  * </li>
  * </ol>
  *
+ * The result is the same as when trying all zone pairs after each merge and taking the best valid
+ * one but the model is only changed when a merge is applied.
+ *
  * @author J&uuml;rgen Mo&szlig;graber
  */
 public class MultiSampleReducer
 {
+    private static final Comparator<MergeCandidate> CANDIDATE_ORDER = Comparator.comparingDouble ((final MergeCandidate c) -> c.score).thenComparingInt (c -> c.keep.groupIndex).thenComparingInt (c -> c.keep.order).thenComparingInt (c -> c.remove.order);
+
+
     /**
      * Constructor.
      */
@@ -74,146 +79,155 @@ public class MultiSampleReducer
         if (initialTotalZones <= maxSamples)
             return 0;
 
-        final boolean [] [] originalMask = buildCoverageMask (groups);
-        int totalZones;
-        while ((totalZones = totalZones (groups)) > maxSamples)
+        final int [] [] coverage = new int [128] [128];
+        final List<List<ZoneNode>> groupNodes = new ArrayList<> ();
+        for (int groupIndex = 0; groupIndex < groups.size (); groupIndex++)
         {
-            final MergeCandidate best = findBestValidMerge (groups, originalMask);
+            final IGroup group = groups.get (groupIndex);
+            final List<ZoneNode> nodes = new ArrayList<> ();
+            final List<ISampleZone> zones = group.getSampleZones ();
+            for (int i = 0; i < zones.size (); i++)
+            {
+                final ZoneNode node = new ZoneNode (group, groupIndex, i, zones.get (i));
+                nodes.add (node);
+                updateCoverage (coverage, node.keyLow, node.keyHigh, node.velLow, node.velHigh, 1);
+            }
+            groupNodes.add (nodes);
+        }
+
+        final PriorityQueue<MergeCandidate> queue = new PriorityQueue<> (CANDIDATE_ORDER);
+        for (final List<ZoneNode> nodes: groupNodes)
+            for (int i = 0; i < nodes.size (); i++)
+                for (int j = i + 1; j < nodes.size (); j++)
+                    addCandidate (queue, nodes.get (i), nodes.get (j));
+
+        int totalZones = initialTotalZones;
+        final List<MergeCandidate> invalidCandidates = new ArrayList<> ();
+        while (totalZones > maxSamples)
+        {
+            final MergeCandidate best = findBestValidMerge (queue, coverage, invalidCandidates);
             // No valid merges possible without violating coverage
             if (best == null)
                 break;
 
-            applyMerge (best);
+            applyMerge (best, coverage);
+            totalZones--;
+
+            // The coverage changed, therefore the invalid candidates need to be checked again
+            queue.addAll (invalidCandidates);
+            invalidCandidates.clear ();
+
+            // Only the candidates of the merged zone are new
+            for (final ZoneNode node: groupNodes.get (best.keep.groupIndex))
+                if (node != best.keep && !node.isRemoved)
+                    addCandidate (queue, best.keep.order < node.order ? best.keep : node, best.keep.order < node.order ? node : best.keep);
         }
 
         return initialTotalZones - totalZones;
     }
 
 
-    private static MergeCandidate findBestValidMerge (final List<IGroup> groups, final boolean [] [] originalMask)
+    private static MergeCandidate findBestValidMerge (final PriorityQueue<MergeCandidate> queue, final int [] [] coverage, final List<MergeCandidate> invalidCandidates)
     {
-        MergeCandidate best = null;
-        for (final IGroup group: groups)
+        MergeCandidate candidate;
+        while ((candidate = queue.poll ()) != null)
         {
-            final List<ISampleZone> zones = group.getSampleZones ();
-            for (int i = 0; i < zones.size (); i++)
-                for (int j = i + 1; j < zones.size (); j++)
-                {
-                    final Optional<MergeCandidate> candidateOpt = tryCreateMerge (group, zones.get (i), zones.get (j));
-                    if (candidateOpt.isEmpty () || !isCoveragePreserved (groups, candidateOpt.get (), originalMask))
-                        continue;
-
-                    final MergeCandidate candidate = candidateOpt.get ();
-                    if (best == null || candidate.score < best.score)
-                        best = candidate;
-                }
+            if (candidate.isOutdated ())
+                continue;
+            if (isCoveragePreserved (candidate, coverage))
+                return candidate;
+            invalidCandidates.add (candidate);
         }
-        return best;
+        return null;
     }
 
 
-    private static Optional<MergeCandidate> tryCreateMerge (final IGroup group, final ISampleZone a, final ISampleZone b)
+    private static void addCandidate (final PriorityQueue<MergeCandidate> queue, final ZoneNode a, final ZoneNode b)
     {
         // Horizontal merge (adjacent in key)
-        if (sameVelocityRange (a, b) && areKeyAdjacent (a, b))
+        if (a.velLow == b.velLow && a.velHigh == b.velHigh && (a.keyHigh + 1 == b.keyLow || b.keyHigh + 1 == a.keyLow))
         {
-            final int newLow = Math.min (a.getKeyLow (), b.getKeyLow ());
-            final int newHigh = Math.max (a.getKeyHigh (), b.getKeyHigh ());
-            return Optional.of (createCandidate (group, a, b, newLow, newHigh, a.getVelocityLow (), a.getVelocityHigh ()));
+            final int newLow = Math.min (a.keyLow, b.keyLow);
+            final int newHigh = Math.max (a.keyHigh, b.keyHigh);
+            queue.add (new MergeCandidate (a, b, newLow, newHigh, a.velLow, a.velHigh));
+            return;
         }
 
         // Vertical merge (adjacent in velocity)
-        if (sameKeyRange (a, b) && areVelocityAdjacent (a, b))
+        if (a.keyLow == b.keyLow && a.keyHigh == b.keyHigh && (a.velHigh + 1 == b.velLow || b.velHigh + 1 == a.velLow))
         {
-            final int newVelLow = Math.min (a.getVelocityLow (), b.getVelocityLow ());
-            final int newVelHigh = Math.max (a.getVelocityHigh (), b.getVelocityHigh ());
-            return Optional.of (createCandidate (group, a, b, a.getKeyLow (), a.getKeyHigh (), newVelLow, newVelHigh));
+            final int newVelLow = Math.min (a.velLow, b.velLow);
+            final int newVelHigh = Math.max (a.velHigh, b.velHigh);
+            queue.add (new MergeCandidate (a, b, a.keyLow, a.keyHigh, newVelLow, newVelHigh));
         }
-
-        return Optional.empty ();
     }
 
 
-    private static MergeCandidate createCandidate (final IGroup group, final ISampleZone a, final ISampleZone b, final int newKeyLow, final int newKeyHigh, final int newVelLow, final int newVelHigh)
+    /**
+     * Checks if applying the merge would keep the coverage union. Only the cells of the 2 zones and
+     * the merged zone can change, a cell changes if its coverage count drops to 0 or rises from 0.
+     *
+     * @param candidate The candidate to check
+     * @param coverage The coverage counts
+     * @return True if the coverage union stays the same
+     */
+    private static boolean isCoveragePreserved (final MergeCandidate candidate, final int [] [] coverage)
     {
-        final MergeCandidate c = new MergeCandidate ();
-        c.group = group;
-        c.keep = a;
-        c.remove = b;
-        c.newKeyLow = newKeyLow;
-        c.newKeyHigh = newKeyHigh;
-        c.newVelLow = newVelLow;
-        c.newVelHigh = newVelHigh;
-        c.score = computeScore (newKeyLow, newKeyHigh, newVelLow, newVelHigh);
-        return c;
+        final ZoneNode keep = candidate.keep;
+        final ZoneNode remove = candidate.remove;
+        final int keyLow = clamp (Math.min (candidate.newKeyLow, Math.min (keep.keyLow, remove.keyLow)));
+        final int keyHigh = clamp (Math.max (candidate.newKeyHigh, Math.max (keep.keyHigh, remove.keyHigh)));
+        final int velLow = clamp (Math.min (candidate.newVelLow, Math.min (keep.velLow, remove.velLow)));
+        final int velHigh = clamp (Math.max (candidate.newVelHigh, Math.max (keep.velHigh, remove.velHigh)));
+
+        for (int k = keyLow; k <= keyHigh; k++)
+            for (int v = velLow; v <= velHigh; v++)
+            {
+                int count = coverage[k][v];
+                if (keep.contains (k, v))
+                    count--;
+                if (remove.contains (k, v))
+                    count--;
+                if (candidate.contains (k, v))
+                    count++;
+                if (count > 0 != coverage[k][v] > 0)
+                    return false;
+            }
+        return true;
     }
 
 
-    private static boolean isCoveragePreserved (final List<IGroup> groups, final MergeCandidate candidate, final boolean [] [] originalMask)
+    private static void applyMerge (final MergeCandidate c, final int [] [] coverage)
     {
-        // Temporarily apply merge
-        final int oldKL = candidate.keep.getKeyLow ();
-        final int oldKH = candidate.keep.getKeyHigh ();
-        final int oldVL = candidate.keep.getVelocityLow ();
-        final int oldVH = candidate.keep.getVelocityHigh ();
-
-        candidate.keep.setKeyLow (candidate.newKeyLow);
-        candidate.keep.setKeyHigh (candidate.newKeyHigh);
-        candidate.keep.setVelocityLow (candidate.newVelLow);
-        candidate.keep.setVelocityHigh (candidate.newVelHigh);
-
-        // The zones are the live list of the group, therefore the removed zone must be put back at
-        // exactly its previous position - appending it would re-order the zones of the model
-        final List<ISampleZone> zones = candidate.group.getSampleZones ();
-        final int removeIndex = zones.indexOf (candidate.remove);
-        if (removeIndex >= 0)
-            zones.remove (removeIndex);
-
-        final boolean [] [] newMask = buildCoverageMask (groups);
-
-        // Revert changes
-        candidate.keep.setKeyLow (oldKL);
-        candidate.keep.setKeyHigh (oldKH);
-        candidate.keep.setVelocityLow (oldVL);
-        candidate.keep.setVelocityHigh (oldVH);
-
-        if (removeIndex >= 0)
-            zones.add (removeIndex, candidate.remove);
-
-        return masksEqual (originalMask, newMask);
-    }
+        final ZoneNode keep = c.keep;
+        final ZoneNode remove = c.remove;
 
+        updateCoverage (coverage, keep.keyLow, keep.keyHigh, keep.velLow, keep.velHigh, -1);
+        updateCoverage (coverage, remove.keyLow, remove.keyHigh, remove.velLow, remove.velHigh, -1);
+        updateCoverage (coverage, c.newKeyLow, c.newKeyHigh, c.newVelLow, c.newVelHigh, 1);
 
-    private static boolean [] [] buildCoverageMask (final List<IGroup> groups)
-    {
-        final boolean [] [] mask = new boolean [128] [128];
-        for (final IGroup group: groups)
-            for (final ISampleZone z: group.getSampleZones ())
-                for (int k = z.getKeyLow (); k <= z.getKeyHigh (); k++)
-                    for (int v = z.getVelocityLow (); v <= z.getVelocityHigh (); v++)
-                        mask[k][v] = true;
-        return mask;
+        keep.zone.setKeyLow (c.newKeyLow);
+        keep.zone.setKeyHigh (c.newKeyHigh);
+        keep.zone.setVelocityLow (c.newVelLow);
+        keep.zone.setVelocityHigh (c.newVelHigh);
+        keep.update ();
+
+        remove.group.getSampleZones ().remove (remove.zone);
+        remove.isRemoved = true;
     }
 
 
-    private static boolean masksEqual (final boolean [] [] a, final boolean [] [] b)
+    private static void updateCoverage (final int [] [] coverage, final int keyLow, final int keyHigh, final int velLow, final int velHigh, final int delta)
     {
-        for (int k = 0; k < 128; k++)
-            for (int v = 0; v < 128; v++)
-                if (a[k][v] != b[k][v])
-                    return false;
-        return true;
+        for (int k = clamp (keyLow); k <= clamp (keyHigh); k++)
+            for (int v = clamp (velLow); v <= clamp (velHigh); v++)
+                coverage[k][v] += delta;
     }
 
 
-    private static void applyMerge (final MergeCandidate c)
+    private static int clamp (final int value)
     {
-        c.keep.setKeyLow (c.newKeyLow);
-        c.keep.setKeyHigh (c.newKeyHigh);
-        c.keep.setVelocityLow (c.newVelLow);
-        c.keep.setVelocityHigh (c.newVelHigh);
-
-        c.group.getSampleZones ().remove (c.remove);
+        return Math.clamp (value, 0, 127);
     }
 
 
@@ -235,47 +249,99 @@ public class MultiSampleReducer
     }
 
 
-    private static boolean sameVelocityRange (final ISampleZone a, final ISampleZone b)
+    private static int totalZones (final List<IGroup> groups)
     {
-        return a.getVelocityLow () == b.getVelocityLow () && a.getVelocityHigh () == b.getVelocityHigh ();
+        return groups.stream ().mapToInt (g -> g.getSampleZones ().size ()).sum ();
     }
 
 
-    private static boolean sameKeyRange (final ISampleZone a, final ISampleZone b)
+    /** A zone with its ranges and its position in the model. */
+    private static class ZoneNode
     {
-        return a.getKeyLow () == b.getKeyLow () && a.getKeyHigh () == b.getKeyHigh ();
-    }
+        final IGroup      group;
+        final int         groupIndex;
+        final int         order;
+        final ISampleZone zone;
 
+        int               keyLow;
+        int               keyHigh;
+        int               velLow;
+        int               velHigh;
+        /** Incremented each time the ranges of the zone change. */
+        int               version   = 0;
+        boolean           isRemoved = false;
 
-    private static boolean areKeyAdjacent (final ISampleZone a, final ISampleZone b)
-    {
-        return a.getKeyHigh () + 1 == b.getKeyLow () || b.getKeyHigh () + 1 == a.getKeyLow ();
-    }
 
+        ZoneNode (final IGroup group, final int groupIndex, final int order, final ISampleZone zone)
+        {
+            this.group = group;
+            this.groupIndex = groupIndex;
+            this.order = order;
+            this.zone = zone;
+            this.update ();
+        }
 
-    private static boolean areVelocityAdjacent (final ISampleZone a, final ISampleZone b)
-    {
-        return a.getVelocityHigh () + 1 == b.getVelocityLow () || b.getVelocityHigh () + 1 == a.getVelocityLow ();
-    }
 
+        void update ()
+        {
+            this.keyLow = this.zone.getKeyLow ();
+            this.keyHigh = this.zone.getKeyHigh ();
+            this.velLow = this.zone.getVelocityLow ();
+            this.velHigh = this.zone.getVelocityHigh ();
+            this.version++;
+        }
 
-    private static int totalZones (final List<IGroup> groups)
-    {
-        return groups.stream ().mapToInt (g -> g.getSampleZones ().size ()).sum ();
+
+        boolean contains (final int key, final int velocity)
+        {
+            return key >= this.keyLow && key <= this.keyHigh && velocity >= this.velLow && velocity <= this.velHigh;
+        }
     }
 
 
     private static class MergeCandidate
     {
-        IGroup      group;
-        ISampleZone keep;
-        ISampleZone remove;
+        final ZoneNode keep;
+        final ZoneNode remove;
+        final int      keepVersion;
+        final int      removeVersion;
+
+        final int      newKeyLow;
+        final int      newKeyHigh;
+        final int      newVelLow;
+        final int      newVelHigh;
+
+        final double   score;
+
+
+        MergeCandidate (final ZoneNode keep, final ZoneNode remove, final int newKeyLow, final int newKeyHigh, final int newVelLow, final int newVelHigh)
+        {
+            this.keep = keep;
+            this.remove = remove;
+            this.keepVersion = keep.version;
+            this.removeVersion = remove.version;
+            this.newKeyLow = newKeyLow;
+            this.newKeyHigh = newKeyHigh;
+            this.newVelLow = newVelLow;
+            this.newVelHigh = newVelHigh;
+            this.score = computeScore (newKeyLow, newKeyHigh, newVelLow, newVelHigh);
+        }
+
 
-        int         newKeyLow;
-        int         newKeyHigh;
-        int         newVelLow;
-        int         newVelHigh;
+        /**
+         * Check if one of the zones was removed or changed after the candidate was created.
+         *
+         * @return True if outdated
+         */
+        boolean isOutdated ()
+        {
+            return this.keep.isRemoved || this.remove.isRemoved || this.keep.version != this.keepVersion || this.remove.version != this.removeVersion;
+        }
 
-        double      score;
+
+        boolean contains (final int key, final int velocity)
+        {
+            return key >= this.newKeyLow && key <= this.newKeyHigh && velocity >= this.newVelLow && velocity <= this.newVelHigh;
+        }
     }
 }
@@ -0,0 +1,391 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.core.algorithm;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * A polyphase windowed-sinc re-sampler. The ratio of the source and target sample rate is reduced
+ * to a fraction L/M. For each of the L possible positions (phases) between two source frames a
+ * table of filter coefficients is pre-calculated. The coefficients are a sinc low-pass filter
+ * (cut-off below the lower of the two Nyquist frequencies, which prevents aliasing) weighted with
+ * a Kaiser window. The tables are cached per source/target sample rate pair and quality and can be
+ * shared between threads.
+ *
+ * @author Jürgen Moßgraber
+ */
+public final class Resampler
+{
+    /** The available quality levels. */
+    public enum Quality
+    {
+        /** Linear interpolation between the 2 neighboring frames, fast but no anti-aliasing. */
+        LINEAR(1, 0, 1.0),
+        /** Windowed-sinc filter with 16 taps. */
+        LOW(8, 5.0, 0.85),
+        /** Windowed-sinc filter with 32 taps. */
+        MEDIUM(16, 7.0, 0.9),
+        /** Windowed-sinc filter with 64 taps. */
+        HIGH(32, 9.0, 0.95);
+
+
+        private final int    halfLength;
+        private final double kaiserBeta;
+        private final double passBand;
+
+
+        /**
+         * Constructor.
+         *
+         * @param halfLength Half the number of filter taps
+         * @param kaiserBeta The beta parameter of the Kaiser window, higher values give a higher
+         *            stop-band attenuation but a wider transition band
+         * @param passBand The part of the Nyquist frequency which is kept (0..1)
+         */
+        private Quality (final int halfLength, final double kaiserBeta, final double passBand)
+        {
+            this.halfLength = halfLength;
+            this.kaiserBeta = kaiserBeta;
+            this.passBand = passBand;
+        }
+    }
+
+
+    /**
+     * Receives the frames calculated by a re-sampling stream.
+     */
+    @FunctionalInterface
+    public interface IFrameConsumer
+    {
+        /**
+         * Called for each calculated frame.
+         *
+         * @param frame The index of the frame in the target
+         * @param values The values of all channels of the frame, only valid during the call
+         */
+        void accept (int frame, float [] values);
+    }
+
+
+    /** The maximum number of phase tables, more phases are interpolated. */
+    private static final int                    MAX_PHASES = 1024;
+
+    private static final Map<String, Resampler> CACHE      = new ConcurrentHashMap<> ();
+
+    private final int                           upFactor;
+    private final int                           downFactor;
+    private final int                           halfLength;
+    private final int                           filterLength;
+    private final int                           numberOfPhases;
+    private final float []                      coefficients;
+
+
+    /**
+     * Get a re-sampler for the given sample rates and quality. The instances are cached.
+     *
+     * @param sourceRate The sample rate of the source
+     * @param targetRate The sample rate of the result
+     * @param quality The quality of the re-sampling
+     * @return The re-sampler
+     */
+    public static Resampler getInstance (final int sourceRate, final int targetRate, final Quality quality)
+    {
+        if (sourceRate <= 0 || targetRate <= 0)
+            throw new IllegalArgumentException ("Sample rates must be positive: " + sourceRate + " / " + targetRate);
+        return CACHE.computeIfAbsent (sourceRate + ":" + targetRate + ":" + quality, _ -> new Resampler (sourceRate, targetRate, quality));
+    }
+
+
+    /**
+     * Constructor. Calculates the filter tables.
+     *
+     * @param sourceRate The sample rate of the source
+     * @param targetRate The sample rate of the result
+     * @param quality The quality of the re-sampling
+     */
+    private Resampler (final int sourceRate, final int targetRate, final Quality quality)
+    {
+        final int divisor = greatestCommonDivisor (sourceRate, targetRate);
+        this.upFactor = targetRate / divisor;
+        this.downFactor = sourceRate / divisor;
+        this.halfLength = quality.halfLength;
+        this.filterLength = 2 * this.halfLength;
+        this.numberOfPhases = Math.min (this.upFactor, MAX_PHASES);
+
+        // Lower the cut-off to the target Nyquist frequency when down-sampling
+        final double cutoff = Math.min (1.0, targetRate / (double) sourceRate) * quality.passBand;
+        final double besselBeta = besselI0 (quality.kaiserBeta);
+
+        // One more table than phases is needed for interpolating between the phases
+        this.coefficients = new float [(this.numberOfPhases + 1) * this.filterLength];
+        for (int phase = 0; phase <= this.numberOfPhases; phase++)
+        {
+            final double fraction = phase / (double) this.numberOfPhases;
+            final int offset = phase * this.filterLength;
+
+            double sum = 0;
+            for (int tap = 0; tap < this.filterLength; tap++)
+            {
+                // The distance of the source frame of the tap from the position to calculate
+                final double distance = tap - (this.halfLength - 1) - fraction;
+                final double value;
+                if (quality == Quality.LINEAR)
+                    value = Math.max (0, 1.0 - Math.abs (distance));
+                else
+                    value = sinc (cutoff * distance) * kaiser (distance / this.halfLength, quality.kaiserBeta, besselBeta);
+                this.coefficients[offset + tap] = (float) value;
+                sum += value;
+            }
+
+            // Normalize each phase to a gain of 1, otherwise the phases have slightly different
+            // gains which adds noise
+            if (sum != 0)
+                for (int tap = 0; tap < this.filterLength; tap++)
+                    this.coefficients[offset + tap] /= (float) sum;
+        }
+    }
+
+
+    /**
+     * Calculate the number of frames of the re-sampled result.
+     *
+     * @param sourceFrames The number of frames of the source
+     * @return The number of frames of the result
+     */
+    public int getTargetLength (final int sourceFrames)
+    {
+        return (int) Math.round (sourceFrames * (double) this.upFactor / this.downFactor);
+    }
+
+
+    /**
+     * Re-sample the given interleaved frames.
+     *
+     * @param source The interleaved values of all channels
+     * @param channels The number of channels
+     * @return The re-sampled interleaved values of all channels
+     */
+    public float [] resample (final float [] source, final int channels)
+    {
+        final int sourceFrames = source.length / channels;
+        final int targetFrames = this.getTargetLength (sourceFrames);
+        final float [] target = new float [targetFrames * channels];
+        final Stream stream = this.createStream (channels, targetFrames, (frame, values) -> System.arraycopy (values, 0, target, frame * channels, channels));
+
+        final float [] frameValues = new float [channels];
+        for (int frame = 0; frame < sourceFrames; frame++)
+        {
+            System.arraycopy (source, frame * channels, frameValues, 0, channels);
+            stream.push (frameValues);
+        }
+        stream.flush ();
+        return target;
+    }
+
+
+    /**
+     * Create a stream which re-samples frame by frame. This keeps only the few frames in memory
+     * which are required by the filter.
+     *
+     * @param channels The number of channels
+     * @param targetFrames The number of frames to create, see {@link #getTargetLength(int)}
+     * @param consumer Receives the re-sampled frames
+     * @return The stream
+     */
+    public Stream createStream (final int channels, final int targetFrames, final IFrameConsumer consumer)
+    {
+        return new Stream (channels, targetFrames, consumer);
+    }
+
+
+    /**
+     * Re-samples frame by frame. A target frame is calculated as soon as all source frames which
+     * are required by the filter are available. The source is extended at both ends by repeating
+     * the first and last frame.
+     */
+    public final class Stream
+    {
+        private final int            channels;
+        private final int            targetFrames;
+        private final IFrameConsumer consumer;
+        private final float []       history;
+        private final float []       firstFrame;
+        private final float []       lastFrame;
+        private final float []       result;
+        private int                  receivedFrames  = 0;
+        private int                  nextTargetFrame = 0;
+
+
+        /**
+         * Constructor.
+         *
+         * @param channels The number of channels
+         * @param targetFrames The number of frames to create
+         * @param consumer Receives the re-sampled frames
+         */
+        Stream (final int channels, final int targetFrames, final IFrameConsumer consumer)
+        {
+            this.channels = channels;
+            this.targetFrames = targetFrames;
+            this.consumer = consumer;
+            this.history = new float [Resampler.this.filterLength * channels];
+            this.firstFrame = new float [channels];
+            this.lastFrame = new float [channels];
+            this.result = new float [channels];
+        }
+
+
+        /**
+         * Add the next source frame. All target frames which can be calculated afterwards are
+         * passed to the consumer.
+         *
+         * @param values The values of all channels of the frame
+         */
+        public void push (final float [] values)
+        {
+            if (this.receivedFrames == 0)
+                System.arraycopy (values, 0, this.firstFrame, 0, this.channels);
+            System.arraycopy (values, 0, this.lastFrame, 0, this.channels);
+            System.arraycopy (values, 0, this.history, this.receivedFrames % Resampler.this.filterLength * this.channels, this.channels);
+            this.receivedFrames++;
+            this.calculateFrames ();
+        }
+
+
+        /**
+         * Calculates the remaining target frames after the last source frame was pushed.
+         */
+        public void flush ()
+        {
+            if (this.receivedFrames == 0)
+            {
+                // No source, fill with silence
+                while (this.nextTargetFrame < this.targetFrames)
+                    this.consumer.accept (this.nextTargetFrame++, this.result);
+                return;
+            }
+
+            final float [] padding = this.lastFrame.clone ();
+            while (this.nextTargetFrame < this.targetFrames)
+                this.push (padding);
+        }
+
+
+        private void calculateFrames ()
+        {
+            final Resampler resampler = Resampler.this;
+            final int newestFrame = this.receivedFrames - 1;
+            final int filterLength = resampler.filterLength;
+            final int firstTapOffset = resampler.halfLength - 1;
+
+            while (this.nextTargetFrame < this.targetFrames)
+            {
+                // The position in the source is index + remainder / upFactor
+                final long position = (long) this.nextTargetFrame * resampler.downFactor;
+                final int index = (int) (position / resampler.upFactor);
+                if (index + resampler.halfLength > newestFrame)
+                    return;
+                final int remainder = (int) (position % resampler.upFactor);
+
+                // Find the coefficient table, interpolate between 2 tables if there are more
+                // phases than tables
+                final int table;
+                final float weight;
+                if (resampler.numberOfPhases == resampler.upFactor)
+                {
+                    table = remainder;
+                    weight = 0;
+                }
+                else
+                {
+                    final double phase = remainder * (double) resampler.numberOfPhases / resampler.upFactor;
+                    table = (int) phase;
+                    weight = (float) (phase - table);
+                }
+                final int offset1 = table * filterLength;
+                final int offset2 = offset1 + filterLength;
+
+                Arrays.fill (this.result, 0);
+                for (int tap = 0; tap < filterLength; tap++)
+                {
+                    float coefficient = resampler.coefficients[offset1 + tap];
+                    if (weight != 0)
+                        coefficient += (resampler.coefficients[offset2 + tap] - coefficient) * weight;
+
+                    final int sourceFrame = index - firstTapOffset + tap;
+                    if (sourceFrame < 0)
+                        for (int ch = 0; ch < this.channels; ch++)
+                            this.result[ch] += this.firstFrame[ch] * coefficient;
+                    else
+                    {
+                        final int historyOffset = sourceFrame % filterLength * this.channels;
+                        for (int ch = 0; ch < this.channels; ch++)
+                            this.result[ch] += this.history[historyOffset + ch] * coefficient;
+                    }
+                }
+
+                this.consumer.accept (this.nextTargetFrame, this.result);
+                this.nextTargetFrame++;
+            }
+        }
+    }
+
+
+    private static double sinc (final double x)
+    {
+        if (x == 0)
+            return 1.0;
+        final double px = Math.PI * x;
+        return Math.sin (px) / px;
+    }
+
+
+    private static double kaiser (final double x, final double beta, final double besselBeta)
+    {
+        if (Math.abs (x) > 1.0)
+            return 0;
+        return besselI0 (beta * Math.sqrt (1.0 - x * x)) / besselBeta;
+    }
+
+
+    /**
+     * Calculates the zero-th order modified Bessel function of the first kind.
+     *
+     * @param x The input value
+     * @return The result
+     */
+    private static double besselI0 (final double x)
+    {
+        double sum = 1.0;
+        double term = 1.0;
+        final double halfX = x / 2.0;
+        for (int k = 1; k < 50; k++)
+        {
+            term *= halfX / k;
+            final double squared = term * term;
+            sum += squared;
+            if (squared < sum * 1e-12)
+                break;
+        }
+        return sum;
+    }
+
+
+    private static int greatestCommonDivisor (final int a, final int b)
+    {
+        int x = a;
+        int y = b;
+        while (y != 0)
+        {
+            final int t = x % y;
+            x = y;
+            y = t;
+        }
+        return x;
+    }
+}
@@ -15,7 +15,6 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.attribute.FileTime;
 import java.text.Normalizer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -49,6 +48,7 @@ import de.mossgrabers.convertwithmoss.core.model.ISampleLoop;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
 import de.mossgrabers.convertwithmoss.core.settings.ICoreTaskSettings;
 import de.mossgrabers.convertwithmoss.file.AudioFileUtils;
+import de.mossgrabers.convertwithmoss.file.ParallelZipOutputStream;
 import de.mossgrabers.convertwithmoss.file.wav.DataChunk;
 import de.mossgrabers.convertwithmoss.file.wav.FormatChunk;
 import de.mossgrabers.convertwithmoss.file.wav.WaveFile;
@@ -66,6 +66,20 @@ import de.mossgrabers.tools.ui.Functions;
  */
 public abstract class AbstractCreator<T extends ICoreTaskSettings> extends AbstractCoreTask<T> implements ICreator<T>
 {
+    /** Writes the content of an entry of a ZIP file. */
+    @FunctionalInterface
+    protected interface IEntryWriter
+    {
+        /**
+         * Write the content of the entry.
+         *
+         * @param outputStream Where to write the content
+         * @throws IOException Could not write the content
+         */
+        void write (OutputStream outputStream) throws IOException;
+    }
+
+
     /** The post-fix to use for the samples folder. */
     protected static final String                 FOLDER_POSTFIX                     = " Samples";
 
@@ -75,7 +89,8 @@ public abstract class AbstractCreator<T extends ICoreTaskSettings> extends Abstr
 
     protected final ProgressLogger                progress;
     private final AtomicBoolean                   isCancelled                        = new AtomicBoolean (false);
-    private final boolean [] []                   layerCheckMatrix                   = new boolean [128] [128];
+    private final Set<String>                     reservedFilenames                  = new HashSet<> ();
+    private final ThreadLocal<Collection<File>>   outputFiles                        = new ThreadLocal<> ();
 
 
     /**
@@ -142,6 +157,25 @@ public abstract class AbstractCreator<T extends ICoreTaskSettings> extends Abstr
     }
 
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean supportsParallelCreation ()
+    {
+        return true;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setOutputFileCollector (final Collection<File> outputFiles)
+    {
+        if (outputFiles == null)
+            this.outputFiles.remove ();
+        else
+            this.outputFiles.set (outputFiles);
+    }
+
+
     /** {@inheritDoc} */
     @Override
     public void cancel ()
@@ -163,6 +197,11 @@ public abstract class AbstractCreator<T extends ICoreTaskSettings> extends Abstr
     public void clearCancelled ()
     {
         this.isCancelled.set (false);
+
+        synchronized (this.reservedFilenames)
+        {
+            this.reservedFilenames.clear ();
+        }
     }
 
 
@@ -461,6 +500,7 @@ public abstract class AbstractCreator<T extends ICoreTaskSettings> extends Abstr
                     this.notifier.logError (IDS_NOTIFY_ERR_MISSING_SAMPLE_DATA, zone.getName (), file.getName ());
                 else
                 {
+                    this.recordOutputFile (file);
                     AudioFileUtils.compressToFLAC (sampleData.get (), file);
                     writtenFiles.add (file);
                 }
@@ -560,7 +600,9 @@ public abstract class AbstractCreator<T extends ICoreTaskSettings> extends Abstr
 
     /**
      * Creates a unique file name in the given folder. If the file does already exists a unique
-     * prefix is appended.
+     * prefix is appended. The name is reserved until the next run, so that presets with the same
+     * name, which are created in parallel, cannot get the same name. The file is added to the
+     * output files of the current preset or performance.
      *
      * @param destinationFolder The folder in which to create the file
      * @param sampleName The name for the file
@@ -571,14 +613,33 @@ public abstract class AbstractCreator<T extends ICoreTaskSettings> extends Abstr
     {
         final String ext = extension.isBlank () ? "" : "." + extension;
         final String name = withoutExtensionTail (sampleName, extension);
-        File multiFile = new File (destinationFolder, name + ext);
-        int counter = 1;
-        while (multiFile.exists ())
+        synchronized (this.reservedFilenames)
         {
-            counter++;
-            multiFile = new File (destinationFolder, name + " (" + counter + ")" + ext);
+            File multiFile = new File (destinationFolder, name + ext);
+            int counter = 1;
+            while (multiFile.exists () || this.reservedFilenames.contains (multiFile.getAbsolutePath ()))
+            {
+                counter++;
+                multiFile = new File (destinationFolder, name + " (" + counter + ")" + ext);
+            }
+            this.reservedFilenames.add (multiFile.getAbsolutePath ());
+            this.recordOutputFile (multiFile);
+            return multiFile;
         }
-        return multiFile;
+    }
+
+
+    /**
+     * Adds a file or folder, which is created by the current preset or performance, to the output
+     * file collector of the calling thread, if any.
+     *
+     * @param file The created file or folder
+     */
+    protected void recordOutputFile (final File file)
+    {
+        final Collection<File> collector = this.outputFiles.get ();
+        if (collector != null)
+            collector.add (file);
     }
 
 
@@ -758,18 +819,54 @@ public abstract class AbstractCreator<T extends ICoreTaskSettings> extends Abstr
             return;
         }
 
+        final Date dateTime = multiSampleSource.getMetadata ().getCreationDateTime ();
+        storeUncompressedEntry (zipOutputStream, name.get (), dateTime, outputStream -> this.writeSamplefile (multiSampleSource, zone, sampleData.get (), outputStream));
+    }
+
+
+    /**
+     * Adds a new entry to an uncompressed ZIP output stream. If the stream supports it (see
+     * {@link ParallelZipOutputStream#canStreamStoredEntries()}), the content is written directly
+     * into the archive, otherwise it needs to be buffered in memory to calculate the checksum first.
+     *
+     * @param zipOutputStream The uncompressed ZIP output stream
+     * @param fileName The name to use for the file when added
+     * @param dateTime The date and time to set as the creation date of the file entry, may be null
+     * @param writer Writes the content of the file
+     * @throws IOException Could not add the file
+     */
+    protected static void storeUncompressedEntry (final ZipOutputStream zipOutputStream, final String fileName, final Date dateTime, final IEntryWriter writer) throws IOException
+    {
+        if (zipOutputStream instanceof final ParallelZipOutputStream parallelZipOutputStream && parallelZipOutputStream.canStreamStoredEntries ())
+        {
+            final ZipEntry entry = new ZipEntry (fileName);
+            entry.setMethod (ZipOutputStream.STORED);
+            if (dateTime != null)
+                entry.setLastModifiedTime (FileTime.fromMillis (dateTime.getTime ()));
+            zipOutputStream.putNextEntry (entry);
+            writer.write (zipOutputStream);
+            zipOutputStream.closeEntry ();
+            return;
+        }
+
         final CRC32 crc = new CRC32 ();
         try (final ByteArrayOutputStream bout = new ByteArrayOutputStream (); final OutputStream checkedOut = new CheckedOutputStream (bout, crc))
         {
-            if (this.requiresRewrite (DESTINATION_FORMAT))
-                this.rewriteFile (multiSampleSource, zone, checkedOut, DESTINATION_FORMAT, false);
-            else
-                sampleData.get ().writeSample (checkedOut);
-            putUncompressedEntry (zipOutputStream, name.get (), bout.toByteArray (), crc, multiSampleSource.getMetadata ().getCreationDateTime ());
+            writer.write (checkedOut);
+            putUncompressedEntry (zipOutputStream, fileName, bout.toByteArray (), crc, dateTime);
         }
     }
 
 
+    private void writeSamplefile (final IMultisampleSource multiSampleSource, final ISampleZone zone, final ISampleData sampleData, final OutputStream outputStream) throws IOException
+    {
+        if (this.requiresRewrite (DESTINATION_FORMAT))
+            this.rewriteFile (multiSampleSource, zone, outputStream, DESTINATION_FORMAT, false);
+        else
+            sampleData.writeSample (outputStream);
+    }
+
+
     /**
      * Add all samples from all groups in the given uncompressed ZIP output stream.
      *
@@ -891,6 +988,7 @@ public abstract class AbstractCreator<T extends ICoreTaskSettings> extends Abstr
                     this.notifier.logError ("IDS_NOTIFY_ALREADY_EXISTS", file.getAbsolutePath ());
                     continue;
                 }
+                this.recordOutputFile (file);
                 try (final FileOutputStream fos = new FileOutputStream (file))
                 {
                     this.progress.notifyProgress ();
@@ -1188,21 +1286,18 @@ public abstract class AbstractCreator<T extends ICoreTaskSettings> extends Abstr
      * @param groups The groups of the multi-sample
      * @return True if there are overlapping sample zones
      */
-    protected boolean checkOverlappingRanges (final List<IGroup> groups)
+    protected static boolean checkOverlappingRanges (final List<IGroup> groups)
     {
-        // Clear the matrix
-        for (int i = 0; i < 128; i++)
-            Arrays.fill (this.layerCheckMatrix[i], false);
-
         // Mark the covered ranges
+        final boolean [] [] layerCheckMatrix = new boolean [128] [128];
         for (final IGroup group: groups)
             for (final ISampleZone zone: group.getSampleZones ())
                 for (int k = zone.getKeyLow (); k <= zone.getKeyHigh (); k++)
                     for (int v = zone.getVelocityLow (); v <= zone.getVelocityHigh (); v++)
                     {
-                        if (this.layerCheckMatrix[k][v])
+                        if (layerCheckMatrix[k][v])
                             return true;
-                        this.layerCheckMatrix[k][v] = true;
+                        layerCheckMatrix[k][v] = true;
                     }
 
         return false;
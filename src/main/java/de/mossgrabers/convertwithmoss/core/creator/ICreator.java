@@ -6,6 +6,7 @@ package de.mossgrabers.convertwithmoss.core.creator;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 import de.mossgrabers.convertwithmoss.core.DetectSettings;
@@ -90,6 +91,27 @@ public interface ICreator<T extends ICoreTaskSettings> extends ICoreTask<T>
     boolean supportsPerformanceLibraries ();
 
 
+    /**
+     * Check if the creator can create several presets or performances in parallel. This requires
+     * that the creator does not keep any state between the calls of createPreset respectively
+     * createPerformance.
+     *
+     * @return Returns true if the creator can be called from several threads in parallel
+     */
+    boolean supportsParallelCreation ();
+
+
+    /**
+     * Set the collection to which the files and folders are added, which are created by the calling
+     * thread with a unique name. Folders with a unique name are added instead of their content.
+     * Since several presets or performances might be created in parallel, the collection is only
+     * used for the calls of createPreset respectively createPerformance from the same thread.
+     *
+     * @param outputFiles The collection to add the created files to, null to stop collecting
+     */
+    void setOutputFileCollector (Collection<File> outputFiles);
+
+
     /**
      * Clears the cancelled state. Call before each run.
      */
@@ -28,6 +28,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import javax.sound.sampled.AudioFileFormat;
 import javax.sound.sampled.AudioSystem;
@@ -51,7 +52,9 @@ import de.mossgrabers.convertwithmoss.core.settings.ICoreTaskSettings;
 import de.mossgrabers.convertwithmoss.core.settings.IMetadataConfig;
 import de.mossgrabers.convertwithmoss.core.settings.MetadataSettingsUI;
 import de.mossgrabers.convertwithmoss.exception.MethodNotImplemented;
+import de.mossgrabers.convertwithmoss.file.AudioFileHeader;
 import de.mossgrabers.convertwithmoss.file.AudioFileUtils;
+import de.mossgrabers.convertwithmoss.file.FileNameIndex;
 import de.mossgrabers.convertwithmoss.file.FlacFileSampleData;
 import de.mossgrabers.convertwithmoss.file.OggFileSampleData;
 import de.mossgrabers.convertwithmoss.file.aiff.AiffCommonChunk;
@@ -82,6 +85,7 @@ public abstract class AbstractDetector<T extends ICoreTaskSettings> extends Abst
     protected Consumer<IPerformanceSource>    performanceSourceConsumer;
     protected File                            sourceFolder;
     protected boolean                         detectPerformances;
+    private Predicate<File>                   sourceFileFilter;
 
     protected final Map<String, Set<String>>  unsupportedElements                 = new HashMap<> ();
     protected final Map<String, Set<String>>  unsupportedAttributes               = new HashMap<> ();
@@ -122,6 +126,28 @@ public abstract class AbstractDetector<T extends ICoreTaskSettings> extends Abst
     }
 
 
+    /** {@inheritDoc} */
+    @Override
+    public void setSourceFileFilter (final Predicate<File> sourceFileFilter)
+    {
+        this.sourceFileFilter = sourceFileFilter;
+    }
+
+
+    /**
+     * Check if a source should be read. Detectors which combine several files to one source (e.g.
+     * all samples in a folder) need to call this with the file or folder which identifies the
+     * source, otherwise its' outputs cannot be tracked in incremental mode.
+     *
+     * @param source The file or folder from which a source is read
+     * @return True if the source should be read, false to skip it
+     */
+    protected boolean isSourceAccepted (final File source)
+    {
+        return this.sourceFileFilter == null || this.sourceFileFilter.test (source);
+    }
+
+
     /**
      * Set the source folder.
      *
@@ -203,6 +229,9 @@ public abstract class AbstractDetector<T extends ICoreTaskSettings> extends Abst
                 if (this.waitForDelivery ())
                     break;
 
+                if (!this.isSourceAccepted (file))
+                    continue;
+
                 if (this.detectPerformances)
                     this.handlePerformanceFile (file);
                 else
@@ -294,22 +323,15 @@ public abstract class AbstractDetector<T extends ICoreTaskSettings> extends Abst
 
 
     /**
-     * Check for task cancellation.
+     * Check for task cancellation. Does not block: the consumers either process a source directly
+     * on the detector thread or block when handing it over to the parallel workers, which limits
+     * the number of pending sources. Only the cancel flag is checked, a stray interrupt would
+     * otherwise end the detection without being reported.
      *
      * @return The thread was cancelled if true
      */
     protected boolean waitForDelivery ()
     {
-        try
-        {
-            Thread.sleep (10);
-        }
-        catch (final InterruptedException _)
-        {
-            if (this.isCancelled ())
-                return true;
-            Thread.currentThread ().interrupt ();
-        }
         return this.isCancelled ();
     }
 
@@ -576,16 +598,29 @@ public abstract class AbstractDetector<T extends ICoreTaskSettings> extends Abst
         final String fileEnding = sampleFile.getName ().toLowerCase ();
         try
         {
+            // The header of WAV and AIFF files is read only once and shared with the checks below
+            // and the audio metadata of the sample data
+            final Optional<AudioFileHeader> header = AudioFileHeader.read (sampleFile);
+
             // Note: only AIF ending is picked up as correct ending below and it also does not
             // accept all AIFF files
             if (fileEnding.endsWith (".aiff") || fileEnding.endsWith (".aif"))
             {
                 // Check if it is a compressed (= encrypted) AIFC file and report accordingly.
                 // AIFC files with plain PCM sound data (e.g. little-endian 'sowt') are supported.
-                final AiffFile aiffFile = new AiffFile (sampleFile);
-                final AiffCommonChunk commonChunk = aiffFile.getCommonChunk ();
-                if (commonChunk != null && !commonChunk.isPCM ())
-                    throw new IOException (Functions.getMessage ("IDS_ERR_COMPRESSED_AIFF_FILE", sampleFile.getName (), commonChunk.getCompressionName (), commonChunk.getCompressionType ()));
+                if (header.isPresent () && header.get ().getType () != AudioFileHeader.Type.WAV && header.get ().hasFormat ())
+                {
+                    final AudioFileHeader aiffHeader = header.get ();
+                    if (aiffHeader.isCompressed ())
+                        throw new IOException (Functions.getMessage ("IDS_ERR_COMPRESSED_AIFF_FILE", sampleFile.getName (), aiffHeader.getCompressionName (), aiffHeader.getCompressionType ()));
+                }
+                else
+                {
+                    final AiffFile aiffFile = new AiffFile (sampleFile);
+                    final AiffCommonChunk commonChunk = aiffFile.getCommonChunk ();
+                    if (commonChunk != null && !commonChunk.isPCM ())
+                        throw new IOException (Functions.getMessage ("IDS_ERR_COMPRESSED_AIFF_FILE", sampleFile.getName (), commonChunk.getCompressionName (), commonChunk.getCompressionType ()));
+                }
 
                 return new AiffFileSampleData (sampleFile);
             }
@@ -594,8 +629,9 @@ public abstract class AbstractDetector<T extends ICoreTaskSettings> extends Abst
                 return new NcwFileSampleData (sampleFile);
 
             IFileBasedSampleData sampleData = null;
-            final AudioFileFormat audioFileFormat = AudioSystem.getAudioFileFormat (sampleFile);
-            final AudioFileFormat.Type type = audioFileFormat.getType ();
+            AudioFileFormat.Type type = header.map (AudioFileHeader::getAudioFileType).orElse (null);
+            if (type == null)
+                type = AudioSystem.getAudioFileFormat (sampleFile).getType ();
             if (AudioFileFormat.Type.WAVE.equals (type))
             {
                 if (AudioFileUtils.checkSampleFile (sampleFile, notifier))
@@ -854,8 +890,20 @@ public abstract class AbstractDetector<T extends ICoreTaskSettings> extends Abst
     }
 
 
+    /**
+     * Search for a file in a folder and all its' non-hidden sub-folders. Plain file names are
+     * looked up in the file name index of the folder, which is created on the first search.
+     *
+     * @param folder The folder in which to start the search
+     * @param fileName The name of the file to look for
+     * @return The file if found
+     */
     protected static Optional<File> findFileRecursively (final File folder, final String fileName)
     {
+        if (fileName.indexOf ('/') < 0 && fileName.indexOf (File.separatorChar) < 0)
+            return FileNameIndex.find (folder, fileName);
+
+        // Names which contain a path are not in the index
         final File sampleFile = new File (folder, fileName);
         if (sampleFile.exists ())
             return Optional.of (sampleFile);
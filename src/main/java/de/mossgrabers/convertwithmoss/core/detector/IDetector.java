@@ -6,6 +6,7 @@ package de.mossgrabers.convertwithmoss.core.detector;
 
 import java.io.File;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import de.mossgrabers.convertwithmoss.core.ICoreTask;
 import de.mossgrabers.convertwithmoss.core.IMultisampleSource;
@@ -34,6 +35,16 @@ public interface IDetector<T extends ICoreTaskSettings> extends ICoreTask<T>, Ru
     void detect (File folder, Consumer<IMultisampleSource> multisampleSourceConsumer, Consumer<IPerformanceSource> performanceSourceConsumer, boolean detectPerformances);
 
 
+    /**
+     * Set a filter which is called for each source file on the detection thread right before it
+     * is read. The sources of a file are reported before the filter is called for the next file.
+     * Detectors which combine several files into one source do not call the filter.
+     *
+     * @param sourceFileFilter Returns false if the file should be skipped, null to read all files
+     */
+    void setSourceFileFilter (Predicate<File> sourceFileFilter);
+
+
     /**
      * Check if the detector supports performance sources.
      *
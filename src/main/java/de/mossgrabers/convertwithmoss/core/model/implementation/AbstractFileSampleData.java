@@ -6,6 +6,7 @@ package de.mossgrabers.convertwithmoss.core.model.implementation;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -16,6 +17,9 @@ import java.util.zip.ZipFile;
 
 import de.mossgrabers.convertwithmoss.core.model.IFileBasedSampleData;
 import de.mossgrabers.convertwithmoss.file.AudioFileUtils;
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
+import de.mossgrabers.convertwithmoss.file.BlockDeviceInputStream;
+import de.mossgrabers.convertwithmoss.file.ZipFileCache;
 import de.mossgrabers.tools.ui.Functions;
 
 
@@ -26,11 +30,12 @@ import de.mossgrabers.tools.ui.Functions;
  */
 public abstract class AbstractFileSampleData extends AbstractSampleData implements IFileBasedSampleData
 {
-    protected String           filename;
-    protected File             sampleFile;
-    protected final File       zipFile;
-    protected final File       zipEntryFile;
-    protected Optional<String> filenameWithoutLayer = Optional.empty ();
+    protected String            filename;
+    protected File              sampleFile;
+    protected final File        zipFile;
+    protected final File        zipEntryFile;
+    protected final BlockDevice sampleRange;
+    protected Optional<String>  filenameWithoutLayer = Optional.empty ();
 
 
     /**
@@ -68,6 +73,22 @@ public abstract class AbstractFileSampleData extends AbstractSampleData implemen
     }
 
 
+    /**
+     * Constructor for a sample which is stored in a part of a larger file, e.g. a monolith.
+     *
+     * @param sampleRange The content of the sample file, e.g. a range of the memory-mapped larger
+     *            file, must not be modified afterwards
+     */
+    protected AbstractFileSampleData (final BlockDevice sampleRange)
+    {
+        this.filename = null;
+        this.sampleFile = null;
+        this.zipFile = null;
+        this.zipEntryFile = null;
+        this.sampleRange = sampleRange;
+    }
+
+
     /**
      * Constructor.
      */
@@ -91,6 +112,7 @@ public abstract class AbstractFileSampleData extends AbstractSampleData implemen
         this.sampleFile = sampleFile;
         this.zipFile = zipFile;
         this.zipEntryFile = zipEntry;
+        this.sampleRange = null;
     }
 
 
@@ -104,10 +126,16 @@ public abstract class AbstractFileSampleData extends AbstractSampleData implemen
             return;
         }
 
+        if (this.sampleRange != null)
+        {
+            this.openSampleRange ().transferTo (outputStream);
+            return;
+        }
+
         if (this.zipFile == null)
             return;
 
-        try (final ZipFile zf = new ZipFile (this.zipFile); final InputStream in = zf.getInputStream (this.getHarmonizedZipEntry (zf)))
+        try (final InputStream in = this.openZipEntry ())
         {
             in.transferTo (outputStream);
         }
@@ -124,7 +152,13 @@ public abstract class AbstractFileSampleData extends AbstractSampleData implemen
             return;
         }
 
-        try (final ZipFile zf = new ZipFile (this.zipFile); final InputStream in = zf.getInputStream (this.getHarmonizedZipEntry (zf)))
+        if (this.sampleRange != null)
+        {
+            this.audioMetadata = AudioFileUtils.getMetadata (this.openSampleRange ());
+            return;
+        }
+
+        try (final InputStream in = this.openZipEntry ())
         {
             this.audioMetadata = AudioFileUtils.getMetadata (in);
         }
@@ -139,6 +173,67 @@ public abstract class AbstractFileSampleData extends AbstractSampleData implemen
     }
 
 
+    /**
+     * Get the file from which the sample is read.
+     *
+     * @return The sample file or the ZIP file which contains it, empty if the sample is stored in a
+     *         part of a larger file or in memory
+     */
+    public Optional<File> getSourceFile ()
+    {
+        return Optional.ofNullable (this.sampleFile == null ? this.zipFile : this.sampleFile);
+    }
+
+
+    /**
+     * Opens the sample file which is stored in a part of a larger file.
+     *
+     * @return The stream to read the sample file
+     */
+    protected InputStream openSampleRange ()
+    {
+        return new BlockDeviceInputStream (this.sampleRange);
+    }
+
+
+    /**
+     * Opens the sample file stored in the ZIP file. The ZIP file is taken from the shared cache of
+     * open ZIP files and not re-opened for each sample.
+     *
+     * @return The stream to read the sample file, must be closed
+     * @throws IOException Could not open the ZIP file or the entry could not be found
+     */
+    protected InputStream openZipEntry () throws IOException
+    {
+        final ZipFileCache.Handle handle = ZipFileCache.acquire (this.zipFile);
+        try
+        {
+            final ZipFile zf = handle.getZipFile ();
+            return new FilterInputStream (zf.getInputStream (this.getHarmonizedZipEntry (zf)))
+            {
+                /** {@inheritDoc} */
+                @Override
+                public void close () throws IOException
+                {
+                    try
+                    {
+                        super.close ();
+                    }
+                    finally
+                    {
+                        handle.close ();
+                    }
+                }
+            };
+        }
+        catch (final IOException | RuntimeException ex)
+        {
+            handle.close ();
+            throw ex;
+        }
+    }
+
+
     /**
      * Get the entry in the ZIP file.
      *
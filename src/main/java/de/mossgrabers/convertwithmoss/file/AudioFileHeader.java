@@ -0,0 +1,345 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+
+import de.mossgrabers.convertwithmoss.core.model.IAudioMetadata;
+import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultAudioMetadata;
+import de.mossgrabers.convertwithmoss.file.aiff.AiffCommonChunk;
+
+
+/**
+ * The format information of a WAV or AIFF file. Only the headers of the chunks up to the chunk
+ * which contains the audio data are read (RIFF respectively FORM structure), the audio data itself
+ * is skipped. Since the same file is probed several times during the detection (e.g. to check the
+ * file type, to check the number of channels and to get the audio metadata), the results are
+ * cached. The cache is cleared with {@link #clearCache()} when the conversion is finished.
+ *
+ * @author Jürgen Moßgraber
+ */
+public final class AudioFileHeader
+{
+    /** The supported file types. */
+    public enum Type
+    {
+        /** A RIFF WAVE file. */
+        WAV,
+        /** An AIFF file. */
+        AIFF,
+        /** An AIFF-C file. */
+        AIFC
+    }
+
+
+    private static final int                                      MAX_CACHE_ENTRIES  = 10000;
+    private static final int                                      WAVE_FORMAT_PCM    = 1;
+    private static final int                                      AIFF_COMMON_SIZE   = 18;
+    private static final int                                      MAX_FORMAT_SIZE    = 256;
+
+    private static final Map<CacheKey, Optional<AudioFileHeader>> CACHE              = new LinkedHashMap<> (16, 0.75f, true);
+
+    private final Type                                            type;
+    private boolean                                               hasFormat          = false;
+    private boolean                                               hasData            = false;
+    private boolean                                               isDataBeforeFormat = false;
+    private int                                                   formatTag          = -1;
+    private int                                                   numChannels;
+    private double                                                sampleRate;
+    private int                                                   bitsPerSample;
+    private long                                                  numFrames;
+    private long                                                  dataSize;
+    private String                                                compressionType    = null;
+    private String                                                compressionName    = null;
+
+
+    /**
+     * Constructor.
+     *
+     * @param type The type of the file
+     */
+    private AudioFileHeader (final Type type)
+    {
+        this.type = type;
+    }
+
+
+    /**
+     * Get the header information of a WAV or AIFF file. The result is cached as long as the file is
+     * not modified.
+     *
+     * @param audioFile The audio file
+     * @return The header or empty if it is neither a WAV nor an AIFF file
+     * @throws IOException Could not read the file
+     */
+    public static Optional<AudioFileHeader> read (final File audioFile) throws IOException
+    {
+        final CacheKey key = new CacheKey (audioFile.getAbsolutePath (), audioFile.lastModified (), audioFile.length ());
+        synchronized (CACHE)
+        {
+            final Optional<AudioFileHeader> header = CACHE.get (key);
+            if (header != null)
+                return header;
+        }
+
+        final Optional<AudioFileHeader> header;
+        try (final RandomAccessFile file = new RandomAccessFile (audioFile, "r"))
+        {
+            header = Optional.ofNullable (read (file));
+        }
+
+        synchronized (CACHE)
+        {
+            CACHE.put (key, header);
+            if (CACHE.size () > MAX_CACHE_ENTRIES)
+            {
+                final Iterator<CacheKey> iterator = CACHE.keySet ().iterator ();
+                iterator.next ();
+                iterator.remove ();
+            }
+        }
+        return header;
+    }
+
+
+    /**
+     * Removes all headers from the cache.
+     */
+    public static void clearCache ()
+    {
+        synchronized (CACHE)
+        {
+            CACHE.clear ();
+        }
+    }
+
+
+    /**
+     * Get the type of the file.
+     *
+     * @return The type
+     */
+    public Type getType ()
+    {
+        return this.type;
+    }
+
+
+    /**
+     * Check if the format information was found (format chunk of a WAV respectively common chunk
+     * of an AIFF file).
+     *
+     * @return True if found
+     */
+    public boolean hasFormat ()
+    {
+        return this.hasFormat;
+    }
+
+
+    /**
+     * Get the number of channels.
+     *
+     * @return The number of channels
+     */
+    public int getNumberOfChannels ()
+    {
+        return this.numChannels;
+    }
+
+
+    /**
+     * Get the compression type if is an AIFC file.
+     *
+     * @return The type or null, if not compressed
+     */
+    public String getCompressionType ()
+    {
+        return this.compressionType;
+    }
+
+
+    /**
+     * Get the compression name if is an AIFC file.
+     *
+     * @return The name or null, if not compressed
+     */
+    public String getCompressionName ()
+    {
+        return this.compressionName;
+    }
+
+
+    /**
+     * Check if the audio data of an AIFF file is compressed (which is not supported).
+     *
+     * @return True if it is an AIFF file with a compression type which is not plain PCM
+     */
+    public boolean isCompressed ()
+    {
+        return this.compressionType != null && !AiffCommonChunk.isPCM (this.compressionType);
+    }
+
+
+    /**
+     * Get the type of the file as it would be reported by the Java Sound API. Only reported for
+     * files with plain PCM data which the Java Sound API can read.
+     *
+     * @return The type or null if the Java Sound API needs to be consulted
+     */
+    public AudioFileFormat.Type getAudioFileType ()
+    {
+        if (!this.isReadableByJavaSound ())
+            return null;
+        return this.type == Type.WAV ? AudioFileFormat.Type.WAVE : AudioFileFormat.Type.AIFF;
+    }
+
+
+    /**
+     * Get the audio metadata. For plain PCM data the values are identical to the ones reported by
+     * the Java Sound API. For AIFC files with PCM data (which the Java Sound API cannot read) the
+     * values are taken directly from the common chunk.
+     *
+     * @return The metadata or null if the Java Sound API needs to be consulted
+     */
+    public IAudioMetadata getMetadata ()
+    {
+        if (this.isReadableByJavaSound ())
+        {
+            final long frameLength;
+            if (this.type == Type.WAV)
+                frameLength = this.dataSize / ((this.bitsPerSample + 7) / 8 * this.numChannels);
+            else
+                frameLength = this.numFrames;
+            final int numSamples = frameLength > Integer.MAX_VALUE ? AudioSystem.NOT_SPECIFIED : (int) frameLength;
+            return new DefaultAudioMetadata (this.numChannels, (int) (float) this.sampleRate, this.bitsPerSample, numSamples);
+        }
+
+        if (this.type != Type.WAV && this.hasFormat && this.compressionType != null && !this.isCompressed ())
+            return new DefaultAudioMetadata (this.numChannels, (int) this.sampleRate, this.bitsPerSample, (int) this.numFrames);
+        return null;
+    }
+
+
+    private boolean isReadableByJavaSound ()
+    {
+        if (!this.hasFormat || !this.hasData || this.isDataBeforeFormat || this.numChannels <= 0)
+            return false;
+        if (this.type == Type.WAV)
+            return this.formatTag == WAVE_FORMAT_PCM && this.numChannels <= Short.MAX_VALUE && this.bitsPerSample > 0 && this.bitsPerSample <= Short.MAX_VALUE;
+        return this.type == Type.AIFF && this.compressionType == null && this.bitsPerSample >= 1 && this.bitsPerSample <= 32;
+    }
+
+
+    private static AudioFileHeader read (final RandomAccessFile file) throws IOException
+    {
+        final byte [] fileHeader = new byte [12];
+        if (file.read (fileHeader) != fileHeader.length)
+            return null;
+
+        final String fileID = new String (fileHeader, 0, 4, StandardCharsets.US_ASCII);
+        final String formType = new String (fileHeader, 8, 4, StandardCharsets.US_ASCII);
+        if ("RIFF".equals (fileID) && "WAVE".equals (formType))
+            return readChunks (file, new AudioFileHeader (Type.WAV), ByteOrder.LITTLE_ENDIAN, "fmt ", "data");
+        if ("FORM".equals (fileID) && ("AIFF".equals (formType) || "AIFC".equals (formType)))
+            return readChunks (file, new AudioFileHeader ("AIFF".equals (formType) ? Type.AIFF : Type.AIFC), ByteOrder.BIG_ENDIAN, "COMM", "SSND");
+        return null;
+    }
+
+
+    private static AudioFileHeader readChunks (final RandomAccessFile file, final AudioFileHeader header, final ByteOrder byteOrder, final String formatID, final String dataID) throws IOException
+    {
+        final long fileLength = file.length ();
+        final byte [] chunkHeader = new byte [8];
+        long position = 12;
+        while (!(header.hasFormat && header.hasData) && position + chunkHeader.length <= fileLength)
+        {
+            file.seek (position);
+            file.readFully (chunkHeader);
+            final String chunkID = new String (chunkHeader, 0, 4, StandardCharsets.US_ASCII);
+            final long chunkSize = ByteBuffer.wrap (chunkHeader, 4, 4).order (byteOrder).getInt () & 0xFFFFFFFFL;
+            final long chunkStart = position + chunkHeader.length;
+
+            if (formatID.equals (chunkID) && !header.hasFormat)
+            {
+                final byte [] content = new byte [(int) Math.min (Math.min (chunkSize, MAX_FORMAT_SIZE), fileLength - chunkStart)];
+                file.readFully (content);
+                if (header.type == Type.WAV ? !header.readFormat (content) : !header.readCommon (content))
+                    return header;
+                header.isDataBeforeFormat = header.hasData;
+            }
+            else if (dataID.equals (chunkID) && !header.hasData)
+            {
+                header.hasData = true;
+                header.dataSize = chunkSize;
+            }
+
+            // Chunks are padded to an even size
+            position = chunkStart + chunkSize + (chunkSize & 1);
+        }
+        return header;
+    }
+
+
+    private boolean readFormat (final byte [] content)
+    {
+        if (content.length < 16)
+            return false;
+
+        final ByteBuffer buffer = ByteBuffer.wrap (content).order (ByteOrder.LITTLE_ENDIAN);
+        this.formatTag = buffer.getShort (0) & 0xFFFF;
+        this.numChannels = buffer.getShort (2) & 0xFFFF;
+        this.sampleRate = buffer.getInt (4);
+        this.bitsPerSample = buffer.getShort (14) & 0xFFFF;
+        this.hasFormat = true;
+        return true;
+    }
+
+
+    private boolean readCommon (final byte [] content)
+    {
+        if (content.length < AIFF_COMMON_SIZE)
+            return false;
+
+        final ByteBuffer buffer = ByteBuffer.wrap (content);
+        this.numChannels = buffer.getShort (0) & 0xFFFF;
+        this.numFrames = buffer.getInt (2) & 0xFFFFFFFFL;
+        this.bitsPerSample = buffer.getShort (6) & 0xFFFF;
+        final byte [] sampleRateData = new byte [10];
+        buffer.get (8, sampleRateData);
+        this.sampleRate = AiffCommonChunk.readDouble80 (sampleRateData);
+
+        // Additional AIFC attributes
+        if (content.length > AIFF_COMMON_SIZE)
+        {
+            if (content.length < AIFF_COMMON_SIZE + 5)
+                return false;
+            this.compressionType = new String (content, AIFF_COMMON_SIZE, 4, StandardCharsets.US_ASCII);
+            final int nameLength = Math.min (content[AIFF_COMMON_SIZE + 4] & 0xFF, content.length - AIFF_COMMON_SIZE - 5);
+            this.compressionName = new String (content, AIFF_COMMON_SIZE + 5, nameLength, StandardCharsets.US_ASCII).trim ();
+        }
+
+        this.hasFormat = true;
+        return true;
+    }
+
+
+    private record CacheKey (String path, long lastModified, long length)
+    {
+        // Intentionally empty
+    }
+}
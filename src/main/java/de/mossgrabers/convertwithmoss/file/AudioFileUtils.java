@@ -6,7 +6,6 @@ package de.mossgrabers.convertwithmoss.file;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -14,9 +13,12 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import javax.sound.sampled.AudioFileFormat;
 import javax.sound.sampled.AudioFormat;
@@ -26,6 +28,7 @@ import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 import de.mossgrabers.convertwithmoss.core.INotifier;
+import de.mossgrabers.convertwithmoss.core.algorithm.Resampler;
 import de.mossgrabers.convertwithmoss.core.creator.DestinationAudioFormat;
 import de.mossgrabers.convertwithmoss.core.model.IAudioMetadata;
 import de.mossgrabers.convertwithmoss.core.model.ISampleData;
@@ -54,6 +57,8 @@ public final class AudioFileUtils
         24
     }, -1, false);
 
+    private static volatile Resampler.Quality   resampleQuality        = Resampler.Quality.HIGH;
+
 
     /**
      * Private due to helper class.
@@ -64,6 +69,18 @@ public final class AudioFileUtils
     }
 
 
+    /**
+     * Set the quality which is used if the sample rate needs to be changed to match a destination
+     * format.
+     *
+     * @param quality The re-sampling quality
+     */
+    public static void setResampleQuality (final Resampler.Quality quality)
+    {
+        resampleQuality = quality;
+    }
+
+
     /**
      * Get the number of samples of an audio file.
      *
@@ -93,6 +110,15 @@ public final class AudioFileUtils
      */
     public static IAudioMetadata getMetadata (final File audioFile) throws IOException
     {
+        // Plain WAV and AIFF files do not need to be opened again by the Java Sound API
+        final Optional<AudioFileHeader> header = AudioFileHeader.read (audioFile);
+        if (header.isPresent ())
+        {
+            final IAudioMetadata metadata = header.get ().getMetadata ();
+            if (metadata != null)
+                return metadata;
+        }
+
         try
         {
             return getMetadata (AudioSystem.getAudioFileFormat (audioFile));
@@ -171,8 +197,16 @@ public final class AudioFileUtils
 
         try
         {
-            final WaveFile waveFile = new WaveFile (wavFile, true);
-            checkSampleFile (wavFile.getAbsolutePath (), waveFile, notifier);
+            // Only the header is required to check the format, the WAV file is only parsed
+            // completely if the header cannot be read
+            final Optional<AudioFileHeader> header = AudioFileHeader.read (wavFile);
+            if (header.isPresent () && header.get ().getType () == AudioFileHeader.Type.WAV && header.get ().hasFormat ())
+                checkNumberOfChannels (wavFile.getAbsolutePath (), header.get ().getNumberOfChannels (), notifier);
+            else
+            {
+                final WaveFile waveFile = new WaveFile (wavFile, true);
+                checkSampleFile (wavFile.getAbsolutePath (), waveFile, notifier);
+            }
         }
         catch (final IOException | ParseException | RuntimeException ex)
         {
@@ -202,13 +236,17 @@ public final class AudioFileUtils
             return false;
         }
 
-        final int numberOfChannels = formatChunk.getNumberOfChannels ();
+        return checkNumberOfChannels (filename, formatChunk.getNumberOfChannels (), notifier);
+    }
+
+
+    private static boolean checkNumberOfChannels (final String filename, final int numberOfChannels, final INotifier notifier)
+    {
         if (numberOfChannels > 2)
         {
             notifier.logError ("IDS_NOTIFY_ERR_MONO", Integer.toString (numberOfChannels), filename);
             return false;
         }
-
         return true;
     }
 
@@ -224,16 +262,11 @@ public final class AudioFileUtils
      */
     public static WaveFile convertToWav (final ISampleData sampleData, final DestinationAudioFormat destinationFormat) throws IOException
     {
-        try
-        {
-            final WaveFile waveFile = new WaveFile ();
-            waveFile.read (new ByteArrayInputStream (convertToWavData (sampleData, destinationFormat)), true);
-            return waveFile;
-        }
-        catch (final ParseException ex)
-        {
-            throw new IOException (ex);
-        }
+        // Having the data in-memory is important because the audio input stream needs to get the
+        // length of data, the buffer is read without copying it
+        final SampleBuffer dataOut = new SampleBuffer ();
+        sampleData.writeSample (dataOut);
+        return convertToWav (dataOut.toInputStream (), destinationFormat);
     }
 
 
@@ -248,29 +281,24 @@ public final class AudioFileUtils
      */
     public static byte [] convertToWavData (final ISampleData sampleData, final DestinationAudioFormat destinationFormat) throws IOException
     {
-        final ByteArrayOutputStream dataOut = new ByteArrayOutputStream ();
-        sampleData.writeSample (dataOut);
-        return convertToWav (dataOut.toByteArray (), destinationFormat);
+        final WaveFile waveFile = convertToWav (sampleData, destinationFormat);
+        // Allocate the final size to write the WAV directly into the returned array
+        final SampleBuffer outputStream = new SampleBuffer ((int) waveFile.getFileSize ());
+        waveFile.write (outputStream);
+        return outputStream.getData ();
     }
 
 
     /**
-     * Converts the input data to the output data. Having the data in-memory is important because
-     * the audio input stream needs to get the length of data! The resulting streamed file has a
-     * maximum bit resolution and sample rate of the given parameters.
+     * Converts the audio file in the input stream to a WAV file. The resulting file has a maximum
+     * bit resolution and sample rate of the given parameters.
      *
-     * @param inputData The data of the input file
+     * @param inputStream The stream with the data of the input file
      * @param destinationFormat The destination WAV format configuration
-     * @return The WAV data of the output file
+     * @return The WAV file
      * @throws IOException Could not read or write
      */
-    private static byte [] convertToWav (final byte [] inputData, final DestinationAudioFormat destinationFormat) throws IOException
-    {
-        return convertToWav (new ByteArrayInputStream (inputData), destinationFormat);
-    }
-
-
-    private static byte [] convertToWav (final InputStream inputStream, final DestinationAudioFormat destinationFormat) throws IOException
+    private static WaveFile convertToWav (final InputStream inputStream, final DestinationAudioFormat destinationFormat) throws IOException
     {
         try (final AudioInputStream audioInputStream = AudioSystem.getAudioInputStream (inputStream))
         {
@@ -282,65 +310,242 @@ public final class AudioFileUtils
             if (maxSampleRate != -1 && (sampleRate > maxSampleRate || destinationFormat.isUpSample ()))
                 sampleRate = maxSampleRate;
 
-            final Encoding encoding = audioFormat.getEncoding ();
-            final boolean is32BitFloat = encoding == Encoding.PCM_FLOAT && audioFormat.getSampleSizeInBits () == 32;
-            final AudioFormat newAudioFormat = new AudioFormat (sampleRate, is32BitFloat ? 16 : bitResolution, audioFormat.getChannels (), encoding == Encoding.PCM_SIGNED || is32BitFloat, audioFormat.isBigEndian ());
-
-            // AudioSystem handles 32bit float values incorrect. We need our own implementation.
-            if (is32BitFloat)
-                try (AudioInputStream convertedAudioInputStream = convertAudioStreamFrom32BitFloatTo16BitPCM (audioInputStream, audioFormat, newAudioFormat))
-                {
-                    return doConvertToWav (convertedAudioInputStream, newAudioFormat);
-                }
+            // Floating point samples are converted to 16 bit
+            final int targetBitResolution = audioFormat.getEncoding () == Encoding.PCM_FLOAT ? 16 : bitResolution;
+            if (isSupportedPCM (audioFormat))
+                return convertPCM (audioInputStream, sampleRate, targetBitResolution);
 
-            return doConvertToWav (audioInputStream, newAudioFormat);
+            // Other encodings need to be decoded by the audio system first
+            final int decodedBitResolution = audioFormat.getSampleSizeInBits () > 0 ? audioFormat.getSampleSizeInBits () : 16;
+            final AudioFormat decodedFormat = new AudioFormat (audioFormat.getSampleRate (), decodedBitResolution, audioFormat.getChannels (), true, false);
+            try (final AudioInputStream decodedInputStream = AudioSystem.getAudioInputStream (decodedFormat, audioInputStream))
+            {
+                return convertPCM (decodedInputStream, sampleRate, targetBitResolution);
+            }
         }
-        catch (final UnsupportedAudioFileException ex)
+        catch (final UnsupportedAudioFileException | IllegalArgumentException ex)
         {
             throw new IOException (ex);
         }
     }
 
 
-    private static AudioInputStream convertAudioStreamFrom32BitFloatTo16BitPCM (final AudioInputStream inputStream, final AudioFormat sourceAudioFormat, final AudioFormat destinationAudioFormat) throws IOException
+    /**
+     * Check if the audio data is PCM data which can be converted directly.
+     *
+     * @param audioFormat The format of the audio data
+     * @return True if the format is supported
+     */
+    private static boolean isSupportedPCM (final AudioFormat audioFormat)
     {
-        if (destinationAudioFormat.getSampleSizeInBits () != 16)
-            throw new IOException (Functions.getMessage ("IDS_WAV_ONLY_16_BIT_SUPPORTED", Integer.toString (destinationAudioFormat.getSampleSizeInBits ())));
+        final Encoding encoding = audioFormat.getEncoding ();
+        final int sampleSizeInBits = audioFormat.getSampleSizeInBits ();
+        if (sampleSizeInBits <= 0 || sampleSizeInBits % 8 != 0 || audioFormat.getSampleRate () <= 0)
+            return false;
+        if (encoding == Encoding.PCM_FLOAT)
+            return sampleSizeInBits == 32 || sampleSizeInBits == 64;
+        if (encoding == Encoding.PCM_UNSIGNED)
+            return sampleSizeInBits == 8;
+        return encoding == Encoding.PCM_SIGNED && sampleSizeInBits <= 32;
+    }
 
-        final byte [] sourceData = inputStream.readAllBytes ();
-        final ByteBuffer inputBuffer = ByteBuffer.wrap (sourceData).order (sourceAudioFormat.isBigEndian () ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
-        final ByteBuffer outputBuffer = ByteBuffer.allocate (sourceData.length / 2).order (destinationAudioFormat.isBigEndian () ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
 
-        for (int i = 0; i < sourceData.length; i += 4)
+    /**
+     * Converts the PCM audio data to the given bit resolution and sample rate. The result is
+     * written directly into the data chunk of the WAV file which is allocated with the final
+     * length upfront.
+     *
+     * @param audioInputStream The stream with the PCM audio data
+     * @param sampleRate The sample rate of the result
+     * @param bitResolution The bit resolution of the result
+     * @return The WAV file
+     * @throws IOException Could not read the audio data
+     */
+    private static WaveFile convertPCM (final AudioInputStream audioInputStream, final int sampleRate, final int bitResolution) throws IOException
+    {
+        final AudioFormat sourceFormat = audioInputStream.getFormat ();
+        final int channels = sourceFormat.getChannels ();
+        final int sourceFrameSize = channels * sourceFormat.getSampleSizeInBits () / 8;
+
+        AudioInputStream sourceInputStream = audioInputStream;
+        long sourceFrames = audioInputStream.getFrameLength ();
+        if (sourceFrames == AudioSystem.NOT_SPECIFIED)
         {
-            final float floatValue = inputBuffer.getFloat (i);
+            // Decoded streams do not know their length
+            final byte [] sourceData = audioInputStream.readAllBytes ();
+            sourceFrames = sourceData.length / sourceFrameSize;
+            sourceInputStream = new AudioInputStream (new ByteArrayInputStream (sourceData), sourceFormat, sourceFrames);
+        }
 
-            // Convert float to 16-bit PCM
-            outputBuffer.putShort ((short) (floatValue * Short.MAX_VALUE));
+        final int sourceRate = Math.round (sourceFormat.getSampleRate ());
+        final Resampler resampler = sourceRate == sampleRate ? null : Resampler.getInstance (sourceRate, sampleRate, resampleQuality);
+        final int targetFrames = resampler == null ? (int) sourceFrames : resampler.getTargetLength ((int) sourceFrames);
+
+        final WaveFile waveFile = new WaveFile (channels, sampleRate, bitResolution, targetFrames);
+        final byte [] targetData = waveFile.getDataChunk ().getData ();
+        final int length;
+        if (resampler == null)
+            length = convertSamples (sourceInputStream, targetData, bitResolution);
+        else
+        {
+            resampleSamples (sourceInputStream, resampler, targetFrames, targetData, bitResolution);
+            length = targetData.length;
         }
 
-        final byte [] outputData = outputBuffer.array ();
-        final long frameLength = outputData.length / destinationAudioFormat.getFrameSize ();
-        return new AudioInputStream (new ByteArrayInputStream (outputBuffer.array ()), destinationAudioFormat, frameLength);
+        // Cut off the end if the stream was shorter than announced
+        if (length < targetData.length)
+            waveFile.getDataChunk ().setData (Arrays.copyOf (targetData, length));
+        return waveFile;
     }
 
 
-    private static byte [] doConvertToWav (final AudioInputStream audioInputStream, final AudioFormat newAudioFormat) throws IOException
+    /**
+     * Converts the bit resolution of the samples and writes them into the data of a WAV file.
+     * Increasing the resolution pads the lower bits with zeros, reducing it rounds to the nearest
+     * value.
+     *
+     * @param audioInputStream The stream with the PCM audio data
+     * @param targetData Where to write the converted samples
+     * @param bitResolution The bit resolution of the result
+     * @return The number of bytes written to the target data
+     * @throws IOException Could not read the audio data
+     */
+    private static int convertSamples (final AudioInputStream audioInputStream, final byte [] targetData, final int bitResolution) throws IOException
     {
-        File tempFile = null;
-        try (final AudioInputStream convertedAudioInputStream = AudioSystem.getAudioInputStream (newAudioFormat, audioInputStream))
+        final AudioFormat sourceFormat = audioInputStream.getFormat ();
+        final int sourceBitResolution = sourceFormat.getSampleSizeInBits ();
+        final int sourceBytesPerSample = sourceBitResolution / 8;
+        final boolean isFloat = sourceFormat.getEncoding () == Encoding.PCM_FLOAT;
+        final boolean isUnsigned = sourceFormat.getEncoding () == Encoding.PCM_UNSIGNED;
+        final ByteOrder byteOrder = sourceFormat.isBigEndian () ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+        // The source has already the format of the WAV data (8 bit unsigned, otherwise signed
+        // little-endian), simply copy it
+        if (!isFloat && sourceBitResolution == bitResolution && (sourceBytesPerSample == 1 ? isUnsigned : byteOrder == ByteOrder.LITTLE_ENDIAN))
+            return audioInputStream.readNBytes (targetData, 0, targetData.length);
+
+        final int targetBytesPerSample = bitResolution / 8;
+        final long targetMaximum = (1L << bitResolution - 1) - 1;
+        final int shift = bitResolution - sourceBitResolution;
+        final long rounding = shift < 0 ? 1L << -shift - 1 : 0;
+
+        final byte [] chunk = new byte [Math.max (1, 0x10000 / sourceBytesPerSample) * sourceBytesPerSample];
+        final ByteBuffer chunkBuffer = ByteBuffer.wrap (chunk).order (byteOrder);
+        int targetOffset = 0;
+        int bytesRead;
+        while (targetOffset < targetData.length && (bytesRead = audioInputStream.readNBytes (chunk, 0, chunk.length)) >= sourceBytesPerSample)
         {
-            // Cannot write to a stream since the length is not known and therefore the WAV
-            // header cannot be written and write method crashes
-            tempFile = File.createTempFile ("wav", "tmp");
-            AudioSystem.write (convertedAudioInputStream, AudioFileFormat.Type.WAVE, tempFile);
-            return Files.readAllBytes (tempFile.toPath ());
+            for (int position = 0; position + sourceBytesPerSample <= bytesRead && targetOffset < targetData.length; position += sourceBytesPerSample)
+            {
+                final long value;
+                if (isFloat)
+                {
+                    final double floatValue = sourceBytesPerSample == 4 ? chunkBuffer.getFloat (position) * (float) targetMaximum : chunkBuffer.getDouble (position) * targetMaximum;
+                    value = Math.clamp ((long) floatValue, -targetMaximum - 1, targetMaximum);
+                }
+                else
+                {
+                    final long sample = isUnsigned ? (chunk[position] & 0xFF) - 128 : readSignedSample (chunk, position, sourceBytesPerSample, byteOrder);
+                    value = shift >= 0 ? sample << shift : Math.min ((sample + rounding) >> -shift, targetMaximum);
+                }
+                writeSample (targetData, targetOffset, value, targetBytesPerSample);
+                targetOffset += targetBytesPerSample;
+            }
+            if (bytesRead < chunk.length)
+                break;
         }
-        finally
+        return targetOffset;
+    }
+
+
+    /**
+     * Changes the sample rate of the audio data with the band-limited re-sampler and writes the
+     * result into the data of a WAV file. The audio data is streamed in chunks through the
+     * re-sampler.
+     *
+     * @param audioInputStream The stream with the PCM audio data
+     * @param resampler The re-sampler to use
+     * @param targetFrames The number of frames of the result
+     * @param targetData Where to write the re-sampled samples
+     * @param bitResolution The bit resolution of the result
+     * @throws IOException Could not read the audio data
+     */
+    private static void resampleSamples (final AudioInputStream audioInputStream, final Resampler resampler, final int targetFrames, final byte [] targetData, final int bitResolution) throws IOException
+    {
+        final AudioFormat sourceFormat = audioInputStream.getFormat ();
+        final int channels = sourceFormat.getChannels ();
+        final int sourceBytesPerSample = sourceFormat.getSampleSizeInBits () / 8;
+        final int sourceFrameSize = channels * sourceBytesPerSample;
+        final boolean isFloat = sourceFormat.getEncoding () == Encoding.PCM_FLOAT;
+        final boolean isUnsigned = sourceFormat.getEncoding () == Encoding.PCM_UNSIGNED;
+        final ByteOrder byteOrder = sourceFormat.isBigEndian () ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+        final int targetBytesPerSample = bitResolution / 8;
+        final double targetScale = Math.pow (2, bitResolution - 1.0);
+        final long targetMaximum = (long) targetScale - 1;
+        final long targetMinimum = -(long) targetScale;
+        final Resampler.Stream stream = resampler.createStream (channels, targetFrames, (frame, values) -> {
+            int offset = frame * channels * targetBytesPerSample;
+            for (int ch = 0; ch < channels; ch++)
+            {
+                writeSample (targetData, offset, Math.clamp (Math.round (values[ch] * targetScale), targetMinimum, targetMaximum), targetBytesPerSample);
+                offset += targetBytesPerSample;
+            }
+        });
+
+        // Convert the source values to the range of [-1..1]
+        final double sourceScale = 1.0 / Math.pow (2, sourceFormat.getSampleSizeInBits () - 1.0);
+        final byte [] chunk = new byte [Math.max (1, 0x10000 / sourceFrameSize) * sourceFrameSize];
+        final ByteBuffer chunkBuffer = ByteBuffer.wrap (chunk).order (byteOrder);
+        final float [] values = new float [channels];
+        int bytesRead;
+        while ((bytesRead = audioInputStream.readNBytes (chunk, 0, chunk.length)) >= sourceFrameSize)
         {
-            if (tempFile != null)
-                Files.delete (tempFile.toPath ());
+            for (int offset = 0; offset + sourceFrameSize <= bytesRead; offset += sourceFrameSize)
+            {
+                for (int ch = 0; ch < channels; ch++)
+                {
+                    final int position = offset + ch * sourceBytesPerSample;
+                    if (isFloat)
+                        values[ch] = sourceBytesPerSample == 4 ? chunkBuffer.getFloat (position) : (float) chunkBuffer.getDouble (position);
+                    else if (isUnsigned)
+                        values[ch] = (float) (((chunk[position] & 0xFF) - 128) * sourceScale);
+                    else
+                        values[ch] = (float) (readSignedSample (chunk, position, sourceBytesPerSample, byteOrder) * sourceScale);
+                }
+                stream.push (values);
+            }
+            if (bytesRead < chunk.length)
+                break;
         }
+        stream.flush ();
+    }
+
+
+    private static long readSignedSample (final byte [] data, final int offset, final int bytesPerSample, final ByteOrder byteOrder)
+    {
+        long sample = 0;
+        if (byteOrder == ByteOrder.BIG_ENDIAN)
+            for (int i = 0; i < bytesPerSample; i++)
+                sample = sample << 8 | data[offset + i] & 0xFF;
+        else
+            for (int i = bytesPerSample - 1; i >= 0; i--)
+                sample = sample << 8 | data[offset + i] & 0xFF;
+
+        // Sign extend
+        final int shift = 64 - 8 * bytesPerSample;
+        return sample << shift >> shift;
+    }
+
+
+    private static void writeSample (final byte [] data, final int offset, final long value, final int bytesPerSample)
+    {
+        // 8-bit WAV samples are unsigned with a bias of 128
+        if (bytesPerSample == 1)
+            data[offset] = (byte) (value + 128);
+        else
+            for (int i = 0; i < bytesPerSample; i++)
+                data[offset + i] = (byte) (value >> 8 * i);
     }
 
 
@@ -434,7 +639,12 @@ public final class AudioFileUtils
      */
     public static void compressToFLAC (final ISampleData sampleData, final File file) throws IOException
     {
-        Files.write (file.toPath (), compressToFLAC (sampleData));
+        final WaveFile waveFile = convertToWav (sampleData, FLAC_COMPATIBLE_FORMAT);
+        final FormatChunk formatChunk = waveFile.getFormatChunk ();
+        try (final FileChannel channel = FileChannel.open (file.toPath (), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            FlacEncoder.encode (waveFile.getDataChunk ().getData (), formatChunk.getNumberOfChannels (), formatChunk.getSampleRate (), formatChunk.getSignificantBitsPerSample (), channel);
+        }
     }
 
 
@@ -451,39 +661,7 @@ public final class AudioFileUtils
     {
         final WaveFile waveFile = convertToWav (sampleData, FLAC_COMPATIBLE_FORMAT);
         final FormatChunk formatChunk = waveFile.getFormatChunk ();
-        final int numberOfChannels = formatChunk.getNumberOfChannels ();
-        final int bitsPerSample = formatChunk.getSignificantBitsPerSample ();
-        final int bytesPerSample = bitsPerSample / 8;
-        final byte [] data = waveFile.getDataChunk ().getData ();
-
-        // De-interleave the samples of the channels; 8 bit WAV data is unsigned and therefore
-        // converted to the signed form required by FLAC
-        final int numberOfSamples = data.length / (numberOfChannels * bytesPerSample);
-        final int [] [] channels = new int [numberOfChannels] [numberOfSamples];
-        int position = 0;
-        for (int i = 0; i < numberOfSamples; i++)
-            for (int channel = 0; channel < numberOfChannels; channel++)
-            {
-                final int value;
-                switch (bytesPerSample)
-                {
-                    case 1:
-                        value = (data[position] & 0xFF) - 128;
-                        break;
-                    case 2:
-                        value = data[position] & 0xFF | data[position + 1] << 8;
-                        break;
-                    case 3:
-                        value = data[position] & 0xFF | (data[position + 1] & 0xFF) << 8 | data[position + 2] << 16;
-                        break;
-                    default:
-                        throw new IOException ("FLAC: Unsupported bit resolution: " + bitsPerSample);
-                }
-                channels[channel][i] = value;
-                position += bytesPerSample;
-            }
-
-        return FlacEncoder.encode (channels, formatChunk.getSampleRate (), bitsPerSample);
+        return FlacEncoder.encode (waveFile.getDataChunk ().getData (), formatChunk.getNumberOfChannels (), formatChunk.getSampleRate (), formatChunk.getSignificantBitsPerSample ());
     }
 
 
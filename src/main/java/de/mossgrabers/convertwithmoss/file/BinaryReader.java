@@ -0,0 +1,467 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+import de.mossgrabers.tools.ui.Functions;
+
+
+/**
+ * Reads binary numbers and texts with a fixed byte order. In contrast to the methods in
+ * {@link StreamUtils} the data is read through a byte buffer which is re-used, therefore reading a
+ * number neither allocates memory nor calls the underlying input stream or file for each value. The
+ * reader can be backed by an input stream, a random access file or a byte buffer (e.g. a
+ * memory-mapped file).
+ *
+ * @author Jürgen Moßgraber
+ */
+public class BinaryReader implements Closeable
+{
+    private static final int       BUFFER_SIZE = 8192;
+
+    private final ByteBuffer       buffer;
+    private final Source           source;
+    private final InputStream      inputStream;
+    private final RandomAccessFile fileAccess;
+    /** The position of the first byte of the buffer in the stream or file. */
+    private long                   bufferStart;
+
+
+    /**
+     * Constructor for reading from an input stream. Since the reader reads ahead, the stream should
+     * no longer be read directly.
+     *
+     * @param in The input stream to read from
+     * @param isBigEndian True if numbers are stored big-endian otherwise little-endian
+     */
+    public BinaryReader (final InputStream in, final boolean isBigEndian)
+    {
+        this.buffer = createBuffer (isBigEndian);
+        this.source = in::read;
+        this.inputStream = in;
+        this.fileAccess = null;
+        this.bufferStart = 0;
+    }
+
+
+    /**
+     * Constructor for reading from a random access file starting at its current file pointer.
+     * Since the reader reads ahead, the file pointer needs to be updated by closing the reader before
+     * the file is read directly again.
+     *
+     * @param fileAccess The file to read from
+     * @param isBigEndian True if numbers are stored big-endian otherwise little-endian
+     * @throws IOException Could not get the file pointer
+     */
+    public BinaryReader (final RandomAccessFile fileAccess, final boolean isBigEndian) throws IOException
+    {
+        this.buffer = createBuffer (isBigEndian);
+        this.source = fileAccess::read;
+        this.inputStream = null;
+        this.fileAccess = fileAccess;
+        this.bufferStart = fileAccess.getFilePointer ();
+    }
+
+
+    /**
+     * Constructor for reading from a byte buffer, e.g. a memory-mapped file. Reading starts at the
+     * current position of the buffer which is position 0 of the reader. The reader uses its own
+     * view, therefore the position and order of the given buffer are not changed.
+     *
+     * @param buffer The buffer to read from
+     * @param isBigEndian True if numbers are stored big-endian otherwise little-endian
+     */
+    public BinaryReader (final ByteBuffer buffer, final boolean isBigEndian)
+    {
+        this.buffer = buffer.slice ().order (isBigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        this.source = null;
+        this.inputStream = null;
+        this.fileAccess = null;
+        this.bufferStart = 0;
+    }
+
+
+    /**
+     * Creates a reader for the memory-mapped content of a file. The file is only open while it is
+     * mapped, the mapping stays valid until the reader is garbage collected.
+     *
+     * @param file The file to read, must not be larger than 2GB
+     * @param isBigEndian True if numbers are stored big-endian otherwise little-endian
+     * @return The reader
+     * @throws IOException Could not map the file
+     */
+    public static BinaryReader map (final File file, final boolean isBigEndian) throws IOException
+    {
+        try (final FileChannel channel = FileChannel.open (file.toPath (), StandardOpenOption.READ))
+        {
+            return new BinaryReader (channel.map (FileChannel.MapMode.READ_ONLY, 0, channel.size ()), isBigEndian);
+        }
+    }
+
+
+    /**
+     * Get the byte order of the numbers.
+     *
+     * @return True if numbers are stored big-endian otherwise little-endian
+     */
+    public boolean isBigEndian ()
+    {
+        return this.buffer.order () == ByteOrder.BIG_ENDIAN;
+    }
+
+
+    /**
+     * Get the position of the next byte to read, relative to the start of the input stream or
+     * buffer respectively the absolute position in a random access file.
+     *
+     * @return The position
+     */
+    public long getPosition ()
+    {
+        return this.bufferStart + this.buffer.position ();
+    }
+
+
+    /**
+     * Moves to the given position. An input stream can only be moved forward.
+     *
+     * @param position The position, see {@link #getPosition()}
+     * @throws IOException Could not move to the position
+     */
+    public void seek (final long position) throws IOException
+    {
+        // Still in the buffer?
+        final long offset = position - this.bufferStart;
+        if (offset >= 0 && offset <= this.buffer.limit ())
+        {
+            this.buffer.position ((int) offset);
+            return;
+        }
+
+        if (this.fileAccess != null)
+        {
+            this.fileAccess.seek (position);
+            this.bufferStart = position;
+            this.buffer.clear ().limit (0);
+            return;
+        }
+
+        if (this.inputStream != null && offset > 0)
+        {
+            this.inputStream.skipNBytes (offset - this.buffer.limit ());
+            this.bufferStart = position;
+            this.buffer.clear ().limit (0);
+            return;
+        }
+
+        throw new EOFException (Functions.getMessage ("IDS_ERR_FILE_CORRUPTED"));
+    }
+
+
+    /**
+     * Skip exactly N bytes.
+     *
+     * @param numBytes The number of bytes to skip
+     * @throws IOException Could not skip the bytes
+     */
+    public void skipNBytes (final long numBytes) throws IOException
+    {
+        this.seek (this.getPosition () + numBytes);
+    }
+
+
+    /**
+     * Reads and converts 1 byte to a signed integer.
+     *
+     * @return The converted integer
+     * @throws IOException Could not read the value
+     */
+    public int readSigned8 () throws IOException
+    {
+        this.ensure (1);
+        return this.buffer.get ();
+    }
+
+
+    /**
+     * Reads and converts 1 byte to an unsigned integer.
+     *
+     * @return The converted integer
+     * @throws IOException Could not read the value
+     */
+    public int readUnsigned8 () throws IOException
+    {
+        this.ensure (1);
+        return this.buffer.get () & 0xFF;
+    }
+
+
+    /**
+     * Reads and converts 2 bytes to a signed integer.
+     *
+     * @return The converted integer
+     * @throws IOException Could not read the value
+     */
+    public int readSigned16 () throws IOException
+    {
+        this.ensure (2);
+        return this.buffer.getShort ();
+    }
+
+
+    /**
+     * Reads and converts 2 bytes to an unsigned integer.
+     *
+     * @return The converted integer
+     * @throws IOException Could not read the value
+     */
+    public int readUnsigned16 () throws IOException
+    {
+        this.ensure (2);
+        return this.buffer.getShort () & 0xFFFF;
+    }
+
+
+    /**
+     * Reads and converts 3 bytes to an unsigned integer.
+     *
+     * @return The converted integer
+     * @throws IOException Could not read the value
+     */
+    public int readUnsigned24 () throws IOException
+    {
+        this.ensure (3);
+        final int b0 = this.buffer.get () & 0xFF;
+        final int b1 = this.buffer.get () & 0xFF;
+        final int b2 = this.buffer.get () & 0xFF;
+        if (this.buffer.order () == ByteOrder.BIG_ENDIAN)
+            return b2 | b1 << 8 | b0 << 16;
+        return b0 | b1 << 8 | b2 << 16;
+    }
+
+
+    /**
+     * Reads and converts 4 bytes to a signed integer.
+     *
+     * @return The converted integer
+     * @throws IOException Could not read the value
+     */
+    public int readSigned32 () throws IOException
+    {
+        this.ensure (4);
+        return this.buffer.getInt ();
+    }
+
+
+    /**
+     * Reads and converts 4 bytes to an unsigned integer.
+     *
+     * @return The converted integer
+     * @throws IOException Could not read the value
+     */
+    public long readUnsigned32 () throws IOException
+    {
+        this.ensure (4);
+        return this.buffer.getInt () & 0xFFFFFFFFL;
+    }
+
+
+    /**
+     * Reads and converts 8 bytes to an integer.
+     *
+     * @return The converted integer
+     * @throws IOException Could not read the value
+     */
+    public long readSigned64 () throws IOException
+    {
+        this.ensure (8);
+        return this.buffer.getLong ();
+    }
+
+
+    /**
+     * Reads and converts a 4 byte float value.
+     *
+     * @return The float value
+     * @throws IOException Could not read the value
+     */
+    public float readFloat () throws IOException
+    {
+        this.ensure (4);
+        return this.buffer.getFloat ();
+    }
+
+
+    /**
+     * Reads and converts a 8 byte double value.
+     *
+     * @return The double value
+     * @throws IOException Could not read the value
+     */
+    public double readDouble () throws IOException
+    {
+        this.ensure (8);
+        return this.buffer.getDouble ();
+    }
+
+
+    /**
+     * Reads a 4 byte Unix timestamp.
+     *
+     * @return The timestamp as a date
+     * @throws IOException Could not read the value
+     */
+    public Date readTimestamp () throws IOException
+    {
+        return new Date (this.readUnsigned32 () * 1000L);
+    }
+
+
+    /**
+     * Read exactly N bytes.
+     *
+     * @param numBytes The number of bytes to read
+     * @return The read bytes
+     * @throws IOException Could not read the bytes
+     */
+    public byte [] readNBytes (final int numBytes) throws IOException
+    {
+        final byte [] data = new byte [numBytes];
+        this.readFully (data);
+        return data;
+    }
+
+
+    /**
+     * Fills the given array.
+     *
+     * @param data The array to fill
+     * @throws IOException Could not read enough bytes
+     */
+    public void readFully (final byte [] data) throws IOException
+    {
+        int offset = 0;
+        while (offset < data.length)
+        {
+            if (!this.buffer.hasRemaining ())
+            {
+                // Read large blocks directly into the array
+                if (this.source != null && data.length - offset >= BUFFER_SIZE)
+                {
+                    final int read = this.source.read (data, offset, data.length - offset);
+                    if (read < 0)
+                        throw new EOFException (Functions.getMessage ("IDS_ERR_FILE_CORRUPTED"));
+                    this.bufferStart = this.getPosition () + read;
+                    this.buffer.clear ().limit (0);
+                    offset += read;
+                    continue;
+                }
+                this.ensure (1);
+            }
+            final int length = Math.min (data.length - offset, this.buffer.remaining ());
+            this.buffer.get (data, offset, length);
+            offset += length;
+        }
+    }
+
+
+    /**
+     * Reads a fixed number of bytes and interprets it as ASCII text.
+     *
+     * @param length The length of the text
+     * @return The read text
+     * @throws IOException Could not read
+     */
+    public String readAscii (final int length) throws IOException
+    {
+        return this.readAscii (length, StandardCharsets.US_ASCII, false);
+    }
+
+
+    /**
+     * Reads a fixed number of bytes and interprets it as text.
+     *
+     * @param length The length of the text
+     * @param charset The character set to use
+     * @param reverse Reverses the text if true
+     * @return The read text
+     * @throws IOException Could not read
+     */
+    public String readAscii (final int length, final Charset charset, final boolean reverse) throws IOException
+    {
+        final byte [] data = this.readNBytes (length);
+        if (reverse)
+            StreamUtils.reverseArray (data);
+        return new String (data, charset);
+    }
+
+
+    /**
+     * Moves the file pointer of a backing random access file to the position after the last read
+     * byte. Neither the file nor an input stream are closed.
+     */
+    @Override
+    public void close () throws IOException
+    {
+        if (this.fileAccess != null)
+            this.fileAccess.seek (this.getPosition ());
+    }
+
+
+    /**
+     * Makes sure that the buffer contains at least the given number of bytes. If not, the remaining
+     * bytes are moved to the start of the buffer and the rest is filled from the source.
+     *
+     * @param numBytes The number of required bytes, must not be larger than the buffer
+     * @throws IOException Could not read enough bytes
+     */
+    private void ensure (final int numBytes) throws IOException
+    {
+        if (this.buffer.remaining () >= numBytes)
+            return;
+        if (this.source == null)
+            throw new EOFException (Functions.getMessage ("IDS_ERR_FILE_CORRUPTED"));
+
+        this.bufferStart += this.buffer.position ();
+        this.buffer.compact ();
+        while (this.buffer.position () < numBytes)
+        {
+            final int read = this.source.read (this.buffer.array (), this.buffer.position (), this.buffer.remaining ());
+            if (read < 0)
+            {
+                this.buffer.flip ();
+                throw new EOFException (Functions.getMessage ("IDS_ERR_FILE_CORRUPTED"));
+            }
+            this.buffer.position (this.buffer.position () + read);
+        }
+        this.buffer.flip ();
+    }
+
+
+    private static ByteBuffer createBuffer (final boolean isBigEndian)
+    {
+        return ByteBuffer.allocate (BUFFER_SIZE).order (isBigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN).limit (0);
+    }
+
+
+    /** Reads from the backing input stream or file into the buffer. */
+    private interface Source
+    {
+        int read (byte [] data, int offset, int length) throws IOException;
+    }
+}
@@ -0,0 +1,242 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Random read access to the content of a disk image (e.g. a sampler hard-disk, CD-ROM or floppy
+ * image). Image files are not loaded but memory-mapped, since a mapping is limited to 2GB larger
+ * images are mapped in several segments and all positions are 64-bit. All reads use absolute
+ * positions, therefore reading is thread-safe and several views on ranges of the image (e.g. a
+ * partition or the payload of an image with a header) can share the same mapping.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class BlockDevice
+{
+    private static final int    SEGMENT_SIZE = 1 << 30;
+
+    private final ByteBuffer [] segments;
+    private final int           segmentSize;
+    private final long          start;
+    private final long          length;
+
+
+    /**
+     * Constructor for an image which is already in memory.
+     *
+     * @param data The data of the image
+     */
+    public BlockDevice (final byte [] data)
+    {
+        this (new ByteBuffer []
+        {
+            ByteBuffer.wrap (data)
+        }, Integer.MAX_VALUE, 0, data.length);
+    }
+
+
+    /**
+     * Constructor for an image which is already in a buffer, e.g. a memory-mapped part of a file.
+     *
+     * @param buffer The buffer which contains the image, its' remaining bytes are used
+     */
+    public BlockDevice (final ByteBuffer buffer)
+    {
+        this (new ByteBuffer []
+        {
+            buffer.slice ()
+        }, Integer.MAX_VALUE, 0, buffer.remaining ());
+    }
+
+
+    /**
+     * Constructor for an image which is stored in a file. The channel is only required to create
+     * the mapping and is closed afterwards, the mapping stays valid until it is garbage collected.
+     *
+     * @param file The image file
+     * @throws IOException Could not map the file
+     */
+    public BlockDevice (final File file) throws IOException
+    {
+        try (final FileChannel channel = FileChannel.open (file.toPath (), StandardOpenOption.READ))
+        {
+            this.length = channel.size ();
+            this.segmentSize = SEGMENT_SIZE;
+            this.start = 0;
+            this.segments = new ByteBuffer [(int) ((this.length + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < this.segments.length; i++)
+            {
+                final long position = (long) i * SEGMENT_SIZE;
+                this.segments[i] = channel.map (FileChannel.MapMode.READ_ONLY, position, Math.min (SEGMENT_SIZE, this.length - position));
+            }
+        }
+    }
+
+
+    private BlockDevice (final ByteBuffer [] segments, final int segmentSize, final long start, final long length)
+    {
+        this.segments = segments;
+        this.segmentSize = segmentSize;
+        this.start = start;
+        this.length = length;
+    }
+
+
+    /**
+     * Get the size of the image.
+     *
+     * @return The size in bytes
+     */
+    public long getLength ()
+    {
+        return this.length;
+    }
+
+
+    /**
+     * Get a device which provides a range of this device. The range is clipped to the available
+     * data. Both devices share the same memory.
+     *
+     * @param position The position of the first byte of the range
+     * @param size The number of bytes of the range
+     * @return The device, position 0 is the byte at the given position of this device
+     */
+    public BlockDevice getRange (final long position, final long size)
+    {
+        final long rangeStart = Math.clamp (position, 0, this.length);
+        return new BlockDevice (this.segments, this.segmentSize, this.start + rangeStart, Math.clamp (size, 0, this.length - rangeStart));
+    }
+
+
+    /**
+     * Get a view on a range of the data. The range is clipped to the available data. The view
+     * shares the memory of the device unless the range crosses the border of 2 mapped segments.
+     *
+     * @param position The position of the first byte of the range
+     * @param size The number of bytes of the range
+     * @return The view, index 0 is the byte at the given position, the byte order is big-endian
+     */
+    public ByteBuffer getBuffer (final long position, final int size)
+    {
+        final long rangeStart = Math.clamp (position, 0, this.length);
+        final int count = (int) Math.clamp (size, 0, this.length - rangeStart);
+        if (count == 0)
+            return ByteBuffer.allocate (0);
+
+        final long absolute = this.start + rangeStart;
+        final ByteBuffer segment = this.segments[(int) (absolute / this.segmentSize)];
+        final int offset = (int) (absolute % this.segmentSize);
+        if (offset + count <= segment.capacity ())
+            return segment.slice (offset, count);
+
+        // The range crosses the border of 2 segments
+        final byte [] data = new byte [count];
+        this.read (rangeStart, data, 0, count);
+        return ByteBuffer.wrap (data);
+    }
+
+
+    /**
+     * Get a single byte.
+     *
+     * @param position The position of the byte, must be in the range of [0..length-1]
+     * @return The byte
+     */
+    public byte getByte (final long position)
+    {
+        if (position < 0 || position >= this.length)
+            throw new IndexOutOfBoundsException (position);
+        final long absolute = this.start + position;
+        return this.segments[(int) (absolute / this.segmentSize)].get ((int) (absolute % this.segmentSize));
+    }
+
+
+    /**
+     * Read a range of bytes. Stops at the end of the image.
+     *
+     * @param position The position of the first byte to read
+     * @param data Where to store the read bytes
+     * @param offset The offset in the data array
+     * @param size The number of bytes to read
+     * @return The number of bytes which were read
+     */
+    public int read (final long position, final byte [] data, final int offset, final int size)
+    {
+        final int count = (int) Math.clamp (this.length - Math.max (0, position), 0, size);
+        long absolute = this.start + position;
+        int copied = 0;
+        while (copied < count)
+        {
+            final ByteBuffer segment = this.segments[(int) (absolute / this.segmentSize)];
+            final int segmentOffset = (int) (absolute % this.segmentSize);
+            final int chunkSize = Math.min (count - copied, segment.capacity () - segmentOffset);
+            segment.get (segmentOffset, data, offset + copied, chunkSize);
+            copied += chunkSize;
+            absolute += chunkSize;
+        }
+        return count;
+    }
+
+
+    /**
+     * Read a range of bytes. Bytes after the end of the image are filled with zeros.
+     *
+     * @param position The position of the first byte to read
+     * @param size The number of bytes to read
+     * @return The read bytes
+     */
+    public byte [] readBytes (final long position, final int size)
+    {
+        final byte [] data = new byte [size];
+        this.read (position, data, 0, size);
+        return data;
+    }
+
+
+    /**
+     * Read an array of 16-bit values. Stops at the end of the image.
+     *
+     * @param position The position of the first value to read
+     * @param data Where to store the read values
+     * @param offset The offset in the data array
+     * @param count The number of values to read
+     * @param byteOrder The byte order of the values
+     * @return The number of values which were read
+     */
+    public int readShorts (final long position, final short [] data, final int offset, final int count, final ByteOrder byteOrder)
+    {
+        final int available = (int) Math.clamp ((this.length - Math.max (0, position)) / 2, 0, count);
+        long absolute = this.start + position;
+        int copied = 0;
+        while (copied < available)
+        {
+            final ByteBuffer segment = this.segments[(int) (absolute / this.segmentSize)];
+            final int segmentOffset = (int) (absolute % this.segmentSize);
+            final int chunkSize = Math.min (available - copied, (segment.capacity () - segmentOffset) / 2);
+            if (chunkSize == 0)
+            {
+                // The value crosses the border of 2 segments
+                final int first = this.getByte (absolute - this.start) & 0xFF;
+                final int second = this.getByte (absolute - this.start + 1) & 0xFF;
+                data[offset + copied] = (short) (byteOrder == ByteOrder.BIG_ENDIAN ? first << 8 | second : second << 8 | first);
+                copied++;
+                absolute += 2;
+                continue;
+            }
+            segment.slice (segmentOffset, chunkSize * 2).order (byteOrder).asShortBuffer ().get (data, offset + copied, chunkSize);
+            copied += chunkSize;
+            absolute += 2L * chunkSize;
+        }
+        return available;
+    }
+}
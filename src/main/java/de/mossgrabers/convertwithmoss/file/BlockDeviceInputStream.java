@@ -0,0 +1,72 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.InputStream;
+
+
+/**
+ * An input stream which reads the content of a block device, e.g. a range of a memory-mapped disk
+ * image. The data is read directly from the mapped segments, therefore a range which crosses the
+ * border of 2 segments is not copied.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class BlockDeviceInputStream extends InputStream
+{
+    private final BlockDevice device;
+    private long              position = 0;
+
+
+    /**
+     * Constructor.
+     *
+     * @param device The device to read from
+     */
+    public BlockDeviceInputStream (final BlockDevice device)
+    {
+        this.device = device;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int read ()
+    {
+        return this.position < this.device.getLength () ? this.device.getByte (this.position++) & 0xFF : -1;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int read (final byte [] data, final int offset, final int length)
+    {
+        if (length == 0)
+            return 0;
+        final int count = this.device.read (this.position, data, offset, length);
+        if (count == 0)
+            return -1;
+        this.position += count;
+        return count;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long skip (final long n)
+    {
+        final long count = Math.clamp (n, 0, this.device.getLength () - this.position);
+        this.position += count;
+        return count;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int available ()
+    {
+        return (int) Math.min (this.device.getLength () - this.position, Integer.MAX_VALUE);
+    }
+}
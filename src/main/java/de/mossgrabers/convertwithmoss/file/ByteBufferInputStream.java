@@ -0,0 +1,97 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+
+/**
+ * An input stream which reads the remaining bytes of a byte buffer, e.g. a memory-mapped part of a
+ * file. The position of the buffer is moved while reading, therefore use a duplicate if the buffer
+ * is shared.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class ByteBufferInputStream extends InputStream
+{
+    private final ByteBuffer buffer;
+
+
+    /**
+     * Constructor.
+     *
+     * @param buffer The buffer to read from
+     */
+    public ByteBufferInputStream (final ByteBuffer buffer)
+    {
+        this.buffer = buffer;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int read ()
+    {
+        return this.buffer.hasRemaining () ? this.buffer.get () & 0xFF : -1;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int read (final byte [] data, final int offset, final int length)
+    {
+        if (length == 0)
+            return 0;
+        final int count = Math.min (length, this.buffer.remaining ());
+        if (count == 0)
+            return -1;
+        this.buffer.get (data, offset, count);
+        return count;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long skip (final long n)
+    {
+        final int count = (int) Math.clamp (n, 0, this.buffer.remaining ());
+        this.buffer.position (this.buffer.position () + count);
+        return count;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int available ()
+    {
+        return this.buffer.remaining ();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long transferTo (final OutputStream out) throws IOException
+    {
+        final int count = this.buffer.remaining ();
+        if (this.buffer.hasArray ())
+        {
+            out.write (this.buffer.array (), this.buffer.arrayOffset () + this.buffer.position (), count);
+            this.buffer.position (this.buffer.limit ());
+            return count;
+        }
+
+        final byte [] chunk = new byte [Math.min (count, 64 * 1024)];
+        while (this.buffer.hasRemaining ())
+        {
+            final int length = Math.min (chunk.length, this.buffer.remaining ());
+            this.buffer.get (chunk, 0, length);
+            out.write (chunk, 0, length);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,418 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+
+/**
+ * Keeps the decoded audio data of compressed samples (e.g. FLAC, OGG or NCW) as WAV files in a
+ * folder on disk. A sample is written several times during a conversion (e.g. for the processing,
+ * for rewriting and for compressing it), which would otherwise decode the source file each time.
+ * The decoded files are identified by the path, the size and the modification date of the source
+ * file as well as the version of the decoder and are named after a hash of these values, therefore
+ * files which were decoded by a previous version of a decoder are not re-used. The size of the
+ * folder is limited by the sum of the sizes of the decoded files. If the limit is exceeded, the
+ * least recently used files are deleted. By default, the files are stored in a temporary folder
+ * which is deleted by {@link #clear()} when the conversion is finished. If a folder is set with
+ * {@link #setFolder(File)}, the decoded files are kept and re-used by the next conversions.
+ *
+ * @author Jürgen Moßgraber
+ */
+public final class DecodedSampleCache
+{
+    /** Decodes a sample into a WAV file. */
+    @FunctionalInterface
+    public interface IDecoder
+    {
+        /**
+         * Decode the sample and write it as a WAV file.
+         *
+         * @param outputStream Where to write the WAV file
+         * @throws IOException Could not decode the sample
+         */
+        void decode (OutputStream outputStream) throws IOException;
+    }
+
+
+    /** The default maximum size: 2GB. */
+    public static final long                 DEFAULT_MAXIMUM_SIZE = 2048L * 1024 * 1024;
+
+    private static final String              EXTENSION_DECODED    = ".wav";
+    private static final String              EXTENSION_TEMPORARY  = ".tmp";
+    private static final int                 BUFFER_SIZE          = 64 * 1024;
+    private static final Pattern             DECODED_NAME         = Pattern.compile ("[0-9a-f]{64}\\.wav");
+    private static final Pattern             TEMPORARY_NAME       = Pattern.compile ("[0-9a-f]{64}\\.wav\\d+\\.tmp");
+
+    /** Increase if the format of the decoded files changes. */
+    private static final int                 CACHE_VERSION        = 1;
+
+    private static final Map<String, Long>   ENTRIES              = new LinkedHashMap<> (16, 0.75f, true);
+    private static final Map<String, Object> LOCKS                = new ConcurrentHashMap<> ();
+    private static long                      maximumSize          = DEFAULT_MAXIMUM_SIZE;
+    private static long                      size                 = 0;
+    private static File                      folder               = null;
+    private static File                      activeFolder         = null;
+
+
+    /**
+     * Private due to helper class.
+     */
+    private DecodedSampleCache ()
+    {
+        // Intentionally empty
+    }
+
+
+    /**
+     * Set the maximum size of the cache. Files are removed if the cache is already larger.
+     *
+     * @param maximumSize The maximum size of all decoded files in bytes, 0 disables the cache
+     */
+    public static void setMaximumSize (final long maximumSize)
+    {
+        synchronized (ENTRIES)
+        {
+            DecodedSampleCache.maximumSize = Math.max (0, maximumSize);
+            evict ();
+        }
+    }
+
+
+    /**
+     * Get the maximum size of the cache.
+     *
+     * @return The maximum size of all decoded files in bytes
+     */
+    public static long getMaximumSize ()
+    {
+        synchronized (ENTRIES)
+        {
+            return maximumSize;
+        }
+    }
+
+
+    /**
+     * Set the folder in which the decoded files are stored. The files in this folder are kept
+     * after the conversion and are re-used by the next conversions. Only files which are named like
+     * the decoded files are used and deleted, other files in the folder are ignored.
+     *
+     * @param folder The folder, it is created if it does not exist; null to use a temporary folder
+     *            which is deleted when the conversion is finished
+     */
+    public static void setFolder (final File folder)
+    {
+        synchronized (ENTRIES)
+        {
+            clear ();
+            DecodedSampleCache.folder = folder;
+        }
+    }
+
+
+    /**
+     * Write the decoded sample. If the sample was already decoded, the cached WAV file is copied,
+     * otherwise the sample is decoded into the cache first. If the cache is disabled or the folder
+     * cannot be created, the sample is decoded directly into the output stream.
+     *
+     * @param sourceFile The compressed file, in case of a ZIP file the ZIP file itself
+     * @param entryName The path of the sample in the ZIP file or null if it is not stored in a ZIP
+     * @param decoderVersion The name and version of the decoder, change it if the decoder creates
+     *            different results, e.g. after a bug fix
+     * @param outputStream Where to write the decoded sample as a WAV file
+     * @param decoder Decodes the sample if it is not cached
+     * @throws IOException Could not decode or write the sample
+     */
+    public static void write (final File sourceFile, final String entryName, final String decoderVersion, final OutputStream outputStream, final IDecoder decoder) throws IOException
+    {
+        final File cacheFolder = getActiveFolder ();
+        if (cacheFolder == null)
+        {
+            decoder.decode (outputStream);
+            return;
+        }
+
+        final String name = createName (sourceFile, entryName, decoderVersion);
+        final File decodedFile = new File (cacheFolder, name);
+
+        // Prevent that several threads decode the same sample at the same time
+        synchronized (LOCKS.computeIfAbsent (name, _ -> new Object ()))
+        {
+            if (!contains (name, decodedFile) && !decode (name, decodedFile, outputStream, decoder))
+                return;
+
+            final InputStream in;
+            try
+            {
+                in = Files.newInputStream (decodedFile.toPath ());
+            }
+            catch (final NoSuchFileException _)
+            {
+                // Was removed in the meantime to free space for other samples
+                remove (name);
+                decoder.decode (outputStream);
+                return;
+            }
+            try (in)
+            {
+                in.transferTo (outputStream);
+            }
+        }
+    }
+
+
+    /**
+     * Removes all decoded files from the cache. If a temporary folder is used, the files and the
+     * folder are deleted.
+     */
+    public static void clear ()
+    {
+        synchronized (ENTRIES)
+        {
+            if (activeFolder != null && folder == null)
+            {
+                final File [] files = activeFolder.listFiles ();
+                if (files != null)
+                    for (final File file: files)
+                        delete (file);
+                delete (activeFolder);
+            }
+
+            ENTRIES.clear ();
+            LOCKS.clear ();
+            size = 0;
+            activeFolder = null;
+        }
+    }
+
+
+    /**
+     * Decode a sample into the cache folder. If the decoded file is larger than the cache, it is
+     * written to the output stream and deleted afterwards.
+     *
+     * @param name The name of the decoded file
+     * @param decodedFile The decoded file
+     * @param outputStream Where to write the decoded sample if it cannot be cached
+     * @param decoder Decodes the sample
+     * @return True if the decoded file was added to the cache
+     * @throws IOException Could not decode the sample
+     */
+    private static boolean decode (final String name, final File decodedFile, final OutputStream outputStream, final IDecoder decoder) throws IOException
+    {
+        final File tempFile = File.createTempFile (name, EXTENSION_TEMPORARY, decodedFile.getParentFile ());
+        try
+        {
+            try (final OutputStream out = new BufferedOutputStream (new FileOutputStream (tempFile), BUFFER_SIZE))
+            {
+                decoder.decode (out);
+            }
+
+            final long fileSize = tempFile.length ();
+            synchronized (ENTRIES)
+            {
+                if (fileSize <= maximumSize)
+                {
+                    Files.move (tempFile.toPath (), decodedFile.toPath (), StandardCopyOption.REPLACE_EXISTING);
+                    add (name, fileSize);
+                    return true;
+                }
+            }
+
+            Files.copy (tempFile.toPath (), outputStream);
+            return false;
+        }
+        finally
+        {
+            delete (tempFile);
+        }
+    }
+
+
+    /**
+     * Get the folder which stores the decoded files. Creates the folder on the first call. If a
+     * folder was set, the decoded files of previous conversions which are already in it are added
+     * to the cache.
+     *
+     * @return The folder or null if the cache is disabled or the folder could not be created
+     */
+    private static File getActiveFolder ()
+    {
+        synchronized (ENTRIES)
+        {
+            if (maximumSize == 0)
+                return null;
+            if (activeFolder != null)
+                return activeFolder;
+
+            try
+            {
+                if (folder == null)
+                    activeFolder = Files.createTempDirectory ("ConvertWithMoss").toFile ();
+                else
+                {
+                    activeFolder = Files.createDirectories (folder.toPath ()).toFile ();
+                    addExistingFiles ();
+                }
+            }
+            catch (final IOException _)
+            {
+                return null;
+            }
+            return activeFolder;
+        }
+    }
+
+
+    /**
+     * Adds the decoded files of previous conversions in the active folder to the cache, ordered by
+     * their last usage. Left-over temporary files are deleted. Since the folder is chosen by the
+     * user, only files with the names created by this class are considered, all other files are
+     * neither counted nor deleted. Must be called while holding the lock.
+     */
+    private static void addExistingFiles ()
+    {
+        final File [] files = activeFolder.listFiles ();
+        if (files == null)
+            return;
+
+        Arrays.sort (files, Comparator.comparingLong (File::lastModified));
+        for (final File file: files)
+        {
+            final String name = file.getName ();
+            if (!file.isFile ())
+                continue;
+            if (DECODED_NAME.matcher (name).matches ())
+                add (name, file.length ());
+            else if (TEMPORARY_NAME.matcher (name).matches ())
+                delete (file);
+        }
+    }
+
+
+    /**
+     * Check if a decoded file is in the cache and mark it as the most recently used one.
+     *
+     * @param name The name of the decoded file
+     * @param decodedFile The decoded file
+     * @return True if it is cached
+     */
+    private static boolean contains (final String name, final File decodedFile)
+    {
+        synchronized (ENTRIES)
+        {
+            if (ENTRIES.get (name) == null)
+                return false;
+        }
+
+        // Keeps the order of usage for the next conversions
+        if (decodedFile.setLastModified (System.currentTimeMillis ()))
+            return true;
+        remove (name);
+        return false;
+    }
+
+
+    /**
+     * Add a decoded file and remove the least recently used files if the cache got too large. Must
+     * be called while holding the lock.
+     *
+     * @param name The name of the decoded file
+     * @param fileSize The size of the decoded file
+     */
+    private static void add (final String name, final long fileSize)
+    {
+        final Long previous = ENTRIES.put (name, Long.valueOf (fileSize));
+        if (previous != null)
+            size -= previous.longValue ();
+        size += fileSize;
+        evict ();
+    }
+
+
+    private static void remove (final String name)
+    {
+        synchronized (ENTRIES)
+        {
+            final Long previous = ENTRIES.remove (name);
+            if (previous != null)
+                size -= previous.longValue ();
+        }
+    }
+
+
+    /**
+     * Removes the least recently used files until the size is below the maximum size. Must be
+     * called while holding the lock.
+     */
+    private static void evict ()
+    {
+        final Iterator<Map.Entry<String, Long>> iterator = ENTRIES.entrySet ().iterator ();
+        while (size > maximumSize && iterator.hasNext ())
+        {
+            final Map.Entry<String, Long> entry = iterator.next ();
+            size -= entry.getValue ().longValue ();
+            iterator.remove ();
+            delete (new File (activeFolder, entry.getKey ()));
+        }
+    }
+
+
+    /**
+     * Create the name of the decoded file from a hash of the path, the size and the modification
+     * date of the source file and the versions of the cache and the decoder.
+     *
+     * @param sourceFile The compressed file
+     * @param entryName The path of the sample in a ZIP file or null
+     * @param decoderVersion The name and version of the decoder
+     * @return The name
+     * @throws IOException The hash algorithm is not available
+     */
+    private static String createName (final File sourceFile, final String entryName, final String decoderVersion) throws IOException
+    {
+        final String key = CACHE_VERSION + "\n" + decoderVersion + "\n" + sourceFile.getAbsolutePath () + "\n" + (entryName == null ? "" : entryName) + "\n" + sourceFile.length () + "\n" + sourceFile.lastModified ();
+        try
+        {
+            final byte [] hash = MessageDigest.getInstance ("SHA-256").digest (key.getBytes (StandardCharsets.UTF_8));
+            return HexFormat.of ().formatHex (hash) + EXTENSION_DECODED;
+        }
+        catch (final NoSuchAlgorithmException ex)
+        {
+            throw new IOException (ex);
+        }
+    }
+
+
+    private static void delete (final File file)
+    {
+        try
+        {
+            Files.deleteIfExists (file.toPath ());
+        }
+        catch (final IOException _)
+        {
+            // Ignore, the file might still be in use
+        }
+    }
+}
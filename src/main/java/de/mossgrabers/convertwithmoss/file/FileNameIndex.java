@@ -0,0 +1,111 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * An index of the names of all files and folders below a folder. It is used to find files (e.g.
+ * samples which were moved) without walking the folder tree again for each search. The index of a
+ * folder is created on the first search in it and kept until {@link #clear()} is called when the
+ * conversion is finished. Searches in the same folder from several detectors share the index.
+ *
+ * @author Jürgen Moßgraber
+ */
+public final class FileNameIndex
+{
+    private static final Map<File, FileNameIndex> INDICES = new ConcurrentHashMap<> ();
+
+    private final File                            root;
+    private Map<String, List<File>>               entries = null;
+
+
+    /**
+     * Constructor.
+     *
+     * @param root The top folder of the index
+     */
+    private FileNameIndex (final File root)
+    {
+        this.root = root;
+    }
+
+
+    /**
+     * Searches for a file in a folder and all its' sub-folders. Hidden sub-folders are ignored. If
+     * there are several files with the same name, the one which is found first by a depth-first
+     * search is returned, files in a folder are preferred to files in its' sub-folders.
+     *
+     * @param folder The folder in which to start the search
+     * @param fileName The name of the file to look for
+     * @return The file if found
+     */
+    public static Optional<File> find (final File folder, final String fileName)
+    {
+        return INDICES.computeIfAbsent (folder, FileNameIndex::new).lookup (fileName);
+    }
+
+
+    /**
+     * Removes all indices.
+     */
+    public static void clear ()
+    {
+        INDICES.clear ();
+    }
+
+
+    private synchronized Optional<File> lookup (final String fileName)
+    {
+        if (this.entries == null)
+        {
+            this.entries = new HashMap<> ();
+            this.addFolder (this.root);
+        }
+
+        final List<File> candidates = this.entries.get (fileName.toLowerCase (Locale.ROOT));
+        if (candidates == null)
+            return Optional.empty ();
+
+        // The index is case insensitive but the file system might not be. Checking if the file
+        // exists also matches files which only differ in case on a case insensitive file system
+        for (final File candidate: candidates)
+        {
+            final File file = new File (candidate.getParentFile (), fileName);
+            if (candidate.getName ().equals (fileName) || file.exists ())
+                return Optional.of (file);
+        }
+        return Optional.empty ();
+    }
+
+
+    /**
+     * Adds the content of a folder and all its' non-hidden sub-folders. Sub-folders are added after
+     * all entries of the folder to keep the order of a depth-first search.
+     *
+     * @param folder The folder to add
+     */
+    private void addFolder (final File folder)
+    {
+        final File [] children = folder.listFiles ();
+        if (children == null)
+            return;
+
+        for (final File child: children)
+            this.entries.computeIfAbsent (child.getName ().toLowerCase (Locale.ROOT), _ -> new ArrayList<> (1)).add (child);
+
+        for (final File child: children)
+            if (child.isDirectory () && !child.isHidden () && !child.getName ().startsWith ("."))
+                this.addFolder (child);
+    }
+}
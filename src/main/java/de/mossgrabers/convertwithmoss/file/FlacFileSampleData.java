@@ -8,7 +8,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.ZipFile;
 
 import de.mossgrabers.convertwithmoss.core.model.IMetadata;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
@@ -16,12 +15,16 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.AbstractFileSamp
 
 
 /**
- * The data of an FLAC sample file.
+ * The data of an FLAC sample file. The decoded data is kept in the {@link DecodedSampleCache}.
  *
  * @author Jürgen Moßgraber
  */
 public class FlacFileSampleData extends AbstractFileSampleData
 {
+    /** Increase if the decoded FLAC data changes to ignore previously cached samples. */
+    private static final String DECODER_VERSION = "FLAC 1";
+
+
     /**
      * Constructor.
      *
@@ -50,6 +53,15 @@ public class FlacFileSampleData extends AbstractFileSampleData
     /** {@inheritDoc} */
     @Override
     public void writeSample (final OutputStream outputStream) throws IOException
+    {
+        if (this.zipFile == null)
+            DecodedSampleCache.write (this.sampleFile, null, DECODER_VERSION, outputStream, this::decode);
+        else
+            DecodedSampleCache.write (this.zipFile, this.zipEntryFile.getPath (), DECODER_VERSION, outputStream, this::decode);
+    }
+
+
+    private void decode (final OutputStream outputStream) throws IOException
     {
         if (this.zipFile == null)
         {
@@ -57,7 +69,7 @@ public class FlacFileSampleData extends AbstractFileSampleData
             return;
         }
 
-        try (final ZipFile zf = new ZipFile (this.zipFile); final InputStream in = zf.getInputStream (this.getHarmonizedZipEntry (zf)))
+        try (final InputStream in = this.openZipEntry ())
         {
             AudioFileUtils.decompressToWav (in, outputStream);
         }
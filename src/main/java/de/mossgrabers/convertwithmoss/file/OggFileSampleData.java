@@ -5,9 +5,9 @@
 package de.mossgrabers.convertwithmoss.file;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 
@@ -18,13 +18,17 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultAudioMeta
 
 
 /**
- * The data of an OGG sample file.
+ * The data of an OGG sample file. The decoded data is kept in the {@link DecodedSampleCache}.
  *
  * @author Jürgen Moßgraber
  */
 public class OggFileSampleData extends AbstractFileSampleData
 {
-    private static final int MIN_PAGE_HEADER_SIZE = 27;
+    private static final int    MIN_PAGE_HEADER_SIZE = 27;
+    private static final int    MAX_WAV_HEADER_SIZE  = 4096;
+
+    /** Increase after changes of the OGG decoder which affect the decoded audio data. */
+    private static final String DECODER_VERSION      = "OGG 1";
 
 
     /**
@@ -42,6 +46,12 @@ public class OggFileSampleData extends AbstractFileSampleData
     /** {@inheritDoc} */
     @Override
     public void writeSample (final OutputStream outputStream) throws IOException
+    {
+        DecodedSampleCache.write (this.sampleFile, null, DECODER_VERSION, outputStream, this::decode);
+    }
+
+
+    private void decode (final OutputStream outputStream) throws IOException
     {
         // Decode with the direct decoder which emits all sample frames. The Java Sound path drops
         // the final block of every file (about 10ms), which breaks sample loops that end at the
@@ -77,10 +87,12 @@ public class OggFileSampleData extends AbstractFileSampleData
             numberOfFrames = readNumberOfSampleFrames (this.sampleFile);
         if (numberOfFrames < 0)
         {
-            // Fall back to fully decoding the file, which is exactly the data written later anyway
-            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream ();
+            // Fall back to fully decoding the file, which is exactly the data written later anyway.
+            // The decoded file is cached, therefore it is not decoded again when it is written.
+            // Only the header of the WAV file is kept since it contains all of the metadata
+            final HeaderOutputStream outputStream = new HeaderOutputStream ();
             this.writeSample (outputStream);
-            this.audioMetadata = AudioFileUtils.getMetadata (new ByteArrayInputStream (outputStream.toByteArray ()));
+            this.audioMetadata = AudioFileUtils.getMetadata (outputStream.getHeader ());
             return;
         }
 
@@ -153,4 +165,42 @@ public class OggFileSampleData extends AbstractFileSampleData
     {
         // Could be implemented with e.g. JAudioTagger
     }
+
+
+    /** Keeps the first bytes of a WAV file which contain its' header and discards the rest. */
+    private static class HeaderOutputStream extends OutputStream
+    {
+        private final byte [] header = new byte [MAX_WAV_HEADER_SIZE];
+        private int           count  = 0;
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void write (final int b)
+        {
+            if (this.count < this.header.length)
+                this.header[this.count++] = (byte) b;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void write (final byte [] data, final int offset, final int length)
+        {
+            final int size = Math.min (length, this.header.length - this.count);
+            System.arraycopy (data, offset, this.header, this.count, size);
+            this.count += size;
+        }
+
+
+        /**
+         * Get a stream to read the kept header.
+         *
+         * @return The stream
+         */
+        InputStream getHeader ()
+        {
+            return new ByteArrayInputStream (this.header, 0, this.count);
+        }
+    }
 }
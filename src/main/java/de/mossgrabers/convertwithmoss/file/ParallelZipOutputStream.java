@@ -0,0 +1,708 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+
+/**
+ * A ZIP output stream which compresses the entries on all cores. The data of an entry is split into
+ * blocks which are compressed independently in parallel. Each block uses the end of the previous
+ * block as its' dictionary and all blocks but the last are terminated with a sync flush, therefore
+ * the concatenated blocks form one regular DEFLATE stream and the compression ratio is almost the
+ * same as the one of a single deflater. The compressed blocks, local headers and data descriptors
+ * are written in the order of the entries, a valid archive with a central directory is created.
+ * Archives larger than 4GB are written in the ZIP64 format.
+ *
+ * Since it is a drop-in replacement for {@link ZipOutputStream}, all methods which take a ZIP
+ * output stream can use it. STORED entries are supported as well. If the archive is written to a
+ * stream they need to have their size and checksum set in advance. If it is written to a file, the
+ * data of STORED entries can be streamed without knowing size and checksum, both are calculated
+ * while writing and the local header is updated afterwards.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class ParallelZipOutputStream extends ZipOutputStream
+{
+    private static final int                BLOCK_SIZE        = 256 * 1024;
+    private static final int                DICTIONARY_SIZE   = 32 * 1024;
+    private static final long               ZIP64_MAGIC_VALUE = 0xFFFFFFFFL;
+    private static final int                ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private static final int                LOCAL_SIGNATURE   = 0x04034B50;
+    private static final int                DESCRIPTOR_SIG    = 0x08074B50;
+    private static final int                CENTRAL_SIGNATURE = 0x02014B50;
+    private static final int                END_SIGNATURE     = 0x06054B50;
+    private static final int                ZIP64_END_SIG     = 0x06064B50;
+    private static final int                ZIP64_LOCATOR_SIG = 0x07064B50;
+    private static final int                FLAG_DESCRIPTOR   = 0x0008;
+    private static final int                FLAG_UTF8         = 0x0800;
+
+    private final OutputStream              output;
+    private final FileChannel               channel;
+    private final Deque<Action>             pendingActions    = new ArrayDeque<> ();
+    private final int                       maxPendingBlocks  = 2 * Math.max (1, ForkJoinPool.getCommonPoolParallelism ());
+    private int                             numPendingBlocks  = 0;
+    private final List<EntryInfo>           entries           = new ArrayList<> ();
+    private final Set<String>               names             = new HashSet<> ();
+    private long                            written           = 0;
+    private int                             level             = Deflater.DEFAULT_COMPRESSION;
+    private int                             method            = DEFLATED;
+    private byte []                         comment           = new byte [0];
+    private boolean                         isFinished        = false;
+
+    private EntryInfo                       currentEntry      = null;
+    private final CRC32                     crc               = new CRC32 ();
+    private byte []                         block             = new byte [BLOCK_SIZE];
+    private int                             blockLength       = 0;
+    private byte []                         dictionary        = null;
+
+
+    /** An action which writes the next part of the archive. */
+    private interface Action
+    {
+        /**
+         * Write the part.
+         *
+         * @throws IOException Could not write the part
+         */
+        void write () throws IOException;
+
+
+        /**
+         * Check if the part can be written without waiting.
+         *
+         * @return True if ready
+         */
+        default boolean isReady ()
+        {
+            return true;
+        }
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param output Where to write the archive
+     */
+    public ParallelZipOutputStream (final OutputStream output)
+    {
+        this (output, null);
+    }
+
+
+    /**
+     * Constructor. Since the file is seekable, STORED entries do not need to have their size and
+     * checksum set in advance.
+     *
+     * @param file The file to which to write the archive, an existing file is overwritten
+     * @throws IOException Could not open the file
+     */
+    public ParallelZipOutputStream (final File file) throws IOException
+    {
+        this (FileChannel.open (file.toPath (), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+
+    private ParallelZipOutputStream (final FileChannel channel)
+    {
+        this (new BufferedOutputStream (Channels.newOutputStream (channel), BLOCK_SIZE), channel);
+    }
+
+
+    private ParallelZipOutputStream (final OutputStream output, final FileChannel channel)
+    {
+        super (output);
+        this.output = output;
+        this.channel = channel;
+    }
+
+
+    /**
+     * Check if STORED entries can be added without setting their size and checksum in advance.
+     *
+     * @return True if the archive is written to a file
+     */
+    public boolean canStreamStoredEntries ()
+    {
+        return this.channel != null;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setComment (final String comment)
+    {
+        this.comment = comment == null ? new byte [0] : comment.getBytes (StandardCharsets.UTF_8);
+        if (this.comment.length > 0xFFFF)
+            throw new IllegalArgumentException ("ZIP file comment too long.");
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setMethod (final int method)
+    {
+        if (method != DEFLATED && method != STORED)
+            throw new IllegalArgumentException ("invalid compression method");
+        this.method = method;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setLevel (final int level)
+    {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException ("invalid compression level");
+        this.level = level;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void putNextEntry (final ZipEntry entry) throws IOException
+    {
+        this.ensureOpen ();
+        if (this.currentEntry != null)
+            this.closeEntry ();
+
+        final int entryMethod = entry.getMethod () == -1 ? this.method : entry.getMethod ();
+        final boolean isStreamed = entryMethod == STORED && (entry.getSize () == -1 || entry.getCrc () == -1);
+        if (isStreamed && this.channel == null)
+            throw new ZipException ("STORED entry missing size, compressed size, or crc-32");
+        if (!this.names.add (entry.getName ()))
+            throw new ZipException ("duplicate entry: " + entry.getName ());
+
+        final long time = entry.getTime () == -1 ? System.currentTimeMillis () : entry.getTime ();
+        this.currentEntry = new EntryInfo (entry.getName ().getBytes (StandardCharsets.UTF_8), entryMethod, toDosTime (time));
+        this.currentEntry.isStreamed = isStreamed;
+        if (entryMethod == STORED && !isStreamed)
+        {
+            this.currentEntry.size = entry.getSize ();
+            this.currentEntry.compressedSize = entry.getSize ();
+            this.currentEntry.crc = entry.getCrc ();
+        }
+        this.crc.reset ();
+        this.blockLength = 0;
+        this.dictionary = null;
+
+        final EntryInfo info = this.currentEntry;
+        this.addAction (() -> this.writeLocalHeader (info));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void write (final int b) throws IOException
+    {
+        this.write (new byte []
+        {
+            (byte) b
+        }, 0, 1);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void write (final byte [] data, final int offset, final int length) throws IOException
+    {
+        this.ensureOpen ();
+        if (this.currentEntry == null)
+            throw new ZipException ("no current ZIP entry");
+
+        this.crc.update (data, offset, length);
+        this.currentEntry.writtenSize += length;
+
+        int position = offset;
+        int remaining = length;
+        while (remaining > 0)
+        {
+            final int count = Math.min (remaining, BLOCK_SIZE - this.blockLength);
+            System.arraycopy (data, position, this.block, this.blockLength, count);
+            this.blockLength += count;
+            position += count;
+            remaining -= count;
+            if (this.blockLength == BLOCK_SIZE)
+                this.submitBlock (false);
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void closeEntry () throws IOException
+    {
+        this.ensureOpen ();
+        final EntryInfo info = this.currentEntry;
+        if (info == null)
+            return;
+
+        this.submitBlock (true);
+        if (info.isStreamed)
+        {
+            // The sizes in the local header have no room for ZIP64 values
+            if (info.writtenSize >= ZIP64_MAGIC_VALUE)
+                throw new ZipException ("STORED entry too large for streaming: " + new String (info.name, StandardCharsets.UTF_8));
+            info.size = info.writtenSize;
+            info.compressedSize = info.writtenSize;
+            info.crc = this.crc.getValue ();
+            this.addAction (() -> this.updateLocalHeader (info));
+        }
+        else if (info.method == STORED)
+        {
+            if (info.writtenSize != info.size)
+                throw new ZipException ("invalid entry size (expected " + info.size + " but got " + info.writtenSize + " bytes)");
+            if (this.crc.getValue () != info.crc)
+                throw new ZipException ("invalid entry crc-32 (expected 0x" + Long.toHexString (info.crc) + " but got 0x" + Long.toHexString (this.crc.getValue ()) + ")");
+        }
+        else
+        {
+            info.size = info.writtenSize;
+            info.crc = this.crc.getValue ();
+            this.addAction (() -> this.writeDataDescriptor (info));
+        }
+
+        this.entries.add (info);
+        this.currentEntry = null;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush () throws IOException
+    {
+        this.ensureOpen ();
+        this.writeFinishedActions (false);
+        this.output.flush ();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void finish () throws IOException
+    {
+        this.ensureOpen ();
+        if (this.currentEntry != null)
+            this.closeEntry ();
+        this.writeFinishedActions (true);
+        this.writeCentralDirectory ();
+        this.isFinished = true;
+        this.block = null;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void close () throws IOException
+    {
+        try
+        {
+            if (!this.isFinished)
+                this.finish ();
+        }
+        finally
+        {
+            // The deflater of the super class was never used
+            this.def.end ();
+            this.output.close ();
+        }
+    }
+
+
+    private void ensureOpen () throws IOException
+    {
+        if (this.isFinished)
+            throw new IOException ("Stream closed");
+    }
+
+
+    /**
+     * Compresses (or stores) the current block in the background.
+     *
+     * @param isLast True if it is the last block of the entry
+     * @throws IOException Could not write finished blocks
+     */
+    private void submitBlock (final boolean isLast) throws IOException
+    {
+        final EntryInfo info = this.currentEntry;
+        final byte [] data = Arrays.copyOf (this.block, this.blockLength);
+        this.blockLength = 0;
+        if (info.method == STORED)
+        {
+            if (data.length > 0)
+                this.addAction (new BlockAction (info, CompletableFuture.completedFuture (data)));
+        }
+        else
+        {
+            final byte [] blockDictionary = this.dictionary;
+            final int blockLevel = this.level;
+            this.addAction (new BlockAction (info, CompletableFuture.supplyAsync (() -> deflate (data, blockDictionary, blockLevel, isLast), ForkJoinPool.commonPool ())));
+
+            // The end of the block is the dictionary of the next block
+            if (!isLast)
+                this.dictionary = Arrays.copyOfRange (data, Math.max (0, data.length - DICTIONARY_SIZE), data.length);
+        }
+
+        // Write all finished blocks, wait for the oldest one if too many are pending
+        this.writeFinishedActions (false);
+        while (this.numPendingBlocks >= this.maxPendingBlocks)
+            this.pendingActions.removeFirst ().write ();
+    }
+
+
+    private void addAction (final Action action) throws IOException
+    {
+        this.pendingActions.add (action);
+        this.writeFinishedActions (false);
+    }
+
+
+    /**
+     * Writes all actions in order until an action is found which waits for a block which is not yet
+     * compressed.
+     *
+     * @param waitForAll If true, waits for all blocks to be compressed
+     * @throws IOException Could not write
+     */
+    private void writeFinishedActions (final boolean waitForAll) throws IOException
+    {
+        while (!this.pendingActions.isEmpty ())
+        {
+            if (!waitForAll && !this.pendingActions.peekFirst ().isReady ())
+                return;
+            this.pendingActions.removeFirst ().write ();
+        }
+    }
+
+
+    private static byte [] deflate (final byte [] data, final byte [] dictionary, final int level, final boolean isLast)
+    {
+        final Deflater deflater = new Deflater (level, true);
+        try
+        {
+            if (dictionary != null)
+                deflater.setDictionary (dictionary);
+            deflater.setInput (data);
+            if (isLast)
+                deflater.finish ();
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream (data.length / 2 + 64);
+            final byte [] buffer = new byte [64 * 1024];
+            while (true)
+            {
+                final int count = isLast ? deflater.deflate (buffer) : deflater.deflate (buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write (buffer, 0, count);
+                if (isLast ? deflater.finished () : count < buffer.length)
+                    break;
+            }
+            return out.toByteArray ();
+        }
+        finally
+        {
+            deflater.end ();
+        }
+    }
+
+
+    private void writeLocalHeader (final EntryInfo info) throws IOException
+    {
+        info.offset = this.written;
+
+        final HeaderWriter header = new HeaderWriter ();
+        header.writeInt (LOCAL_SIGNATURE);
+        if (info.method == STORED)
+        {
+            final boolean isZip64 = info.size >= ZIP64_MAGIC_VALUE;
+            header.writeShort (isZip64 ? 45 : 10);
+            header.writeShort (FLAG_UTF8);
+            header.writeShort (STORED);
+            header.writeInt (info.dosTime);
+            header.writeInt (info.crc);
+            header.writeInt (isZip64 ? ZIP64_MAGIC_VALUE : info.size);
+            header.writeInt (isZip64 ? ZIP64_MAGIC_VALUE : info.size);
+            header.writeShort (info.name.length);
+            header.writeShort (isZip64 ? 20 : 0);
+            header.write (info.name);
+            if (isZip64)
+            {
+                header.writeShort (1);
+                header.writeShort (16);
+                header.writeLong (info.size);
+                header.writeLong (info.size);
+            }
+        }
+        else
+        {
+            // Checksum and sizes follow in the data descriptor
+            header.writeShort (20);
+            header.writeShort (FLAG_DESCRIPTOR | FLAG_UTF8);
+            header.writeShort (DEFLATED);
+            header.writeInt (info.dosTime);
+            header.writeInt (0);
+            header.writeInt (0);
+            header.writeInt (0);
+            header.writeShort (info.name.length);
+            header.writeShort (0);
+            header.write (info.name);
+        }
+        this.writeOutput (header.toByteArray ());
+    }
+
+
+    /**
+     * Writes the checksum and the sizes of a streamed STORED entry into its' local header.
+     *
+     * @param info The entry
+     * @throws IOException Could not write
+     */
+    private void updateLocalHeader (final EntryInfo info) throws IOException
+    {
+        // The local header must be written to the file before it can be overwritten
+        this.output.flush ();
+
+        final HeaderWriter header = new HeaderWriter ();
+        header.writeInt (info.crc);
+        header.writeInt (info.size);
+        header.writeInt (info.size);
+        final ByteBuffer buffer = ByteBuffer.wrap (header.toByteArray ());
+        long position = info.offset + 14;
+        while (buffer.hasRemaining ())
+            position += this.channel.write (buffer, position);
+    }
+
+
+    private void writeDataDescriptor (final EntryInfo info) throws IOException
+    {
+        final HeaderWriter header = new HeaderWriter ();
+        header.writeInt (DESCRIPTOR_SIG);
+        header.writeInt (info.crc);
+        if (info.size >= ZIP64_MAGIC_VALUE || info.compressedSize >= ZIP64_MAGIC_VALUE)
+        {
+            header.writeLong (info.compressedSize);
+            header.writeLong (info.size);
+        }
+        else
+        {
+            header.writeInt (info.compressedSize);
+            header.writeInt (info.size);
+        }
+        this.writeOutput (header.toByteArray ());
+    }
+
+
+    private void writeCentralDirectory () throws IOException
+    {
+        final long centralOffset = this.written;
+        for (final EntryInfo info: this.entries)
+        {
+            final boolean hasZip64Size = info.size >= ZIP64_MAGIC_VALUE || info.compressedSize >= ZIP64_MAGIC_VALUE;
+            final boolean hasZip64Offset = info.offset >= ZIP64_MAGIC_VALUE;
+            final int extraLength = (hasZip64Size ? 16 : 0) + (hasZip64Offset ? 8 : 0);
+            final int version = extraLength > 0 ? 45 : info.method == STORED ? 10 : 20;
+
+            final HeaderWriter header = new HeaderWriter ();
+            header.writeInt (CENTRAL_SIGNATURE);
+            header.writeShort (version);
+            header.writeShort (version);
+            header.writeShort (info.method == STORED ? FLAG_UTF8 : FLAG_DESCRIPTOR | FLAG_UTF8);
+            header.writeShort (info.method);
+            header.writeInt (info.dosTime);
+            header.writeInt (info.crc);
+            header.writeInt (hasZip64Size ? ZIP64_MAGIC_VALUE : info.compressedSize);
+            header.writeInt (hasZip64Size ? ZIP64_MAGIC_VALUE : info.size);
+            header.writeShort (info.name.length);
+            header.writeShort (extraLength == 0 ? 0 : extraLength + 4);
+            // Comment length, disk number, internal and external attributes
+            header.writeShort (0);
+            header.writeShort (0);
+            header.writeShort (0);
+            header.writeInt (0);
+            header.writeInt (hasZip64Offset ? ZIP64_MAGIC_VALUE : info.offset);
+            header.write (info.name);
+            if (extraLength > 0)
+            {
+                header.writeShort (1);
+                header.writeShort (extraLength);
+                if (hasZip64Size)
+                {
+                    header.writeLong (info.size);
+                    header.writeLong (info.compressedSize);
+                }
+                if (hasZip64Offset)
+                    header.writeLong (info.offset);
+            }
+            this.writeOutput (header.toByteArray ());
+        }
+
+        final long centralLength = this.written - centralOffset;
+        final int count = this.entries.size ();
+        final HeaderWriter header = new HeaderWriter ();
+        if (count >= ZIP64_MAGIC_COUNT || centralOffset >= ZIP64_MAGIC_VALUE || centralLength >= ZIP64_MAGIC_VALUE)
+        {
+            final long zip64EndOffset = this.written;
+            header.writeInt (ZIP64_END_SIG);
+            header.writeLong (44);
+            header.writeShort (45);
+            header.writeShort (45);
+            header.writeInt (0);
+            header.writeInt (0);
+            header.writeLong (count);
+            header.writeLong (count);
+            header.writeLong (centralLength);
+            header.writeLong (centralOffset);
+
+            header.writeInt (ZIP64_LOCATOR_SIG);
+            header.writeInt (0);
+            header.writeLong (zip64EndOffset);
+            header.writeInt (1);
+        }
+
+        header.writeInt (END_SIGNATURE);
+        header.writeShort (0);
+        header.writeShort (0);
+        header.writeShort (Math.min (count, ZIP64_MAGIC_COUNT));
+        header.writeShort (Math.min (count, ZIP64_MAGIC_COUNT));
+        header.writeInt (Math.min (centralLength, ZIP64_MAGIC_VALUE));
+        header.writeInt (Math.min (centralOffset, ZIP64_MAGIC_VALUE));
+        header.writeShort (this.comment.length);
+        header.write (this.comment);
+        this.writeOutput (header.toByteArray ());
+        this.output.flush ();
+    }
+
+
+    private void writeOutput (final byte [] data) throws IOException
+    {
+        this.output.write (data);
+        this.written += data.length;
+    }
+
+
+    /**
+     * Converts a Java time to the MS-DOS date and time format.
+     *
+     * @param time The Java time in milliseconds since the epoch
+     * @return The MS-DOS date and time
+     */
+    private static long toDosTime (final long time)
+    {
+        final LocalDateTime dateTime = LocalDateTime.ofInstant (Instant.ofEpochMilli (time), ZoneId.systemDefault ());
+        final int year = dateTime.getYear ();
+        if (year < 1980)
+            return 1 << 21 | 1 << 16;
+        return (long) (year - 1980) << 25 | dateTime.getMonthValue () << 21 | dateTime.getDayOfMonth () << 16 | dateTime.getHour () << 11 | dateTime.getMinute () << 5 | dateTime.getSecond () >> 1;
+    }
+
+
+    /** Writes the data of a block as soon as it is compressed. */
+    private class BlockAction implements Action
+    {
+        private final EntryInfo                  info;
+        private final CompletableFuture<byte []> task;
+
+
+        BlockAction (final EntryInfo info, final CompletableFuture<byte []> task)
+        {
+            this.info = info;
+            this.task = task;
+            ParallelZipOutputStream.this.numPendingBlocks++;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void write () throws IOException
+        {
+            ParallelZipOutputStream.this.numPendingBlocks--;
+            final byte [] data = this.task.join ();
+            if (this.info.method == DEFLATED)
+                this.info.compressedSize += data.length;
+            ParallelZipOutputStream.this.writeOutput (data);
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isReady ()
+        {
+            return this.task.isDone ();
+        }
+    }
+
+
+    private static class EntryInfo
+    {
+        private final byte [] name;
+        private final int     method;
+        private final long    dosTime;
+        private long          offset;
+        private long          crc;
+        private long          size;
+        private long          compressedSize = 0;
+        private long          writtenSize    = 0;
+        private boolean       isStreamed     = false;
+
+
+        EntryInfo (final byte [] name, final int method, final long dosTime)
+        {
+            this.name = name;
+            this.method = method;
+            this.dosTime = dosTime;
+        }
+    }
+
+
+    /** Writes the little-endian values of the headers. */
+    private static class HeaderWriter extends ByteArrayOutputStream
+    {
+        void writeShort (final int value)
+        {
+            this.write (value & 0xFF);
+            this.write (value >>> 8 & 0xFF);
+        }
+
+
+        void writeInt (final long value)
+        {
+            this.writeShort ((int) (value & 0xFFFF));
+            this.writeShort ((int) (value >>> 16 & 0xFFFF));
+        }
+
+
+        void writeLong (final long value)
+        {
+            this.writeInt (value & 0xFFFFFFFFL);
+            this.writeInt (value >>> 32);
+        }
+    }
+}
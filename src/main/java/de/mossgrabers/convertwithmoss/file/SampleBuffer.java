@@ -0,0 +1,60 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+
+/**
+ * A byte array output stream which can be read from without copying its content.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class SampleBuffer extends ByteArrayOutputStream
+{
+    /**
+     * Constructor.
+     */
+    public SampleBuffer ()
+    {
+        // Intentionally empty
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param size The initial capacity of the buffer
+     */
+    public SampleBuffer (final int size)
+    {
+        super (size);
+    }
+
+
+    /**
+     * Get a stream to read the current content.
+     *
+     * @return The stream
+     */
+    public InputStream toInputStream ()
+    {
+        return new ByteArrayInputStream (this.buf, 0, this.count);
+    }
+
+
+    /**
+     * Get the content. The backing array is returned without copying it if it is completely
+     * filled, therefore allocate the buffer with the final size if possible.
+     *
+     * @return The content
+     */
+    public byte [] getData ()
+    {
+        return this.count == this.buf.length ? this.buf : this.toByteArray ();
+    }
+}
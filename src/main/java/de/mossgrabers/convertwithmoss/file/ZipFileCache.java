@@ -0,0 +1,205 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+
+/**
+ * Keeps ZIP files open which are accessed several times, e.g. for reading each sample of a
+ * multi-sample which is stored in a ZIP archive. Opening a ZIP file parses its central directory,
+ * which is done only once with this cache. The open files are reference counted and identified by
+ * their canonical path. If more than {@link #MAX_OPEN_FILES} are open, the least recently used ones
+ * which are currently not in use are closed. All files are closed with {@link #closeAll()} when the
+ * conversion is finished.
+ *
+ * @author Jürgen Moßgraber
+ */
+public final class ZipFileCache
+{
+    /** The maximum number of ZIP files which are kept open when they are not in use. */
+    public static final int                MAX_OPEN_FILES = 16;
+
+    private static final Map<String, Entry> OPEN_FILES     = new LinkedHashMap<> (16, 0.75f, true);
+
+
+    /**
+     * Private due to helper class.
+     */
+    private ZipFileCache ()
+    {
+        // Intentionally empty
+    }
+
+
+    /**
+     * Get the open ZIP file for the given file. The file is opened if it is not already in the
+     * cache. The returned handle must be closed when the ZIP file is no longer needed.
+     *
+     * @param file The ZIP file
+     * @return The handle which gives access to the ZIP file
+     * @throws IOException Could not open the ZIP file
+     */
+    public static Handle acquire (final File file) throws IOException
+    {
+        final String key = file.getCanonicalPath ();
+        final List<ZipFile> filesToClose = new ArrayList<> ();
+        final Handle handle;
+        synchronized (OPEN_FILES)
+        {
+            Entry entry = OPEN_FILES.get (key);
+            if (entry == null)
+            {
+                entry = new Entry (new ZipFile (file));
+                OPEN_FILES.put (key, entry);
+                evictUnused (filesToClose);
+            }
+            entry.references++;
+            handle = new Handle (entry);
+        }
+        closeFiles (filesToClose);
+        return handle;
+    }
+
+
+    /**
+     * Close all cached ZIP files. Files which are still in use are closed as soon as their last
+     * handle is closed.
+     *
+     * @throws IOException Could not close a ZIP file
+     */
+    public static void closeAll () throws IOException
+    {
+        final List<ZipFile> filesToClose = new ArrayList<> ();
+        synchronized (OPEN_FILES)
+        {
+            for (final Entry entry: OPEN_FILES.values ())
+            {
+                entry.isEvicted = true;
+                if (entry.references == 0)
+                    filesToClose.add (entry.zipFile);
+            }
+            OPEN_FILES.clear ();
+        }
+        closeFiles (filesToClose);
+    }
+
+
+    /**
+     * Removes the least recently used files which are not in use until the maximum number of open
+     * files is reached. Must be called while holding the lock.
+     *
+     * @param filesToClose Where to add the removed files which need to be closed
+     */
+    private static void evictUnused (final List<ZipFile> filesToClose)
+    {
+        final Iterator<Entry> iterator = OPEN_FILES.values ().iterator ();
+        int size = OPEN_FILES.size ();
+        while (size > MAX_OPEN_FILES && iterator.hasNext ())
+        {
+            final Entry entry = iterator.next ();
+            if (entry.references > 0)
+                continue;
+            entry.isEvicted = true;
+            filesToClose.add (entry.zipFile);
+            iterator.remove ();
+            size--;
+        }
+    }
+
+
+    private static void closeFiles (final List<ZipFile> filesToClose) throws IOException
+    {
+        IOException exception = null;
+        for (final ZipFile zipFile: filesToClose)
+            try
+            {
+                zipFile.close ();
+            }
+            catch (final IOException ex)
+            {
+                exception = ex;
+            }
+        if (exception != null)
+            throw exception;
+    }
+
+
+    private static void release (final Entry entry) throws IOException
+    {
+        synchronized (OPEN_FILES)
+        {
+            entry.references--;
+            if (entry.references > 0 || !entry.isEvicted)
+                return;
+        }
+        entry.zipFile.close ();
+    }
+
+
+    /**
+     * Gives access to a cached ZIP file. Closing the handle does not close the ZIP file but only
+     * signals that it is no longer used.
+     */
+    public static final class Handle implements AutoCloseable
+    {
+        private final Entry entry;
+        private boolean     isClosed = false;
+
+
+        /**
+         * Constructor.
+         *
+         * @param entry The cache entry
+         */
+        Handle (final Entry entry)
+        {
+            this.entry = entry;
+        }
+
+
+        /**
+         * Get the ZIP file. Reading from it is thread-safe.
+         *
+         * @return The ZIP file
+         */
+        public ZipFile getZipFile ()
+        {
+            return this.entry.zipFile;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void close () throws IOException
+        {
+            if (this.isClosed)
+                return;
+            this.isClosed = true;
+            release (this.entry);
+        }
+    }
+
+
+    private static final class Entry
+    {
+        private final ZipFile zipFile;
+        private int           references = 0;
+        private boolean       isEvicted  = false;
+
+
+        Entry (final ZipFile zipFile)
+        {
+            this.zipFile = zipFile;
+        }
+    }
+}
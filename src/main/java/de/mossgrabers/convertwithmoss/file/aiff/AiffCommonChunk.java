@@ -146,7 +146,19 @@ public class AiffCommonChunk extends AiffChunk
      */
     public boolean isPCM ()
     {
-        return this.compressionType == null || PCM_COMPRESSION_TYPES.contains (this.compressionType);
+        return this.compressionType == null || isPCM (this.compressionType);
+    }
+
+
+    /**
+     * Check if the given AIFC compression type marks plain (un-compressed) PCM sound data.
+     *
+     * @param compressionType The compression type
+     * @return True if the sound data is plain PCM
+     */
+    public static boolean isPCM (final String compressionType)
+    {
+        return PCM_COMPRESSION_TYPES.contains (compressionType);
     }
 
 
@@ -168,7 +180,7 @@ public class AiffCommonChunk extends AiffChunk
      * @param data The 10 bytes (= 80 bit)
      * @return The converted double value
      */
-    private static double readDouble80 (final byte [] data)
+    public static double readDouble80 (final byte [] data)
     {
         // Extract the sign bit.
         final int sign = data[0] >> 7;
@@ -15,13 +15,14 @@ import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.ZipFile;
+import java.util.Optional;
 
 import javax.sound.sampled.AudioFileFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
+import de.mossgrabers.convertwithmoss.core.model.IAudioMetadata;
 import de.mossgrabers.convertwithmoss.core.model.IMetadata;
 import de.mossgrabers.convertwithmoss.core.model.ISampleLoop;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
@@ -29,6 +30,7 @@ import de.mossgrabers.convertwithmoss.core.model.enumeration.LoopType;
 import de.mossgrabers.convertwithmoss.core.model.implementation.AbstractFileSampleData;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultAudioMetadata;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleLoop;
+import de.mossgrabers.convertwithmoss.file.AudioFileHeader;
 import de.mossgrabers.convertwithmoss.file.wav.DataChunk;
 import de.mossgrabers.convertwithmoss.file.wav.WaveFile;
 import de.mossgrabers.tools.ui.Functions;
@@ -99,7 +101,7 @@ public class AiffFileSampleData extends AbstractFileSampleData
             return;
         }
 
-        try (final ZipFile zf = new ZipFile (this.zipFile); final InputStream inputStream = zf.getInputStream (this.getHarmonizedZipEntry (zf)))
+        try (final InputStream inputStream = this.openZipEntry ())
         {
             this.readConvertWrite (inputStream, outputStream);
         }
@@ -302,6 +304,24 @@ public class AiffFileSampleData extends AbstractFileSampleData
     @Override
     protected void createAudioMetadata () throws IOException
     {
+        // The metadata of a file can be taken from its' header without parsing the whole file
+        if (this.sampleFile != null)
+        {
+            final Optional<AudioFileHeader> header = AudioFileHeader.read (this.sampleFile);
+            if (header.isPresent ())
+            {
+                final AudioFileHeader audioFileHeader = header.get ();
+                if (audioFileHeader.isCompressed ())
+                    throw new IOException (Functions.getMessage ("IDS_ERR_COMPRESSED_AIFF_FILE", this.filename, audioFileHeader.getCompressionName (), audioFileHeader.getCompressionType ()));
+                final IAudioMetadata metadata = audioFileHeader.getMetadata ();
+                if (metadata != null)
+                {
+                    this.audioMetadata = metadata;
+                    return;
+                }
+            }
+        }
+
         // The javax.sound SPI cannot read AIFC files; provide their metadata from the parsed
         // chunks instead
         AiffCommonChunk commonChunk = null;
@@ -341,7 +361,7 @@ public class AiffFileSampleData extends AbstractFileSampleData
         else
         {
             this.aiffFile = new AiffFile ();
-            try (final ZipFile zf = new ZipFile (this.zipFile); final InputStream in = zf.getInputStream (this.getHarmonizedZipEntry (zf)))
+            try (final InputStream in = this.openZipEntry ())
             {
                 this.aiffFile.read (in);
             }
@@ -6,8 +6,16 @@ package de.mossgrabers.convertwithmoss.file.flac;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 
 /**
@@ -17,7 +25,8 @@ import java.security.NoSuchAlgorithmException;
  * independent and de-correlated (left/side, side/right, mid/side) channel codings. Only features
  * of the original FLAC specification are emitted (4-bit Rice parameters, no escape codes),
  * therefore the output is readable by old decoders as well. All block sizes are handled correctly,
- * including a trailing block which is shorter than the prediction order.
+ * including a trailing block which is shorter than the prediction order. The blocks are encoded in
+ * parallel.
  *
  * @author Jürgen Moßgraber
  */
@@ -30,6 +39,8 @@ public class FlacEncoder
     private static final int    MAX_RICE_PARAMETER  = 14;
     private static final int    MAX_PARTITION_ORDER = 6;
     private static final int    PADDING_LENGTH      = 40;
+    /** The length of the marker, the STREAMINFO and the PADDING meta-data blocks. */
+    private static final int    HEADER_LENGTH       = 4 + 4 + 34 + 4 + PADDING_LENGTH;
 
     private static final int [] CRC8_TABLE         = new int [256];
     private static final int [] CRC16_TABLE        = new int [256];
@@ -63,45 +74,110 @@ public class FlacEncoder
     /**
      * Encodes the given audio data losslessly into a FLAC stream.
      *
-     * @param channels The audio data, one array of signed samples per channel, all of the same
-     *            length
+     * @param data The interleaved audio data in the format of a WAV data chunk (little-endian,
+     *            signed but unsigned for 8 bit)
+     * @param numberOfChannels The number of channels
      * @param sampleRate The sample rate in Hertz
      * @param bitsPerSample The resolution of the samples, may be 8, 16 or 24
      * @return The FLAC stream
      * @throws IOException If the audio attributes cannot be represented in FLAC
      */
-    public static byte [] encode (final int [] [] channels, final int sampleRate, final int bitsPerSample) throws IOException
+    public static byte [] encode (final byte [] data, final int numberOfChannels, final int sampleRate, final int bitsPerSample) throws IOException
+    {
+        // FLAC compresses roughly to the half, which keeps the number of re-allocations low
+        final ByteArrayOutputStream out = new ByteArrayOutputStream (HEADER_LENGTH + data.length / 2);
+        out.write (new byte [HEADER_LENGTH]);
+        final byte [] header = encodeFrames (data, numberOfChannels, sampleRate, bitsPerSample, Channels.newChannel (out));
+        final byte [] result = out.toByteArray ();
+        System.arraycopy (header, 0, result, 0, HEADER_LENGTH);
+        return result;
+    }
+
+
+    /**
+     * Encodes the given audio data losslessly into a FLAC stream. The frames are written to the
+     * channel as soon as they are encoded, the header is written at the end when the frame sizes
+     * and the checksum are known.
+     *
+     * @param data The interleaved audio data in the format of a WAV data chunk (little-endian,
+     *            signed but unsigned for 8 bit)
+     * @param numberOfChannels The number of channels
+     * @param sampleRate The sample rate in Hertz
+     * @param bitsPerSample The resolution of the samples, may be 8, 16 or 24
+     * @param channel Where to write the FLAC stream to, starting at the current position
+     * @throws IOException If the audio attributes cannot be represented in FLAC or the channel
+     *             could not be written
+     */
+    public static void encode (final byte [] data, final int numberOfChannels, final int sampleRate, final int bitsPerSample, final SeekableByteChannel channel) throws IOException
+    {
+        final long start = channel.position ();
+        writeFully (channel, ByteBuffer.allocate (HEADER_LENGTH));
+        final byte [] header = encodeFrames (data, numberOfChannels, sampleRate, bitsPerSample, channel);
+        final long end = channel.position ();
+        channel.position (start);
+        writeFully (channel, ByteBuffer.wrap (header));
+        channel.position (end);
+    }
+
+
+    /**
+     * Encodes all frames and writes them in order to the given channel. The blocks are encoded in
+     * parallel on the common fork-join pool. Only a limited number of encoded frames is kept in
+     * memory, the encoding of further blocks is started when the oldest frame has been written.
+     *
+     * @param data The interleaved audio data in the format of a WAV data chunk
+     * @param numberOfChannels The number of channels
+     * @param sampleRate The sample rate in Hertz
+     * @param bitsPerSample The resolution of the samples
+     * @param channel Where to write the frames to
+     * @return The header of the stream including the STREAMINFO and PADDING meta-data blocks
+     * @throws IOException If the audio attributes cannot be represented in FLAC or the channel
+     *             could not be written
+     */
+    private static byte [] encodeFrames (final byte [] data, final int numberOfChannels, final int sampleRate, final int bitsPerSample, final WritableByteChannel channel) throws IOException
     {
-        final int numberOfChannels = channels.length;
         if (numberOfChannels < 1 || numberOfChannels > 8)
             throw new IOException ("FLAC: Unsupported number of channels: " + numberOfChannels);
         if (bitsPerSample != 8 && bitsPerSample != 16 && bitsPerSample != 24)
             throw new IOException ("FLAC: Unsupported bit resolution: " + bitsPerSample);
         if (sampleRate < 1 || sampleRate > 0xFFFFF)
             throw new IOException ("FLAC: Unsupported sample rate: " + sampleRate);
-        final int numberOfSamples = channels[0].length;
-        for (final int [] channel: channels)
-            if (channel.length != numberOfSamples)
-                throw new IOException ("FLAC: All channels must have the same length.");
+        final int bytesPerSample = bitsPerSample / 8;
+        final int frameSize = numberOfChannels * bytesPerSample;
+        final int numberOfSamples = data.length / frameSize;
 
         final MessageDigest md5 = createMD5Digest ();
-        final ByteArrayOutputStream frames = new ByteArrayOutputStream ();
-        int minFrameSize = Integer.MAX_VALUE;
-        int maxFrameSize = 0;
+        // 8 bit WAV data is unsigned but the checksum is calculated from the signed values
+        final byte [] signedBlock = bytesPerSample == 1 ? new byte [BLOCK_SIZE * frameSize] : null;
+
+        final FrameWriter frameWriter = new FrameWriter (channel);
+        final int maxPendingFrames = 2 * Math.max (1, ForkJoinPool.getCommonPoolParallelism ());
+        final Deque<ForkJoinTask<byte []>> pendingFrames = new ArrayDeque<> ();
         int frameIndex = 0;
-        final byte [] interleaved = new byte [BLOCK_SIZE * numberOfChannels * (bitsPerSample / 8)];
         for (int offset = 0; offset < numberOfSamples; offset += BLOCK_SIZE)
         {
+            final int blockOffset = offset;
             final int blockSize = Math.min (BLOCK_SIZE, numberOfSamples - offset);
-            md5.update (interleaved, 0, interleaveLittleEndian (channels, offset, blockSize, bitsPerSample, interleaved));
-            final byte [] frame = encodeFrame (channels, offset, blockSize, frameIndex, sampleRate, bitsPerSample);
-            frames.write (frame, 0, frame.length);
-            minFrameSize = Math.min (minFrameSize, frame.length);
-            maxFrameSize = Math.max (maxFrameSize, frame.length);
-            frameIndex++;
+            final int index = frameIndex++;
+            pendingFrames.add (ForkJoinPool.commonPool ().submit (() -> encodeFrame (readBlock (data, blockOffset, blockSize, numberOfChannels, bytesPerSample), 0, blockSize, index, sampleRate, bitsPerSample)));
+
+            final int position = offset * frameSize;
+            final int length = blockSize * frameSize;
+            if (signedBlock == null)
+                md5.update (data, position, length);
+            else
+            {
+                for (int i = 0; i < length; i++)
+                    signedBlock[i] = (byte) (data[position + i] ^ 0x80);
+                md5.update (signedBlock, 0, length);
+            }
+
+            // Write all finished frames, wait for the oldest one if too many are pending
+            while (!pendingFrames.isEmpty () && (pendingFrames.size () >= maxPendingFrames || pendingFrames.peekFirst ().isDone ()))
+                frameWriter.write (pendingFrames.removeFirst ().join ());
         }
-        if (frameIndex == 0)
-            minFrameSize = 0;
+        while (!pendingFrames.isEmpty ())
+            frameWriter.write (pendingFrames.removeFirst ().join ());
 
         final BitWriter header = new BitWriter ();
         header.writeBits (0x664C6143, 32);
@@ -110,8 +186,8 @@ public class FlacEncoder
         header.writeBits (34, 24);
         header.writeBits (BLOCK_SIZE, 16);
         header.writeBits (BLOCK_SIZE, 16);
-        header.writeBits (minFrameSize, 24);
-        header.writeBits (maxFrameSize, 24);
+        header.writeBits (frameIndex == 0 ? 0 : frameWriter.minFrameSize, 24);
+        header.writeBits (frameWriter.maxFrameSize, 24);
         header.writeBits (sampleRate, 20);
         header.writeBits (numberOfChannels - 1, 3);
         header.writeBits (bitsPerSample - 1, 5);
@@ -125,12 +201,43 @@ public class FlacEncoder
         header.writeBits (PADDING_LENGTH, 24);
         for (int i = 0; i < PADDING_LENGTH; i++)
             header.writeBits (0, 8);
+        return header.toByteArray ();
+    }
+
 
-        final ByteArrayOutputStream result = new ByteArrayOutputStream ();
-        final byte [] headerBytes = header.toByteArray ();
-        result.write (headerBytes, 0, headerBytes.length);
-        frames.writeTo (result);
-        return result.toByteArray ();
+    /**
+     * De-interleaves one block of the WAV audio data into signed samples per channel.
+     *
+     * @param data The interleaved audio data in the format of a WAV data chunk
+     * @param offset The index of the first sample of the block
+     * @param blockSize The number of samples in the block
+     * @param numberOfChannels The number of channels
+     * @param bytesPerSample The number of bytes of one sample
+     * @return The samples of the block, one array per channel
+     */
+    private static int [] [] readBlock (final byte [] data, final int offset, final int blockSize, final int numberOfChannels, final int bytesPerSample)
+    {
+        final int [] [] channels = new int [numberOfChannels] [blockSize];
+        int position = offset * numberOfChannels * bytesPerSample;
+        for (int i = 0; i < blockSize; i++)
+            for (int channel = 0; channel < numberOfChannels; channel++)
+            {
+                channels[channel][i] = switch (bytesPerSample)
+                {
+                    case 1 -> (data[position] & 0xFF) - 128;
+                    case 2 -> data[position] & 0xFF | data[position + 1] << 8;
+                    default -> data[position] & 0xFF | (data[position + 1] & 0xFF) << 8 | data[position + 2] << 16;
+                };
+                position += bytesPerSample;
+            }
+        return channels;
+    }
+
+
+    private static void writeFully (final WritableByteChannel channel, final ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining ())
+            channel.write (buffer);
     }
 
 
@@ -633,32 +740,6 @@ public class FlacEncoder
     }
 
 
-    /**
-     * Interleaves a block of all channels into little-endian bytes as needed for the MD5 checksum
-     * of the un-encoded audio data.
-     *
-     * @param channels The audio data of all channels
-     * @param offset The index of the first sample of the block
-     * @param blockSize The number of samples in the block
-     * @param bitsPerSample The resolution of the samples
-     * @param output Where to write the bytes to
-     * @return The number of bytes written
-     */
-    private static int interleaveLittleEndian (final int [] [] channels, final int offset, final int blockSize, final int bitsPerSample, final byte [] output)
-    {
-        final int bytesPerSample = bitsPerSample / 8;
-        int position = 0;
-        for (int i = 0; i < blockSize; i++)
-            for (final int [] channel: channels)
-            {
-                final int value = channel[offset + i];
-                for (int b = 0; b < bytesPerSample; b++)
-                    output[position++] = (byte) (value >> 8 * b);
-            }
-        return position;
-    }
-
-
     /**
      * Gets the 4-bit code for the block size. Common sizes have a direct code, all others are
      * stored explicitly at the end of the frame header.
@@ -897,6 +978,40 @@ public class FlacEncoder
     }
 
 
+    /** Writes the encoded frames and tracks their minimum and maximum size. */
+    private static class FrameWriter
+    {
+        private final WritableByteChannel channel;
+        private int                       minFrameSize = Integer.MAX_VALUE;
+        private int                       maxFrameSize = 0;
+
+
+        /**
+         * Constructor.
+         *
+         * @param channel Where to write the frames to
+         */
+        FrameWriter (final WritableByteChannel channel)
+        {
+            this.channel = channel;
+        }
+
+
+        /**
+         * Writes the next frame.
+         *
+         * @param frame The encoded frame
+         * @throws IOException Could not write the frame
+         */
+        void write (final byte [] frame) throws IOException
+        {
+            writeFully (this.channel, ByteBuffer.wrap (frame));
+            this.minFrameSize = Math.min (this.minFrameSize, frame.length);
+            this.maxFrameSize = Math.max (this.maxFrameSize, frame.length);
+        }
+    }
+
+
     /** Writes single bits into a growing byte buffer, most significant bit first. */
     private static class BitWriter
     {
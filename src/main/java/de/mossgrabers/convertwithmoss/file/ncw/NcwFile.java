@@ -4,51 +4,64 @@
 
 package de.mossgrabers.convertwithmoss.file.ncw;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
 
 import de.mossgrabers.convertwithmoss.file.StreamUtils;
-import de.mossgrabers.convertwithmoss.file.wav.DataChunk;
+import de.mossgrabers.convertwithmoss.file.riff.CommonRiffChunkId;
 import de.mossgrabers.convertwithmoss.file.wav.FormatChunk;
-import de.mossgrabers.convertwithmoss.file.wav.WaveFile;
+import de.mossgrabers.convertwithmoss.file.wav.WaveRiffChunkId;
 import de.mossgrabers.tools.ui.Functions;
 
 
 /**
- * Kontakt Loss-less Compression Audio File.
+ * Kontakt Loss-less Compression Audio File. The data blocks are independent of each other and are
+ * therefore decoded in parallel.
  *
  * @author Jürgen Moßgraber
  */
 public class NcwFile
 {
-    private static final int NUM_SAMPLES     = 512;
-    private static final int FILE_MAGIC      = 0xD69EA801;
-    private static final int BLOCK_MAGIC     = 0x3E9A0C16;
+    private static final int NUM_SAMPLES         = 512;
+    private static final int FILE_MAGIC          = 0xD69EA801;
+    private static final int BLOCK_MAGIC         = 0x3E9A0C16;
+    private static final int HEADER_SIZE         = 120;
+    private static final int BLOCK_HEADER_SIZE   = 16;
 
-    private static final int FLAG_MID_SIDE   = 1;
-    private static final int FLAG_IEEE_FLOAT = 2;
+    private static final int FLAG_MID_SIDE       = 1;
+    private static final int FLAG_IEEE_FLOAT     = 2;
 
     // Kontakt 4
-    private static final int VERSION1        = 0x130;
+    private static final int VERSION1            = 0x130;
     // KOntakt 5
-    private static final int VERSION2        = 0x131;
+    private static final int VERSION2            = 0x131;
+
+    /** Files with less blocks are decoded in the calling thread. */
+    private static final int MIN_PARALLEL_BLOCKS = 32;
+    /** The size of the buffer for writing the WAV data. */
+    private static final int WRITE_BUFFER_SIZE   = 0x10000;
 
     private int              channels;
     private int              bitsPerSample;
     private int              sampleRate;
     private int              numberOfSamples;
+    private boolean          isHeaderRead        = false;
 
     private int [] []        channelData;
     private float [] []      channelDataFloat;
     private final File       ncwSourceFile;
-    private final Object     lazyLoadingLock = new Object ();
+    private final ByteBuffer ncwSourceBuffer;
+    private final Object     lazyLoadingLock     = new Object ();
 
 
     /**
@@ -60,11 +73,25 @@ public class NcwFile
     public NcwFile (final File ncwFile) throws IOException
     {
         this.ncwSourceFile = ncwFile;
+        this.ncwSourceBuffer = null;
         if (this.ncwSourceFile == null)
             throw new IOException (Functions.getMessage ("IDS_NCW_FILE_MUST_NOT_BE_NULL"));
     }
 
 
+    /**
+     * Constructor. The NCW file is decoded from the buffer when it is needed.
+     *
+     * @param buffer The buffer which contains the NCW file, e.g. a memory-mapped part of a
+     *            monolith, must not be modified afterwards
+     */
+    public NcwFile (final ByteBuffer buffer)
+    {
+        this.ncwSourceFile = null;
+        this.ncwSourceBuffer = buffer;
+    }
+
+
     /**
      * Constructor. Reads the given NCW file.
      *
@@ -74,7 +101,8 @@ public class NcwFile
     public NcwFile (final InputStream inputStream) throws IOException
     {
         this.ncwSourceFile = null;
-        this.read (inputStream);
+        this.ncwSourceBuffer = null;
+        this.read (ByteBuffer.wrap (inputStream.readAllBytes ()));
     }
 
 
@@ -86,7 +114,7 @@ public class NcwFile
      */
     public int getChannels () throws IOException
     {
-        this.lazyLoading ();
+        this.lazyLoadingHeader ();
         return this.channels;
     }
 
@@ -99,7 +127,7 @@ public class NcwFile
      */
     public int getNumberOfSamples () throws IOException
     {
-        this.lazyLoading ();
+        this.lazyLoadingHeader ();
         return this.numberOfSamples;
     }
 
@@ -112,7 +140,7 @@ public class NcwFile
      */
     public int getBitsPerSample () throws IOException
     {
-        this.lazyLoading ();
+        this.lazyLoadingHeader ();
         return this.bitsPerSample;
     }
 
@@ -125,13 +153,14 @@ public class NcwFile
      */
     public int getSampleRate () throws IOException
     {
-        this.lazyLoading ();
+        this.lazyLoadingHeader ();
         return this.sampleRate;
     }
 
 
     /**
-     * Write the decoded data as a WAV file.
+     * Write the decoded data as a WAV file. The interleaved samples are written in chunks directly
+     * to the output stream.
      *
      * @param outputStream Where to write the WAV file
      * @throws IOException Could not write
@@ -144,26 +173,45 @@ public class NcwFile
 
             final boolean isFloat = this.channelDataFloat != null;
 
-            final WaveFile wavFile = new WaveFile (this.channels, this.sampleRate, this.bitsPerSample, this.numberOfSamples);
-            if (isFloat)
-                wavFile.getFormatChunk ().setCompressionCode (FormatChunk.WAVE_FORMAT_IEEE_FLOAT);
-            final DataChunk dataChunk = wavFile.getDataChunk ();
-
-            final ByteArrayOutputStream bout = new ByteArrayOutputStream (this.channels * (this.bitsPerSample / 8) * this.numberOfSamples);
+            final FormatChunk formatChunk = new FormatChunk (this.channels, this.sampleRate, this.bitsPerSample, true);
             if (isFloat)
-                for (int i = 0; i < this.numberOfSamples; i++)
-                    for (int channel = 0; channel < this.channels; channel++)
-                        StreamUtils.writeFloatLE (bout, this.channelDataFloat[channel][i]);
-            else
-                for (int i = 0; i < this.numberOfSamples; i++)
-                    for (int channel = 0; channel < this.channels; channel++)
-                        StreamUtils.writeUnsigned (bout, this.channelData[channel][i], this.bitsPerSample, false);
-
-            dataChunk.setData (bout.toByteArray ());
-            wavFile.write (outputStream);
+                formatChunk.setCompressionCode (FormatChunk.WAVE_FORMAT_IEEE_FLOAT);
+
+            final int bytesPerSample = this.bitsPerSample / 8;
+            final int frameSize = this.channels * bytesPerSample;
+            final long dataSize = (long) frameSize * this.numberOfSamples;
+            final boolean needsPadByte = dataSize % 2 == 1;
+
+            // RIFF header, format chunk and header of the data chunk
+            StreamUtils.writeUnsigned32 (outputStream, CommonRiffChunkId.RIFF_ID.getFourCC (), true);
+            StreamUtils.writeUnsigned32 (outputStream, 4 + 8 + formatChunk.getDataSize () + 8 + dataSize + (needsPadByte ? 1 : 0), false);
+            StreamUtils.writeUnsigned32 (outputStream, WaveRiffChunkId.WAVE_ID.getFourCC (), true);
+            formatChunk.write (outputStream);
+            StreamUtils.writeUnsigned32 (outputStream, WaveRiffChunkId.DATA_ID.getFourCC (), true);
+            StreamUtils.writeUnsigned32 (outputStream, dataSize, false);
+
+            final byte [] buffer = new byte [Math.max (1, WRITE_BUFFER_SIZE / frameSize) * frameSize];
+            int position = 0;
+            for (int i = 0; i < this.numberOfSamples; i++)
+            {
+                for (int channel = 0; channel < this.channels; channel++)
+                {
+                    final int value = isFloat ? Float.floatToRawIntBits (this.channelDataFloat[channel][i]) : this.channelData[channel][i];
+                    for (int b = 0; b < bytesPerSample; b++)
+                        buffer[position++] = (byte) (value >> 8 * b);
+                }
+                if (position == buffer.length)
+                {
+                    outputStream.write (buffer, 0, position);
+                    position = 0;
+                }
+            }
+            outputStream.write (buffer, 0, position);
+            if (needsPadByte)
+                outputStream.write (0);
 
             // Dirty workaround to allow fast garbage collection
-            if (this.ncwSourceFile != null)
+            if (this.ncwSourceFile != null || this.ncwSourceBuffer != null)
             {
                 this.channelData = null;
                 this.channelDataFloat = null;
@@ -172,6 +220,28 @@ public class NcwFile
     }
 
 
+    private void lazyLoadingHeader () throws IOException
+    {
+        synchronized (this.lazyLoadingLock)
+        {
+            if (this.isHeaderRead)
+                return;
+
+            if (this.ncwSourceBuffer != null)
+            {
+                this.readHeader (this.ncwSourceBuffer.duplicate ().order (ByteOrder.LITTLE_ENDIAN));
+                return;
+            }
+
+            // Only the header is required for the format information
+            try (final FileInputStream stream = new FileInputStream (this.ncwSourceFile))
+            {
+                this.readHeader (ByteBuffer.wrap (stream.readNBytes (HEADER_SIZE)).order (ByteOrder.LITTLE_ENDIAN));
+            }
+        }
+    }
+
+
     private void lazyLoading () throws IOException
     {
         synchronized (this.lazyLoadingLock)
@@ -179,179 +249,231 @@ public class NcwFile
             if (this.channelData != null || this.channelDataFloat != null)
                 return;
 
-            try (final FileInputStream stream = new FileInputStream (this.ncwSourceFile))
+            if (this.ncwSourceBuffer != null)
             {
-                this.read (stream);
+                this.read (this.ncwSourceBuffer.duplicate ());
+                return;
+            }
+
+            try (final FileChannel channel = FileChannel.open (this.ncwSourceFile.toPath (), StandardOpenOption.READ))
+            {
+                this.read (channel.map (MapMode.READ_ONLY, 0, channel.size ()));
             }
         }
     }
 
 
     /**
-     * Reads a NCW file from a stream.
+     * Reads a NCW file from a buffer.
      *
-     * @param inputStream The input stream which provides the NCW file
+     * @param buffer The buffer which contains the NCW file
      * @throws IOException Could not read the file
      */
-    private void read (final InputStream inputStream) throws IOException
+    private void read (final ByteBuffer buffer) throws IOException
     {
-        final int numberOfBlocks = this.readHeader (inputStream);
+        buffer.order (ByteOrder.LITTLE_ENDIAN);
 
-        this.channelData = new int [this.channels] [];
-        for (int i = 0; i < this.channels; i++)
-            this.channelData[i] = new int [this.numberOfSamples];
+        try
+        {
+            final int numberOfBlocks = this.readHeader (buffer);
 
-        // Read all offsets
-        final int [] offsets = new int [numberOfBlocks];
-        for (int i = 0; i < numberOfBlocks; i++)
-            offsets[i] = (int) StreamUtils.readUnsigned32 (inputStream, false);
+            this.channelData = new int [this.channels] [];
+            for (int i = 0; i < this.channels; i++)
+                this.channelData[i] = new int [this.numberOfSamples];
 
-        if (offsets[0] != 0)
-            throw new IOException (Functions.getMessage ("IDS_NCW_FIRST_BLOCK_OFFSET_MUST_BE_ZERO"));
+            // Read all offsets
+            final int [] offsets = new int [numberOfBlocks];
+            for (int i = 0; i < numberOfBlocks; i++)
+                offsets[i] = buffer.getInt ();
 
-        for (int i = 1; i < numberOfBlocks; i++)
+            if (offsets[0] != 0)
+                throw new IOException (Functions.getMessage ("IDS_NCW_FIRST_BLOCK_OFFSET_MUST_BE_ZERO"));
+
+            final int dataStart = buffer.position ();
+            final int dataEnd = dataStart + offsets[numberOfBlocks - 1];
+            if (dataEnd > buffer.limit ())
+                throw new IOException (Functions.getMessage ("IDS_NCW_NOT_A_NCW_FILE"));
+
+            // Decode the integer values of all blocks, the blocks write into different ranges of
+            // the channel arrays
+            final int [] blockFlags = new int [numberOfBlocks - 1];
+            IntStream blocks = IntStream.range (0, numberOfBlocks - 1);
+            if (numberOfBlocks > MIN_PARALLEL_BLOCKS)
+                blocks = blocks.parallel ();
+            blocks.forEach (blockIndex -> {
+                final int blockStart = dataStart + offsets[blockIndex];
+                final ByteBuffer block = buffer.slice (blockStart, offsets[blockIndex + 1] - offsets[blockIndex]).order (ByteOrder.LITTLE_ENDIAN);
+                try
+                {
+                    blockFlags[blockIndex] = this.parseBlock (block, blockIndex);
+                }
+                catch (final IOException ex)
+                {
+                    throw new UncheckedIOException (ex);
+                }
+            });
+
+            this.convertFloatBlocks (blockFlags);
+
+            final int available = buffer.limit () - dataEnd;
+            if (available > 0)
+                throw new IOException (Functions.getMessage ("IDS_NCW_UNREAD_BYTES", Integer.toString (available)));
+        }
+        catch (final UncheckedIOException ex)
         {
-            final int blockSize = offsets[i] - offsets[i - 1];
-            final byte [] blockData = inputStream.readNBytes (blockSize);
-            this.parseBlock (new ByteArrayInputStream (blockData), i - 1);
+            throw ex.getCause ();
+        }
+        catch (final IndexOutOfBoundsException | IllegalArgumentException ex)
+        {
+            throw new IOException (Functions.getMessage ("IDS_NCW_NOT_A_NCW_FILE"), ex);
         }
-
-        final int available = inputStream.available ();
-        if (available > 0)
-            throw new IOException (Functions.getMessage ("IDS_NCW_UNREAD_BYTES", Integer.toString (available)));
     }
 
 
     /**
      * Reads the NCW header.
      *
-     * @param inputStream The input stream from which to read
+     * @param buffer The buffer from which to read
      * @return The number of data blocks
      * @throws IOException Could not read the header
      */
-    private int readHeader (final InputStream inputStream) throws IOException
+    private int readHeader (final ByteBuffer buffer) throws IOException
     {
-        final int fileMagic = (int) StreamUtils.readUnsigned32 (inputStream, false);
-        if (fileMagic != FILE_MAGIC)
+        if (buffer.remaining () < HEADER_SIZE || buffer.getInt () != FILE_MAGIC)
             throw new IOException (Functions.getMessage ("IDS_NCW_NOT_A_NCW_FILE"));
 
-        final int version = (int) StreamUtils.readUnsigned32 (inputStream, false);
+        final int version = buffer.getInt ();
         if (version != VERSION1 && version != VERSION2)
             throw new IOException (Functions.getMessage ("IDS_NCW_UNKNOWN_VERSION", Integer.toHexString (version).toUpperCase ()));
 
-        this.channels = StreamUtils.readUnsigned16 (inputStream, false);
+        this.channels = Short.toUnsignedInt (buffer.getShort ());
         // The bits per sample: 16, 24 or 32
-        this.bitsPerSample = StreamUtils.readUnsigned16 (inputStream, false);
-        this.sampleRate = (int) StreamUtils.readUnsigned32 (inputStream, false);
-        this.numberOfSamples = (int) StreamUtils.readUnsigned32 (inputStream, false);
+        this.bitsPerSample = Short.toUnsignedInt (buffer.getShort ());
+        this.sampleRate = buffer.getInt ();
+        this.numberOfSamples = buffer.getInt ();
 
-        final long offsetBlockAddress = StreamUtils.readUnsigned32 (inputStream, false);
-        final long offsetBlockData = StreamUtils.readUnsigned32 (inputStream, false);
+        final long offsetBlockAddress = Integer.toUnsignedLong (buffer.getInt ());
+        final long offsetBlockData = Integer.toUnsignedLong (buffer.getInt ());
 
         // Size of all blocks, not needed
-        StreamUtils.readUnsigned32 (inputStream, false);
+        buffer.getInt ();
 
         // Padding - might contain content in the future!
-        inputStream.skipNBytes (88);
+        buffer.position (buffer.position () + 88);
 
+        this.isHeaderRead = true;
         return (int) ((offsetBlockData - offsetBlockAddress) / 4);
     }
 
 
     /**
-     * Parse 1 data block.
+     * Parse 1 data block. The integer values are decoded directly into the channel arrays.
+     * Mid/side encoding of floating point blocks is converted afterwards since the values need to
+     * be re-interpreted as floats first.
      *
-     * @param inputStream Where to read the block from
+     * @param block The data of the block
      * @param blockIndex The index of the block
+     * @return The flags of the block
      * @throws IOException Could not read the block
      */
-    private void parseBlock (final ByteArrayInputStream inputStream, final int blockIndex) throws IOException
+    private int parseBlock (final ByteBuffer block, final int blockIndex) throws IOException
     {
-        boolean isMidSide = false;
-        boolean isFloat = false;
-        int offset = 0;
-        int length = 0;
+        int blockFlags = 0;
+        final int offset = blockIndex * NUM_SAMPLES;
+        final int length = Math.min (NUM_SAMPLES, this.numberOfSamples - offset);
 
+        int position = 0;
         for (int channel = 0; channel < this.channels; channel++)
         {
-            final int blockMagic = (int) StreamUtils.readUnsigned32 (inputStream, false);
+            final int blockMagic = block.getInt (position);
             if (blockMagic != BLOCK_MAGIC)
                 throw new IOException (Functions.getMessage ("IDS_NCW_NOT_A_NCW_FILE"));
 
-            final int baseValue = StreamUtils.readSigned32 (inputStream, false);
-            final int bits = StreamUtils.readSigned16 (inputStream, false);
-            final int flags = StreamUtils.readUnsigned16 (inputStream, false);
+            final int baseValue = block.getInt (position + 4);
+            final int bits = block.getShort (position + 8);
+            final int flags = Short.toUnsignedInt (block.getShort (position + 10));
             if (flags > 3)
                 throw new IOException (Functions.getMessage ("IDS_NCW_UNSUPPORTED_FLAGS", Integer.toString (flags)));
-            if ((flags & FLAG_MID_SIDE) > 0)
-                isMidSide = true;
-            if ((flags & FLAG_IEEE_FLOAT) > 0)
-                isFloat = true;
+            blockFlags |= flags;
 
-            // Padding
-            inputStream.skipNBytes (4);
+            // Skip the header and the padding
+            position += BLOCK_HEADER_SIZE;
 
-            final byte [] blockData = inputStream.readNBytes (NUM_SAMPLES * Math.abs (bits) / 8);
-            final int [] samples;
+            final int [] samples = this.channelData[channel];
             if (bits > 0)
+            {
                 // Delta encoding compression
-                samples = decodeDeltaBlock (baseValue, blockData, bits);
+                decodeDeltaBlock (baseValue, block, position, bits, samples, offset, length);
+                position += NUM_SAMPLES * bits / 8;
+            }
             else if (bits < 0)
+            {
                 // Truncation encoding compression
-                samples = decodeTruncatedBlock (blockData, Math.abs (bits));
+                readPackedValues (block, position, -bits, samples, offset, length);
+                position -= NUM_SAMPLES * bits / 8;
+            }
             else
             {
                 // No compression
                 final int bytesPerSample = this.bitsPerSample / 8;
-                samples = new int [NUM_SAMPLES];
-                for (int i = 0; i < NUM_SAMPLES; i++)
-                {
-                    final byte [] sampleBytes = new byte [bytesPerSample];
-                    System.arraycopy (blockData, i * bytesPerSample, sampleBytes, 0, bytesPerSample);
-                    samples[i] = ByteBuffer.wrap (sampleBytes).order (ByteOrder.LITTLE_ENDIAN).getInt ();
-                }
-            }
-
-            offset = blockIndex * NUM_SAMPLES;
-            length = Math.min (NUM_SAMPLES, this.numberOfSamples - offset);
-            System.arraycopy (samples, 0, this.channelData[channel], offset, length);
-        }
-
-        // Re-interpret read integer values as IEEE 754 float values
-        if (isFloat)
-        {
-            if (this.channelDataFloat == null)
-            {
-                this.channelDataFloat = new float [this.channels] [];
-                for (int channel = 0; channel < this.channels; channel++)
-                    this.channelDataFloat[channel] = new float [this.numberOfSamples];
-            }
-
-            for (int channel = 0; channel < this.channels; channel++)
                 for (int i = 0; i < length; i++)
-                    this.channelDataFloat[channel][offset + i] = Float.intBitsToFloat (this.channelData[channel][offset + i]);
+                    samples[offset + i] = readSigned (block, position + i * bytesPerSample, bytesPerSample);
+                position += NUM_SAMPLES * bytesPerSample;
+            }
         }
 
         // Convert mid/side sample data into left/right sample data
-        if (isMidSide)
+        if ((blockFlags & FLAG_MID_SIDE) > 0)
         {
             if (this.channels != 2)
                 throw new IOException (Functions.getMessage ("IDS_NCW_MID_SIDE_ONLY_SUPPORTED_FOR_STEREO"));
 
-            for (int i = 0; i < length; i++)
-                if (isFloat)
+            if ((blockFlags & FLAG_IEEE_FLOAT) == 0)
+                for (int i = offset; i < offset + length; i++)
                 {
-                    final float mid = this.channelDataFloat[0][offset + i];
-                    final float side = this.channelDataFloat[1][offset + i];
-                    this.channelDataFloat[0][offset + i] = mid + side;
-                    this.channelDataFloat[1][offset + i] = mid - side;
+                    final int mid = this.channelData[0][i];
+                    final int side = this.channelData[1][i];
+                    this.channelData[0][i] = mid + side;
+                    this.channelData[1][i] = mid - side;
                 }
-                else
+        }
+
+        return blockFlags;
+    }
+
+
+    /**
+     * Re-interpret read integer values as IEEE 754 float values. If there is at least one floating
+     * point block, the whole sample is converted to floating point.
+     *
+     * @param blockFlags The flags of all blocks
+     */
+    private void convertFloatBlocks (final int [] blockFlags)
+    {
+        boolean isFloat = false;
+        for (final int flags: blockFlags)
+            isFloat |= (flags & FLAG_IEEE_FLOAT) > 0;
+        if (!isFloat)
+            return;
+
+        this.channelDataFloat = new float [this.channels] [this.numberOfSamples];
+        for (int blockIndex = 0; blockIndex < blockFlags.length; blockIndex++)
+        {
+            final int offset = blockIndex * NUM_SAMPLES;
+            final int end = Math.min (offset + NUM_SAMPLES, this.numberOfSamples);
+            final boolean isFloatBlock = (blockFlags[blockIndex] & FLAG_IEEE_FLOAT) > 0;
+
+            for (int channel = 0; channel < this.channels; channel++)
+                for (int i = offset; i < end; i++)
+                    this.channelDataFloat[channel][i] = isFloatBlock ? Float.intBitsToFloat (this.channelData[channel][i]) : this.channelData[channel][i];
+
+            if (isFloatBlock && (blockFlags[blockIndex] & FLAG_MID_SIDE) > 0)
+                for (int i = offset; i < end; i++)
                 {
-                    final int mid = this.channelData[0][offset + i];
-                    final int side = this.channelData[1][offset + i];
-                    this.channelData[0][offset + i] = mid + side;
-                    this.channelData[1][offset + i] = mid - side;
+                    final float mid = this.channelDataFloat[0][i];
+                    final float side = this.channelDataFloat[1][i];
+                    this.channelDataFloat[0][i] = mid + side;
+                    this.channelDataFloat[1][i] = mid - side;
                 }
         }
     }
@@ -361,112 +483,71 @@ public class NcwFile
      * Decode delta encoded integers. Each value is the offset to the next sample.
      *
      * @param baseSample The first sample value
-     * @param deltas The deltas
+     * @param block The data of the block
+     * @param position The position of the deltas in the block
      * @param precisionInBits The number of bits of 1 delta
-     * @return The decoded 32 bit samples
+     * @param samples Where to write the decoded samples
+     * @param offset The index in the samples array of the first sample of the block
+     * @param length The number of samples to decode
      */
-    private static int [] decodeDeltaBlock (final int baseSample, final byte [] deltas, final int precisionInBits)
+    private static void decodeDeltaBlock (final int baseSample, final ByteBuffer block, final int position, final int precisionInBits, final int [] samples, final int offset, final int length)
     {
-        final int [] deltaValues = readPackedValues (deltas, precisionInBits);
-        final int [] samples = new int [NUM_SAMPLES];
+        // Decode the deltas in place and sum them up afterwards
+        readPackedValues (block, position, precisionInBits, samples, offset, length);
         int prevBase = baseSample;
-        for (int i = 0; i < NUM_SAMPLES; i++)
+        for (int i = offset; i < offset + length; i++)
         {
+            final int delta = samples[i];
             samples[i] = prevBase;
-            prevBase += deltaValues[i];
+            prevBase += delta;
         }
-        return samples;
     }
 
 
     /**
-     * Read the packed deltas.
+     * Read signed values which are packed with the given number of bits, the lowest bits first.
      *
-     * @param data The delta data to decode
-     * @param precisionInBits The number of bits of 1 delta
-     * @return The decoded delta values
+     * @param block The data of the block
+     * @param position The position of the packed values in the block
+     * @param precisionInBits The number of bits of 1 value
+     * @param values Where to write the decoded values
+     * @param offset The index in the values array of the first value
+     * @param length The number of values to decode
      */
-    private static int [] readPackedValues (final byte [] data, final int precisionInBits)
+    private static void readPackedValues (final ByteBuffer block, final int position, final int precisionInBits, final int [] values, final int offset, final int length)
     {
-        final int [] deltas = new int [NUM_SAMPLES];
-        int bitAccumulator = 0;
+        // A long is required since up to 32 + 7 bits need to be accumulated
+        long bitAccumulator = 0;
         int bitsInAccumulator = 0;
-        int byteIndex = 0;
+        int byteIndex = position;
+        final int shift = 64 - precisionInBits;
 
-        int count = 0;
-        while (byteIndex < data.length)
+        for (int i = offset; i < offset + length; i++)
         {
             // Accumulate more bits
-            bitAccumulator |= (data[byteIndex] & 0xFF) << bitsInAccumulator;
-            bitsInAccumulator += 8;
-            byteIndex += 1;
-
-            // Extract values as long as enough bits are available
-            while (bitsInAccumulator >= precisionInBits)
+            while (bitsInAccumulator < precisionInBits)
             {
-                int value = bitAccumulator & (1 << precisionInBits) - 1;
-                if ((value & 1 << precisionInBits - 1) != 0)
-                    value |= ~0 << precisionInBits;
-                deltas[count] = value;
-                count++;
-
-                // Remove used bits
-                bitAccumulator >>= precisionInBits;
-                bitsInAccumulator -= precisionInBits;
+                bitAccumulator |= (block.get (byteIndex) & 0xFFL) << bitsInAccumulator;
+                bitsInAccumulator += 8;
+                byteIndex++;
             }
-        }
 
-        return deltas;
+            // Extract and sign extend the value, then remove the used bits
+            values[i] = (int) (bitAccumulator << shift >> shift);
+            bitAccumulator >>>= precisionInBits;
+            bitsInAccumulator -= precisionInBits;
+        }
     }
 
 
-    /**
-     * Decode truncated samples.
-     *
-     * @param data The data to decode
-     * @param precisionInBits The number of bits of 1 sample
-     * @return The decoded samples
-     */
-    private static int [] decodeTruncatedBlock (final byte [] data, final int precisionInBits)
+    private static int readSigned (final ByteBuffer block, final int position, final int bytesPerSample)
     {
-        final int [] samples = new int [NUM_SAMPLES];
-        int bitOffset = 0;
-
-        int count = 0;
-        while (bitOffset + precisionInBits <= data.length * 8)
-        {
-            final int byteOffset = bitOffset / 8;
-            final int bitRemainder = bitOffset % 8;
-
-            int value = 0;
-
-            if (precisionInBits == 32)
-            {
-                // Calculate with long to prevent overflow
-
-                long temp = 0;
-                for (int i = 0; i < (precisionInBits + 7) / 8; i++)
-                    temp |= (data[byteOffset + i] & 0xFF) << i * 8;
-
-                value = (int) (temp >> bitRemainder & (1L << precisionInBits) - 1);
-            }
-            else
-            {
-                int temp = 0;
-                for (int i = 0; i < (precisionInBits + 7) / 8; i++)
-                    temp |= (data[byteOffset + i] & 0xFF) << i * 8;
-
-                value = temp >> bitRemainder & (1 << precisionInBits) - 1;
-                if ((value & 1 << precisionInBits - 1) != 0)
-                    value |= ~0 << precisionInBits;
-            }
-
-            samples[count] = value;
-            count++;
-
-            bitOffset += precisionInBits;
-        }
+        int value = 0;
+        for (int i = 0; i < bytesPerSample; i++)
+            value |= (block.get (position + i) & 0xFF) << 8 * i;
 
-        return samples;
+        // Sign extend
+        final int shift = 32 - 8 * bytesPerSample;
+        return value << shift >> shift;
     }
 }
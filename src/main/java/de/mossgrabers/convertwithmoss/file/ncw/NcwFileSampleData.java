@@ -9,22 +9,29 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import de.mossgrabers.convertwithmoss.core.model.IMetadata;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
 import de.mossgrabers.convertwithmoss.core.model.implementation.AbstractFileSampleData;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultAudioMetadata;
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
+import de.mossgrabers.convertwithmoss.file.DecodedSampleCache;
 import de.mossgrabers.tools.ui.Functions;
 
 
 /**
- * The data of a NCW compressed sample. Converts the output to a WAV file when writing.
+ * The data of a NCW compressed sample. Converts the output to a WAV file when writing. The decoded
+ * data of NCW files is kept in the {@link DecodedSampleCache}.
  *
  * @author Jürgen Moßgraber
  */
 public class NcwFileSampleData extends AbstractFileSampleData
 {
-    private final NcwFile ncwFile;
+    /** Increase if NcwFile decodes differently to not re-use samples from the decode cache. */
+    private static final String DECODER_VERSION = "NCW 1";
+
+    private final NcwFile       ncwFile;
 
 
     /**
@@ -41,6 +48,19 @@ public class NcwFileSampleData extends AbstractFileSampleData
     }
 
 
+    /**
+     * Constructor. Used for monoliths. The sample is decoded from the buffer when it is needed.
+     *
+     * @param buffer The content of the NCW file, e.g. a memory-mapped part of the monolith
+     */
+    public NcwFileSampleData (final ByteBuffer buffer)
+    {
+        super (new BlockDevice (buffer));
+
+        this.ncwFile = new NcwFile (buffer);
+    }
+
+
     /**
      * Constructor. Used for monoliths.
      *
@@ -71,7 +91,12 @@ public class NcwFileSampleData extends AbstractFileSampleData
     {
         if (this.ncwFile == null)
             throw new FileNotFoundException (Functions.getMessage ("IDS_NOTIFY_ERR_SAMPLE_FILE_NOT_FOUND", this.sampleFile.getAbsolutePath ()));
-        this.ncwFile.writeWAV (outputStream);
+
+        // Samples from monoliths are not cached since they have no file of their own
+        if (this.sampleFile == null)
+            this.ncwFile.writeWAV (outputStream);
+        else
+            DecodedSampleCache.write (this.sampleFile, null, DECODER_VERSION, outputStream, this.ncwFile::writeWAV);
     }
 
 
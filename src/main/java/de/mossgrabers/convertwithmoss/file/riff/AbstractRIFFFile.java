@@ -160,6 +160,18 @@ public abstract class AbstractRIFFFile implements RIFFVisitor
     }
 
 
+    /**
+     * Get the number of bytes which are written by {@link #write(OutputStream)}.
+     *
+     * @return The size of the whole file including the RIFF header
+     */
+    public long getFileSize ()
+    {
+        this.fillChunkStack ();
+        return 8 + this.calculateFileSize ();
+    }
+
+
     /**
      * Remove all chunks which match one of the given IDs.
      *
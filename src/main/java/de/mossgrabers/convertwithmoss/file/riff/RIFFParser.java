@@ -45,6 +45,8 @@ public class RIFFParser
     private final Set<Integer>              stopChunkTypes      = new HashSet<> ();
     /** List of group chunks the visitor is interested in. */
     private final Set<RawRIFFChunk>         groupChunks         = new HashSet<> ();
+    /** List of chunks of which only the position of the data is of interest. */
+    private final Set<RawRIFFChunk>         positionChunks      = new HashSet<> ();
 
     /** Reference to the input stream. */
     private RIFFPrimitivesInputStream       in;
@@ -347,6 +349,15 @@ public class RIFFParser
         final long longSize = this.in.readUDWORD ();
         final RawRIFFChunk chunk = new RawRIFFChunk (parent == null ? 0 : parent.getType (), id, longSize);
 
+        if (this.positionChunks.contains (chunk))
+        {
+            // Do not read the data, the visitor accesses it later on demand
+            chunk.setDataPosition (this.getPosition ());
+            this.in.skipFully (longSize);
+            this.visitor.visitChunk (parent, chunk);
+            return;
+        }
+
         if (longSize < Integer.MAX_VALUE)
         {
             final int size = (int) longSize;
@@ -531,6 +542,20 @@ public class RIFFParser
     }
 
 
+    /**
+     * Declares a position chunk. The parser does not read the data of a position chunk but only
+     * stores the position of the data in the stream, see {@link RawRIFFChunk#getDataPosition()}.
+     * This also works for chunks larger than 2GB.
+     *
+     * @param type Type of the chunk
+     * @param id ID of the chunk
+     */
+    public void declarePositionChunk (final int type, final RiffChunkId id)
+    {
+        this.positionChunks.add (new RawRIFFChunk (type, id));
+    }
+
+
     /**
      * Declares a FORM group chunk.
      *
@@ -35,6 +35,7 @@ public class RawRIFFChunk implements IRiffChunk
     private long                                  size;
     private byte []                               data;
     private File                                  dataFile;
+    private long                                  dataPosition     = -1;
 
     private final Map<RawRIFFChunk, RawRIFFChunk> propertyChunks   = new HashMap<> ();
     private final List<RawRIFFChunk>              collectionChunks = new ArrayList<> ();
@@ -236,6 +237,29 @@ public class RawRIFFChunk implements IRiffChunk
     }
 
 
+    /**
+     * Set the position of the data in the parsed stream. Used for chunks the data of which was not
+     * read by the parser.
+     *
+     * @param dataPosition The position of the first data byte
+     */
+    public void setDataPosition (final long dataPosition)
+    {
+        this.dataPosition = dataPosition;
+    }
+
+
+    /**
+     * Get the position of the data in the parsed stream.
+     *
+     * @return The position of the first data byte or -1 if the data was read by the parser
+     */
+    public long getDataPosition ()
+    {
+        return this.dataPosition;
+    }
+
+
     /** {@inheritDoc} */
     @Override
     public long getDataSize ()
@@ -7,8 +7,6 @@ package de.mossgrabers.convertwithmoss.file.sf2;
 import java.util.Optional;
 
 import de.mossgrabers.convertwithmoss.file.riff.AbstractListChunk;
-import de.mossgrabers.convertwithmoss.file.riff.IRiffChunk;
-import de.mossgrabers.convertwithmoss.file.riff.RawRIFFChunk;
 
 
 /**
@@ -18,6 +16,10 @@ import de.mossgrabers.convertwithmoss.file.riff.RawRIFFChunk;
  */
 public class Sf2DataChunk extends AbstractListChunk
 {
+    private Sf2SampleDataSource sampleData;
+    private Sf2SampleDataSource sample24Data;
+
+
     /**
      * Constructor.
      */
@@ -36,12 +38,20 @@ public class Sf2DataChunk extends AbstractListChunk
      *
      * @return The data
      */
-    public Optional<byte []> getSampleData ()
+    public Optional<Sf2SampleDataSource> getSampleData ()
+    {
+        return Optional.ofNullable (this.sampleData);
+    }
+
+
+    /**
+     * Set the data of the smpl sub-chunk.
+     *
+     * @param sampleData The data
+     */
+    public void setSampleData (final Sf2SampleDataSource sampleData)
     {
-        final Optional<IRiffChunk> chunk = this.findSubChunk (Sf2RiffChunkId.SMPL_ID);
-        if (chunk.isEmpty ())
-            return Optional.empty ();
-        return chunk.get () instanceof final RawRIFFChunk rawChunk ? Optional.of (rawChunk.getData ()) : Optional.empty ();
+        this.sampleData = sampleData;
     }
 
 
@@ -52,11 +62,19 @@ public class Sf2DataChunk extends AbstractListChunk
      *
      * @return The data
      */
-    public Optional<byte []> getSample24Data ()
+    public Optional<Sf2SampleDataSource> getSample24Data ()
+    {
+        return Optional.ofNullable (this.sample24Data);
+    }
+
+
+    /**
+     * Set the data of the sm24 sub-chunk.
+     *
+     * @param sample24Data The data
+     */
+    public void setSample24Data (final Sf2SampleDataSource sample24Data)
     {
-        final Optional<IRiffChunk> chunk = this.findSubChunk (Sf2RiffChunkId.SM24_ID);
-        if (chunk.isEmpty ())
-            return Optional.empty ();
-        return chunk.get () instanceof final RawRIFFChunk rawChunk ? Optional.of (rawChunk.getData ()) : Optional.empty ();
+        this.sample24Data = sample24Data;
     }
 }
@@ -69,6 +69,7 @@ public class Sf2File extends AbstractRIFFFile
     private final List<Sf2Instrument> instruments   = new ArrayList<> ();
     private final Set<String>         ignoredChunks = new HashSet<> ();
 
+    private File                      sourceFile;
     private Sf2DataChunk              dataChunk;
     private Sf2PresetDataChunk        presetDataChunk;
 
@@ -84,6 +85,7 @@ public class Sf2File extends AbstractRIFFFile
     {
         super (Sf2RiffChunkId.SFBK_ID, true);
 
+        this.sourceFile = sf2File;
         try (final FileInputStream stream = new FileInputStream (sf2File))
         {
             this.read (stream);
@@ -162,6 +164,9 @@ public class Sf2File extends AbstractRIFFFile
         riffParser.declareGroupChunk (InfoRiffChunkId.INFO_ID.getFourCC (), CommonRiffChunkId.LIST_ID);
         riffParser.declareGroupChunk (Sf2RiffChunkId.DATA_ID.getFourCC (), CommonRiffChunkId.LIST_ID);
         riffParser.declareGroupChunk (Sf2RiffChunkId.PDTA_ID.getFourCC (), CommonRiffChunkId.LIST_ID);
+        // The sample data is memory-mapped instead of loading it, see visitChunk
+        riffParser.declarePositionChunk (Sf2RiffChunkId.DATA_ID.getFourCC (), Sf2RiffChunkId.SMPL_ID);
+        riffParser.declarePositionChunk (Sf2RiffChunkId.DATA_ID.getFourCC (), Sf2RiffChunkId.SM24_ID);
         riffParser.parse (inputStream, this);
     }
 
@@ -192,7 +197,19 @@ public class Sf2File extends AbstractRIFFFile
 
         if (id == Sf2RiffChunkId.SMPL_ID.getFourCC () || id == Sf2RiffChunkId.SM24_ID.getFourCC ())
         {
-            this.dataChunk.add (chunk);
+            final Sf2SampleDataSource source;
+            try
+            {
+                source = new Sf2SampleDataSource (this.sourceFile, chunk.getDataPosition (), chunk.getSize ());
+            }
+            catch (final IOException ex)
+            {
+                throw new ParseException (Functions.getMessage ("IDS_NOTIFY_ERR_MISSING_SAMPLE_DATA_CHUNK"), ex);
+            }
+            if (id == Sf2RiffChunkId.SMPL_ID.getFourCC ())
+                this.dataChunk.setSampleData (source);
+            else
+                this.dataChunk.setSample24Data (source);
             return;
         }
 
@@ -616,10 +633,10 @@ public class Sf2File extends AbstractRIFFFile
         final List<Sf2SampleDescriptor> samples = new ArrayList<> ();
         for (int i = 0; i < size / LENGTH_SHDR; i++)
         {
-            final Optional<byte []> sampleData = this.dataChunk.getSampleData ();
+            final Optional<Sf2SampleDataSource> sampleData = this.dataChunk.getSampleData ();
             if (sampleData.isEmpty ())
                 throw new ParseException (Functions.getMessage ("IDS_NOTIFY_ERR_MISSING_SAMPLE_DATA_CHUNK"));
-            final Optional<byte []> sample24Data = this.dataChunk.getSample24Data ();
+            final Optional<Sf2SampleDataSource> sample24Data = this.dataChunk.getSample24Data ();
             final Sf2SampleDescriptor sampleDescriptor = new Sf2SampleDescriptor (i, sampleData.get (), sample24Data.isEmpty () ? null : sample24Data.get ());
             sampleDescriptor.readHeader (i * LENGTH_SHDR, chunk);
             samples.add (sampleDescriptor);
@@ -688,8 +705,10 @@ public class Sf2File extends AbstractRIFFFile
                     for (int instZoneIndex = 0; instZoneIndex < instrument.getZoneCount (); instZoneIndex++)
                     {
                         final Sf2SampleDescriptor sample = instrument.getZone (instZoneIndex).getSample ();
-                        sampleOut.write (sample.getSampleData ());
-                        sample24Out.write (sample.getSample24Data ());
+                        sample.getSampleData ().write (sampleOut);
+                        final Sf2SampleDataSource sample24Data = sample.getSample24Data ();
+                        if (sample24Data != null)
+                            sample24Data.write (sample24Out);
                     }
                 }
             }
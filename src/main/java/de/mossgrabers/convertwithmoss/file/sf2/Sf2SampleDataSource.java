@@ -0,0 +1,141 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file.sf2;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Provides the content of a smpl or sm24 chunk. When read from a file, the chunk is not loaded but
+ * memory-mapped and the range of a single sample is sliced from the mapping when it is needed. All
+ * sample descriptors of a SF2 file share the same mapping. Since a mapping is limited to 2GB, larger
+ * chunks are mapped in several segments.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class Sf2SampleDataSource
+{
+    private static final int    SEGMENT_SIZE = 1 << 30;
+
+    private final ByteBuffer [] segments;
+    private final int           segmentSize;
+    private final long          length;
+
+
+    /**
+     * Constructor for data which is already in memory.
+     *
+     * @param data The data
+     */
+    public Sf2SampleDataSource (final byte [] data)
+    {
+        this.segments = new ByteBuffer []
+        {
+            ByteBuffer.wrap (data)
+        };
+        this.segmentSize = Integer.MAX_VALUE;
+        this.length = data.length;
+    }
+
+
+    /**
+     * Constructor for data which is stored in a file. The channel is only required to create the
+     * mapping and is closed afterwards, the mapping stays valid until it is garbage collected.
+     *
+     * @param file The file which contains the data
+     * @param offset The offset of the data in the file
+     * @param size The size of the data, clipped if the file is too short
+     * @throws IOException Could not map the file
+     */
+    public Sf2SampleDataSource (final File file, final long offset, final long size) throws IOException
+    {
+        try (final FileChannel channel = FileChannel.open (file.toPath (), StandardOpenOption.READ))
+        {
+            this.length = Math.clamp (size, 0, Math.max (0, channel.size () - offset));
+            this.segmentSize = SEGMENT_SIZE;
+            this.segments = new ByteBuffer [(int) ((this.length + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < this.segments.length; i++)
+            {
+                final long position = (long) i * SEGMENT_SIZE;
+                this.segments[i] = channel.map (FileChannel.MapMode.READ_ONLY, offset + position, Math.min (SEGMENT_SIZE, this.length - position));
+            }
+        }
+    }
+
+
+    /**
+     * Get the number of available bytes.
+     *
+     * @return The length
+     */
+    public long getLength ()
+    {
+        return this.length;
+    }
+
+
+    /**
+     * Get a view on a range of the data. The range is clipped to the available data. The view
+     * shares the memory of the source unless the range crosses the border of 2 mapped segments.
+     * Creating and reading views is thread-safe.
+     *
+     * @param position The position of the first byte of the range
+     * @param size The number of bytes of the range
+     * @return The view, index 0 is the byte at the given position
+     */
+    public ByteBuffer getRange (final long position, final long size)
+    {
+        final long start = Math.clamp (position, 0, this.length);
+        final int count = (int) Math.clamp (size, 0, Math.min (Integer.MAX_VALUE, this.length - start));
+        if (count == 0)
+            return ByteBuffer.allocate (0);
+
+        final int segment = (int) (start / this.segmentSize);
+        final int offset = (int) (start % this.segmentSize);
+        final ByteBuffer buffer = this.segments[segment];
+        if (offset + count <= buffer.capacity ())
+            return buffer.slice (offset, count);
+
+        // The range crosses the border of 2 segments
+        final byte [] data = new byte [count];
+        int copied = 0;
+        int segmentIndex = segment;
+        int segmentOffset = offset;
+        while (copied < count)
+        {
+            final ByteBuffer segmentBuffer = this.segments[segmentIndex];
+            final int chunkSize = Math.min (count - copied, segmentBuffer.capacity () - segmentOffset);
+            segmentBuffer.get (segmentOffset, data, copied, chunkSize);
+            copied += chunkSize;
+            segmentIndex++;
+            segmentOffset = 0;
+        }
+        return ByteBuffer.wrap (data);
+    }
+
+
+    /**
+     * Write all data to the given output stream.
+     *
+     * @param out The output stream
+     * @throws IOException Could not write the data
+     */
+    public void write (final OutputStream out) throws IOException
+    {
+        final byte [] buffer = new byte [64 * 1024];
+        for (final ByteBuffer segment: this.segments)
+            for (int position = 0; position < segment.capacity (); position += buffer.length)
+            {
+                final int chunkSize = Math.min (buffer.length, segment.capacity () - position);
+                segment.get (position, buffer, 0, chunkSize);
+                out.write (buffer, 0, chunkSize);
+            }
+    }
+}
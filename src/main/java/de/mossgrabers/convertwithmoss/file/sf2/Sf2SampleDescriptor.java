@@ -6,6 +6,7 @@ package de.mossgrabers.convertwithmoss.file.sf2;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import de.mossgrabers.convertwithmoss.exception.ParseException;
@@ -39,20 +40,20 @@ public class Sf2SampleDescriptor
     /** A linked sample located in the ROM. */
     public static final int ROM_LINKED = 32776;
 
-    private final int       sampleIndex;
-    private final byte []   sampleData;
-    private final byte []   sample24Data;
+    private final int                 sampleIndex;
+    private final Sf2SampleDataSource sampleData;
+    private final Sf2SampleDataSource sample24Data;
 
-    private String          name;
-    private long            start;
-    private long            end;
-    private long            startLoop;
-    private long            endLoop;
-    private long            sampleRate;
-    private int             originalPitch;
-    private int             pitchCorrection;
-    private int             sampleLink;
-    private int             sampleType;
+    private String                    name;
+    private long                      start;
+    private long                      end;
+    private long                      startLoop;
+    private long                      endLoop;
+    private long                      sampleRate;
+    private int                       originalPitch;
+    private int                       pitchCorrection;
+    private int                       sampleLink;
+    private int                       sampleType;
 
 
     /**
@@ -63,6 +64,19 @@ public class Sf2SampleDescriptor
      * @param sample24Data The additional sample data bytes for 24 bit samples
      */
     public Sf2SampleDescriptor (final int sampleIndex, final byte [] sampleData, final byte [] sample24Data)
+    {
+        this (sampleIndex, new Sf2SampleDataSource (sampleData), sample24Data == null ? null : new Sf2SampleDataSource (sample24Data));
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param sampleIndex The index of the sample
+     * @param sampleData The content of the smpl chunk
+     * @param sample24Data The content of the sm24 chunk for 24 bit samples, might be null
+     */
+    public Sf2SampleDescriptor (final int sampleIndex, final Sf2SampleDataSource sampleData, final Sf2SampleDataSource sample24Data)
     {
         this.sampleIndex = sampleIndex;
         this.sampleData = sampleData;
@@ -394,7 +408,7 @@ public class Sf2SampleDescriptor
      *
      * @return The sampleData
      */
-    public byte [] getSampleData ()
+    public Sf2SampleDataSource getSampleData ()
     {
         return this.sampleData;
     }
@@ -405,8 +419,35 @@ public class Sf2SampleDescriptor
      *
      * @return The additional 8 bit or null if it is a 16 bit sample
      */
-    public byte [] getSample24Data ()
+    public Sf2SampleDataSource getSample24Data ()
     {
         return this.sample24Data;
     }
+
+
+    /**
+     * Get the 16 bit data of a range of sample frames. The range is clipped to the available data.
+     *
+     * @param fromFrame The index of the first frame in the smpl chunk
+     * @param numFrames The number of frames
+     * @return The little-endian 16 bit values, index 0 is the first byte of the first frame
+     */
+    public ByteBuffer getSampleData (final long fromFrame, final long numFrames)
+    {
+        return this.sampleData.getRange (2 * fromFrame, 2 * numFrames);
+    }
+
+
+    /**
+     * Get the additional 8 bit of a range of sample frames. The range is clipped to the available
+     * data.
+     *
+     * @param fromFrame The index of the first frame in the sm24 chunk
+     * @param numFrames The number of frames
+     * @return The lowest 8 bit of each frame or null if it is a 16 bit sample
+     */
+    public ByteBuffer getSample24Data (final long fromFrame, final long numFrames)
+    {
+        return this.sample24Data == null ? null : this.sample24Data.getRange (fromFrame, numFrames);
+    }
 }
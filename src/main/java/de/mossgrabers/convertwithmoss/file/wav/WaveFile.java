@@ -179,6 +179,26 @@ public class WaveFile extends AbstractRIFFFile
     }
 
 
+    /**
+     * Creates a copy of the WAV file which contains all chunks but not the audio data. The data
+     * chunk of the copy is empty. The other chunks are shared with this file.
+     *
+     * @return The copy
+     */
+    public WaveFile createHeaderCopy ()
+    {
+        final WaveFile copy = new WaveFile ();
+        copy.formatChunk = this.formatChunk;
+        copy.dataChunk = this.dataChunk == null ? null : new DataChunk (this.formatChunk, new byte [0]);
+        copy.broadcastAudioExtensionChunk = this.broadcastAudioExtensionChunk;
+        copy.instrumentChunk = this.instrumentChunk;
+        copy.sampleChunk = this.sampleChunk;
+        copy.infoChunk = this.infoChunk;
+        copy.requiresRewrite = this.requiresRewrite;
+        return copy;
+    }
+
+
     /**
      * Returns true if the original source file (if any) needs to be rewritten since changes did
      * happen to it.
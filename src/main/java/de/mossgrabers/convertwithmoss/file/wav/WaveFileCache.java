@@ -0,0 +1,162 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.file.wav;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Keeps the most recently used WAV files including their audio data in memory. The size of the
+ * cache is limited by the sum of the sizes of the audio data. If the limit is exceeded, the least
+ * recently used files are removed and need to be read again from their source when they are
+ * accessed the next time. Therefore, only WAV files which can be read again should be added. The
+ * files are identified by the object which owns them (compared by identity). The cache is cleared
+ * with {@link #clear()} when the conversion is finished.
+ *
+ * @author Jürgen Moßgraber
+ */
+public final class WaveFileCache
+{
+    /** The default maximum size: a quarter of the maximum heap size. */
+    public static final long               DEFAULT_MAXIMUM_SIZE = Runtime.getRuntime ().maxMemory () / 4;
+
+    private static final Map<Owner, Entry> ENTRIES              = new LinkedHashMap<> (16, 0.75f, true);
+    private static long                    maximumSize          = DEFAULT_MAXIMUM_SIZE;
+    private static long                    size                 = 0;
+
+
+    /**
+     * Private due to helper class.
+     */
+    private WaveFileCache ()
+    {
+        // Intentionally empty
+    }
+
+
+    /**
+     * Set the maximum size of the cache. Files are removed if the cache is already larger.
+     *
+     * @param maximumSize The maximum size of the audio data of all cached files in bytes, 0 disables
+     *            the cache
+     */
+    public static void setMaximumSize (final long maximumSize)
+    {
+        synchronized (ENTRIES)
+        {
+            WaveFileCache.maximumSize = Math.max (0, maximumSize);
+            evict ();
+        }
+    }
+
+
+    /**
+     * Get the maximum size of the cache.
+     *
+     * @return The maximum size of the audio data of all cached files in bytes
+     */
+    public static long getMaximumSize ()
+    {
+        synchronized (ENTRIES)
+        {
+            return maximumSize;
+        }
+    }
+
+
+    /**
+     * Get the cached WAV file of the given owner.
+     *
+     * @param owner The object which owns the WAV file
+     * @return The WAV file or null if it is not cached
+     */
+    public static WaveFile get (final Object owner)
+    {
+        synchronized (ENTRIES)
+        {
+            final Entry entry = ENTRIES.get (new Owner (owner));
+            return entry == null ? null : entry.waveFile;
+        }
+    }
+
+
+    /**
+     * Add a WAV file to the cache. Files which are larger than the maximum size are not added.
+     *
+     * @param owner The object which owns the WAV file
+     * @param waveFile The WAV file
+     */
+    public static void put (final Object owner, final WaveFile waveFile)
+    {
+        final DataChunk dataChunk = waveFile.getDataChunk ();
+        final long fileSize = dataChunk == null ? 0 : dataChunk.getData ().length;
+
+        synchronized (ENTRIES)
+        {
+            if (fileSize > maximumSize)
+                return;
+            final Entry previous = ENTRIES.put (new Owner (owner), new Entry (waveFile, fileSize));
+            if (previous != null)
+                size -= previous.size;
+            size += fileSize;
+            evict ();
+        }
+    }
+
+
+    /**
+     * Removes all files from the cache.
+     */
+    public static void clear ()
+    {
+        synchronized (ENTRIES)
+        {
+            ENTRIES.clear ();
+            size = 0;
+        }
+    }
+
+
+    /**
+     * Removes the least recently used files until the size is below the maximum size. Must be
+     * called while holding the lock.
+     */
+    private static void evict ()
+    {
+        final Iterator<Entry> iterator = ENTRIES.values ().iterator ();
+        while (size > maximumSize && iterator.hasNext ())
+        {
+            size -= iterator.next ().size;
+            iterator.remove ();
+        }
+    }
+
+
+    private record Owner (Object object)
+    {
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals (final Object obj)
+        {
+            return obj instanceof final Owner other && other.object == this.object;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode ()
+        {
+            return System.identityHashCode (this.object);
+        }
+    }
+
+
+    private record Entry (WaveFile waveFile, long size)
+    {
+        // Intentionally empty
+    }
+}
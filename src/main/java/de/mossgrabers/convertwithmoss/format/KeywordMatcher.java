@@ -0,0 +1,231 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.format;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Finds all occurrences of a fixed set of keywords in a text in one pass (Aho-Corasick automaton).
+ * The automaton is created once from the keywords, matching a text takes linear time independent of
+ * the number of keywords. The keywords are identified by their index in the collection given to the
+ * constructor.
+ *
+ * @author Jürgen Moßgraber
+ */
+class KeywordMatcher
+{
+    private static final int              ROOT         = 0;
+    private static final int              NO_CHILD     = -1;
+    private static final int              NO_COLUMN    = -1;
+
+    private final int                     numKeywords;
+    /** The column in the node tables of each ASCII character which is part of a keyword. */
+    private final int []                  asciiColumns = new int [128];
+    /** The column in the node tables of all other characters which are part of a keyword. */
+    private final Map<Character, Integer> otherColumns = new HashMap<> ();
+    private int                           numColumns   = 0;
+
+    /** The children of each node in the keyword tree. */
+    private final int [] []               children;
+    /** The length of the keyword which ends at a node, 0 if none. */
+    private final int []                  depths;
+    /** The state transitions of each node which already include the failure links. */
+    private final int [] []               transitions;
+    /** The indices of all keywords which end at a node including the ones of its suffixes. */
+    private final int [] []               outputs;
+
+
+    /**
+     * Constructor.
+     *
+     * @param keywords The keywords to search for
+     */
+    KeywordMatcher (final Collection<String> keywords)
+    {
+        this.numKeywords = keywords.size ();
+
+        Arrays.fill (this.asciiColumns, NO_COLUMN);
+        for (final String keyword: keywords)
+            for (int i = 0; i < keyword.length (); i++)
+                this.addColumn (keyword.charAt (i));
+
+        // Build the keyword tree
+        final List<int []> treeNodes = new ArrayList<> ();
+        final List<int []> keywordEnds = new ArrayList<> ();
+        final List<Integer> nodeDepths = new ArrayList<> ();
+        this.addNode (treeNodes, keywordEnds, nodeDepths);
+        int index = 0;
+        for (final String keyword: keywords)
+        {
+            int node = ROOT;
+            for (int i = 0; i < keyword.length (); i++)
+            {
+                final int column = this.getColumn (keyword.charAt (i));
+                int child = treeNodes.get (node)[column];
+                if (child == NO_CHILD)
+                {
+                    child = this.addNode (treeNodes, keywordEnds, nodeDepths);
+                    treeNodes.get (node)[column] = child;
+                }
+                node = child;
+            }
+            nodeDepths.set (node, Integer.valueOf (keyword.length ()));
+            keywordEnds.set (node, append (keywordEnds.get (node), index));
+            index++;
+        }
+
+        final int numNodes = treeNodes.size ();
+        this.children = treeNodes.toArray (new int [numNodes] []);
+        this.depths = nodeDepths.stream ().mapToInt (Integer::intValue).toArray ();
+
+        // Calculate the failure links in breadth-first order
+        this.transitions = new int [numNodes] [this.numColumns];
+        this.outputs = new int [numNodes] [];
+        final int [] failures = new int [numNodes];
+        final int [] queue = new int [numNodes];
+        int queueStart = 0;
+        int queueEnd = 0;
+
+        this.outputs[ROOT] = keywordEnds.get (ROOT);
+        for (int column = 0; column < this.numColumns; column++)
+        {
+            final int child = this.children[ROOT][column];
+            if (child == NO_CHILD)
+                this.transitions[ROOT][column] = ROOT;
+            else
+            {
+                this.transitions[ROOT][column] = child;
+                failures[child] = ROOT;
+                queue[queueEnd++] = child;
+            }
+        }
+
+        while (queueStart < queueEnd)
+        {
+            final int node = queue[queueStart++];
+            this.outputs[node] = merge (keywordEnds.get (node), this.outputs[failures[node]]);
+            for (int column = 0; column < this.numColumns; column++)
+            {
+                final int child = this.children[node][column];
+                if (child == NO_CHILD)
+                    this.transitions[node][column] = this.transitions[failures[node]][column];
+                else
+                {
+                    this.transitions[node][column] = child;
+                    failures[child] = this.transitions[failures[node]][column];
+                    queue[queueEnd++] = child;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Finds all keywords contained in the given text.
+     *
+     * @param text The text to search
+     * @return For each keyword (in the order given to the constructor) true if it is contained
+     */
+    boolean [] findAll (final String text)
+    {
+        final boolean [] found = new boolean [this.numKeywords];
+        // An empty keyword is contained in any text
+        for (final int keyword: this.outputs[ROOT])
+            found[keyword] = true;
+        int state = ROOT;
+        for (int i = 0; i < text.length (); i++)
+        {
+            final int column = this.getColumn (text.charAt (i));
+            state = column == NO_COLUMN ? ROOT : this.transitions[state][column];
+            for (final int keyword: this.outputs[state])
+                found[keyword] = true;
+        }
+        return found;
+    }
+
+
+    /**
+     * Get the length of the longest keyword which starts at the given position of the text.
+     *
+     * @param text The text
+     * @param start The position in the text
+     * @return The length of the longest keyword or 0 if no keyword starts at the position
+     */
+    int getLongestMatchAt (final String text, final int start)
+    {
+        int longest = 0;
+        int node = ROOT;
+        for (int i = start; i < text.length (); i++)
+        {
+            final int column = this.getColumn (text.charAt (i));
+            if (column == NO_COLUMN)
+                break;
+            node = this.children[node][column];
+            if (node == NO_CHILD)
+                break;
+            if (this.depths[node] > 0)
+                longest = this.depths[node];
+        }
+        return longest;
+    }
+
+
+    private void addColumn (final char c)
+    {
+        if (this.getColumn (c) != NO_COLUMN)
+            return;
+        if (c < this.asciiColumns.length)
+            this.asciiColumns[c] = this.numColumns;
+        else
+            this.otherColumns.put (Character.valueOf (c), Integer.valueOf (this.numColumns));
+        this.numColumns++;
+    }
+
+
+    private int getColumn (final char c)
+    {
+        if (c < this.asciiColumns.length)
+            return this.asciiColumns[c];
+        final Integer column = this.otherColumns.get (Character.valueOf (c));
+        return column == null ? NO_COLUMN : column.intValue ();
+    }
+
+
+    private int addNode (final List<int []> treeNodes, final List<int []> keywordEnds, final List<Integer> nodeDepths)
+    {
+        final int [] nodeChildren = new int [this.numColumns];
+        Arrays.fill (nodeChildren, NO_CHILD);
+        treeNodes.add (nodeChildren);
+        keywordEnds.add (new int [0]);
+        nodeDepths.add (Integer.valueOf (0));
+        return treeNodes.size () - 1;
+    }
+
+
+    private static int [] append (final int [] values, final int value)
+    {
+        final int [] result = Arrays.copyOf (values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+
+    private static int [] merge (final int [] a, final int [] b)
+    {
+        if (a.length == 0)
+            return b;
+        if (b.length == 0)
+            return a;
+        final int [] result = Arrays.copyOf (a, a.length + b.length);
+        System.arraycopy (b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -31,7 +31,14 @@ public class TagDetector
     private static final Map<String, String>    CATEGORY_LOOKUP               = new TreeMap<> (new StringLengthComparator ());
     private static final Map<String, String>    CATEGORY_PREFIX_LOOKUP        = new HashMap<> ();
     private static final Map<String, String>    KEYWORD_LOOKUP                = new TreeMap<> (new StringLengthComparator ());
-    private static final List<String>           WORD_DICT                     = new ArrayList<> ();
+
+    // The keys and values of the lookups in the order of the maps and the automatons to find them
+    private static final String []              CATEGORY_KEYS;
+    private static final String []              CATEGORY_VALUES;
+    private static final KeywordMatcher         CATEGORY_MATCHER;
+    private static final String []              KEYWORD_VALUES;
+    private static final KeywordMatcher         KEYWORD_MATCHER;
+    private static final KeywordMatcher         WORD_MATCHER;
 
     public static final String                  CATEGORY_UNKNOWN              = "Unknown";
     public static final String                  CATEGORY_ACOUSTIC_DRUM        = "Acoustic Drum";
@@ -539,13 +546,19 @@ public class TagDetector
 
         Arrays.asList (KEYWORDS).forEach (value -> KEYWORD_LOOKUP.put (value.toUpperCase (Locale.US), value));
 
-        // Normalize and sort words by descending length for camel case method
+        CATEGORY_KEYS = CATEGORY_LOOKUP.keySet ().toArray (new String [CATEGORY_LOOKUP.size ()]);
+        CATEGORY_VALUES = CATEGORY_LOOKUP.values ().toArray (new String [CATEGORY_LOOKUP.size ()]);
+        CATEGORY_MATCHER = new KeywordMatcher (CATEGORY_LOOKUP.keySet ());
+        KEYWORD_VALUES = KEYWORD_LOOKUP.values ().toArray (new String [KEYWORD_LOOKUP.size ()]);
+        KEYWORD_MATCHER = new KeywordMatcher (KEYWORD_LOOKUP.keySet ());
+
+        // Normalize words for camel case method, the matcher finds the longest one
         final List<String> words = new ArrayList<> ();
-        words.addAll (CATEGORY_LOOKUP.values ());
-        Collections.addAll (words, KEYWORDS);
-        for (final String w: words)
-            WORD_DICT.add (w.toUpperCase (Locale.ROOT));
-        WORD_DICT.sort ((a, b) -> Integer.compare (b.length (), a.length ()));
+        for (final String w: CATEGORY_LOOKUP.values ())
+            words.add (w.toUpperCase (Locale.ROOT));
+        for (final String w: KEYWORDS)
+            words.add (w.toUpperCase (Locale.ROOT));
+        WORD_MATCHER = new KeywordMatcher (words);
     }
 
 
@@ -629,7 +642,17 @@ public class TagDetector
             if (category.isPresent ())
                 return category.get ();
         }
-        return detect (texts, CATEGORY_LOOKUP, CATEGORY_UNKNOWN);
+
+        // Same as detect (texts, CATEGORY_LOOKUP, CATEGORY_UNKNOWN) but with the matcher
+        final Map<String, String> results = new HashMap<> ();
+        for (final String text: texts)
+        {
+            final boolean [] found = CATEGORY_MATCHER.findAll (text.toUpperCase (Locale.US));
+            for (int i = 0; i < found.length; i++)
+                if (found[i])
+                    results.put (CATEGORY_KEYS[i], CATEGORY_VALUES[i]);
+        }
+        return getLongestMatch (results, CATEGORY_UNKNOWN);
     }
 
 
@@ -681,10 +704,10 @@ public class TagDetector
         final Set<String> keywords = new HashSet<> ();
         for (final String text: texts)
         {
-            final String t = text.toUpperCase (Locale.US);
-            for (final Map.Entry<String, String> e: KEYWORD_LOOKUP.entrySet ())
-                if (t.contains (e.getKey ()))
-                    keywords.add (e.getValue ());
+            final boolean [] found = KEYWORD_MATCHER.findAll (text.toUpperCase (Locale.US));
+            for (int i = 0; i < found.length; i++)
+                if (found[i])
+                    keywords.add (KEYWORD_VALUES[i]);
         }
         return keywords.toArray (new String [keywords.size ()]);
     }
@@ -754,6 +777,12 @@ public class TagDetector
                     results.put (key, e.getValue ());
             }
         }
+        return getLongestMatch (results, defaultTag);
+    }
+
+
+    private static String getLongestMatch (final Map<String, String> results, final String defaultTag)
+    {
         if (results.isEmpty ())
             return defaultTag;
         return Collections.max (results.entrySet (), (entry1, entry2) -> entry1.getKey ().length () - entry2.getKey ().length ()).getValue ();
@@ -793,18 +822,13 @@ public class TagDetector
         int i = 0;
         while (i < s.length ())
         {
-            boolean matched = false;
-
-            for (final String w: WORD_DICT)
-                if (s.startsWith (w, i))
-                {
-                    out.append (capitalize (w));
-                    i += w.length ();
-                    matched = true;
-                    break;
-                }
-
-            if (!matched)
+            final int length = WORD_MATCHER.getLongestMatchAt (s, i);
+            if (length > 0)
+            {
+                out.append (capitalize (s.substring (i, i + length)));
+                i += length;
+            }
+            else
             {
                 // Fallback: single character
                 out.append (Character.toLowerCase (s.charAt (i)));
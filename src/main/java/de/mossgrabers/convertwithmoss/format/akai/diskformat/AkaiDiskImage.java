@@ -6,19 +6,19 @@ package de.mossgrabers.convertwithmoss.format.akai.diskformat;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
 import de.mossgrabers.convertwithmoss.format.akai.s1000.AkaiS1000Volume;
 import de.mossgrabers.tools.ui.Functions;
 
 
 /**
- * Provides access to an AKAI image stored in a file.
+ * Provides access to an AKAI image stored in a file. The image is memory-mapped, therefore images
+ * larger than 2GB are supported as well.
  *
  * @author Jürgen Moßgraber
  */
@@ -27,22 +27,11 @@ public class AkaiDiskImage extends AbstractAkaiImage
     /** Size of a block. */
     public static final int           AKAI_BLOCK_SIZE         = 0x2000;
 
-    /**
-     * The cache window size defined here is NOT the file-system allocation block size used by the
-     * Akai sampler volume. It is only a performance optimization for RandomAccessFile I/O. Akai
-     * sampler file-systems (S900/S1000/S2000/S3000/MPC raw volumes) typically use allocation block
-     * sizes of 512 bytes 1024 bytes 2048 bytes depending on sampler generation and volume type.
-     * These values must be handled separately when resolving object offsets.
-     */
-    private static final int          CACHE_WINDOW_SIZE       = 61440;
-
     private static final int          AKAI_PARTITION_END_MARK = 0x8000;
 
-    private RandomAccessFile          randomAccessFile        = null;
-    private int                       position                = 0;
-    private int                       cacheWindowIndex        = -1;
-    private final int                 imageSize;
-    private byte []                   cache                   = new byte [CACHE_WINDOW_SIZE];
+    private BlockDevice               device;
+    private long                      position                = 0;
+    private final long                imageSize;
     private final List<AkaiPartition> partitions              = new ArrayList<> ();
 
 
@@ -54,8 +43,8 @@ public class AkaiDiskImage extends AbstractAkaiImage
      */
     public AkaiDiskImage (final File file) throws IOException
     {
-        this.randomAccessFile = new RandomAccessFile (file, "r");
-        this.imageSize = (int) file.length ();
+        this.device = new BlockDevice (file);
+        this.imageSize = this.device.getLength ();
 
         this.loadPartitions ();
     }
@@ -65,12 +54,8 @@ public class AkaiDiskImage extends AbstractAkaiImage
     @Override
     public void close () throws IOException
     {
-        if (this.randomAccessFile != null)
-        {
-            this.randomAccessFile.close ();
-            this.randomAccessFile = null;
-        }
-        this.cache = null;
+        // The mapping is released when the device is garbage collected
+        this.device = null;
     }
 
 
@@ -105,7 +90,7 @@ public class AkaiDiskImage extends AbstractAkaiImage
      *
      * @return The position
      */
-    public int getPosition ()
+    public long getPosition ()
     {
         return this.position;
     }
@@ -118,7 +103,7 @@ public class AkaiDiskImage extends AbstractAkaiImage
      * @param whence Reference point for position
      * @return The new position
      */
-    public int setPosition (final int offset, final AkaiStreamWhence whence)
+    public long setPosition (final long offset, final AkaiStreamWhence whence)
     {
         this.position = switch (whence)
         {
@@ -135,7 +120,7 @@ public class AkaiDiskImage extends AbstractAkaiImage
     @Override
     public int available ()
     {
-        return this.imageSize - this.position;
+        return (int) Math.clamp (this.imageSize - this.position, 0, Integer.MAX_VALUE);
     }
 
 
@@ -162,9 +147,7 @@ public class AkaiDiskImage extends AbstractAkaiImage
     @Override
     public byte readInt8 () throws IOException
     {
-        final byte [] word = new byte [1];
-        this.read (word, 1, 1);
-        return word[0];
+        return (byte) this.readUnsigned8 ();
     }
 
 
@@ -180,9 +163,8 @@ public class AkaiDiskImage extends AbstractAkaiImage
     @Override
     public short readInt16 () throws IOException
     {
-        final byte [] word = new byte [2];
-        this.read (word, 1, 2);
-        return ByteBuffer.wrap (word).order (ByteOrder.LITTLE_ENDIAN).getShort ();
+        final int low = this.readUnsigned8 ();
+        return (short) (this.readUnsigned8 () << 8 | low);
     }
 
 
@@ -190,8 +172,11 @@ public class AkaiDiskImage extends AbstractAkaiImage
     @Override
     public void readInt16 (final short [] data, final int wordCount) throws IOException
     {
-        for (int i = 0; i < wordCount; i++)
-            data[i] = this.readInt16 ();
+        final int count = this.device.readShorts (this.position, data, 0, wordCount, ByteOrder.LITTLE_ENDIAN);
+        this.position += 2L * count;
+        // A single remaining byte at the end of the image is read as the lower byte of a value
+        if (count < wordCount && this.available () == 1)
+            data[count] = this.readInt16 ();
     }
 
 
@@ -199,9 +184,8 @@ public class AkaiDiskImage extends AbstractAkaiImage
     @Override
     public int readInt32 () throws IOException
     {
-        final byte [] word = new byte [4];
-        this.read (word, 1, 4);
-        return ByteBuffer.wrap (word).order (ByteOrder.LITTLE_ENDIAN).getInt ();
+        final int low = this.readInt16 () & 0xFFFF;
+        return this.readInt16 () << 16 | low;
     }
 
 
@@ -210,7 +194,7 @@ public class AkaiDiskImage extends AbstractAkaiImage
      *
      * @return The size in bytes
      */
-    public int getSize ()
+    public long getSize ()
     {
         return this.imageSize;
     }
@@ -251,70 +235,37 @@ public class AkaiDiskImage extends AbstractAkaiImage
 
 
     /**
-     * Read data from stream with caching.
+     * Read bytes from the current position. Stops at the end of the image.
      *
      * @param data Buffer to read into
      * @param wordCount Number of words to read
      * @param wordSize Size of each word in bytes
      * @return Number of successfully read words
-     * @throws IOException Error during reading
      */
-    private int read (final byte [] data, final int wordCount, final int wordSize) throws IOException
+    private int read (final byte [] data, final int wordCount, final int wordSize)
     {
-        int bytesReadTotal = 0;
-        int bytesRemaining = wordCount * wordSize;
+        final int bytesRead = this.device.read (this.position, data, 0, wordCount * wordSize);
+        this.position += bytesRead;
+        return bytesRead / wordSize;
+    }
 
-        while (bytesRemaining > 0)
-        {
-            // Stop if logical read position exceeds disk image size
-            if (this.imageSize <= this.position)
-                return bytesReadTotal / wordSize;
-
-            // Determine which cache window contains the requested position. The cache window is a
-            // fixed-size sliding region of the disk image. It has NO relationship to Akai
-            // file system allocation units.
-            final int requestedWindow = this.position / CACHE_WINDOW_SIZE;
-
-            // Load cache window if necessary
-            if (this.cacheWindowIndex != requestedWindow)
-            {
-                this.cacheWindowIndex = requestedWindow;
-
-                final long seekPosition = (long) this.cacheWindowIndex * CACHE_WINDOW_SIZE;
-                this.randomAccessFile.seek (seekPosition);
-                final int windowBytesRead = this.randomAccessFile.read (this.cache, 0, CACHE_WINDOW_SIZE);
-
-                // If the final window is shorter than expected, pad with zeros. This simplifies
-                // boundary handling during partial reads.
-                if (windowBytesRead < CACHE_WINDOW_SIZE)
-                    for (int i = windowBytesRead; i < CACHE_WINDOW_SIZE; i++)
-                        this.cache[i] = 0;
-            }
-
-            int bytesThisIteration = bytesRemaining;
-
-            final int offsetInsideWindow = this.position % CACHE_WINDOW_SIZE;
-
-            final int windowBytesAvailable = CACHE_WINDOW_SIZE - offsetInsideWindow;
-            if (bytesThisIteration > windowBytesAvailable)
-                bytesThisIteration = windowBytesAvailable;
-
-            // Copy data from cache window into destination buffer
-            System.arraycopy (this.cache, offsetInsideWindow, data, bytesReadTotal, bytesThisIteration);
-
-            // Advance logical read position
-            this.position += bytesThisIteration;
-            bytesReadTotal += bytesThisIteration;
-            bytesRemaining -= bytesThisIteration;
-        }
 
-        return bytesReadTotal / wordSize;
+    /**
+     * Read a single byte from the current position.
+     *
+     * @return The unsigned value of the byte or 0 if the end of the image is reached
+     */
+    private int readUnsigned8 ()
+    {
+        if (this.position >= this.imageSize)
+            return 0;
+        return this.device.getByte (this.position++) & 0xFF;
     }
 
 
     private void loadPartitions () throws IOException
     {
-        int offset = 0;
+        long offset = 0;
         short size = 0;
 
         int partitionIndex = 0;
@@ -330,7 +281,7 @@ public class AkaiDiskImage extends AbstractAkaiImage
             if (size <= 0)
                 break;
 
-            offset += AKAI_BLOCK_SIZE * (size & 0xFFFF);
+            offset += (long) AKAI_BLOCK_SIZE * (size & 0xFFFF);
             partitionIndex++;
         }
     }
@@ -31,7 +31,7 @@ public class AkaiPartition
     private static final int        AKAI_FILE_ENTRY_SIZE   = 24;
 
     private final AkaiDiskImage     disk;
-    private final int               offset;
+    private final long              offset;
     private final String            name;
     private final List<IAkaiVolume> volumes                = new ArrayList<> ();
 
@@ -44,7 +44,7 @@ public class AkaiPartition
      * @param partitionIndex The index of the partition
      * @throws IOException Could not read the volumes
      */
-    public AkaiPartition (final AkaiDiskImage disk, final int offset, final int partitionIndex) throws IOException
+    public AkaiPartition (final AkaiDiskImage disk, final long offset, final int partitionIndex) throws IOException
     {
         this.disk = disk;
         this.offset = offset;
@@ -73,7 +73,7 @@ public class AkaiPartition
      */
     public int readFAT (final int block) throws IOException
     {
-        this.disk.setPosition (this.offset + AKAI_FAT_OFFSET + block * 2, AkaiStreamWhence.START);
+        this.disk.setPosition (this.offset + AKAI_FAT_OFFSET + block * 2L, AkaiStreamWhence.START);
         return this.disk.readInt16 ();
     }
 
@@ -102,11 +102,11 @@ public class AkaiPartition
         }
 
         if (pos < 341)
-            this.disk.setPosition (this.offset + block * AkaiDiskImage.AKAI_BLOCK_SIZE + pos * AKAI_FILE_ENTRY_SIZE, AkaiStreamWhence.START);
+            this.disk.setPosition (this.offset + (long) block * AkaiDiskImage.AKAI_BLOCK_SIZE + pos * AKAI_FILE_ENTRY_SIZE, AkaiStreamWhence.START);
         else
         {
             final int temp = this.readFAT (block);
-            this.disk.setPosition (this.offset + temp * AkaiDiskImage.AKAI_BLOCK_SIZE + (pos - 341) * AKAI_FILE_ENTRY_SIZE, AkaiStreamWhence.START);
+            this.disk.setPosition (this.offset + (long) temp * AkaiDiskImage.AKAI_BLOCK_SIZE + (pos - 341) * AKAI_FILE_ENTRY_SIZE, AkaiStreamWhence.START);
         }
 
         entry.setName (this.disk.readText ());
@@ -152,7 +152,7 @@ public class AkaiPartition
      *
      * @return The offset
      */
-    public int getOffset ()
+    public long getOffset ()
     {
         return this.offset;
     }
@@ -8,7 +8,6 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -23,6 +22,7 @@ import de.mossgrabers.convertwithmoss.core.model.ISampleData;
 import de.mossgrabers.convertwithmoss.core.settings.IMetadataConfig;
 import de.mossgrabers.convertwithmoss.core.settings.MetadataSettingsUI;
 import de.mossgrabers.convertwithmoss.file.AudioFileUtils;
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
 import de.mossgrabers.convertwithmoss.file.hfe.DiskImageBuilder;
 import de.mossgrabers.convertwithmoss.file.hfe.HfeFile;
 import de.mossgrabers.convertwithmoss.file.hfe.HfeFile.HfeVersion;
@@ -118,7 +118,7 @@ public class AkaiMPC2000Detector extends AbstractDetector<MetadataSettingsUI>
             if (isoFormat == IsoFormat.AKAI_MPC2000 || isoFormat == IsoFormat.AKAI_MPC2000XL)
             {
                 this.notifier.log ("IDS_ISO_PROCESSING_FORMAT", IsoFormat.getName (isoFormat));
-                return processAkaiMPC2000Disk (imgData, this.sourceFolder, sourceFile, this.notifier, this.settingsConfiguration);
+                return processAkaiMPC2000Disk (new BlockDevice (imgData), this.sourceFolder, sourceFile, this.notifier, this.settingsConfiguration);
             }
 
             this.notifier.logError ("IDS_ISO_WRONG_FORMAT", IsoFormat.getName (IsoFormat.AKAI_MPC2000));
@@ -198,8 +198,7 @@ public class AkaiMPC2000Detector extends AbstractDetector<MetadataSettingsUI>
     {
         try
         {
-            final byte [] diskImageData = Files.readAllBytes (sourceFile.toPath ());
-            return processAkaiMPC2000Disk (diskImageData, sourceFolder, sourceFile, notifier, configuration);
+            return processAkaiMPC2000Disk (new BlockDevice (sourceFile), sourceFolder, sourceFile, notifier, configuration);
         }
         catch (final IOException ex)
         {
@@ -219,7 +218,7 @@ public class AkaiMPC2000Detector extends AbstractDetector<MetadataSettingsUI>
      * @param configuration The metadata configuration
      * @return The detected multi-sample sources
      */
-    public static List<IMultisampleSource> processAkaiMPC2000Disk (final byte [] diskImageData, final File sourceFolder, final File sourceFile, final INotifier notifier, final IMetadataConfig configuration)
+    public static List<IMultisampleSource> processAkaiMPC2000Disk (final BlockDevice diskImageData, final File sourceFolder, final File sourceFile, final INotifier notifier, final IMetadataConfig configuration)
     {
         final List<IMultisampleSource> multiSampleSources = new ArrayList<> ();
         try
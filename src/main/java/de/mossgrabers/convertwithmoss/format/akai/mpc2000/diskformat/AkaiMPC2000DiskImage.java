@@ -9,11 +9,11 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
 import de.mossgrabers.convertwithmoss.core.INotifier;
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
 
 
 /**
@@ -25,7 +25,7 @@ import de.mossgrabers.convertwithmoss.core.INotifier;
  */
 public class AkaiMPC2000DiskImage
 {
-    private final byte []                         diskImage;
+    private final BlockDevice                     diskImage;
     private AkaiMPC2000BootSector                 bootSector;
     private int []                                fat;
     private final int                             rootDirectoryOffset;
@@ -41,7 +41,7 @@ public class AkaiMPC2000DiskImage
      */
     public AkaiMPC2000DiskImage (final File file) throws IOException
     {
-        this (Files.readAllBytes (file.toPath ()));
+        this (new BlockDevice (file));
     }
 
 
@@ -52,6 +52,18 @@ public class AkaiMPC2000DiskImage
      * @throws IOException Could not read the file
      */
     public AkaiMPC2000DiskImage (final byte [] diskImage) throws IOException
+    {
+        this (new BlockDevice (diskImage));
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param diskImage The disk image to read
+     * @throws IOException Could not read the file
+     */
+    public AkaiMPC2000DiskImage (final BlockDevice diskImage) throws IOException
     {
         this.diskImage = diskImage;
         this.parseDisk ();
@@ -76,10 +88,10 @@ public class AkaiMPC2000DiskImage
         for (int i = 0; i < this.bootSector.rootEntries; i++)
         {
             final int entryOffset = this.rootDirectoryOffset + i * 32;
-            if (entryOffset + 32 > this.diskImage.length)
+            if (entryOffset + 32 > this.diskImage.getLength ())
                 break;
 
-            final byte firstByte = this.diskImage[entryOffset];
+            final byte firstByte = this.diskImage.getByte (entryOffset);
             // End of directory
             if (firstByte == 0x00)
                 break;
@@ -100,7 +112,7 @@ public class AkaiMPC2000DiskImage
      */
     private void parseDisk ()
     {
-        final ByteBuffer buffer = ByteBuffer.wrap (this.diskImage);
+        final ByteBuffer buffer = this.diskImage.getBuffer (0, 512);
         this.bootSector = AkaiMPC2000BootSector.parse (buffer);
         this.parseFAT ();
     }
@@ -129,7 +141,7 @@ public class AkaiMPC2000DiskImage
             for (int i = 0; i < totalEntries; i++)
             {
                 final int byteOffset = fatOffset + i * 3 / 2;
-                final int word = this.diskImage[byteOffset] & 0xFF | (this.diskImage[byteOffset + 1] & 0xFF) << 8;
+                final int word = this.diskImage.getByte (byteOffset) & 0xFF | (this.diskImage.getByte (byteOffset + 1) & 0xFF) << 8;
                 final int value = i % 2 == 0 ? word & 0x0FFF : word >> 4 & 0x0FFF;
                 // End-of-Chain (>=0xFF8) normalize to 0xFFFF
                 this.fat[i] = value >= 0xFF8 ? 0xFFFF : value;
@@ -141,7 +153,7 @@ public class AkaiMPC2000DiskImage
             final int fatSizeBytes = this.bootSector.sectorsPerFAT * this.bootSector.bytesPerSector;
             final int totalClusters = fatSizeBytes / 2;
             this.fat = new int [totalClusters];
-            final ByteBuffer buffer = ByteBuffer.wrap (this.diskImage, fatOffset, fatSizeBytes);
+            final ByteBuffer buffer = this.diskImage.getBuffer (fatOffset, fatSizeBytes);
             buffer.order (ByteOrder.LITTLE_ENDIAN);
             for (int i = 0; i < totalClusters; i++)
                 this.fat[i] = buffer.getShort () & 0xFFFF;
@@ -151,7 +163,7 @@ public class AkaiMPC2000DiskImage
 
     private AkaiMPC2000DirectoryEntry parseDirectoryEntry (final int offset)
     {
-        final ByteBuffer buffer = ByteBuffer.wrap (this.diskImage, offset, 32);
+        final ByteBuffer buffer = this.diskImage.getBuffer (offset, 32);
         buffer.order (ByteOrder.LITTLE_ENDIAN);
 
         final AkaiMPC2000DirectoryEntry entry = new AkaiMPC2000DirectoryEntry ();
@@ -193,6 +205,8 @@ public class AkaiMPC2000DiskImage
         if (entry.fileSize == 0)
             return new byte [0];
 
+        final int clusterSize = this.bootSector.sectorsPerCluster * this.bootSector.bytesPerSector;
+        final byte [] clusterData = new byte [clusterSize];
         final ByteArrayOutputStream output = new ByteArrayOutputStream ();
         int cluster = entry.firstCluster;
         int bytesRemaining = entry.fileSize;
@@ -201,17 +215,17 @@ public class AkaiMPC2000DiskImage
 
         while (cluster >= 2 && cluster < 0xFFF0 && bytesRemaining > 0 && iterations < maxIterations)
         {
-            final int clusterOffset = this.dataAreaOffset + (cluster - 2) * this.bootSector.sectorsPerCluster * this.bootSector.bytesPerSector;
+            final long clusterOffset = this.dataAreaOffset + (cluster - 2L) * clusterSize;
 
-            if (clusterOffset < 0 || clusterOffset >= this.diskImage.length)
+            if (clusterOffset < 0 || clusterOffset >= this.diskImage.getLength ())
             {
-                notifier.logError ("IDS_MPC2000_INVALID_CLUSTER_OFFSET", Integer.toString (clusterOffset), entry.getFullName ());
+                notifier.logError ("IDS_MPC2000_INVALID_CLUSTER_OFFSET", Long.toString (clusterOffset), entry.getFullName ());
                 return output.toByteArray ();
             }
 
-            final int bytesToRead = Math.min (bytesRemaining, this.bootSector.sectorsPerCluster * this.bootSector.bytesPerSector);
+            final int bytesToRead = Math.min (bytesRemaining, clusterSize);
 
-            output.write (this.diskImage, clusterOffset, bytesToRead);
+            output.write (clusterData, 0, this.diskImage.read (clusterOffset, clusterData, 0, bytesToRead));
             bytesRemaining -= bytesToRead;
 
             // Get next cluster from FAT
@@ -24,6 +24,7 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultEnvelope;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultGroup;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleZone;
 import de.mossgrabers.convertwithmoss.core.settings.MetadataSettingsUI;
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
 import de.mossgrabers.convertwithmoss.file.hfe.DiskImageBuilder;
 import de.mossgrabers.convertwithmoss.file.hfe.HfeFile;
 import de.mossgrabers.convertwithmoss.file.hfe.HfeFile.HfeVersion;
@@ -93,7 +94,7 @@ public class AkaiMPC60Detector extends AbstractDetector<MetadataSettingsUI>
             }
 
             final List<Sector> allSectors = hfeFile.decodeMfmSectors ();
-            return this.readImgFile (sourceFile, DiskImageBuilder.buildImage (allSectors, 80, 2, 10, 512));
+            return this.readImgFile (sourceFile, new BlockDevice (DiskImageBuilder.buildImage (allSectors, 80, 2, 10, 512)));
         }
         catch (final IOException ex)
         {
@@ -107,7 +108,7 @@ public class AkaiMPC60Detector extends AbstractDetector<MetadataSettingsUI>
     {
         try
         {
-            return this.readImgFile (sourceFile, Files.readAllBytes (sourceFile.toPath ()));
+            return this.readImgFile (sourceFile, new BlockDevice (sourceFile));
         }
         catch (final IOException ex)
         {
@@ -117,7 +118,7 @@ public class AkaiMPC60Detector extends AbstractDetector<MetadataSettingsUI>
     }
 
 
-    private List<IMultisampleSource> readImgFile (final File sourceFile, final byte [] containerContent) throws IOException
+    private List<IMultisampleSource> readImgFile (final File sourceFile, final BlockDevice containerContent) throws IOException
     {
         final AkaiMPC2000DiskImage diskImage = new AkaiMPC2000DiskImage (containerContent);
         final List<byte []> sets = new ArrayList<> ();
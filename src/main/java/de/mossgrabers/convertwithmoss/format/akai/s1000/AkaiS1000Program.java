@@ -173,7 +173,7 @@ public class AkaiS1000Program
      * @param isS3000 If it is an extended S3000 program (otherwise shorter S1000)
      * @throws IOException Could not read the program
      */
-    public AkaiS1000Program (final AkaiDiskImage disk, final int dataPosition, final boolean isS3000) throws IOException
+    public AkaiS1000Program (final AkaiDiskImage disk, final long dataPosition, final boolean isS3000) throws IOException
     {
         disk.setPosition (dataPosition, AkaiStreamWhence.START);
 
@@ -185,7 +185,7 @@ public class AkaiS1000Program
         this.keygroups = new AkaiS1000Keygroup [numKeygroups];
         for (int i = 0; i < numKeygroups; i++)
         {
-            disk.setPosition (dataPosition + headerSize * (i + 1), AkaiStreamWhence.START);
+            disk.setPosition (dataPosition + headerSize * (i + 1L), AkaiStreamWhence.START);
             this.keygroups[i] = new AkaiS1000Keygroup (disk);
         }
     }
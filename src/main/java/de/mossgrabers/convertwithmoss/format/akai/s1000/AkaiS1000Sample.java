@@ -29,7 +29,7 @@ public class AkaiS1000Sample
     private static final int             AKAI_SAMPLE_ID = 3;
 
     /** Position in the image where the sample starts. */
-    private int                          imageOffset;
+    private long                         imageOffset;
 
     private String                       name;
     private byte                         midiRootNote;
@@ -65,7 +65,7 @@ public class AkaiS1000Sample
      * @param dataPosition The position where the data starts
      * @throws IOException Could not read the sample
      */
-    public AkaiS1000Sample (final AkaiDiskImage disk, final int dataPosition) throws IOException
+    public AkaiS1000Sample (final AkaiDiskImage disk, final long dataPosition) throws IOException
     {
         disk.setPosition (dataPosition, AkaiStreamWhence.START);
 
@@ -50,7 +50,7 @@ public class AkaiS1000Volume implements IAkaiVolume
         for (int i = 0; i < maxFiles; i++)
         {
             final AkaiDirEntry entry = partition.readDirEntry (dirEntry.getStart (), i);
-            final int dataPosition = partition.getOffset () + entry.getStart () * AkaiDiskImage.AKAI_BLOCK_SIZE;
+            final long dataPosition = partition.getOffset () + (long) entry.getStart () * AkaiDiskImage.AKAI_BLOCK_SIZE;
 
             int type = entry.getType ();
             if (type >= 128 && isS3000)
@@ -5,7 +5,6 @@
 package de.mossgrabers.convertwithmoss.format.bitwig;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +25,7 @@ import de.mossgrabers.convertwithmoss.core.model.enumeration.LoopType;
 import de.mossgrabers.convertwithmoss.core.model.enumeration.PlayLogic;
 import de.mossgrabers.convertwithmoss.core.model.enumeration.TriggerType;
 import de.mossgrabers.convertwithmoss.core.settings.WavChunkSettingsUI;
+import de.mossgrabers.convertwithmoss.file.ParallelZipOutputStream;
 import de.mossgrabers.tools.XMLUtils;
 
 
@@ -59,7 +59,7 @@ public class BitwigMultisampleCreator extends AbstractWavCreator<WavChunkSetting
         final File multiFile = this.createUniqueFilename (destinationFolder, createSafeFilename (multisampleSource.getName ()), "multisample");
         this.notifier.log ("IDS_NOTIFY_STORING", multiFile.getAbsolutePath ());
 
-        try (final ZipOutputStream zos = new ZipOutputStream (new FileOutputStream (multiFile)))
+        try (final ZipOutputStream zos = new ParallelZipOutputStream (multiFile))
         {
             zos.setMethod (ZipOutputStream.STORED);
             AbstractCreator.storeTextFile (zos, "multisample.xml", metadata.get (), multisampleSource.getMetadata ().getCreationDateTime ());
@@ -33,6 +33,7 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultGroup;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleLoop;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleZone;
 import de.mossgrabers.convertwithmoss.core.settings.EmptySettingsUI;
+import de.mossgrabers.convertwithmoss.file.ZipFileCache;
 import de.mossgrabers.convertwithmoss.format.wav.WavFileSampleData;
 import de.mossgrabers.tools.FileUtils;
 import de.mossgrabers.tools.XMLUtils;
@@ -64,8 +65,9 @@ public class BitwigMultisampleDetector extends AbstractDetector<EmptySettingsUI>
     @Override
     protected List<IMultisampleSource> readPresetFile (final File file)
     {
-        try (final ZipFile zipFile = new ZipFile (file))
+        try (final ZipFileCache.Handle handle = ZipFileCache.acquire (file))
         {
+            final ZipFile zipFile = handle.getZipFile ();
             final ZipEntry entry = zipFile.getEntry ("multisample.xml");
             if (entry == null)
             {
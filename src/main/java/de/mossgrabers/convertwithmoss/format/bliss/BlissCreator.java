@@ -5,7 +5,6 @@
 package de.mossgrabers.convertwithmoss.format.bliss;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.EnumMap;
@@ -33,6 +32,7 @@ import de.mossgrabers.convertwithmoss.core.model.enumeration.PlayLogic;
 import de.mossgrabers.convertwithmoss.core.model.enumeration.TriggerType;
 import de.mossgrabers.convertwithmoss.core.settings.EmptySettingsUI;
 import de.mossgrabers.convertwithmoss.file.AudioFileUtils;
+import de.mossgrabers.convertwithmoss.file.ParallelZipOutputStream;
 import de.mossgrabers.convertwithmoss.file.wav.WaveFile;
 import de.mossgrabers.convertwithmoss.format.wav.WavFileSampleData;
 import de.mossgrabers.tools.XMLUtils;
@@ -81,6 +81,15 @@ public class BlissCreator extends AbstractCreator<EmptySettingsUI>
     }
 
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean supportsParallelCreation ()
+    {
+        // The index of the current program is stored while creating a preset
+        return false;
+    }
+
+
     /** {@inheritDoc} */
     @Override
     public void createPreset (final File destinationFolder, final IMultisampleSource multisampleSource) throws IOException
@@ -101,7 +110,7 @@ public class BlissCreator extends AbstractCreator<EmptySettingsUI>
         final File multiFile = this.createUniqueFilename (destinationFolder, createSafeFilename (multisampleSource.getName ()), "zbp");
         this.notifier.log ("IDS_NOTIFY_STORING", multiFile.getAbsolutePath ());
 
-        try (final ZipOutputStream zos = new ZipOutputStream (new FileOutputStream (multiFile)))
+        try (final ZipOutputStream zos = new ParallelZipOutputStream (multiFile))
         {
             zos.setMethod (ZipOutputStream.STORED);
             AbstractCreator.storeTextFile (zos, "program.xml", xml.get (), multisampleSource.getMetadata ().getCreationDateTime ());
@@ -143,7 +152,7 @@ public class BlissCreator extends AbstractCreator<EmptySettingsUI>
             this.notifier.log ("IDS_BLISS_LIMITED_PROGRAM_TO_128");
         }
 
-        try (final ZipOutputStream zos = new ZipOutputStream (new FileOutputStream (bankFile)))
+        try (final ZipOutputStream zos = new ParallelZipOutputStream (bankFile))
         {
             zos.setMethod (ZipOutputStream.STORED);
             for (int i = 0; i < 128; i++)
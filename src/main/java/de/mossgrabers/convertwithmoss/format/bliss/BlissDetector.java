@@ -43,6 +43,7 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleLoo
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleZone;
 import de.mossgrabers.convertwithmoss.core.settings.MetadataSettingsUI;
 import de.mossgrabers.convertwithmoss.file.FlacFileSampleData;
+import de.mossgrabers.convertwithmoss.file.ZipFileCache;
 import de.mossgrabers.tools.FileUtils;
 import de.mossgrabers.tools.StringUtils;
 import de.mossgrabers.tools.XMLUtils;
@@ -87,8 +88,9 @@ public class BlissDetector extends AbstractDetector<MetadataSettingsUI>
     @Override
     protected List<IMultisampleSource> readPresetFile (final File file)
     {
-        try (final ZipFile zipFile = new ZipFile (file))
+        try (final ZipFileCache.Handle handle = ZipFileCache.acquire (file))
         {
+            final ZipFile zipFile = handle.getZipFile ();
             final boolean isBank = file.getName ().endsWith (".zbb");
             final ZipEntry entry = zipFile.getEntry (isBank ? "bank.xml" : "program.xml");
             if (entry == null)
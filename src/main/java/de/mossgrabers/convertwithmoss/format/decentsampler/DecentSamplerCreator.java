@@ -43,6 +43,7 @@ import de.mossgrabers.convertwithmoss.core.model.enumeration.FilterType;
 import de.mossgrabers.convertwithmoss.core.model.enumeration.PlayLogic;
 import de.mossgrabers.convertwithmoss.core.model.enumeration.TriggerType;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultFilter;
+import de.mossgrabers.convertwithmoss.file.ParallelZipOutputStream;
 import de.mossgrabers.tools.FileUtils;
 import de.mossgrabers.tools.XMLUtils;
 import de.mossgrabers.tools.ui.Functions;
@@ -244,7 +245,8 @@ public class DecentSamplerCreator extends AbstractWavCreator<DecentSamplerCreato
     {
         final String libraryPath = FileUtils.getNameWithoutType (multiFile);
 
-        try (final ZipOutputStream zos = new ZipOutputStream (new FileOutputStream (multiFile)))
+        // The samples are compressed on all cores
+        try (final ZipOutputStream zos = new ParallelZipOutputStream (new FileOutputStream (multiFile)))
         {
             for (final PresetResult presetResult: presetResults)
             {
@@ -44,6 +44,7 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleLoo
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleZone;
 import de.mossgrabers.convertwithmoss.core.utils.NoteParser;
 import de.mossgrabers.convertwithmoss.file.StreamUtils;
+import de.mossgrabers.convertwithmoss.file.ZipFileCache;
 import de.mossgrabers.tools.FileUtils;
 import de.mossgrabers.tools.XMLUtils;
 
@@ -134,8 +135,9 @@ public class DecentSamplerDetector extends AbstractDetector<DecentSamplerDetecto
     {
         final List<IMultisampleSource> result = new ArrayList<> ();
 
-        try (final ZipFile zipFile = new ZipFile (file))
+        try (final ZipFileCache.Handle handle = ZipFileCache.acquire (file))
         {
+            final ZipFile zipFile = handle.getZipFile ();
             for (final ZipEntry entry: Collections.list (zipFile.entries ()))
                 result.addAll (this.processFile (file, zipFile, entry));
         }
@@ -61,6 +61,15 @@ public class DistingExCreator extends AbstractWavCreator<DistingExCreatorUI>
     }
 
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean supportsParallelCreation ()
+    {
+        // The file name prefix and the velocity layers are stored while creating a preset
+        return false;
+    }
+
+
     /** {@inheritDoc} */
     @Override
     public void createPreset (final File destinationFolder, final IMultisampleSource multisampleSource) throws IOException
@@ -10,7 +10,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -20,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
 import de.mossgrabers.convertwithmoss.file.StreamUtils;
 import de.mossgrabers.convertwithmoss.file.hfe.DiskImageBuilder;
 import de.mossgrabers.convertwithmoss.file.hfe.HfeFile;
@@ -56,7 +56,7 @@ public class EnsoniqDisk
 
 
     private final File                  sourceFile;
-    private byte []                     fileContent;
+    private BlockDevice                 image;
     // EDE / EDA only
     private byte []                     skipTable;
 
@@ -89,7 +89,7 @@ public class EnsoniqDisk
             return;
         }
 
-        this.fileContent = Files.readAllBytes (sourceFile.toPath ());
+        this.image = new BlockDevice (sourceFile);
         this.encodingType = this.detectEncoding ();
         switch (this.encodingType)
         {
@@ -116,7 +116,7 @@ public class EnsoniqDisk
 
     private EncodingType detectEncoding () throws IOException
     {
-        final int chunk = (int) Math.min (5L * BLOCK_SIZE, this.fileContent.length);
+        final int chunk = (int) Math.min (5L * BLOCK_SIZE, this.image.getLength ());
         final byte [] d = this.readImageData (0, chunk);
 
         // GKH: starts with 'TDDF'
@@ -192,7 +192,7 @@ public class EnsoniqDisk
         if (rawDataOffset < 0)
             throw new IOException (Functions.getMessage ("IDS_EPS_UNKNOWN_GKH_MISSES_IMAGE_LOCATION"));
 
-        this.fileContent = Arrays.copyOfRange (this.fileContent, rawDataOffset, rawDataOffset + rawDataLength);
+        this.image = this.image.getRange (rawDataOffset, rawDataLength);
         this.parseEnsoniqImage ();
     }
 
@@ -238,7 +238,7 @@ public class EnsoniqDisk
         // The rest of the header data is not relevant
 
         // Extract the raw file
-        this.fileContent = Arrays.copyOfRange (this.fileContent, BLOCK_SIZE, BLOCK_SIZE + numberOfBlocks * BLOCK_SIZE);
+        this.image = this.image.getRange (BLOCK_SIZE, (long) numberOfBlocks * BLOCK_SIZE);
         this.rootDirectory = new EnsoniqFile (this, 0, instrumentName, EnsoniqFile.TYPE_EPS_INST, numberOfBlocks, numberOfBlocks, 0, null);
     }
 
@@ -271,10 +271,8 @@ public class EnsoniqDisk
         if (diskType != 3)
             throw new IOException (Functions.getMessage ("IDS_EPS_UNKNOWN_EDE_TYPE", Integer.toString (diskType)));
 
-        // Extract the raw file
-        final int skippedBLocks = countBitsSet (this.skipTable);
-        final int rawDataEnd = this.fileContent.length - BLOCK_SIZE + BLOCK_SIZE * skippedBLocks;
-        this.fileContent = Arrays.copyOfRange (this.fileContent, BLOCK_SIZE, rawDataEnd);
+        // The raw data only contains the blocks which are not skipped
+        this.image = this.image.getRange (BLOCK_SIZE, this.image.getLength () - BLOCK_SIZE);
 
         this.parseEnsoniqImage ();
     }
@@ -308,10 +306,8 @@ public class EnsoniqDisk
         if (diskType != 203)
             throw new IOException (Functions.getMessage ("IDS_EPS_UNKNOWN_EDA_TYPE", Integer.toString (diskType)));
 
-        // Extract the raw file
-        final int skippedBLocks = countBitsSet (this.skipTable);
-        final int rawDataEnd = this.fileContent.length - BLOCK_SIZE + BLOCK_SIZE * skippedBLocks;
-        this.fileContent = Arrays.copyOfRange (this.fileContent, 512, rawDataEnd);
+        // The raw data only contains the blocks which are not skipped
+        this.image = this.image.getRange (BLOCK_SIZE, this.image.getLength () - BLOCK_SIZE);
 
         this.parseEnsoniqImage ();
     }
@@ -333,7 +329,7 @@ public class EnsoniqDisk
             throw new IOException (Functions.getMessage ("IDS_HFE_CAN_ONLY_DECODE_FLOPPY_MODE", "Generic Shuggart"));
 
         final List<Sector> allSectors = hfeFile.decodeMfmSectors ();
-        this.fileContent = DiskImageBuilder.buildImage (allSectors, hfeFile.getNumTracks (), hfeFile.getNumSides (), 10, BLOCK_SIZE, true);
+        this.image = new BlockDevice (DiskImageBuilder.buildImage (allSectors, hfeFile.getNumTracks (), hfeFile.getNumSides (), 10, BLOCK_SIZE, true));
 
         this.parseEnsoniqImage ();
     }
@@ -596,7 +592,7 @@ public class EnsoniqDisk
     {
         if (this.skipTable == null)
         {
-            final int start = index * this.bytesPerBlock;
+            final long start = (long) index * this.bytesPerBlock;
             return this.readImageData (start, length * this.bytesPerBlock);
         }
 
@@ -614,7 +610,7 @@ public class EnsoniqDisk
             }
             else
             {
-                final int start = (i - this.countSkippedBlocksUntilIndex (i)) * this.bytesPerBlock;
+                final long start = (long) (i - this.countSkippedBlocksUntilIndex (i)) * this.bytesPerBlock;
                 baos.write (this.readImageData (start, this.bytesPerBlock));
             }
         return baos.toByteArray ();
@@ -690,7 +686,7 @@ public class EnsoniqDisk
     private int calculateBlockCount ()
     {
         final int skipped = this.skipTable == null ? 0 : countBitsSet (this.skipTable);
-        return skipped + this.fileContent.length / this.bytesPerBlock;
+        return skipped + (int) (this.image.getLength () / this.bytesPerBlock);
     }
 
 
@@ -752,9 +748,9 @@ public class EnsoniqDisk
     }
 
 
-    private byte [] readImageData (final int startBytes, final int lengthBytes)
+    private byte [] readImageData (final long startBytes, final int lengthBytes)
     {
-        return Arrays.copyOfRange (this.fileContent, startBytes, startBytes + lengthBytes);
+        return this.image.readBytes (startBytes, lengthBytes);
     }
 
 
@@ -84,6 +84,7 @@ public class KMPCreator extends AbstractCreator<KMPCreatorUI>
 
             // Create a sub-folder for the KMP file(s) and all samples
             final File subFolder = new File (destinationFolder, createUniqueDOSFileName (destinationFolder, multiSampleName, "", new HashSet<> (), true));
+            this.recordOutputFile (subFolder);
             if (!subFolder.exists () && !subFolder.mkdirs ())
             {
                 this.notifier.logError ("IDS_NOTIFY_FOLDER_COULD_NOT_BE_CREATED", subFolder.getAbsolutePath ());
@@ -104,6 +105,7 @@ public class KMPCreator extends AbstractCreator<KMPCreatorUI>
         // Write a KSC file with all created KMP files
         final String dosLibraryName = createUniqueDOSFileName (destinationFolder, libraryName, ".KSC", new HashSet<> (), false);
         final File outputFile = new File (destinationFolder, dosLibraryName + ".KSC");
+        this.recordOutputFile (outputFile);
         this.notifier.log ("IDS_NOTIFY_STORING", outputFile.getAbsolutePath ());
         new KSCFile (createdKMPNames).write (outputFile);
         this.progress.notifyDone ();
@@ -4,7 +4,6 @@
 
 package de.mossgrabers.convertwithmoss.format.ni.kontakt.type.kontakt2;
 
-import java.io.DataInput;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
@@ -17,6 +16,7 @@ import java.util.Set;
 import java.util.TimeZone;
 
 import de.mossgrabers.convertwithmoss.core.INotifier;
+import de.mossgrabers.convertwithmoss.file.BinaryReader;
 import de.mossgrabers.convertwithmoss.file.StreamUtils;
 import de.mossgrabers.convertwithmoss.format.ni.kontakt.Magic;
 
@@ -166,47 +166,56 @@ public class Kontakt2Header
      */
     public void read (final RandomAccessFile fileAccess) throws IOException
     {
-        this.compressedLength = (int) StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian);
-        this.headerVersion = StreamUtils.readUnsigned16 (fileAccess, this.isBigEndian);
+        try (final BinaryReader in = new BinaryReader (fileAccess, this.isBigEndian))
+        {
+            this.read (in);
+        }
+    }
+
+
+    private void read (final BinaryReader in) throws IOException
+    {
+        this.compressedLength = (int) in.readUnsigned32 ();
+        this.headerVersion = in.readUnsigned16 ();
         this.isFourDotTwo = this.headerVersion == HEADER_KONTAKT_42;
 
-        final int magic = (int) StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian);
+        final int magic = (int) in.readUnsigned32 ();
         if (magic != Magic.KONTAKT2_INSTRUMENT_HEADER_LE && magic != Magic.KONTAKT2_INSTRUMENT_HEADER_BE && magic != Magic.KONTAKT42_INSTRUMENT_HEADER_LE && magic != Magic.KONTAKT42_INSTRUMENT_HEADER_BE)
             this.notifier.logError ("IDS_NKI_UNKNOWN_HEADER_MAGIC", Integer.toHexString (magic));
 
-        this.patchType = StreamUtils.readUnsigned16 (fileAccess, this.isBigEndian);
-        this.kontaktVersion = this.readVersion (fileAccess, this.kontaktVersionBuffer);
+        this.patchType = in.readUnsigned16 ();
+        this.kontaktVersion = this.readVersion (in, this.kontaktVersionBuffer);
 
-        this.libraryID = StreamUtils.readAscii (fileAccess, 4, !this.isBigEndian);
+        this.libraryID = in.readAscii (4, StandardCharsets.US_ASCII, !this.isBigEndian);
         if (!KNOWN_LIBRARY_IDS.contains (this.libraryID))
             this.notifier.log ("IDS_NKI_UNKNOWN_BLOCK_ID", this.libraryID);
 
-        this.creation = StreamUtils.readTimestamp (fileAccess, this.isBigEndian);
+        this.creation = in.readTimestamp ();
 
         // No idea yet about these 4 bytes...
-        this.unknownA = (int) StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian);
+        this.unknownA = (int) in.readUnsigned32 ();
 
-        this.zones = StreamUtils.readUnsigned16 (fileAccess, this.isBigEndian);
-        this.groups = StreamUtils.readUnsigned16 (fileAccess, this.isBigEndian);
-        this.instruments = StreamUtils.readUnsigned16 (fileAccess, this.isBigEndian);
-        this.sampleSize = (int) StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian);
-        this.isMonolith = StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian) == 1;
-        this.minSupportedVersion = this.readVersion (fileAccess, this.minSupportedVersionBuffer);
+        this.zones = in.readUnsigned16 ();
+        this.groups = in.readUnsigned16 ();
+        this.instruments = in.readUnsigned16 ();
+        this.sampleSize = (int) in.readUnsigned32 ();
+        this.isMonolith = in.readUnsigned32 () == 1;
+        this.minSupportedVersion = this.readVersion (in, this.minSupportedVersionBuffer);
 
         // No idea yet about these 4 bytes...
-        this.unknownB = (int) StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian);
+        this.unknownB = (int) in.readUnsigned32 ();
 
-        this.readMetadata (fileAccess);
+        this.readMetadata (in);
 
         // Seems to be some kind of flags in a bit array
-        this.flags = (int) StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian);
+        this.flags = (int) in.readUnsigned32 ();
 
         if (this.isFourDotTwo)
-            this.md5Checksum = StreamUtils.readNBytes (fileAccess, 16);
+            this.md5Checksum = in.readNBytes (16);
         else
-            this.checksum = (int) StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian);
+            this.checksum = (int) in.readUnsigned32 ();
 
-        this.svnRevision = (int) StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian);
+        this.svnRevision = (int) in.readUnsigned32 ();
     }
 
 
@@ -265,7 +274,7 @@ public class Kontakt2Header
      *         separately.
      * @throws IOException Could not read the version
      */
-    private String readVersion (final DataInput in, final byte [] outBuffer) throws IOException
+    private String readVersion (final BinaryReader in, final byte [] outBuffer) throws IOException
     {
         final byte [] buffer = new byte [4];
         in.readFully (buffer);
@@ -284,19 +293,19 @@ public class Kontakt2Header
     }
 
 
-    private void readMetadata (final RandomAccessFile fileAccess) throws IOException
+    private void readMetadata (final BinaryReader in) throws IOException
     {
-        this.iconID = (int) StreamUtils.readUnsigned32 (fileAccess, this.isBigEndian);
-        this.author = fixBrokenCharacters (StreamUtils.readAscii (fileAccess, 8, StandardCharsets.ISO_8859_1).trim ());
+        this.iconID = (int) in.readUnsigned32 ();
+        this.author = fixBrokenCharacters (in.readAscii (8, StandardCharsets.ISO_8859_1, false).trim ());
 
-        this.category1 = fileAccess.read ();
-        this.category2 = fileAccess.read ();
-        this.category3 = fileAccess.read ();
+        this.category1 = in.readUnsigned8 ();
+        this.category2 = in.readUnsigned8 ();
+        this.category3 = in.readUnsigned8 ();
 
-        this.website = StreamUtils.readAscii (fileAccess, 86).trim ();
+        this.website = in.readAscii (86).trim ();
 
         // Padding
-        StreamUtils.skipNBytes (fileAccess, 3);
+        in.skipNBytes (3);
     }
 
 
@@ -5,11 +5,10 @@
 package de.mossgrabers.convertwithmoss.format.ni.kontakt.type.kontakt2.monolith;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.List;
 
-import de.mossgrabers.convertwithmoss.file.StreamUtils;
+import de.mossgrabers.convertwithmoss.file.BinaryReader;
 import de.mossgrabers.convertwithmoss.format.ni.kontakt.Magic;
 import de.mossgrabers.tools.ui.Functions;
 
@@ -27,28 +26,27 @@ public class Directory
     /**
      * Constructor.
      *
-     * @param fileAccess The file to read from
-     * @param isBigEndian True if bytes are stored big-endian
+     * @param in The reader to read from
      * @throws IOException An error occurred
      */
-    public Directory (final RandomAccessFile fileAccess, final boolean isBigEndian) throws IOException
+    public Directory (final BinaryReader in) throws IOException
     {
-        final int magic = (int) StreamUtils.readUnsigned32 (fileAccess, isBigEndian);
+        final int magic = in.readSigned32 ();
         if (magic != Magic.KONTAKT2_NKR_HEADER_ID)
             throw new IOException (Functions.getMessage ("IDS_ERR_FILE_CORRUPTED"));
 
         // Skip header version and 8 more unknown bytes
-        StreamUtils.skipNBytes (fileAccess, 10);
+        in.skipNBytes (10);
 
         // Read the number if the items in the dictionary
-        final int numItems = (int) StreamUtils.readUnsigned32 (fileAccess, isBigEndian);
+        final int numItems = (int) in.readUnsigned32 ();
 
         // Skip padding
-        StreamUtils.skipNBytes (fileAccess, 4);
+        in.skipNBytes (4);
 
         // Read all dictionary entries
         for (int i = 0; i < numItems; i++)
-            this.entries.add (new DirectoryEntry (fileAccess, isBigEndian));
+            this.entries.add (new DirectoryEntry (in));
     }
 
 
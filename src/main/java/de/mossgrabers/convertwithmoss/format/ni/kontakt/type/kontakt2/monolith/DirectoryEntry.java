@@ -5,8 +5,8 @@
 package de.mossgrabers.convertwithmoss.format.ni.kontakt.type.kontakt2.monolith;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
 
+import de.mossgrabers.convertwithmoss.file.BinaryReader;
 import de.mossgrabers.convertwithmoss.file.StreamUtils;
 import de.mossgrabers.tools.ui.Functions;
 
@@ -28,23 +28,22 @@ public class DirectoryEntry
     /**
      * Constructor.
      *
-     * @param fileAccess The file to read from
-     * @param isBigEndian True if bytes are stored big-endian
+     * @param in The reader to read from
      * @throws IOException An error occurred
      */
-    public DirectoryEntry (final RandomAccessFile fileAccess, final boolean isBigEndian) throws IOException
+    public DirectoryEntry (final BinaryReader in) throws IOException
     {
-        this.isBigEndian = isBigEndian;
+        this.isBigEndian = in.isBigEndian ();
 
-        this.length = StreamUtils.readUnsigned16 (fileAccess, isBigEndian);
-        this.pointer = StreamUtils.readUnsigned32 (fileAccess, isBigEndian);
+        this.length = in.readUnsigned16 ();
+        this.pointer = in.readUnsigned32 ();
 
-        final int type = StreamUtils.readSigned16 (fileAccess, isBigEndian);
+        final int type = in.readSigned16 ();
         if (type < 0 || type > 4)
             throw new IOException (Functions.getMessage ("IDS_NKI_UNKNOWN_DICT_ITEM_REF_TYPE", Integer.toString (type)));
         this.referenceType = DirectoryEntryType.values ()[type];
 
-        this.content = StreamUtils.readNBytes (fileAccess, this.length - 8);
+        this.content = in.readNBytes (this.length - 8);
     }
 
 
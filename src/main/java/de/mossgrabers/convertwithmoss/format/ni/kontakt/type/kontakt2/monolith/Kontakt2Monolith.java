@@ -4,9 +4,12 @@
 
 package de.mossgrabers.convertwithmoss.format.ni.kontakt.type.kontakt2.monolith;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -14,7 +17,7 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import de.mossgrabers.convertwithmoss.core.model.ISampleData;
-import de.mossgrabers.convertwithmoss.file.StreamUtils;
+import de.mossgrabers.convertwithmoss.file.BinaryReader;
 import de.mossgrabers.convertwithmoss.file.ncw.NcwFileSampleData;
 import de.mossgrabers.convertwithmoss.format.ni.kontakt.Magic;
 import de.mossgrabers.convertwithmoss.format.wav.WavFileSampleData;
@@ -22,14 +25,21 @@ import de.mossgrabers.tools.ui.Functions;
 
 
 /**
- * Can handle NKI files in Kontakt 2 monolith format.
+ * Can handle NKI files in Kontakt 2 monolith format. The samples are not loaded but only the
+ * position of their data in the monolith is indexed. The sample data objects read them from a
+ * memory-mapped part of the file.
  *
  * @author Jürgen Moßgraber
  */
 public class Kontakt2Monolith
 {
-    private final Map<Long, Directory> directories = new TreeMap<> ();
-    private final List<byte []>        sampleData  = new ArrayList<> ();
+    /** The size of the memory-mapped windows used to search for the next sample block. */
+    private static final int           SCAN_WINDOW_SIZE = 16 * 1024 * 1024;
+
+    private final Map<Long, Directory> directories      = new TreeMap<> ();
+    /** The position and length of the data of each sample in the monolith. */
+    private final List<long []>        sampleBlocks     = new ArrayList<> ();
+    private final FileChannel          channel;
 
 
     /**
@@ -41,12 +51,15 @@ public class Kontakt2Monolith
      */
     public Kontakt2Monolith (final RandomAccessFile fileAccess, final boolean isBigEndian) throws IOException
     {
+        this.channel = fileAccess.getChannel ();
         this.readMonolith (fileAccess, isBigEndian);
     }
 
 
     /**
-     * Read and check the samples from the monolith.
+     * Create the sample data objects for the samples in the monolith. The data of each sample is
+     * memory-mapped and only read when it is needed. The mapping stays valid after the file is
+     * closed.
      *
      * @return The sample data objects
      * @throws IOException Could not read the samples
@@ -61,16 +74,14 @@ public class Kontakt2Monolith
 
         for (int i = 0; i < sampleItems.size (); i++)
         {
-            final byte [] data = this.sampleData.get (i);
-            try (final ByteArrayInputStream in = new ByteArrayInputStream (data))
-            {
-                final DirectoryEntry directoryEntry = sampleItems.get (i);
-                final String filename = directoryEntry.asWideString ();
-                if (filename.toLowerCase ().endsWith (".ncw"))
-                    multiSamples.put (filename, new NcwFileSampleData (in));
-                else
-                    multiSamples.put (filename, new WavFileSampleData (in));
-            }
+            final long [] sampleBlock = this.sampleBlocks.get (i);
+            final ByteBuffer data = this.channel.map (MapMode.READ_ONLY, sampleBlock[0], sampleBlock[1]);
+            final DirectoryEntry directoryEntry = sampleItems.get (i);
+            final String filename = directoryEntry.asWideString ();
+            if (filename.toLowerCase ().endsWith (".ncw"))
+                multiSamples.put (filename, new NcwFileSampleData (data));
+            else
+                multiSamples.put (filename, new WavFileSampleData (data));
         }
 
         return multiSamples;
@@ -79,64 +90,78 @@ public class Kontakt2Monolith
 
     private void readMonolith (final RandomAccessFile fileAccess, final boolean isBigEndian) throws IOException
     {
-        while (fileAccess.getFilePointer () < fileAccess.length ())
-        {
-            final long position = fileAccess.getFilePointer ();
-            final int magicID = (int) StreamUtils.readUnsigned32 (fileAccess, isBigEndian);
-            fileAccess.seek (position);
+        final long fileLength = fileAccess.length ();
 
-            switch (magicID)
+        // Closing the reader moves the file pointer to the last read position
+        try (final BinaryReader in = new BinaryReader (fileAccess, isBigEndian))
+        {
+            while (in.getPosition () < fileLength)
             {
-                case Magic.KONTAKT2_NKR_HEADER_ID:
-                    final Directory directory = new Directory (fileAccess, isBigEndian);
-                    this.directories.put (Long.valueOf (position), directory);
-                    break;
-
-                case Magic.KONTAKT2_NKR_WALLPAPER_ID:
-                    // No need for the wallpaper, skip header and image data
-                    fileAccess.skipBytes (14);
-                    final long length = StreamUtils.readUnsigned64 (fileAccess, isBigEndian);
-                    fileAccess.skipBytes ((int) length);
-                    break;
-
-                case Magic.KONTAKT2_NKR_NKI_ID:
-                    // Skip header and move to the beginning of the ZLIB block
-                    fileAccess.skipBytes (27 + 170);
-                    return;
-
-                case Magic.KONTAKT2_NKR_SAMPLE_ID:
-                    fileAccess.skipBytes (4);
-                    // Version
-                    StreamUtils.readUnsigned16 (fileAccess, isBigEndian);
-                    fileAccess.skipBytes (13);
-                    final long sampleLength = StreamUtils.readUnsigned32 (fileAccess, isBigEndian);
-                    fileAccess.skipBytes (8);
-                    final byte [] data = StreamUtils.readNBytes (fileAccess, (int) sampleLength);
-                    this.sampleData.add (data);
-                    break;
-
-                case Magic.KONTAKT2_NKR_SAMPLE_RAW_ID:
-                    fileAccess.skipBytes (4);
-                    // Version
-                    StreamUtils.readUnsigned16 (fileAccess, isBigEndian);
-                    fileAccess.skipBytes (18);
-
-                    // Brute force method to skip this block, since we do not know where the length
-                    // of it is stored...
-                    long nextSamplePos = findNextSampleBlock (fileAccess, isBigEndian);
-                    if (nextSamplePos < 0)
-                    {
-                        final Directory topDirectory = this.directories.entrySet ().iterator ().next ().getValue ();
-                        final List<DirectoryEntry> nkiItems = new ArrayList<> ();
-                        this.findItems (topDirectory, DirectoryEntryType.NKI, nkiItems);
-                        final DirectoryEntry directoryEntry = nkiItems.get (0);
-                        nextSamplePos = directoryEntry.getPointer ();
-                    }
-                    fileAccess.seek (nextSamplePos);
-                    break;
-
-                default:
-                    throw new IOException (Functions.getMessage ("IDS_NKI_UNKNOWN_MAGIC_ID", String.format ("%X", Long.valueOf (magicID))));
+                final long position = in.getPosition ();
+                final int magicID = in.readSigned32 ();
+                in.seek (position);
+
+                switch (magicID)
+                {
+                    case Magic.KONTAKT2_NKR_HEADER_ID:
+                        final Directory directory = new Directory (in);
+                        this.directories.put (Long.valueOf (position), directory);
+                        break;
+
+                    case Magic.KONTAKT2_NKR_WALLPAPER_ID:
+                        // No need for the wallpaper, skip header and image data
+                        in.skipNBytes (14);
+                        final long length = in.readSigned64 ();
+                        in.skipNBytes (length);
+                        break;
+
+                    case Magic.KONTAKT2_NKR_NKI_ID:
+                        // Skip header and move to the beginning of the ZLIB block
+                        in.skipNBytes (27 + 170);
+                        return;
+
+                    case Magic.KONTAKT2_NKR_SAMPLE_ID:
+                        in.skipNBytes (4);
+                        // Version
+                        in.readUnsigned16 ();
+                        in.skipNBytes (13);
+                        final long sampleLength = in.readUnsigned32 ();
+                        in.skipNBytes (8);
+                        // Only index the sample data, it is mapped in mapSamples
+                        final long sampleStart = in.getPosition ();
+                        if (sampleStart + sampleLength > fileLength)
+                            throw new IOException (Functions.getMessage ("IDS_ERR_FILE_CORRUPTED"));
+                        this.sampleBlocks.add (new long []
+                        {
+                            sampleStart,
+                            sampleLength
+                        });
+                        in.seek (sampleStart + sampleLength);
+                        break;
+
+                    case Magic.KONTAKT2_NKR_SAMPLE_RAW_ID:
+                        in.skipNBytes (4);
+                        // Version
+                        in.readUnsigned16 ();
+                        in.skipNBytes (18);
+
+                        // Brute force method to skip this block, since we do not know where the
+                        // length of it is stored...
+                        long nextSamplePos = findNextSampleBlock (this.channel, in.getPosition (), isBigEndian);
+                        if (nextSamplePos < 0)
+                        {
+                            final Directory topDirectory = this.directories.entrySet ().iterator ().next ().getValue ();
+                            final List<DirectoryEntry> nkiItems = new ArrayList<> ();
+                            this.findItems (topDirectory, DirectoryEntryType.NKI, nkiItems);
+                            final DirectoryEntry directoryEntry = nkiItems.get (0);
+                            nextSamplePos = directoryEntry.getPointer ();
+                        }
+                        in.seek (nextSamplePos);
+                        break;
+
+                    default:
+                        throw new IOException (Functions.getMessage ("IDS_NKI_UNKNOWN_MAGIC_ID", String.format ("%X", Long.valueOf (magicID))));
+                }
             }
         }
     }
@@ -156,13 +181,40 @@ public class Kontakt2Monolith
     }
 
 
-    private static long findNextSampleBlock (final RandomAccessFile fileAccess, final boolean isBigEndian) throws IOException
+    /**
+     * Searches for the start of the next sample block (its magic followed by its version) from the
+     * given position on. The file is scanned in memory-mapped windows which overlap by the
+     * length of the pattern minus 1, so that a pattern on the border of 2 windows is found as well.
+     *
+     * @param channel The channel of the file to search
+     * @param start The position from which to start the search
+     * @param isBigEndian Use little or big endian
+     * @return The position of the next sample block or -1 if there is none
+     * @throws IOException Could not read the file
+     */
+    private static long findNextSampleBlock (final FileChannel channel, final long start, final boolean isBigEndian) throws IOException
     {
-        for (long i = fileAccess.getFilePointer (); i < fileAccess.length () - 4; i++)
+        final byte [] pattern = ByteBuffer.allocate (6).order (isBigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN).putInt (Magic.KONTAKT2_NKR_SAMPLE_ID).putShort ((short) 0x110).array ();
+        final long length = channel.size ();
+
+        long windowStart = start;
+        while (windowStart + pattern.length <= length)
         {
-            fileAccess.seek (i);
-            if (StreamUtils.readUnsigned32 (fileAccess, isBigEndian) == Magic.KONTAKT2_NKR_SAMPLE_ID && StreamUtils.readUnsigned16 (fileAccess, isBigEndian) == 0x110)
-                return i;
+            final int windowSize = (int) Math.min (SCAN_WINDOW_SIZE, length - windowStart);
+            final ByteBuffer window = channel.map (MapMode.READ_ONLY, windowStart, windowSize);
+            final int lastStart = windowSize - pattern.length;
+            for (int i = 0; i <= lastStart; i++)
+            {
+                // Only compare the full pattern if the first byte matches
+                if (window.get (i) != pattern[0])
+                    continue;
+                int matches = 1;
+                while (matches < pattern.length && window.get (i + matches) == pattern[matches])
+                    matches++;
+                if (matches == pattern.length)
+                    return windowStart + i;
+            }
+            windowStart += lastStart + 1;
         }
         return -1;
     }
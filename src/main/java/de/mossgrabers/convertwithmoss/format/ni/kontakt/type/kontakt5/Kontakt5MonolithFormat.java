@@ -4,13 +4,15 @@
 
 package de.mossgrabers.convertwithmoss.format.ni.kontakt.type.kontakt5;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -27,6 +29,7 @@ import de.mossgrabers.convertwithmoss.core.model.ISampleData;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleZone;
 import de.mossgrabers.convertwithmoss.core.settings.IMetadataConfig;
+import de.mossgrabers.convertwithmoss.file.ByteBufferInputStream;
 import de.mossgrabers.convertwithmoss.file.StreamUtils;
 import de.mossgrabers.convertwithmoss.file.ncw.NcwFileSampleData;
 import de.mossgrabers.convertwithmoss.format.ni.kontakt.Magic;
@@ -36,7 +39,9 @@ import de.mossgrabers.tools.ui.Functions;
 
 
 /**
- * Can handle NKI files in Kontakt 5+ monolith format. WAV and NCW files are supported.
+ * Can handle NKI files in Kontakt 5+ monolith format. WAV and NCW files are supported. The embedded
+ * files are not loaded but only the position of their data in the monolith is indexed. The sample
+ * data objects read them from a memory-mapped part of the file when they are written.
  *
  * @author Jürgen Moßgraber
  */
@@ -92,12 +97,13 @@ public class Kontakt5MonolithFormat extends AbstractKontaktFormat
     {
         this.sourceFolder = sourceFolder;
 
-        try (final InputStream inputStream = Channels.newInputStream (fileAccess.getChannel ()))
+        final FileChannel channel = fileAccess.getChannel ();
+        try (final InputStream inputStream = Channels.newInputStream (channel))
         {
-            final Map<Long, MonolithFile> monolithFiles = this.readMonolithFiles (inputStream);
+            final Map<Long, MonolithFile> monolithFiles = this.readMonolithFiles (channel, inputStream);
             final MonolithFile mainFile = findMainFile (monolithFiles, sourceFile.getName ().endsWith (".nki") ? ".nki" : ".nkm");
-            final InputStream dataInputStream = new ByteArrayInputStream (mainFile.data);
-            return this.kontakt5Type.readNKI (this.sourceFolder, sourceFile, dataInputStream, metadataConfig, createSamples (monolithFiles));
+            final InputStream dataInputStream = new ByteBufferInputStream (mapFile (channel, mainFile));
+            return this.kontakt5Type.readNKI (this.sourceFolder, sourceFile, dataInputStream, metadataConfig, createSamples (channel, monolithFiles));
         }
     }
 
@@ -116,11 +122,12 @@ public class Kontakt5MonolithFormat extends AbstractKontaktFormat
     {
         this.sourceFolder = sourceFolder;
 
-        try (final InputStream inputStream = Channels.newInputStream (fileAccess.getChannel ()))
+        final FileChannel channel = fileAccess.getChannel ();
+        try (final InputStream inputStream = Channels.newInputStream (channel))
         {
-            final Map<Long, MonolithFile> monolithFiles = this.readMonolithFiles (inputStream);
-            final InputStream dataInputStream = new ByteArrayInputStream (findMainFile (monolithFiles, ".nkm").data);
-            return this.kontakt5Type.readNKM (sourceFolder, sourceFile, dataInputStream, metadataConfig, createSamples (monolithFiles));
+            final Map<Long, MonolithFile> monolithFiles = this.readMonolithFiles (channel, inputStream);
+            final InputStream dataInputStream = new ByteBufferInputStream (mapFile (channel, findMainFile (monolithFiles, ".nkm")));
+            return this.kontakt5Type.readNKM (sourceFolder, sourceFile, dataInputStream, metadataConfig, createSamples (channel, monolithFiles));
         }
     }
 
@@ -134,11 +141,13 @@ public class Kontakt5MonolithFormat extends AbstractKontaktFormat
     }
 
 
-    private Map<Long, MonolithFile> readMonolithFiles (final InputStream inputStream) throws IOException
+    private Map<Long, MonolithFile> readMonolithFiles (final FileChannel channel, final InputStream inputStream) throws IOException
     {
         final long fileCount = this.readHeader (inputStream);
         final Map<Long, MonolithFile> monolithFiles = this.readTableOfContents (inputStream, fileCount);
-        readFiles (inputStream, monolithFiles);
+        // The stream is not buffered, therefore the position of the channel is the start of the
+        // files section
+        indexFiles (channel.position (), channel.size (), monolithFiles);
         return monolithFiles;
     }
 
@@ -238,46 +247,67 @@ public class Kontakt5MonolithFormat extends AbstractKontaktFormat
 
 
     /**
-     * Read all files into memory.
+     * Calculate the position and size of all files in the monolith from the end offsets in the table
+     * of contents. The files themselves are not read.
      *
-     * @param inputStream The stream to read from
+     * @param filesStart The position of the files section in the monolith
+     * @param monolithSize The size of the monolith
      * @param monolithFiles The metadata description
-     * @throws IOException Could not read the files
+     * @throws IOException The table of contents does not match the size of the monolith
      */
-    private static void readFiles (final InputStream inputStream, final Map<Long, MonolithFile> monolithFiles) throws IOException
+    private static void indexFiles (final long filesStart, final long monolithSize, final Map<Long, MonolithFile> monolithFiles) throws IOException
     {
         long previousEnd = 0;
         for (final MonolithFile descriptor: monolithFiles.values ())
         {
-            // Note: this implementation only supports files up to 4GB!
-            descriptor.data = inputStream.readNBytes ((int) (descriptor.endOffset - previousEnd));
+            descriptor.position = filesStart + previousEnd;
+            descriptor.size = descriptor.endOffset - previousEnd;
+            // Note: a single embedded file is limited to 2GB since it is mapped into one buffer
+            if (descriptor.size < 0 || descriptor.size > Integer.MAX_VALUE || descriptor.position + descriptor.size > monolithSize)
+                throw new IOException (Functions.getMessage ("IDS_ERR_FILE_CORRUPTED"));
             previousEnd = descriptor.endOffset;
         }
     }
 
 
     /**
-     * Fill the in-memory files into sample metadata objects.
+     * Memory-map the content of a file in the monolith. The mapping stays valid after the monolith
+     * is closed.
+     *
+     * @param channel The channel of the monolith
+     * @param monolithFile The file to map
+     * @return The content of the file
+     * @throws IOException Could not map the file
+     */
+    private static ByteBuffer mapFile (final FileChannel channel, final MonolithFile monolithFile) throws IOException
+    {
+        return channel.map (MapMode.READ_ONLY, monolithFile.position, monolithFile.size);
+    }
+
+
+    /**
+     * Create sample metadata objects for the WAV and NCW files in the monolith. The data of the
+     * files is only read when the sample is written.
      *
-     * @param monolithFiles The read files
+     * @param channel The channel of the monolith
+     * @param monolithFiles The indexed files
      * @return The converted files
      * @throws IOException Could not convert the files
      */
-    private static Map<Long, ISampleZone> createSamples (final Map<Long, MonolithFile> monolithFiles) throws IOException
+    private static Map<Long, ISampleZone> createSamples (final FileChannel channel, final Map<Long, MonolithFile> monolithFiles) throws IOException
     {
         final Map<Long, ISampleZone> samples = new HashMap<> ();
 
         for (final Map.Entry<Long, MonolithFile> entry: monolithFiles.entrySet ())
         {
             final MonolithFile value = entry.getValue ();
-            final ByteArrayInputStream in = new ByteArrayInputStream (value.data);
 
             final String filename = value.name.toLowerCase ();
             final ISampleData sampleData;
             if (filename.endsWith (".wav"))
-                sampleData = new WavFileSampleData (in);
+                sampleData = new WavFileSampleData (mapFile (channel, value));
             else if (filename.endsWith (".ncw"))
-                sampleData = new NcwFileSampleData (in);
+                sampleData = new NcwFileSampleData (mapFile (channel, value));
             else
                 continue;
             samples.put (entry.getKey (), new DefaultSampleZone (value.name, sampleData));
@@ -287,11 +317,12 @@ public class Kontakt5MonolithFormat extends AbstractKontaktFormat
     }
 
 
-    /** Helper class to manage the file metadata and read file content. */
+    /** Helper class to manage the file metadata and the position of the file content. */
     private static class MonolithFile
     {
-        String  name;
-        long    endOffset;
-        byte [] data;
+        String name;
+        long   endOffset;
+        long   position;
+        long   size;
     }
 }
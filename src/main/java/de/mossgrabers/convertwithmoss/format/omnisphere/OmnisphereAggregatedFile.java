@@ -8,11 +8,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -31,40 +32,45 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
 import de.mossgrabers.tools.XMLUtils;
 
 
 /**
  * Reads/writes a container file that starts with a FileSystem XML header followed by binary file
- * pay-loads. XML entries are parsed into Document objects. WAV entries are stored as byte[].
+ * pay-loads. XML entries are parsed into Document objects. Files which are added for writing are
+ * stored as byte[]. When reading, only the position and size of each contained file are indexed
+ * and the container file is memory-mapped, since sound source files can be several GB large. The
+ * content of a file is only accessed when it is requested.
  */
 public class OmnisphereAggregatedFile
 {
-    private static final String        FILE_SYSTEM_END_TAG = "</FileSystem>\n";
-    private static final Charset       DEFAULT_ENCODING    = StandardCharsets.ISO_8859_1;
-    private static final String        NONSENSE_DOCTYPE    = "<!DOCTYPE s1 SYSTEM \"sbk:/style/dtd/document.dtd\">";
+    private static final String          FILE_SYSTEM_END_TAG = "</FileSystem>\n";
+    private static final Charset         DEFAULT_ENCODING    = StandardCharsets.ISO_8859_1;
+    private static final String          NONSENSE_DOCTYPE    = "<!DOCTYPE s1 SYSTEM \"sbk:/style/dtd/document.dtd\">";
+    private static final int             HEADER_BLOCK_SIZE   = 64 * 1024;
 
-    private final Map<String, byte []> files               = new LinkedHashMap<> ();
+    private final Map<String, byte []>   files               = new LinkedHashMap<> ();
+    private final Map<String, FileEntry> fileEntries         = new LinkedHashMap<> ();
+    private BlockDevice                  content             = null;
 
 
     /**
-     * Reads the aggregate file and returns all contained files.
+     * Reads the index of all contained files from the aggregate file. The contained files are read
+     * when they are requested.
      *
      * @param file The aggregate file to read
      * @throws IOException Could not read the file
      */
     public void read (final File file) throws IOException
     {
-        try (final RandomAccessFile raf = new RandomAccessFile (file, "r"))
-        {
-            // Read the FileSystem XML header first
-            final Document fileSystemDoc = readFileSystemXml (raf);
+        this.content = new BlockDevice (file);
 
-            // Current file pointer is directly after the XML header
-            final long dataStart = raf.getFilePointer ();
-            final Element root = fileSystemDoc.getDocumentElement ();
-            this.processNodes (root, raf, dataStart);
-        }
+        // Read the FileSystem XML header first, the files section starts directly after it
+        final String fileSystemXml = this.readFileSystemXml ();
+        final Document fileSystemDoc = parseXml (fileSystemXml);
+        final Element root = fileSystemDoc.getDocumentElement ();
+        this.processNodes (root, fileSystemXml.length ());
     }
 
 
@@ -152,8 +158,8 @@ public class OmnisphereAggregatedFile
      */
     public Optional<Document> getXmlFile (final String fileName) throws IOException
     {
-        final byte [] data = this.files.get (fileName);
-        return data == null ? Optional.empty () : Optional.of (parseXml (new String (data, DEFAULT_ENCODING)));
+        final ByteBuffer data = this.getFileData (fileName);
+        return data == null ? Optional.empty () : Optional.of (parseXml (DEFAULT_ENCODING.decode (data).toString ()));
     }
 
 
@@ -167,15 +173,14 @@ public class OmnisphereAggregatedFile
     public Map<String, Document> getXmlFiles (final String rootTag) throws IOException
     {
         final Map<String, Document> results = new HashMap<> ();
-        for (final Map.Entry<String, byte []> e: this.files.entrySet ())
+        for (final String filename: this.getFileNames ())
         {
-            final String filename = e.getKey ();
             if (!filename.toLowerCase ().endsWith (".xml"))
                 continue;
-            final byte [] data = this.files.get (filename);
+            final ByteBuffer data = this.getFileData (filename);
             if (data == null)
                 continue;
-            final String xmlCode = new String (data, DEFAULT_ENCODING).trim ();
+            final String xmlCode = DEFAULT_ENCODING.decode (data).toString ().trim ();
             final Document document = parseXml (xmlCode);
 
             final Element top = document.getDocumentElement ();
@@ -187,26 +192,56 @@ public class OmnisphereAggregatedFile
 
 
     /**
-     * Get all WAV files.
+     * Get all WAV files. The content of the files of a read aggregate file is not read but is a
+     * range of the memory-mapped aggregate file.
      *
-     * @return The WAV files
+     * @return The WAV files, the key is their filename
      */
-    public Map<String, byte []> getWavFiles ()
+    public Map<String, BlockDevice> getWavFiles ()
     {
-        final Map<String, byte []> results = new HashMap<> ();
-        for (final Map.Entry<String, byte []> e: this.files.entrySet ())
+        final Map<String, BlockDevice> results = new HashMap<> ();
+        for (final String filename: this.getFileNames ())
         {
-            final String filename = e.getKey ();
             if (!filename.toLowerCase ().endsWith (".wav"))
                 continue;
             final byte [] data = this.files.get (filename);
             if (data != null)
-                results.put (filename, data);
+            {
+                results.put (filename, new BlockDevice (data));
+                continue;
+            }
+            final FileEntry fileEntry = this.fileEntries.get (filename);
+            if (fileEntry != null)
+                results.put (filename, this.content.getRange (fileEntry.offset (), fileEntry.size ()));
         }
         return results;
     }
 
 
+    private List<String> getFileNames ()
+    {
+        final List<String> fileNames = new ArrayList<> (this.files.keySet ());
+        fileNames.addAll (this.fileEntries.keySet ());
+        return fileNames;
+    }
+
+
+    /**
+     * Get the content of a contained file.
+     *
+     * @param fileName The name of the file
+     * @return The content or null if there is no such file
+     */
+    private ByteBuffer getFileData (final String fileName)
+    {
+        final byte [] data = this.files.get (fileName);
+        if (data != null)
+            return ByteBuffer.wrap (data);
+        final FileEntry fileEntry = this.fileEntries.get (fileName);
+        return fileEntry == null ? null : this.content.getBuffer (fileEntry.offset (), fileEntry.size ());
+    }
+
+
     /**
      * Builds the FileSystem XML header.
      *
@@ -256,25 +291,27 @@ public class OmnisphereAggregatedFile
     /**
      * Reads the XML header from the beginning of the file until </FileSystem>.
      *
-     * @param raf The random access file
-     * @return The parsed XML document
+     * @return The XML code including the end tag, since the encoding uses one byte per character
+     *         its' length is the start of the files section
      * @throws IOException Could not read the document
      */
-    private static Document readFileSystemXml (final RandomAccessFile raf) throws IOException
+    private String readFileSystemXml () throws IOException
     {
         final StringBuilder sb = new StringBuilder ();
-        while (true)
+        long position = 0;
+        while (position < this.content.getLength ())
         {
-            final int b = raf.read ();
-            if (b == -1)
-                throw new EOFException ("Unexpected end of file while reading FileSystem XML.");
-
-            sb.append ((char) b);
-            if (sb.indexOf (FILE_SYSTEM_END_TAG) >= 0)
-                break;
+            final ByteBuffer block = this.content.getBuffer (position, HEADER_BLOCK_SIZE);
+            position += block.remaining ();
+
+            // The end tag might cross the border of 2 blocks
+            final int searchStart = Math.max (0, sb.length () - FILE_SYSTEM_END_TAG.length ());
+            sb.append (DEFAULT_ENCODING.decode (block));
+            final int index = sb.indexOf (FILE_SYSTEM_END_TAG, searchStart);
+            if (index >= 0)
+                return sb.substring (0, index + FILE_SYSTEM_END_TAG.length ());
         }
-
-        return parseXml (sb.toString ());
+        throw new EOFException ("Unexpected end of file while reading FileSystem XML.");
     }
 
 
@@ -282,11 +319,10 @@ public class OmnisphereAggregatedFile
      * Recursively processes FILE and DIR nodes.
      *
      * @param parent The parent element of the FILE/DIR
-     * @param raf The random access file
      * @param dataStart The start of the files section
      * @throws IOException Could not read the files
      */
-    private void processNodes (final Element parent, final RandomAccessFile raf, final long dataStart) throws IOException
+    private void processNodes (final Element parent, final long dataStart) throws IOException
     {
         final NodeList children = parent.getChildNodes ();
 
@@ -301,31 +337,30 @@ public class OmnisphereAggregatedFile
             final String tag = element.getTagName ();
 
             if ("FILE".equals (tag))
-                this.readFileEntry (element, raf, dataStart);
+                this.readFileEntry (element, dataStart);
             else if ("DIR".equals (tag))
-                this.processNodes (element, raf, dataStart);
+                this.processNodes (element, dataStart);
         }
     }
 
 
     /**
-     * Reads a FILE entry and stores it in the result map.
+     * Reads a FILE entry and stores its' position and size in the index.
      *
      * @param fileElement The FILE element to read
-     * @param raf The random access file
      * @param dataStart The start of the files section
-     * @throws IOException Could not read the file
+     * @throws IOException The file is not fully contained in the aggregate file
      */
-    private void readFileEntry (final Element fileElement, final RandomAccessFile raf, final long dataStart) throws IOException
+    private void readFileEntry (final Element fileElement, final long dataStart) throws IOException
     {
         final String name = fileElement.getAttribute ("name");
         final long offset = Long.parseLong (fileElement.getAttribute ("offset"));
         final int size = Integer.parseInt (fileElement.getAttribute ("size"));
 
-        raf.seek (dataStart + offset);
-        final byte [] data = new byte [size];
-        raf.readFully (data);
-        this.files.put (name, data);
+        final long start = dataStart + offset;
+        if (offset < 0 || size < 0 || start + size > this.content.getLength ())
+            throw new EOFException ("Unexpected end of file while reading " + name + ".");
+        this.fileEntries.put (name, new FileEntry (start, size));
     }
 
 
@@ -350,4 +385,10 @@ public class OmnisphereAggregatedFile
             throw new IOException (ex);
         }
     }
+
+
+    private record FileEntry (long offset, int size)
+    {
+        // Intentionally empty
+    }
 }
\ No newline at end of file
@@ -233,6 +233,7 @@ public class OmnisphereCreator extends AbstractCreator<EmptySettingsUI>
             text = text.replace ("%MOD_RELEASE%", toTime (modEnvelope.getReleaseTime ()));
 
             final File presetFile = new File (destFolder, filename + ".prt_omn");
+            this.recordOutputFile (presetFile);
             Files.write (presetFile.toPath (), text.getBytes (StandardCharsets.UTF_8));
         }
         catch (final IOException ex)
@@ -335,7 +336,9 @@ public class OmnisphereCreator extends AbstractCreator<EmptySettingsUI>
                 // Round-robin groups could be aggregated to Sub-layers but there are only 4!
                 aggregator.addXmlFile ("Layer.xml", this.createLayerHitStackDocument (Collections.singletonList (sampleZone)), ATTRIBUTE_ORDER);
                 aggregator.addXmlFile ("SampledInstrument.xml", this.createSampledInstrumentDocument (sampleZone), ATTRIBUTE_ORDER);
-                overallDbFileSize += aggregator.write (new File (sampleFolder, this.createSampleFilename (sampleZone, zoneIndex, ".db")));
+                final File dbFile = new File (sampleFolder, this.createSampleFilename (sampleZone, zoneIndex, ".db"));
+                this.recordOutputFile (dbFile);
+                overallDbFileSize += aggregator.write (dbFile);
             }
             catch (final NoSuchFileException | FileNotFoundException | TransformerException ex)
             {
@@ -4,7 +4,6 @@
 
 package de.mossgrabers.convertwithmoss.format.omnisphere;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -37,6 +36,7 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultGroup;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleZone;
 import de.mossgrabers.convertwithmoss.core.utils.NameValueParser;
 import de.mossgrabers.convertwithmoss.file.AudioFileUtils;
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
 import de.mossgrabers.convertwithmoss.format.TagDetector;
 import de.mossgrabers.convertwithmoss.format.wav.WavFileSampleData;
 import de.mossgrabers.tools.FileUtils;
@@ -510,7 +510,7 @@ public class OmnisphereDetector extends AbstractDetector<OmnisphereDetectorUI>
 
             // There can be multiple WAV files for round-robin! Just read all WAVs -> the current
             // SampleZone needs to be duplicated and all of them need to be added to a group
-            final Map<String, byte []> wavFiles = aggregatedFile.getWavFiles ();
+            final Map<String, BlockDevice> wavFiles = aggregatedFile.getWavFiles ();
             if (wavFiles.isEmpty ())
                 throw new IOException (Functions.getMessage (IDS_NOTIFY_ERR_SAMPLE_FILE_NOT_FOUND, sampleName + ".wav"));
 
@@ -540,7 +540,7 @@ public class OmnisphereDetector extends AbstractDetector<OmnisphereDetectorUI>
                 for (final Element sampleWaveformElement: waveformTags)
                 {
                     final String wavFileName = new File (sampleWaveformElement.getAttribute ("AudioFilePath")).getName ();
-                    final byte [] wavFileData = wavFiles.get (wavFileName);
+                    final BlockDevice wavFileData = wavFiles.get (wavFileName);
                     if (wavFileData == null)
                         throw new IOException (Functions.getMessage (IDS_NOTIFY_ERR_SAMPLE_FILE_NOT_FOUND, wavFileName));
 
@@ -548,7 +548,7 @@ public class OmnisphereDetector extends AbstractDetector<OmnisphereDetectorUI>
                     rrSampleZone.setName (FileUtils.getNameWithoutType (wavFileName));
                     try
                     {
-                        final ISampleData sampleData = new WavFileSampleData (new ByteArrayInputStream (wavFileData));
+                        final ISampleData sampleData = new WavFileSampleData (wavFileData);
                         sampleData.addZoneData (rrSampleZone, false, true);
                         rrSampleZone.setSampleData (sampleData);
                         roundRobinZones.add (rrSampleZone);
@@ -5,13 +5,11 @@
 package de.mossgrabers.convertwithmoss.format.renoise;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
-import java.util.zip.CRC32;
 import java.util.zip.ZipOutputStream;
 
 import org.w3c.dom.Document;
@@ -34,6 +32,7 @@ import de.mossgrabers.convertwithmoss.core.model.enumeration.PlayLogic;
 import de.mossgrabers.convertwithmoss.core.model.enumeration.TriggerType;
 import de.mossgrabers.convertwithmoss.core.settings.EmptySettingsUI;
 import de.mossgrabers.convertwithmoss.file.AudioFileUtils;
+import de.mossgrabers.convertwithmoss.file.ParallelZipOutputStream;
 import de.mossgrabers.convertwithmoss.file.wav.DataChunk;
 import de.mossgrabers.convertwithmoss.file.wav.FormatChunk;
 import de.mossgrabers.convertwithmoss.file.wav.WaveFile;
@@ -83,6 +82,15 @@ public class RenoiseCreator extends AbstractCreator<EmptySettingsUI>
     }
 
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean supportsParallelCreation ()
+    {
+        // The padding width of the sample names is stored while creating a preset
+        return false;
+    }
+
+
     /** {@inheritDoc} */
     @Override
     public void createPreset (final File destinationFolder, final IMultisampleSource multisampleSource) throws IOException
@@ -96,7 +104,7 @@ public class RenoiseCreator extends AbstractCreator<EmptySettingsUI>
         final File multiFile = this.createUniqueFilename (destinationFolder, createSafeFilename (multisampleSource.getName ()), "xrni");
         this.notifier.log ("IDS_NOTIFY_STORING", multiFile.getAbsolutePath ());
 
-        try (final ZipOutputStream zos = new ZipOutputStream (new FileOutputStream (multiFile)))
+        try (final ZipOutputStream zos = new ParallelZipOutputStream (multiFile))
         {
             zos.setMethod (ZipOutputStream.STORED);
             AbstractCreator.storeTextFile (zos, "Instrument.xml", metadata.get (), multisampleSource.getMetadata ().getCreationDateTime ());
@@ -393,24 +401,23 @@ public class RenoiseCreator extends AbstractCreator<EmptySettingsUI>
             renderSource = new WavFileSampleData (waveFile);
         }
 
-        byte [] data;
-        String extension;
+        final String name = SAMPLE_DATA_FOLDER + FORWARD_SLASH + this.sampleBaseName (zoneIndex, zone);
+        final byte [] flacData;
         try
         {
-            data = AudioFileUtils.compressToFLAC (renderSource);
-            extension = ".flac";
+            flacData = AudioFileUtils.compressToFLAC (renderSource);
         }
         catch (final IOException | RuntimeException _)
         {
             this.notifier.logError ("IDS_RENOISE_FLAC_FALLBACK", zone.getName ());
-            data = AudioFileUtils.convertToWavData (renderSource, DESTINATION_AUDIO_FORMAT);
-            extension = ".wav";
+            final WaveFile waveFile = AudioFileUtils.convertToWav (renderSource, DESTINATION_AUDIO_FORMAT);
+            storeUncompressedEntry (zipOutputStream, name + ".wav", dateTime, waveFile::write);
+            return;
         }
 
-        final String name = SAMPLE_DATA_FOLDER + FORWARD_SLASH + this.sampleBaseName (zoneIndex, zone) + extension;
-        final CRC32 crc = new CRC32 ();
-        crc.update (data);
-        putUncompressedEntry (zipOutputStream, name, data, crc, dateTime);
+        // The FLAC header is written after all frames are encoded, therefore the encoder cannot
+        // stream into the archive
+        storeUncompressedEntry (zipOutputStream, name + ".flac", dateTime, outputStream -> outputStream.write (flacData));
     }
 
 
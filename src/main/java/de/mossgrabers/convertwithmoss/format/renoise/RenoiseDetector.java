@@ -44,6 +44,7 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleLoo
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleZone;
 import de.mossgrabers.convertwithmoss.core.settings.MetadataSettingsUI;
 import de.mossgrabers.convertwithmoss.file.FlacFileSampleData;
+import de.mossgrabers.convertwithmoss.file.ZipFileCache;
 import de.mossgrabers.convertwithmoss.file.aiff.AiffFileSampleData;
 import de.mossgrabers.convertwithmoss.format.wav.WavFileSampleData;
 import de.mossgrabers.tools.FileUtils;
@@ -79,8 +80,9 @@ public class RenoiseDetector extends AbstractDetector<MetadataSettingsUI>
     @Override
     protected List<IMultisampleSource> readPresetFile (final File file)
     {
-        try (final ZipFile zipFile = new ZipFile (file))
+        try (final ZipFileCache.Handle handle = ZipFileCache.acquire (file))
         {
+            final ZipFile zipFile = handle.getZipFile ();
             final ZipEntry entry = zipFile.getEntry ("Instrument.xml");
             if (entry == null)
             {
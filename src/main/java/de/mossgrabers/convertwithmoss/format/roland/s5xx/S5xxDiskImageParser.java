@@ -4,12 +4,13 @@
 
 package de.mossgrabers.convertwithmoss.format.roland.s5xx;
 
-import java.io.ByteArrayInputStream;
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
+import de.mossgrabers.convertwithmoss.file.ByteBufferInputStream;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -33,53 +34,54 @@ import java.util.Optional;
 public class S5xxDiskImageParser
 {
     /** Minimum file size to read the full header. */
-    private static final int HDR_MIN_SIZE      = 512;
+    private static final int  HDR_MIN_SIZE      = 512;
 
     // LAND directory
-    private static final int LAND_HD_OFFSET    = 1024;
-    private static final int LAND_CD_OFFSET    = 512;
-    private static final int LAND_STRIDE       = 64;
-    private static final int LAND_HD_MAX       = 64;
-    private static final int LAND_CD_MAX       = 309;
-    private static final int LAND_NAME_CHARS   = 50;
+    private static final int  LAND_HD_OFFSET    = 1024;
+    private static final int  LAND_CD_OFFSET    = 512;
+    private static final int  LAND_STRIDE       = 64;
+    private static final int  LAND_HD_MAX       = 64;
+    private static final int  LAND_CD_MAX       = 309;
+    private static final int  LAND_NAME_CHARS   = 50;
 
     // Patch area
-    private static final int PATCH_BANK1_START = 64512;
+    private static final int  PATCH_BANK1_START = 64512;
     // 64512 + 8 × 256
-    private static final int PATCH_BANK2_START = 66560;
+    private static final int  PATCH_BANK2_START = 66560;
 
     // Tone area
-    private static final int TONE_OFFSET       = 69120;
-    private static final int TONE_SIZE         = 128;
-    private static final int TONE_COUNT        = 32;
-    private static final int TONE_LIST_OFFSET  = 0x11E00;
-    private static final int TONE_LIST_SIZE    = 16;
+    private static final int  TONE_OFFSET       = 69120;
+    private static final int  TONE_SIZE         = 128;
+    private static final int  TONE_COUNT        = 32;
+    private static final int  TONE_LIST_OFFSET  = 0x11E00;
+    private static final int  TONE_LIST_SIZE    = 16;
 
     // Wave Data area
-    private static final int WAVE_DATA_A       = 0x12000;
-    private static final int WAVE_DATA_SIZE    = 0xA2000;
+    private static final int  WAVE_DATA_A       = 0x12000;
+    private static final int  WAVE_DATA_SIZE    = 0xA2000;
 
     // Disk label
     // Derivation: base = 68552 + loop counter 99 = 68651; row 1 = 68651 + 8 = 68659
-    private static final int LABEL_ROW1_OFFSET = 68659;
-    private static final int LABEL_ROW_LEN     = 12;
-    private static final int LABEL_ROW_COUNT   = 5;
+    private static final int  LABEL_ROW1_OFFSET = 68659;
+    private static final int  LABEL_ROW_LEN     = 12;
+    private static final int  LABEL_ROW_COUNT   = 5;
     // Rows 2-5 start right after row 1 (68671), stored in 12 groups of 4 interleaved bytes.
     // 68671
-    private static final int LABEL_ROWS25_OFF  = LABEL_ROW1_OFFSET + LABEL_ROW_LEN;
+    private static final int  LABEL_ROWS25_OFF  = LABEL_ROW1_OFFSET + LABEL_ROW_LEN;
 
-    private final byte []    data;
+    private final BlockDevice device;
 
 
     /**
-     * Construct by reading all bytes from {@code file}.
+     * Construct by memory-mapping the {@code file}. Only the ranges which are parsed are read,
+     * e.g. a hard-disk image is rejected after reading its' header.
      *
      * @param file The disk file to read
      * @throws IOException Could not read the file
      */
     public S5xxDiskImageParser (final File file) throws IOException
     {
-        this.data = Files.readAllBytes (file.toPath ());
+        this.device = new BlockDevice (file);
     }
 
 
@@ -93,7 +95,7 @@ public class S5xxDiskImageParser
     {
         this.requireMinSize (HDR_MIN_SIZE, "header region");
 
-        final InputStream input = new ByteArrayInputStream (this.data);
+        final InputStream input = this.openRange (0, HDR_MIN_SIZE);
 
         final S5xxDiskImageHeader header = new S5xxDiskImageHeader (input);
         final S5xxSamplerType samplerType = header.getSamplerType ();
@@ -110,7 +112,7 @@ public class S5xxDiskImageParser
 
     private List<S5xxWaveData> readWaveData () throws IOException
     {
-        final InputStream input = new ByteArrayInputStream (this.data, WAVE_DATA_A, WAVE_DATA_SIZE);
+        final InputStream input = this.openRange (WAVE_DATA_A, WAVE_DATA_SIZE);
         final List<S5xxWaveData> result = new ArrayList<> ();
         for (int i = 0; i < 36; i++)
             result.add (new S5xxWaveData (input));
@@ -141,12 +143,12 @@ public class S5xxDiskImageParser
         for (int i = 0; i < count; i++)
         {
             final int off = bankStart + i * blockSize;
-            if (off + blockSize > this.data.length)
+            if (off + blockSize > this.device.getLength ())
                 break;
 
             final int gi = globalIndexOffset + i;
             final String patchId = buildPatchId (gi, type == S5xxSamplerType.S330);
-            final InputStream input = new ByteArrayInputStream (this.data, off, blockSize);
+            final InputStream input = this.openRange (off, blockSize);
             out.add (new S5xxPatch (gi, patchId, input, type));
         }
     }
@@ -181,8 +183,8 @@ public class S5xxDiskImageParser
 
         for (int i = 0; i < TONE_COUNT; i++)
         {
-            final InputStream toneListInput = new ByteArrayInputStream (this.data, TONE_LIST_OFFSET + i * TONE_LIST_SIZE, TONE_LIST_SIZE);
-            final InputStream toneInput = new ByteArrayInputStream (this.data, TONE_OFFSET + i * TONE_SIZE, TONE_SIZE);
+            final InputStream toneListInput = this.openRange (TONE_LIST_OFFSET + i * TONE_LIST_SIZE, TONE_LIST_SIZE);
+            final InputStream toneInput = this.openRange (TONE_OFFSET + i * TONE_SIZE, TONE_SIZE);
             tones.add (new S5xxTone (new S5xxToneList (toneListInput), toneInput));
         }
         return tones;
@@ -200,9 +202,9 @@ public class S5xxDiskImageParser
         for (int slot = 0; slot < maxSlots; slot++)
         {
             final int off = baseOffset + slot * LAND_STRIDE;
-            if (off < this.data.length)
+            if (off < this.device.getLength ())
             {
-                final int available = Math.min (LAND_NAME_CHARS, this.data.length - off);
+                final int available = (int) Math.min (LAND_NAME_CHARS, this.device.getLength () - off);
                 final String name = this.readAsciiPrintable (off, available);
 
                 // CD-ROM: the tool stops at the first all-blank slot
@@ -218,7 +220,7 @@ public class S5xxDiskImageParser
     {
         // Last byte needed is index 68718 = LABEL_ROWS25_OFF + 12 groups × 4 bytes − 1
         final int endNeeded = LABEL_ROWS25_OFF + LABEL_ROW_LEN * 4; // 68719
-        if (this.data.length < endNeeded)
+        if (this.device.getLength () < endNeeded)
             return Optional.empty ();
 
         final String [] rows = new String [LABEL_ROW_COUNT];
@@ -232,10 +234,10 @@ public class S5xxDiskImageParser
         for (int n = 0; n < LABEL_ROW_LEN; n++)
         {
             final int g = LABEL_ROWS25_OFF + n * 4;
-            chars[0][n] = (char) (this.data[g] & 0xFF);
-            chars[1][n] = (char) (this.data[g + 1] & 0xFF);
-            chars[2][n] = (char) (this.data[g + 2] & 0xFF);
-            chars[3][n] = (char) (this.data[g + 3] & 0xFF);
+            chars[0][n] = (char) (this.device.getByte (g) & 0xFF);
+            chars[1][n] = (char) (this.device.getByte (g + 1) & 0xFF);
+            chars[2][n] = (char) (this.device.getByte (g + 2) & 0xFF);
+            chars[3][n] = (char) (this.device.getByte (g + 3) & 0xFF);
         }
         for (int r = 0; r < 4; r++)
             rows[r + 1] = new String (chars[r]);
@@ -246,22 +248,34 @@ public class S5xxDiskImageParser
 
     private void requireMinSize (final int minSize, final String context) throws IOException
     {
-        if (this.data.length < minSize)
-            throw new IOException ("Data too short for " + context + ": need " + minSize + " bytes, got " + this.data.length);
+        if (this.device.getLength () < minSize)
+            throw new IOException ("Data too short for " + context + ": need " + minSize + " bytes, got " + this.device.getLength ());
+    }
+
+
+    /**
+     * Get a stream on a range of the image. The range is clipped to the available data.
+     *
+     * @param offset The offset in the image where the range starts
+     * @param size The number of bytes of the range
+     * @return The stream
+     */
+    private InputStream openRange (final long offset, final int size)
+    {
+        return new ByteBufferInputStream (this.device.getBuffer (offset, size));
     }
 
 
     /**
      * Reads {@code length} raw bytes at {@code offset} as US-ASCII.
      *
-     * @param offset The offset in the data array where the string starts
+     * @param offset The offset in the image where the string starts
      * @param length The length of the string
      * @return The ASCII text
      */
     private String readAscii (final int offset, final int length)
     {
-        final int safeLen = Math.clamp (this.data.length - (long) offset, 0, length);
-        return new String (this.data, offset, safeLen, StandardCharsets.US_ASCII);
+        return StandardCharsets.US_ASCII.decode (this.device.getBuffer (offset, length)).toString ();
     }
 
 
@@ -269,16 +283,16 @@ public class S5xxDiskImageParser
      * Reads up to {@code maxLength} <em>printable</em> ASCII bytes (0x20–0x7E), stopping early at
      * the first non-printable byte.
      *
-     * @param offset The offset in the data array where the string starts
+     * @param offset The offset in the image where the string starts
      * @param maxLength The maximum length
      * @return The ASCII text
      */
     private String readAsciiPrintable (final int offset, final int maxLength)
     {
         final StringBuilder sb = new StringBuilder (maxLength);
-        for (int i = 0; i < maxLength && offset + i < this.data.length; i++)
+        for (int i = 0; i < maxLength && offset + i < this.device.getLength (); i++)
         {
-            final char c = (char) (this.data[offset + i] & 0xFF);
+            final char c = (char) (this.device.getByte (offset + i) & 0xFF);
             if (c < 0x20 || c > 0x7E)
                 break;
             sb.append (c);
@@ -4,11 +4,8 @@
 
 package de.mossgrabers.convertwithmoss.format.roland.s7xx;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -37,6 +34,8 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleLoo
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultSampleZone;
 import de.mossgrabers.convertwithmoss.core.model.implementation.InMemorySampleData;
 import de.mossgrabers.convertwithmoss.core.settings.MetadataSettingsUI;
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
+import de.mossgrabers.convertwithmoss.file.ByteBufferInputStream;
 import de.mossgrabers.convertwithmoss.format.roland.s7xx.S770Partial.SampleSection;
 import de.mossgrabers.convertwithmoss.format.roland.s7xx.S770Partial.TvaSection;
 import de.mossgrabers.convertwithmoss.format.roland.s7xx.S770Partial.TvfSection;
@@ -100,25 +99,23 @@ public class S770Detector extends AbstractDetector<MetadataSettingsUI>
 
         try
         {
-            try (final InputStream input = new BufferedInputStream (new FileInputStream (sourceFile)))
-            {
-                final S770Header header = new S770Header (input);
-                final boolean isDiskette = header.getDiskFormat () == S770DiskFormat.DISKETTE;
-                this.notifier.log ("IDS_S7XX_VERSION", header.getS70Str (), header.getVersionStr (), header.getDiskName (), isDiskette ? "diskette" : "CD-ROM/HD");
-
-                final IS770Image image;
-                if (isDiskette)
-                {
-                    final Optional<S770Diskette> diskette = this.loadDiskette (input, header, sourceFile.getParentFile ());
-                    if (diskette.isEmpty ())
-                        return Collections.emptyList ();
-                    image = diskette.get ();
-                }
-                else
-                    image = new S770Hd (input, header);
+            final BlockDevice device = new BlockDevice (sourceFile);
+            final S770Header header = new S770Header (new ByteBufferInputStream (device.getBuffer (0, S770Header.SIZE)), device.getLength ());
+            final boolean isDiskette = header.getDiskFormat () == S770DiskFormat.DISKETTE;
+            this.notifier.log ("IDS_S7XX_VERSION", header.getS70Str (), header.getVersionStr (), header.getDiskName (), isDiskette ? "diskette" : "CD-ROM/HD");
 
-                return this.readPatches (sourceFile, image);
+            final IS770Image image;
+            if (isDiskette)
+            {
+                final Optional<S770Diskette> diskette = this.loadDiskette (device, header, sourceFile.getParentFile ());
+                if (diskette.isEmpty ())
+                    return Collections.emptyList ();
+                image = diskette.get ();
             }
+            else
+                image = new S770Hd (device, header);
+
+            return this.readPatches (sourceFile, image);
         }
         catch (final IOException ex)
         {
@@ -128,7 +125,7 @@ public class S770Detector extends AbstractDetector<MetadataSettingsUI>
     }
 
 
-    private Optional<S770Diskette> loadDiskette (final InputStream input, final S770Header header, final File parentPath) throws IOException
+    private Optional<S770Diskette> loadDiskette (final BlockDevice device, final S770Header header, final File parentPath) throws IOException
     {
         final int indexDiskette = header.getIndexDiskette ();
         final int numDiskettes = header.getNumDiskettes ();
@@ -139,10 +136,10 @@ public class S770Detector extends AbstractDetector<MetadataSettingsUI>
         }
 
         final String diskName = header.getDiskName ();
-        final List<byte []> continuationData = new ArrayList<> ();
+        final List<BlockDevice> continuationData = new ArrayList<> ();
         for (int i = 1; i <= numDiskettes; i++)
         {
-            final Optional<byte []> continuationDisk = S770Diskette.findContinuationDisk (diskName, i, numDiskettes, parentPath);
+            final Optional<BlockDevice> continuationDisk = S770Diskette.findContinuationDisk (diskName, i, numDiskettes, parentPath);
             if (continuationDisk.isEmpty ())
             {
                 this.notifier.logError ("IDS_S7XX_CONTINUATION_DISK_NOT_FOUND", Integer.toString (i + 1), Integer.toString (numDiskettes + 1));
@@ -152,7 +149,7 @@ public class S770Detector extends AbstractDetector<MetadataSettingsUI>
             continuationData.add (continuationDisk.get ());
         }
 
-        return Optional.of (new S770Diskette (input, header, continuationData));
+        return Optional.of (new S770Diskette (device, header, continuationData));
     }
 
 
@@ -12,6 +12,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
+import de.mossgrabers.convertwithmoss.file.ByteBufferInputStream;
 import de.mossgrabers.convertwithmoss.file.StreamUtils;
 import de.mossgrabers.tools.ui.Functions;
 
@@ -23,7 +25,8 @@ import de.mossgrabers.tools.ui.Functions;
  */
 public class S770Diskette implements IS770Image
 {
-    private static final int                SAMPLE_BLOCK_SIZE = 0x2400;
+    private static final int                SAMPLE_BLOCK_SIZE  = 0x2400;
+    private static final int                SAMPLE_AREA_OFFSET = 0x1F800;
 
     private final S770Header                header;
     private final S770DisketteDirectoryArea directoryArea;
@@ -33,26 +36,28 @@ public class S770Diskette implements IS770Image
     private List<S770Partial>               partials;
     private List<S770Sample>                samples;
 
-    private final List<byte []>             continuationData;
-
-
     /**
-     * Parses a Roland S-770 diskette image from an already-open {@link InputStream}. The stream
-     * must be positioned after the header area (0x200).
+     * Parses a Roland S-770 diskette image. Only the directory and parameter areas are read, the
+     * samples reference their range of the sample area.
      *
-     * @param in Stream positioned at 0x200
+     * @param image The diskette image
      * @param header The already read header
-     * @param continuationData If the disk content is split over several disks, this array contains
-     *            the additional sample data from the continuation disks
-     * @throws IOException if the stream cannot be read
+     * @param continuationData If the disk content is split over several disks, this list contains
+     *            the sample areas of the continuation disks
+     * @throws IOException if the image cannot be read
      */
-    public S770Diskette (final InputStream in, final S770Header header, final List<byte []> continuationData) throws IOException
+    public S770Diskette (final BlockDevice image, final S770Header header, final List<BlockDevice> continuationData) throws IOException
     {
         this.header = header;
-        this.continuationData = continuationData;
-        this.directoryArea = this.readDirectoryArea (in);
 
+        final InputStream in = new ByteBufferInputStream (image.getBuffer (S770Header.SIZE, SAMPLE_AREA_OFFSET - S770Header.SIZE));
+        this.directoryArea = this.readDirectoryArea (in);
         this.readParameterArea (in);
+
+        final List<BlockDevice> sampleAreas = new ArrayList<> ();
+        sampleAreas.add (image.getRange (SAMPLE_AREA_OFFSET, image.getLength () - SAMPLE_AREA_OFFSET));
+        sampleAreas.addAll (continuationData);
+        this.loadWaveData (sampleAreas);
     }
 
 
@@ -72,9 +77,9 @@ public class S770Diskette implements IS770Image
      * @param index The index of the continuation disk
      * @param numContinuationDiskettes The overall number of continuation disks
      * @param parentPath The path in which to look for the disk file
-     * @return The data of the file if found otherwise null
+     * @return The sample area of the disk if found
      */
-    public static Optional<byte []> findContinuationDisk (final String diskName, final int index, final int numContinuationDiskettes, final File parentPath)
+    public static Optional<BlockDevice> findContinuationDisk (final String diskName, final int index, final int numContinuationDiskettes, final File parentPath)
     {
         // Search the continuation file in the same folder as the 1st file
         for (final File childFile: parentPath.listFiles ())
@@ -85,7 +90,7 @@ public class S770Diskette implements IS770Image
             try (final RandomAccessFile raf = new RandomAccessFile (childFile, "r"))
             {
                 // Must be longer than the start of the sample area
-                if (raf.length () < 0x1F800)
+                if (raf.length () < SAMPLE_AREA_OFFSET)
                     continue;
 
                 raf.seek (4);
@@ -101,11 +106,8 @@ public class S770Diskette implements IS770Image
                     final String name = StreamUtils.readAscii (raf, 16);
                     if (diskName.equals (name))
                     {
-                        raf.seek (0x1F800);
-                        final long sampleLength = raf.length () - raf.getFilePointer ();
-                        final byte [] sampleData = new byte [(int) sampleLength];
-                        raf.readFully (sampleData);
-                        return Optional.of (sampleData);
+                        final BlockDevice image = new BlockDevice (childFile);
+                        return Optional.of (image.getRange (SAMPLE_AREA_OFFSET, image.getLength () - SAMPLE_AREA_OFFSET));
                     }
                 }
             }
@@ -167,51 +169,31 @@ public class S770Diskette implements IS770Image
         input.skipNBytes ((256 - numPartials) * 128L);
 
         // Sample entries
-        int read = 0;
         this.samples = new ArrayList<> (numSamples);
         for (int i = 0; i < numSamples; i++)
         {
             this.samples.add (new S770Sample (input));
-            read += 48;
             // Each 10th sample seem to have additional 32 bytes appended
             if ((i + 1) % 10 == 0)
-            {
                 input.skipNBytes (32);
-                read += 32;
-            }
         }
-
-        // Samples start at 0x1F800
-        input.skipNBytes (0x6A00 - (long) read);
-
-        this.loadWaveData (input);
     }
 
 
-    private void loadWaveData (final InputStream input) throws IOException
+    /**
+     * Assigns the wave data to the samples. The sample areas of all diskettes are concatenated.
+     *
+     * @param sampleAreas The sample areas of the first and the continuation diskettes
+     * @throws IOException The data of a sample is not available
+     */
+    private void loadWaveData (final List<BlockDevice> sampleAreas) throws IOException
     {
-        byte [] fullSampleData = input.readAllBytes ();
-
         // 720KB = 66 blocks, 1.44MB = 146 blocks
-        final int numBlocks = fullSampleData.length / SAMPLE_BLOCK_SIZE;
+        final long numBlocks = sampleAreas.get (0).getLength () / SAMPLE_BLOCK_SIZE;
 
-        // Load all samples
-        if (!this.continuationData.isEmpty ())
-        {
-            final List<byte []> allParts = new ArrayList<> ();
-            allParts.add (fullSampleData);
-            allParts.addAll (this.continuationData);
-            int fullLength = 0;
-            for (final byte [] part: allParts)
-                fullLength += part.length;
-            fullSampleData = new byte [fullLength];
-            int pos = 0;
-            for (final byte [] part: allParts)
-            {
-                System.arraycopy (part, 0, fullSampleData, pos, part.length);
-                pos += part.length;
-            }
-        }
+        long fullLength = 0;
+        for (final BlockDevice sampleArea: sampleAreas)
+            fullLength += sampleArea.getLength ();
 
         for (final S770Sample sample: this.samples)
         {
@@ -219,19 +201,46 @@ public class S770Diskette implements IS770Image
             // Sample data split among several diskettes use 256 virtual blocks. But 720KB diskettes
             // contain 66 and 1.44MB diskettes contain 148 physical blocks. The following line
             // removes the empty gaps...
-            final int physicalStartBlock = startBlock / 256 * numBlocks + startBlock % 256;
-            final int sampleStart = physicalStartBlock * SAMPLE_BLOCK_SIZE;
-            if (sampleStart > fullSampleData.length)
-                throw new IOException (Functions.getMessage ("IDS_S7XX_SAMPLE_DATA_MISSING"));
-
+            final long physicalStartBlock = startBlock / 256 * numBlocks + startBlock % 256;
+            final long sampleStart = physicalStartBlock * SAMPLE_BLOCK_SIZE;
             final int sampleLength = sample.getSegmentLength () * SAMPLE_BLOCK_SIZE;
-            if (sampleStart + sampleLength > fullSampleData.length)
+            if (sampleStart + sampleLength > fullLength)
                 throw new IOException (Functions.getMessage ("IDS_S7XX_SAMPLE_DATA_MISSING"));
 
-            final byte [] sampleData = new byte [sampleLength];
-            System.arraycopy (fullSampleData, sampleStart, sampleData, 0, sampleLength);
-            sample.setWaveData (sampleData);
+            sample.setWaveData (getRange (sampleAreas, sampleStart, sampleLength));
+        }
+    }
+
+
+    /**
+     * Get a range of the concatenated sample areas. Only a range which crosses the border of 2
+     * diskettes is copied.
+     *
+     * @param sampleAreas The sample areas of all diskettes
+     * @param position The position of the range in the concatenated sample areas
+     * @param size The number of bytes of the range
+     * @return The range
+     */
+    private static BlockDevice getRange (final List<BlockDevice> sampleAreas, final long position, final int size)
+    {
+        final byte [] data = new byte [size];
+        long areaStart = 0;
+        int copied = 0;
+        for (final BlockDevice sampleArea: sampleAreas)
+        {
+            final long areaLength = sampleArea.getLength ();
+            final long offset = position + copied - areaStart;
+            if (offset < areaLength)
+            {
+                if (copied == 0 && offset + size <= areaLength)
+                    return sampleArea.getRange (offset, size);
+                copied += sampleArea.read (offset, data, copied, size - copied);
+                if (copied == size)
+                    break;
+            }
+            areaStart += areaLength;
         }
+        return new BlockDevice (data);
     }
 
 
@@ -9,6 +9,8 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
+import de.mossgrabers.convertwithmoss.file.ByteBufferInputStream;
 import de.mossgrabers.tools.ui.Functions;
 
 
@@ -23,6 +25,7 @@ import de.mossgrabers.tools.ui.Functions;
  *   0x080800    0x020000    FAT Area       (128 KB – skipped)
  *   0x0A0800    0x06D000    Directory Area
  *   0x10D800    0x1A8000    Parameter Area
+ *   0x3B6000                Wave Data
  * </pre>
  *
  * @author Jürgen Moßgraber
@@ -34,6 +37,7 @@ public class S770Hd implements IS770Image
     private static final long           SIZE_RESERVED           = 0x600L;
     private static final long           SIZE_PROGRAM_TEXT       = 0x80000L;
     private static final long           SIZE_FAT                = 0x20000L;
+    private static final long           WAVE_DATA_OFFSET        = 0x3B6000L;
 
     /** Number of volume entries on a Roland S-770 disk. */
     public static final int             NUM_VOLUME_ENTRIES      = 128;
@@ -59,20 +63,22 @@ public class S770Hd implements IS770Image
 
 
     /**
-     * Parses a Roland S-770 CD-ROM / HD image from an already-open {@link InputStream}. The stream
-     * must be positioned at byte 0 (start of the disk image). The caller is responsible for closing
-     * the stream.
+     * Parses a Roland S-770 CD-ROM / HD image. Only the directory and parameter areas are read, the
+     * samples reference their' range of the wave data area.
      *
-     * @param in Stream positioned at the beginning of the disk image
+     * @param image The disk image
      * @param header The already read header of the disk
-     * @throws IOException if the stream cannot be read or is not a CD-ROM/HD format image
+     * @throws IOException if the image cannot be read or is not a CD-ROM/HD format image
      */
-    public S770Hd (final InputStream in, final S770Header header) throws IOException
+    public S770Hd (final BlockDevice image, final S770Header header) throws IOException
     {
         this.header = header;
-        this.directoryArea = parseDirectoryArea (in);
 
+        final InputStream in = new ByteBufferInputStream (image.getBuffer (S770Header.SIZE, (int) (WAVE_DATA_OFFSET - S770Header.SIZE)));
+        this.directoryArea = parseDirectoryArea (in);
         this.readParameterArea (in);
+
+        this.loadWaveData (image.getRange (WAVE_DATA_OFFSET, image.getLength () - WAVE_DATA_OFFSET));
     }
 
 
@@ -153,33 +159,22 @@ public class S770Hd implements IS770Image
             if (i < numSamples)
                 this.samples.add (sample);
         }
-
-        // Wave data starts at 0x3B6000, currently we are at 0x2B5800
-        input.skipNBytes (0x100800);
-        this.loadWaveData (input);
     }
 
 
-    private void loadWaveData (final InputStream input) throws IOException
+    private void loadWaveData (final BlockDevice waveData) throws IOException
     {
-        final byte [] fullSampleData = input.readAllBytes ();
-
-        int sampleStart = 0;
+        long sampleStart = 0;
 
         for (final S770Sample sample: this.samples)
         {
             // Segment top is always 0, therefore only read by length
 
-            if (sampleStart > fullSampleData.length)
-                throw new IOException (Functions.getMessage ("IDS_S7XX_SAMPLE_DATA_MISSING"));
-
             final int sampleLength = sample.getSegmentLength () * SAMPLE_BLOCK_SIZE;
-            if (sampleStart + sampleLength > fullSampleData.length)
+            if (sampleStart + sampleLength > waveData.getLength ())
                 throw new IOException (Functions.getMessage ("IDS_S7XX_SAMPLE_DATA_MISSING"));
 
-            final byte [] sampleData = new byte [sampleLength];
-            System.arraycopy (fullSampleData, sampleStart, sampleData, 0, sampleLength);
-            sample.setWaveData (sampleData);
+            sample.setWaveData (waveData.getRange (sampleStart, sampleLength));
 
             sampleStart += sampleLength;
         }
@@ -17,6 +17,9 @@ import de.mossgrabers.convertwithmoss.file.StreamUtils;
  */
 public class S770Header
 {
+    /** The size of the ID area. */
+    public static final int      SIZE          = 0x200;
+
     private static final int     DISKETTE_SIZE = 1474560;
 
     private final long           revision;
@@ -41,11 +44,12 @@ public class S770Header
      * CD-ROM or diskette.
      *
      * @param input Stream positioned at the very start of the S-770 image
+     * @param imageSize The size of the whole image in bytes
      * @throws IOException on read error or unexpected EOF
      */
-    public S770Header (final InputStream input) throws IOException
+    public S770Header (final InputStream input, final long imageSize) throws IOException
     {
-        this.diskFormat = input.available () > DISKETTE_SIZE ? S770DiskFormat.CD_ROM : S770DiskFormat.DISKETTE;
+        this.diskFormat = imageSize > DISKETTE_SIZE ? S770DiskFormat.CD_ROM : S770DiskFormat.DISKETTE;
 
         // Common header (bytes 0x00–0x5F, 96 bytes total)
         this.revision = StreamUtils.readUnsigned32 (input, false);
@@ -7,6 +7,7 @@ package de.mossgrabers.convertwithmoss.format.roland.s7xx;
 import java.io.IOException;
 import java.io.InputStream;
 
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
 import de.mossgrabers.convertwithmoss.file.StreamUtils;
 
 
@@ -31,7 +32,7 @@ public class S770Sample
     private final int             segmentLength;
     private final int             sampleFrequency;
     private final int             originalKey;
-    private byte []               sampleData;
+    private BlockDevice           sampleData;
 
 
     /**
@@ -217,22 +218,22 @@ public class S770Sample
     /**
      * Set the wave data samples.
      *
-     * @param sampleData The data
+     * @param sampleData The range of the image which contains the data
      */
-    public void setWaveData (final byte [] sampleData)
+    public void setWaveData (final BlockDevice sampleData)
     {
         this.sampleData = sampleData;
     }
 
 
     /**
-     * Get the wave data samples.
+     * Get the wave data samples. The data is read from the image on each call.
      *
      * @return The data
      */
     public byte [] getWaveData ()
     {
-        return this.sampleData;
+        return this.sampleData.readBytes (0, (int) this.sampleData.getLength ());
     }
 
 
@@ -4,15 +4,14 @@
 
 package de.mossgrabers.convertwithmoss.format.roland.s7xx.loader;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
+import de.mossgrabers.convertwithmoss.file.ByteBufferInputStream;
 import de.mossgrabers.convertwithmoss.format.roland.s7xx.S770DirectoryEntry;
 import de.mossgrabers.convertwithmoss.format.roland.s7xx.S770DiskFormat;
 import de.mossgrabers.convertwithmoss.format.roland.s7xx.S770Diskette;
@@ -72,29 +71,27 @@ public class S770Loader
         System.out.printf ("Size : %,d bytes%n", Long.valueOf (imageFile.length ()));
         System.out.println ("=================================================");
 
-        try (final InputStream input = new BufferedInputStream (new FileInputStream (imageFile)))
-        {
-            final S770Header header = new S770Header (input);
-            final S770DiskFormat format = header.getDiskFormat ();
-            System.out.println ("Detected format : " + format);
-            System.out.println ();
+        final BlockDevice device = new BlockDevice (imageFile);
+        final S770Header header = new S770Header (new ByteBufferInputStream (device.getBuffer (0, S770Header.SIZE)), device.getLength ());
+        final S770DiskFormat format = header.getDiskFormat ();
+        System.out.println ("Detected format : " + format);
+        System.out.println ();
 
-            switch (format)
-            {
-                case CD_ROM -> loadCdRom (input, header);
-                case DISKETTE -> loadDiskette (input, header, imageFile.getParentFile ());
-                default -> throw new IOException ("Unknown S-770 disk format: " + format);
-            }
+        switch (format)
+        {
+            case CD_ROM -> loadCdRom (device, header);
+            case DISKETTE -> loadDiskette (device, header, imageFile.getParentFile ());
+            default -> throw new IOException ("Unknown S-770 disk format: " + format);
         }
     }
 
 
-    private static void loadCdRom (final InputStream in, final S770Header header) throws IOException
+    private static void loadCdRom (final BlockDevice device, final S770Header header) throws IOException
     {
         System.out.println ("--- Parsing as CD-ROM / Hard-Disk image ---");
         System.out.println ();
 
-        final S770Hd disk = new S770Hd (in, header);
+        final S770Hd disk = new S770Hd (device, header);
         System.out.println (header);
         System.out.println ();
 
@@ -128,7 +125,7 @@ public class S770Loader
     }
 
 
-    private static void loadDiskette (final InputStream in, final S770Header header, final File parentPath) throws IOException
+    private static void loadDiskette (final BlockDevice device, final S770Header header, final File parentPath) throws IOException
     {
         System.out.println ("--- Parsing as 3.5\" HD Floppy-Diskette image ---");
         System.out.println ();
@@ -142,10 +139,10 @@ public class S770Loader
         }
 
         final String diskName = header.getDiskName ();
-        final List<byte []> continuationData = new ArrayList<> ();
+        final List<BlockDevice> continuationData = new ArrayList<> ();
         for (int i = 1; i <= numDiskettes; i++)
         {
-            final Optional<byte []> continuationDisk = S770Diskette.findContinuationDisk (diskName, i, numDiskettes, parentPath);
+            final Optional<BlockDevice> continuationDisk = S770Diskette.findContinuationDisk (diskName, i, numDiskettes, parentPath);
             if (continuationDisk.isEmpty ())
             {
                 System.out.println ("Could not find continuation disk " + (i + 1) + " of " + (numDiskettes + 1) + ". Cancelled.");
@@ -155,7 +152,7 @@ public class S770Loader
             continuationData.add (continuationDisk.get ());
         }
 
-        final S770Diskette disk = new S770Diskette (in, header, continuationData);
+        final S770Diskette disk = new S770Diskette (device, header, continuationData);
         System.out.println (header);
         System.out.println ();
 
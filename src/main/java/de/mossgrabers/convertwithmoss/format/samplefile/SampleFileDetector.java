@@ -12,7 +12,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import de.mossgrabers.convertwithmoss.core.BufferedNotifier;
 import de.mossgrabers.convertwithmoss.core.IMultisampleSource;
 import de.mossgrabers.convertwithmoss.core.INotifier;
 import de.mossgrabers.convertwithmoss.core.detector.AbstractDetector;
@@ -39,6 +44,9 @@ import de.mossgrabers.tools.FileUtils;
  */
 public class SampleFileDetector extends AbstractDetector<SampleFileDetectorUI>
 {
+    private static final int MAX_ANALYZE_THREADS = 16;
+
+
     /**
      * Constructor.
      *
@@ -82,6 +90,7 @@ public class SampleFileDetector extends AbstractDetector<SampleFileDetectorUI>
     {
         final List<IMultisampleSource> sources = new ArrayList<> ();
         final ProgressLogger progress = new ProgressLogger (this.notifier);
+        boolean isAccepted = false;
         for (final SampleFileType sampleFileType: this.settingsConfiguration.getSampleFileTypes ())
         {
             this.fileEndings = sampleFileType.getFileEndings ();
@@ -90,34 +99,109 @@ public class SampleFileDetector extends AbstractDetector<SampleFileDetectorUI>
             if (files.length == 0)
                 continue;
 
+            // All samples of the folder are combined, therefore the folder is the source
+            if (!isAccepted)
+            {
+                if (!this.isSourceAccepted (folderWithSamples))
+                    return Collections.emptyList ();
+                isAccepted = true;
+            }
+
             this.notifier.log ("IDS_NOTIFY_FOUND_RAW_FILES", Integer.toString (files.length), sampleFileType.getName ());
 
             // Analyze all files
-            final List<IFileBasedSampleData> sampleData = new ArrayList<> (files.length);
+            final Optional<List<IFileBasedSampleData>> sampleData = this.analyzeFiles (folderWithSamples, files, progress);
+            if (sampleData.isEmpty ())
+                return Collections.emptyList ();
+
+            progress.notifyNewline ();
+
+            sources.addAll (this.createMultisample (sampleFileType, folderWithSamples, sampleData.get ()));
+        }
+
+        return sources;
+    }
+
+
+    /**
+     * Analyzes the sample files. Since this is mostly waiting for the file system, the files are
+     * analyzed in parallel. The results and the log output are processed in the order of the files
+     * and processing stops at the first file which cannot be read, like if the files were
+     * processed one after the other.
+     *
+     * @param folderWithSamples The folder which contains the sample files
+     * @param files The sample files
+     * @param progress Where to report the progress
+     * @return The sample data of all files in the order of the files or empty if a file could not
+     *         be read or the task was cancelled
+     */
+    private Optional<List<IFileBasedSampleData>> analyzeFiles (final File folderWithSamples, final File [] files, final ProgressLogger progress)
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool (Math.min (files.length, MAX_ANALYZE_THREADS));
+        try
+        {
+            final List<Future<AnalyzeResult>> results = new ArrayList<> (files.length);
             for (final File file: files)
+                results.add (executor.submit (() -> this.analyzeFile (file)));
+
+            final List<IFileBasedSampleData> sampleData = new ArrayList<> (files.length);
+            for (int i = 0; i < files.length; i++)
             {
                 // Check for task cancellation
                 if (this.isCancelled ())
-                    return Collections.emptyList ();
+                    return Optional.empty ();
 
-                try
+                final AnalyzeResult result = results.get (i).get ();
+                result.notifier.replay (this.notifier);
+                if (result.exception instanceof final IOException ex)
                 {
-                    sampleData.add (createSampleData (file, this.notifier));
-                    progress.notifyProgress ();
-                }
-                catch (final IOException ex)
-                {
-                    this.notifier.logError ("IDS_NOTIFY_SKIPPED", folderWithSamples.getAbsolutePath (), file.getAbsolutePath (), ex.getMessage ());
-                    return Collections.emptyList ();
+                    this.notifier.logError ("IDS_NOTIFY_SKIPPED", folderWithSamples.getAbsolutePath (), files[i].getAbsolutePath (), ex.getMessage ());
+                    return Optional.empty ();
                 }
+                if (result.exception instanceof final RuntimeException ex)
+                    throw ex;
+                // The task was cancelled after the check above but before the file was analyzed
+                if (result.sampleData == null)
+                    return Optional.empty ();
+
+                sampleData.add (result.sampleData);
+                progress.notifyProgress ();
             }
+            return Optional.of (sampleData);
+        }
+        catch (final InterruptedException _)
+        {
+            Thread.currentThread ().interrupt ();
+            return Optional.empty ();
+        }
+        catch (final ExecutionException ex)
+        {
+            // Only errors are not caught by the task
+            if (ex.getCause () instanceof final Error error)
+                throw error;
+            throw new IllegalStateException (ex.getCause ());
+        }
+        finally
+        {
+            // Files which are not yet analyzed are not needed anymore
+            executor.shutdownNow ();
+        }
+    }
 
-            progress.notifyNewline ();
 
-            sources.addAll (this.createMultisample (sampleFileType, folderWithSamples, sampleData));
+    private AnalyzeResult analyzeFile (final File file)
+    {
+        final BufferedNotifier fileNotifier = new BufferedNotifier (this.notifier);
+        if (this.isCancelled ())
+            return new AnalyzeResult (fileNotifier, null, null);
+        try
+        {
+            return new AnalyzeResult (fileNotifier, createSampleData (file, fileNotifier), null);
+        }
+        catch (final IOException | RuntimeException ex)
+        {
+            return new AnalyzeResult (fileNotifier, null, ex);
         }
-
-        return sources;
     }
 
 
@@ -241,4 +325,10 @@ public class SampleFileDetector extends AbstractDetector<SampleFileDetectorUI>
         subpaths.remove (1);
         return subpaths.toArray (new String [subpaths.size ()]);
     }
+
+
+    private record AnalyzeResult (BufferedNotifier notifier, IFileBasedSampleData sampleData, Exception exception)
+    {
+        // Intentionally empty
+    }
 }
@@ -6,6 +6,8 @@ package de.mossgrabers.convertwithmoss.format.sf2;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -553,11 +555,11 @@ public class Sf2Detector extends AbstractDetector<Sf2DetectorUI>
      */
     private static boolean isSilence (final Sf2SampleDescriptor sample)
     {
-        final byte [] data = sample.getSampleData ();
-        final int end = (int) Math.min (sample.getEnd (), data.length / 2);
-        for (int i = (int) sample.getStart (); i < end; i++)
+        final ByteBuffer data = sample.getSampleData (sample.getStart (), sample.getEnd () - sample.getStart ()).order (ByteOrder.LITTLE_ENDIAN);
+        final int end = data.limit () / 2;
+        for (int i = 0; i < end; i++)
         {
-            final short value = (short) (data[2 * i] & 0xFF | data[2 * i + 1] << 8);
+            final short value = data.getShort (2 * i);
             if (Math.abs (value) > SILENCE_THRESHOLD)
                 return false;
         }
@@ -626,9 +628,8 @@ public class Sf2Detector extends AbstractDetector<Sf2DetectorUI>
      */
     private static double detectPitch (final Sf2SampleDescriptor sample)
     {
-        final byte [] data = sample.getSampleData ();
         final long start = sample.getStart ();
-        final long end = Math.min (sample.getEnd (), data.length / 2);
+        final long end = Math.min (sample.getEnd (), sample.getSampleData ().getLength () / 2);
         long from = start + (end - start) / 3;
         final long loopStart = sample.getLoopStart ();
         if (sample.getLoopEnd () - loopStart >= 32 && loopStart >= start && loopStart < end)
@@ -637,12 +638,12 @@ public class Sf2Detector extends AbstractDetector<Sf2DetectorUI>
         if (length < 512)
             return -1;
 
+        final ByteBuffer data = sample.getSampleData (from, length).order (ByteOrder.LITTLE_ENDIAN);
         final double [] frames = new double [length];
         double sum = 0;
         for (int i = 0; i < length; i++)
         {
-            final int index = (int) (2 * (from + i));
-            final short value = (short) (data[index] & 0xFF | data[index + 1] << 8);
+            final short value = data.getShort (2 * i);
             frames[i] = value;
             sum += value;
         }
@@ -6,11 +6,13 @@ package de.mossgrabers.convertwithmoss.format.sf2;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import de.mossgrabers.convertwithmoss.core.model.IAudioMetadata;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
 import de.mossgrabers.convertwithmoss.core.model.implementation.AbstractSampleData;
 import de.mossgrabers.convertwithmoss.core.model.implementation.DefaultAudioMetadata;
+import de.mossgrabers.convertwithmoss.file.sf2.Sf2SampleDataSource;
 import de.mossgrabers.convertwithmoss.file.sf2.Sf2SampleDescriptor;
 import de.mossgrabers.convertwithmoss.file.wav.DataChunk;
 import de.mossgrabers.convertwithmoss.file.wav.WaveFile;
@@ -49,11 +51,11 @@ public class Sf2SampleData extends AbstractSampleData
     private void updateFormat ()
     {
         // For 24 bit the data must be present and the length must match
-        final byte [] leftSampleData = this.sample.getSampleData ();
-        final byte [] leftSample24Data = this.sample.getSample24Data ();
-        final byte [] rightSampleData = this.rightSample.getSampleData ();
-        final byte [] rightSample24Data = this.rightSample.getSample24Data ();
-        this.is24 = leftSample24Data != null && rightSample24Data != null && leftSample24Data.length * 2 == leftSampleData.length && rightSample24Data.length * 2 == rightSampleData.length;
+        final Sf2SampleDataSource leftSampleData = this.sample.getSampleData ();
+        final Sf2SampleDataSource leftSample24Data = this.sample.getSample24Data ();
+        final Sf2SampleDataSource rightSampleData = this.rightSample.getSampleData ();
+        final Sf2SampleDataSource rightSample24Data = this.rightSample.getSample24Data ();
+        this.is24 = leftSample24Data != null && rightSample24Data != null && leftSample24Data.getLength () * 2 == leftSampleData.getLength () && rightSample24Data.getLength () * 2 == rightSampleData.getLength ();
 
         this.leftLengthInSamples = this.sample.getEnd () - this.sample.getStart ();
         this.rightLengthInSamples = this.rightSample.getEnd () - this.rightSample.getStart ();
@@ -65,11 +67,11 @@ public class Sf2SampleData extends AbstractSampleData
     @Override
     public void writeSample (final OutputStream outputStream) throws IOException
     {
-        final byte [] leftSampleData = this.sample.getSampleData ();
-        final byte [] leftSample24Data = this.sample.getSample24Data ();
-
-        final byte [] rightSampleData = this.rightSample.getSampleData ();
-        final byte [] rightSample24Data = this.rightSample.getSample24Data ();
+        // Only the ranges of the 2 samples are read from the (memory-mapped) sample data
+        final long leftStart = this.sample.getStart ();
+        final long rightStart = this.rightSample.getStart ();
+        final ByteBuffer leftSampleData = this.sample.getSampleData (leftStart, this.leftLengthInSamples);
+        final ByteBuffer rightSampleData = this.rightSample.getSampleData (rightStart, this.rightLengthInSamples);
 
         final IAudioMetadata am = this.getAudioMetadata ();
         final int bitsPerSample = am.getBitResolution ();
@@ -79,51 +81,56 @@ public class Sf2SampleData extends AbstractSampleData
         final DataChunk dataChunk = wavFile.getDataChunk ();
         final byte [] data = dataChunk.getData ();
 
-        // Fill in the data
-        final int leftStart = (int) this.sample.getStart ();
-        final int rightStart = (int) this.rightSample.getStart ();
+        // Fill in the data, the ranges are clipped to the available sample data
+        final int leftLimit = leftSampleData.limit ();
+        final int rightLimit = rightSampleData.limit ();
         if (bitsPerSample == 24)
+        {
+            final ByteBuffer leftSample24Data = this.sample.getSample24Data (leftStart, this.leftLengthInSamples);
+            final ByteBuffer rightSample24Data = this.rightSample.getSample24Data (rightStart, this.rightLengthInSamples);
+
             // Convert to stereo interleaved format
             for (int i = 0; i < this.lengthInSamples; i++)
             {
                 final int dataOffset = 6 * i;
-                final int leftOffset = 2 * (leftStart + i);
+                final int leftOffset = 2 * i;
                 // The right channel might be moved by the alignment offset, see setRightSample()
                 final int rightIndex = i + this.rightChannelOffset;
-                final int rightOffset = 2 * (rightStart + rightIndex);
+                final int rightOffset = 2 * rightIndex;
 
                 // Support for different lengths of left/right mono file
-                if (i < this.leftLengthInSamples && leftOffset < leftSampleData.length)
+                if (leftOffset < leftLimit)
                 {
-                    data[dataOffset] = leftSample24Data[leftStart + i];
-                    data[dataOffset + 1] = leftSampleData[leftOffset];
-                    data[dataOffset + 2] = leftSampleData[leftOffset + 1];
+                    data[dataOffset] = leftSample24Data.get (i);
+                    data[dataOffset + 1] = leftSampleData.get (leftOffset);
+                    data[dataOffset + 2] = leftSampleData.get (leftOffset + 1);
                 }
-                if (rightIndex >= 0 && rightIndex < this.rightLengthInSamples && rightOffset < rightSampleData.length)
+                if (rightIndex >= 0 && rightOffset < rightLimit)
                 {
-                    data[dataOffset + 3] = rightSample24Data[rightStart + rightIndex];
-                    data[dataOffset + 4] = rightSampleData[rightOffset];
-                    data[dataOffset + 5] = rightSampleData[rightOffset + 1];
+                    data[dataOffset + 3] = rightSample24Data.get (rightIndex);
+                    data[dataOffset + 4] = rightSampleData.get (rightOffset);
+                    data[dataOffset + 5] = rightSampleData.get (rightOffset + 1);
                 }
             }
+        }
         else
             for (int i = 0; i < this.lengthInSamples; i++)
             {
                 final int dataOffset = 4 * i;
-                final int leftOffset = 2 * (leftStart + i);
+                final int leftOffset = 2 * i;
                 // The right channel might be moved by the alignment offset, see setRightSample()
                 final int rightIndex = i + this.rightChannelOffset;
-                final int rightOffset = 2 * (rightStart + rightIndex);
+                final int rightOffset = 2 * rightIndex;
 
-                if (i < this.leftLengthInSamples && leftOffset < leftSampleData.length)
+                if (leftOffset < leftLimit)
                 {
-                    data[dataOffset] = leftSampleData[leftOffset];
-                    data[dataOffset + 1] = leftSampleData[leftOffset + 1];
+                    data[dataOffset] = leftSampleData.get (leftOffset);
+                    data[dataOffset + 1] = leftSampleData.get (leftOffset + 1);
                 }
-                if (rightIndex >= 0 && rightIndex < this.rightLengthInSamples && rightOffset < rightSampleData.length)
+                if (rightIndex >= 0 && rightOffset < rightLimit)
                 {
-                    data[dataOffset + 2] = rightSampleData[rightOffset];
-                    data[dataOffset + 3] = rightSampleData[rightOffset + 1];
+                    data[dataOffset + 2] = rightSampleData.get (rightOffset);
+                    data[dataOffset + 3] = rightSampleData.get (rightOffset + 1);
                 }
             }
 
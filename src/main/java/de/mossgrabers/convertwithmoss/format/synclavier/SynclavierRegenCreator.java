@@ -169,7 +169,7 @@ public class SynclavierRegenCreator extends AbstractCreator<EmptySettingsUI>
     private void writeLibrary (final File destinationFolder, final String libraryName, final List<IMultisampleSource> multisampleSources) throws IOException
     {
         final String safeLibraryName = createSafeFilename (libraryName);
-        final File libraryFolder = createUniqueFolder (destinationFolder, safeLibraryName);
+        final File libraryFolder = this.createUniqueFolder (destinationFolder, safeLibraryName);
         this.notifier.log ("IDS_NOTIFY_STORING", libraryFolder.getAbsolutePath ());
 
         final Set<String> usedSampleNames = new HashSet<> ();
@@ -759,7 +759,16 @@ public class SynclavierRegenCreator extends AbstractCreator<EmptySettingsUI>
     }
 
 
-    private static File createUniqueFolder (final File destinationFolder, final String name) throws IOException
+    /**
+     * Creates a folder with a name which does not exist yet in the destination folder. The folder
+     * is recorded as an output of the current preset since it contains all of its files.
+     *
+     * @param destinationFolder The folder in which to create the folder
+     * @param name The name of the folder, a number is added if it already exists
+     * @return The created folder
+     * @throws IOException Could not create the folder
+     */
+    private File createUniqueFolder (final File destinationFolder, final String name) throws IOException
     {
         File folder = new File (destinationFolder, name);
         int counter = 2;
@@ -768,6 +777,7 @@ public class SynclavierRegenCreator extends AbstractCreator<EmptySettingsUI>
             folder = new File (destinationFolder, name + " " + counter);
             counter++;
         }
+        this.recordOutputFile (folder);
         safeCreateDirectory (folder);
         return folder;
     }
@@ -10,7 +10,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
-import java.util.zip.ZipFile;
 
 import de.mossgrabers.convertwithmoss.core.model.IMetadata;
 import de.mossgrabers.convertwithmoss.core.model.ISampleZone;
@@ -96,7 +95,7 @@ public class SynclavierRegenSampleData extends AbstractFileSampleData
         if (this.sampleFile != null)
             return Files.readAllBytes (this.sampleFile.toPath ());
 
-        try (final ZipFile zf = new ZipFile (this.zipFile); final InputStream in = zf.getInputStream (this.getHarmonizedZipEntry (zf)))
+        try (final InputStream in = this.openZipEntry ())
         {
             return in.readAllBytes ();
         }
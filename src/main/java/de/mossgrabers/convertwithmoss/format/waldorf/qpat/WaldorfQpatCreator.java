@@ -91,6 +91,15 @@ public class WaldorfQpatCreator extends AbstractWavCreator<WaldorfQpatCreatorUI>
     }
 
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean supportsParallelCreation ()
+    {
+        // The import numbers must be assigned in the order of the source files
+        return false;
+    }
+
+
     /** {@inheritDoc} */
     @Override
     public void createPreset (final File destinationFolder, final IMultisampleSource multisampleSource) throws IOException
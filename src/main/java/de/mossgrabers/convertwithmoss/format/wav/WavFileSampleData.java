@@ -8,8 +8,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.zip.ZipFile;
 
 import de.mossgrabers.convertwithmoss.core.model.IAudioMetadata;
 import de.mossgrabers.convertwithmoss.core.model.IMetadata;
@@ -24,22 +24,30 @@ import de.mossgrabers.convertwithmoss.core.model.implementation.InMemorySampleDa
 import de.mossgrabers.convertwithmoss.exception.CombinationNotPossibleException;
 import de.mossgrabers.convertwithmoss.exception.CompressionNotSupportedException;
 import de.mossgrabers.convertwithmoss.exception.ParseException;
+import de.mossgrabers.convertwithmoss.file.BlockDevice;
 import de.mossgrabers.convertwithmoss.file.wav.BroadcastAudioExtensionChunk;
 import de.mossgrabers.convertwithmoss.file.wav.FormatChunk;
 import de.mossgrabers.convertwithmoss.file.wav.SampleChunk;
 import de.mossgrabers.convertwithmoss.file.wav.SampleChunk.SampleChunkLoop;
 import de.mossgrabers.convertwithmoss.file.wav.WaveFile;
+import de.mossgrabers.convertwithmoss.file.wav.WaveFileCache;
 import de.mossgrabers.tools.ui.Functions;
 
 
 /**
- * The data of a WAV sample file.
+ * The data of a WAV sample file. If the WAV file can be read again from its source (a file, a ZIP
+ * file or a part of a larger file), the audio data is not kept by this object but in the size
+ * limited {@link WaveFileCache} and only the other chunks are kept.
  *
  * @author Jürgen Moßgraber
  */
 public class WavFileSampleData extends AbstractFileSampleData
 {
+    /** The WAV file if it cannot be read again from its source. */
     private WaveFile waveFile         = null;
+    /** All chunks of the WAV file except the audio data. */
+    private WaveFile header           = null;
+    private int      lengthInSamples  = -1;
     private boolean  hasWavSourceFile = true;
 
 
@@ -102,6 +110,30 @@ public class WavFileSampleData extends AbstractFileSampleData
     }
 
 
+    /**
+     * Constructor for a sample which is stored in a part of a larger file, e.g. a monolith. The
+     * WAV file is read from the buffer when it is needed.
+     *
+     * @param buffer The content of the WAV file, must not be modified afterwards
+     */
+    public WavFileSampleData (final ByteBuffer buffer)
+    {
+        this (new BlockDevice (buffer));
+    }
+
+
+    /**
+     * Constructor for a sample which is stored in a range of a larger file, e.g. a sound source
+     * file. The WAV file is read from the range when it is needed.
+     *
+     * @param range The content of the WAV file, must not be modified afterwards
+     */
+    public WavFileSampleData (final BlockDevice range)
+    {
+        super (range);
+    }
+
+
     /**
      * Constructor for a sample stored in a ZIP file.
      *
@@ -120,11 +152,10 @@ public class WavFileSampleData extends AbstractFileSampleData
     public void writeSample (final OutputStream outputStream) throws IOException
     {
         // Use the original WAV file if possible
-        final WaveFile sourceFile = this.getWaveFile ();
-        if (this.hasWavSourceFile && !sourceFile.doesRequireRewrite ())
+        if (this.hasWavSourceFile && !this.getHeader ().doesRequireRewrite ())
             super.writeSample (outputStream);
         else
-            sourceFile.write (outputStream);
+            this.getWaveFile ().write (outputStream);
     }
 
 
@@ -157,7 +188,7 @@ public class WavFileSampleData extends AbstractFileSampleData
     @Override
     public void addZoneData (final ISampleZone zone, final boolean addRootKey, final boolean addLoops) throws IOException
     {
-        final WaveFile wavFile = this.getWaveFile ();
+        final WaveFile wavFile = this.getHeader ();
         final FormatChunk formatChunk = wavFile.getFormatChunk ();
         final int numberOfChannels = formatChunk.getNumberOfChannels ();
         if (numberOfChannels > 2)
@@ -165,15 +196,8 @@ public class WavFileSampleData extends AbstractFileSampleData
 
         if (zone.getStart () < 0)
             zone.setStart (0);
-        try
-        {
-            if (zone.getStop () <= 0)
-                zone.setStop (wavFile.getDataChunk ().calculateLength (formatChunk));
-        }
-        catch (final CompressionNotSupportedException ex)
-        {
-            throw new IOException (ex);
-        }
+        if (zone.getStop () <= 0)
+            zone.setStop (this.getLengthInSamples ());
 
         final SampleChunk sampleChunk = wavFile.getSampleChunk ();
         if (sampleChunk == null)
@@ -231,38 +255,124 @@ public class WavFileSampleData extends AbstractFileSampleData
 
 
     /**
-     * Get the underlying WAV file.
+     * Get the underlying WAV file. The file is read again from its source if it has been removed
+     * from the cache in the meantime.
      *
      * @return The wave file
      * @throws IOException Could not read the file
      */
     public WaveFile getWaveFile () throws IOException
     {
-        if (this.waveFile == null)
-            if (this.zipFile == null)
-                try
-                {
-                    this.waveFile = new WaveFile (this.sampleFile, true);
-                }
-                catch (final ParseException ex)
-                {
-                    throw new IOException (ex);
-                }
-            else
+        if (this.waveFile != null)
+            return this.waveFile;
+
+        WaveFile wf = WaveFileCache.get (this);
+        if (wf == null)
+        {
+            wf = this.readWaveFile ();
+            WaveFileCache.put (this, wf);
+        }
+        return wf;
+    }
+
+
+    /**
+     * Get all chunks of the WAV file except the audio data.
+     *
+     * @return The wave file without the audio data
+     * @throws IOException Could not read the file
+     */
+    private WaveFile getHeader () throws IOException
+    {
+        if (this.waveFile != null)
+            return this.waveFile;
+        if (this.header == null)
+            this.getWaveFile ();
+        return this.header;
+    }
+
+
+    /**
+     * Get the length of the audio data.
+     *
+     * @return The length in samples
+     * @throws IOException Could not read the file or the compression is not supported
+     */
+    private int getLengthInSamples () throws IOException
+    {
+        final WaveFile wf = this.getHeader ();
+        if (this.waveFile == null && this.lengthInSamples >= 0)
+            return this.lengthInSamples;
+
+        try
+        {
+            return this.getWaveFile ().getDataChunk ().calculateLength (wf.getFormatChunk ());
+        }
+        catch (final CompressionNotSupportedException ex)
+        {
+            throw new IOException (ex);
+        }
+    }
+
+
+    /**
+     * Reads the WAV file from its source and keeps the chunks except the audio data.
+     *
+     * @return The wave file
+     * @throws IOException Could not read the file
+     */
+    private WaveFile readWaveFile () throws IOException
+    {
+        final WaveFile wf;
+        if (this.sampleRange != null)
+        {
+            wf = new WaveFile ();
+            try
+            {
+                wf.read (this.openSampleRange (), true);
+            }
+            catch (final ParseException | RuntimeException ex)
             {
-                this.waveFile = new WaveFile ();
-
-                try (final ZipFile zf = new ZipFile (this.zipFile); final InputStream in = zf.getInputStream (this.getHarmonizedZipEntry (zf)))
-                {
-                    this.waveFile.read (in, true);
-                }
-                catch (final ParseException | RuntimeException ex)
-                {
-                    throw new IOException (ex);
-                }
+                throw new IOException (ex);
             }
+        }
+        else if (this.zipFile == null)
+            try
+            {
+                wf = new WaveFile (this.sampleFile, true);
+            }
+            catch (final ParseException ex)
+            {
+                throw new IOException (ex);
+            }
+        else
+        {
+            wf = new WaveFile ();
 
-        return this.waveFile;
+            try (final InputStream in = this.openZipEntry ())
+            {
+                wf.read (in, true);
+            }
+            catch (final ParseException | RuntimeException ex)
+            {
+                throw new IOException (ex);
+            }
+        }
+
+        if (this.header == null)
+        {
+            try
+            {
+                this.lengthInSamples = wf.getDataChunk ().calculateLength (wf.getFormatChunk ());
+            }
+            catch (final CompressionNotSupportedException | RuntimeException _)
+            {
+                // Calculated again when requested to report the error
+                this.lengthInSamples = -1;
+            }
+            this.header = wf.createHeaderCopy ();
+        }
+        return wf;
     }
 
 
@@ -273,7 +383,7 @@ public class WavFileSampleData extends AbstractFileSampleData
         final WaveFile wavFile;
         try
         {
-            wavFile = this.getWaveFile ();
+            wavFile = this.getHeader ();
         }
         catch (final IOException _)
         {
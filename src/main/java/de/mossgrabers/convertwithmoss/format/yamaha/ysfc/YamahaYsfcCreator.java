@@ -4,10 +4,12 @@
 
 package de.mossgrabers.convertwithmoss.format.yamaha.ysfc;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -54,6 +56,7 @@ import de.mossgrabers.convertwithmoss.format.yamaha.ysfc.file.YamahaYsfcPartElem
 import de.mossgrabers.convertwithmoss.format.yamaha.ysfc.file.YamahaYsfcPerformance;
 import de.mossgrabers.convertwithmoss.format.yamaha.ysfc.file.YamahaYsfcPerformancePart;
 import de.mossgrabers.convertwithmoss.format.yamaha.ysfc.file.YamahaYsfcWaveData;
+import de.mossgrabers.convertwithmoss.format.yamaha.ysfc.file.YamahaYsfcWavePool;
 import de.mossgrabers.tools.StringUtils;
 import de.mossgrabers.tools.ui.Functions;
 
@@ -223,13 +226,12 @@ public class YamahaYsfcCreator extends AbstractCreator<YamahaYsfcCreatorUI>
         final YsfcFile ysfcFile = new YsfcFile (true);
         ysfcFile.setVersionStr (format.getMaxVersionStr ());
 
-        // Numbering is across all(!) samples
-        final LibraryCounters counters = new LibraryCounters ();
-        this.addPerformance (performanceSource, format, ysfcFile, 0, counters);
-
-        try (final FileOutputStream out = new FileOutputStream (multiFile))
+        try (final YamahaYsfcWavePool wavePool = new YamahaYsfcWavePool ())
         {
-            ysfcFile.write (out);
+            // Numbering is across all(!) samples
+            final LibraryCounters counters = new LibraryCounters (wavePool);
+            this.addPerformance (performanceSource, format, ysfcFile, 0, counters);
+            writeFile (ysfcFile, multiFile);
         }
 
         this.progress.notifyDone ();
@@ -252,25 +254,25 @@ public class YamahaYsfcCreator extends AbstractCreator<YamahaYsfcCreatorUI>
         final YsfcFile ysfcFile = new YsfcFile (true);
         ysfcFile.setVersionStr (format.getMaxVersionStr ());
 
-        // Numbering is across all(!) samples
-        final LibraryCounters counters = new LibraryCounters ();
-        int performanceCounter = 0;
-        for (int performanceIndex = 0; performanceIndex < performanceSources.size (); performanceIndex++)
+        try (final YamahaYsfcWavePool wavePool = new YamahaYsfcWavePool ())
         {
-            final IPerformanceSource performanceSource = performanceSources.get (performanceIndex);
-            this.addPerformance (performanceSource, format, ysfcFile, performanceCounter, counters);
-            performanceCounter++;
-
-            if (performanceIndex > MAX_PERFORMANCES)
+            // Numbering is across all(!) samples
+            final LibraryCounters counters = new LibraryCounters (wavePool);
+            int performanceCounter = 0;
+            for (int performanceIndex = 0; performanceIndex < performanceSources.size (); performanceIndex++)
             {
-                this.notifier.logError ("IDS_YSFC_TOO_MANY_PERFORMANCES", Integer.toString (performanceCounter));
-                return;
+                final IPerformanceSource performanceSource = performanceSources.get (performanceIndex);
+                this.addPerformance (performanceSource, format, ysfcFile, performanceCounter, counters);
+                performanceCounter++;
+
+                if (performanceIndex > MAX_PERFORMANCES)
+                {
+                    this.notifier.logError ("IDS_YSFC_TOO_MANY_PERFORMANCES", Integer.toString (performanceCounter));
+                    return;
+                }
             }
-        }
 
-        try (final FileOutputStream out = new FileOutputStream (multiFile))
-        {
-            ysfcFile.write (out);
+            writeFile (ysfcFile, multiFile);
         }
 
         this.progress.notifyDone ();
@@ -305,14 +307,33 @@ public class YamahaYsfcCreator extends AbstractCreator<YamahaYsfcCreatorUI>
         final YsfcFile ysfcFile = new YsfcFile (addPerformances);
         ysfcFile.setVersionStr (format.getMaxVersionStr ());
 
-        // Version 1 performances not supported!
-        if (addPerformances && !format.isVersion1 ())
-            this.createPerformancesForMultiSources (multisampleSources, format, ysfcFile);
-        else
-            this.createKeyBanksForMultiSources (multisampleSources, format, ysfcFile);
-        this.progress.notifyDone ();
+        try (final YamahaYsfcWavePool wavePool = new YamahaYsfcWavePool ())
+        {
+            // Numbering is across all(!) samples
+            final LibraryCounters counters = new LibraryCounters (wavePool);
+
+            // Version 1 performances not supported!
+            if (addPerformances && !format.isVersion1 ())
+                this.createPerformancesForMultiSources (multisampleSources, format, ysfcFile, counters);
+            else
+                this.createKeyBanksForMultiSources (multisampleSources, format, ysfcFile, counters);
+            this.progress.notifyDone ();
 
-        try (final FileOutputStream out = new FileOutputStream (multiFile))
+            writeFile (ysfcFile, multiFile);
+        }
+    }
+
+
+    /**
+     * Write the YSFC file. The wave data is copied from the wave pool in which it was collected.
+     *
+     * @param ysfcFile The YSFC file to write
+     * @param multiFile The file in which to store
+     * @throws IOException Could not store the file
+     */
+    private static void writeFile (final YsfcFile ysfcFile, final File multiFile) throws IOException
+    {
+        try (final OutputStream out = new BufferedOutputStream (new FileOutputStream (multiFile)))
         {
             ysfcFile.write (out);
         }
@@ -389,12 +410,11 @@ public class YamahaYsfcCreator extends AbstractCreator<YamahaYsfcCreatorUI>
      * @param multisampleSources The multi-samples sources
      * @param format The output format
      * @param ysfcFile The YSFC file to which to add the performances
+     * @param counters The counters for numbering the samples
      * @throws IOException Could not create and add the chunks
      */
-    private void createPerformancesForMultiSources (final List<IMultisampleSource> multisampleSources, final YamahaYsfcFileFormat format, final YsfcFile ysfcFile) throws IOException
+    private void createPerformancesForMultiSources (final List<IMultisampleSource> multisampleSources, final YamahaYsfcFileFormat format, final YsfcFile ysfcFile, final LibraryCounters counters) throws IOException
     {
-        // Numbering is across all(!) samples
-        final LibraryCounters counters = new LibraryCounters ();
         final int categoryID = getCategoryIndex (multisampleSources.get (0).getMetadata ());
 
         // Create one performance for each multi-sample source
@@ -685,13 +705,11 @@ public class YamahaYsfcCreator extends AbstractCreator<YamahaYsfcCreatorUI>
      * @param multisampleSources The multi-samples sources
      * @param format The output format
      * @param ysfcFile The YSFC file to which to add the
+     * @param counters The counters for numbering the samples
      * @throws IOException Could not create and add the chunks
      */
-    private void createKeyBanksForMultiSources (final List<IMultisampleSource> multisampleSources, final YamahaYsfcFileFormat format, final YsfcFile ysfcFile) throws IOException
+    private void createKeyBanksForMultiSources (final List<IMultisampleSource> multisampleSources, final YamahaYsfcFileFormat format, final YsfcFile ysfcFile, final LibraryCounters counters) throws IOException
     {
-        // Numbering covers all(!) samples
-        final LibraryCounters counters = new LibraryCounters ();
-
         for (int i = 0; i < multisampleSources.size (); i++)
         {
             final IMultisampleSource multisampleSource = multisampleSources.get (i);
@@ -751,9 +769,8 @@ public class YamahaYsfcCreator extends AbstractCreator<YamahaYsfcCreatorUI>
             // IMPROVE MOXF - The calculation is not correct
             counters.numberOfSamplesWritten += waveDataContent.length + 8;
 
-            final YamahaYsfcWaveData waveData = new YamahaYsfcWaveData ();
-            waveDataList.add (waveData);
-            waveData.setData (waveDataContent);
+            // Only keep the reference, the data itself is not needed until the file is written
+            waveDataList.add (counters.wavePool.add (waveDataContent));
         }
 
         this.progress.notifyProgress ();
@@ -903,10 +920,17 @@ public class YamahaYsfcCreator extends AbstractCreator<YamahaYsfcCreatorUI>
 
     private final class LibraryCounters
     {
-        int sampleNumber            = 1;
-        int keygroupCounter         = 0;
-        int numberOfSamplesWritten  = 16;
-        int numberOfChannelsWritten = 0x400C;
+        final YamahaYsfcWavePool wavePool;
+        int                      sampleNumber            = 1;
+        int                      keygroupCounter         = 0;
+        int                      numberOfSamplesWritten  = 16;
+        int                      numberOfChannelsWritten = 0x400C;
+
+
+        LibraryCounters (final YamahaYsfcWavePool wavePool)
+        {
+            this.wavePool = wavePool;
+        }
     }
 
 
@@ -401,23 +401,25 @@ public class YsfcFile
     private static void updateCorrespondingDataOffsets (final YamahaYsfcChunk entryChunk, final YamahaYsfcChunk dataChunk)
     {
         final List<YamahaYsfcEntry> entryListChunks = entryChunk.getEntryListChunks ();
-        final List<byte []> dataArrays = dataChunk.getDataArrays ();
+        final List<YamahaYsfcChunk.IDataItem> dataItems = dataChunk.getDataItems ();
         int offset = 12;
         for (int i = 0; i < entryListChunks.size (); i++)
         {
-            final byte [] dataArray = dataArrays.get (i);
+            final int length = dataItems.get (i).getLength ();
 
             final YamahaYsfcEntry ysfcEntry = entryListChunks.get (i);
             ysfcEntry.setCorrespondingDataOffset (offset);
-            ysfcEntry.setCorrespondingDataSize (dataArray.length);
+            ysfcEntry.setCorrespondingDataSize (length);
 
-            offset += 8 + dataArray.length;
+            offset += 8 + length;
         }
     }
 
 
     /**
-     * Fill the wave data entries and data lists into the respective chunks.
+     * Fill the wave data entries and data lists into the respective chunks. The wave data is not
+     * copied, it is only read when the file is written. Therefore, it can be stored in a wave pool
+     * instead of memory.
      *
      * @param keyBankEntry The key-bank entry
      * @param keybankList The key-bank data arrays
@@ -443,16 +445,7 @@ public class YsfcFile
 
         // Wave Data
         this.chunks.get (YamahaYsfcChunk.ENTRY_LIST_WAVEFORM_DATA).addEntry (waveDataEntry);
-        final YamahaYsfcChunk dwim = this.chunks.get (YamahaYsfcChunk.DATA_LIST_WAVEFORM_DATA);
-        final ByteArrayOutputStream dwimContentOutput = new ByteArrayOutputStream ();
-        StreamUtils.writeUnsigned32 (dwimContentOutput, waveDataList.size (), true);
-        for (final YamahaYsfcWaveData element: waveDataList)
-        {
-            final ByteArrayOutputStream dataOutput = new ByteArrayOutputStream ();
-            element.write (dataOutput);
-            dwimContentOutput.write (dataOutput.toByteArray ());
-        }
-        dwim.addDataArray (dwimContentOutput.toByteArray ());
+        this.chunks.get (YamahaYsfcChunk.DATA_LIST_WAVEFORM_DATA).addDataItem (new WaveDataItem (new ArrayList<> (waveDataList)));
     }
 
 
@@ -496,4 +489,29 @@ public class YsfcFile
 
         return sb.toString ();
     }
+
+
+    /** The data of a DWIM item: the number of wave data elements followed by the elements. */
+    private record WaveDataItem (List<YamahaYsfcWaveData> waveDataList) implements YamahaYsfcChunk.IDataItem
+    {
+        /** {@inheritDoc} */
+        @Override
+        public int getLength ()
+        {
+            int length = 4;
+            for (final YamahaYsfcWaveData element: this.waveDataList)
+                length += element.getLength ();
+            return length;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void write (final OutputStream out) throws IOException
+        {
+            StreamUtils.writeUnsigned32 (out, this.waveDataList.size (), true);
+            for (final YamahaYsfcWaveData element: this.waveDataList)
+                element.write (out);
+        }
+    }
 }
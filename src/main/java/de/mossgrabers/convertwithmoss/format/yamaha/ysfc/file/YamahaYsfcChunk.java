@@ -44,7 +44,28 @@ public class YamahaYsfcChunk
     private int                         chunkLength;
     private int                         numItemsInChunk;
     private final List<YamahaYsfcEntry> entryListEntries             = new ArrayList<> ();
-    private final List<byte []>         dataArrays                   = new ArrayList<> ();
+    private final List<IDataItem>       dataItems                    = new ArrayList<> ();
+
+
+    /** An item of a data list. Its' length must be known before it is written. */
+    public interface IDataItem
+    {
+        /**
+         * Get the number of bytes which are written by {@link #write(OutputStream)}.
+         *
+         * @return The number of bytes
+         */
+        int getLength ();
+
+
+        /**
+         * Write the content of the item.
+         *
+         * @param out The output stream
+         * @throws IOException Could not write the item
+         */
+        void write (OutputStream out) throws IOException;
+    }
 
 
     /**
@@ -91,7 +112,7 @@ public class YamahaYsfcChunk
                     break;
 
                 case MAGIC_DATA:
-                    this.dataArrays.add (StreamUtils.readDataBlock (in, true));
+                    this.addDataArray (StreamUtils.readDataBlock (in, true));
                     break;
 
                 default:
@@ -117,11 +138,11 @@ public class YamahaYsfcChunk
         StreamUtils.writeUnsigned32 (out, this.numItemsInChunk, true);
 
         if (this.entryListEntries.isEmpty ())
-            for (final byte [] dataArray: this.dataArrays)
+            for (final IDataItem dataItem: this.dataItems)
             {
                 StreamUtils.writeAscii (out, MAGIC_DATA, 4);
-                StreamUtils.writeUnsigned32 (out, dataArray.length, true);
-                out.write (dataArray);
+                StreamUtils.writeUnsigned32 (out, dataItem.getLength (), true);
+                dataItem.write (out);
             }
         else
             for (final YamahaYsfcEntry entryListChunk: this.entryListEntries)
@@ -137,9 +158,9 @@ public class YamahaYsfcChunk
         this.chunkLength = 4;
         if (this.entryListEntries.isEmpty ())
         {
-            for (final byte [] array: this.dataArrays)
-                this.chunkLength += 8 + array.length;
-            this.numItemsInChunk = this.dataArrays.size ();
+            for (final IDataItem dataItem: this.dataItems)
+                this.chunkLength += 8 + dataItem.getLength ();
+            this.numItemsInChunk = this.dataItems.size ();
         }
         else
         {
@@ -187,13 +208,29 @@ public class YamahaYsfcChunk
 
 
     /**
-     * Get the data arrays in the chunk, if any.
+     * Get the data arrays in the chunk, if any. Only contains the items which were added as arrays,
+     * which is the case for all items of a chunk which was read.
      *
      * @return The data arrays
      */
     public List<byte []> getDataArrays ()
     {
-        return this.dataArrays;
+        final List<byte []> dataArrays = new ArrayList<> (this.dataItems.size ());
+        for (final IDataItem dataItem: this.dataItems)
+            if (dataItem instanceof final DataArray dataArray)
+                dataArrays.add (dataArray.data ());
+        return dataArrays;
+    }
+
+
+    /**
+     * Get the data items in the chunk, if any.
+     *
+     * @return The data items
+     */
+    public List<IDataItem> getDataItems ()
+    {
+        return this.dataItems;
     }
 
 
@@ -204,7 +241,19 @@ public class YamahaYsfcChunk
      */
     public void addDataArray (final byte [] dataArray)
     {
-        this.dataArrays.add (dataArray);
+        this.dataItems.add (new DataArray (dataArray));
+    }
+
+
+    /**
+     * Add a data item. Other than a data array its' content is only created when the chunk is
+     * written.
+     *
+     * @param dataItem The item to add
+     */
+    public void addDataItem (final IDataItem dataItem)
+    {
+        this.dataItems.add (dataItem);
     }
 
 
@@ -240,4 +289,23 @@ public class YamahaYsfcChunk
 
         return sb.toString ();
     }
+
+
+    private record DataArray (byte [] data) implements IDataItem
+    {
+        /** {@inheritDoc} */
+        @Override
+        public int getLength ()
+        {
+            return this.data.length;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void write (final OutputStream out) throws IOException
+        {
+            out.write (this.data);
+        }
+    }
 }
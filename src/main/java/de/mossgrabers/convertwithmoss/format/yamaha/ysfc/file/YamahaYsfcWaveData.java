@@ -13,13 +13,16 @@ import de.mossgrabers.convertwithmoss.file.StreamUtils;
 
 
 /**
- * The raw 16-bit data of a sample.
+ * The raw 16-bit data of a sample. The data is either kept in memory or stored in a wave pool.
  *
  * @author Jürgen Moßgraber
  */
 public class YamahaYsfcWaveData implements IStreamable
 {
-    private byte [] data;
+    private byte []            data;
+    private YamahaYsfcWavePool pool;
+    private long               poolPosition;
+    private int                size;
 
 
     /**
@@ -31,6 +34,21 @@ public class YamahaYsfcWaveData implements IStreamable
     }
 
 
+    /**
+     * Constructor for wave data which is stored in a wave pool.
+     *
+     * @param pool The pool which contains the data
+     * @param poolPosition The position of the data in the pool
+     * @param size The size of the data
+     */
+    public YamahaYsfcWaveData (final YamahaYsfcWavePool pool, final long poolPosition, final int size)
+    {
+        this.pool = pool;
+        this.poolPosition = poolPosition;
+        this.size = size;
+    }
+
+
     /**
      * Constructor which reads the wave data from the input stream.
      *
@@ -47,8 +65,8 @@ public class YamahaYsfcWaveData implements IStreamable
     @Override
     public void read (final InputStream in) throws IOException
     {
-        final int size = (int) StreamUtils.readUnsigned32 (in, true);
-        this.data = in.readNBytes (size);
+        final int dataSize = (int) StreamUtils.readUnsigned32 (in, true);
+        this.setData (in.readNBytes (dataSize));
     }
 
 
@@ -56,8 +74,22 @@ public class YamahaYsfcWaveData implements IStreamable
     @Override
     public void write (final OutputStream out) throws IOException
     {
-        StreamUtils.writeUnsigned32 (out, this.data.length, true);
-        out.write (this.data);
+        StreamUtils.writeUnsigned32 (out, this.size, true);
+        if (this.pool == null)
+            out.write (this.data);
+        else
+            this.pool.copy (this.poolPosition, this.size, out);
+    }
+
+
+    /**
+     * Get the number of bytes which are written by {@link #write(OutputStream)}.
+     *
+     * @return The number of bytes
+     */
+    public int getLength ()
+    {
+        return 4 + this.size;
     }
 
 
@@ -69,7 +101,7 @@ public class YamahaYsfcWaveData implements IStreamable
     public String infoText ()
     {
         final StringBuilder sb = new StringBuilder ();
-        sb.append ("Data Size: ").append (this.data.length).append ('\n');
+        sb.append ("Data Size: ").append (this.size).append ('\n');
         return sb.toString ();
     }
 
@@ -77,7 +109,7 @@ public class YamahaYsfcWaveData implements IStreamable
     /**
      * Get the data.
      *
-     * @return The data
+     * @return The data, null if the data is stored in a wave pool
      */
     public byte [] getData ()
     {
@@ -93,5 +125,7 @@ public class YamahaYsfcWaveData implements IStreamable
     public void setData (final byte [] data)
     {
         this.data = data;
+        this.size = data.length;
+        this.pool = null;
     }
 }
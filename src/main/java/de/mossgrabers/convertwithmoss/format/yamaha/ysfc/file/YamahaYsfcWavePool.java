@@ -0,0 +1,92 @@
+// Written by Jürgen Moßgraber - mossgrabers.de
+// (c) 2019-2026
+// Licensed under LGPLv3 - http://www.gnu.org/licenses/lgpl-3.0.txt
+
+package de.mossgrabers.convertwithmoss.format.yamaha.ysfc.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * A temporary file which keeps the wave data of a YSFC library while it is created. A full library
+ * can contain several GB of wave data which cannot be kept in memory. Therefore, the data of each
+ * sample is appended to the pool as soon as it is converted and only its' position and size are
+ * kept. When the library file is written, the data is copied from the pool. The file is deleted
+ * when the pool is closed.
+ *
+ * @author Jürgen Moßgraber
+ */
+public class YamahaYsfcWavePool implements Closeable
+{
+    private static final int  BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private long              size        = 0;
+
+
+    /**
+     * Constructor.
+     *
+     * @throws IOException Could not create the temporary file
+     */
+    public YamahaYsfcWavePool () throws IOException
+    {
+        this.channel = FileChannel.open (Files.createTempFile ("ysfc", ".pool"), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+
+    /**
+     * Append the data of a sample to the pool.
+     *
+     * @param data The data
+     * @return The wave data which references the stored data
+     * @throws IOException Could not write the data
+     */
+    public YamahaYsfcWaveData add (final byte [] data) throws IOException
+    {
+        final long position = this.size;
+        final ByteBuffer buffer = ByteBuffer.wrap (data);
+        while (buffer.hasRemaining ())
+            this.size += this.channel.write (buffer, this.size);
+        return new YamahaYsfcWaveData (this, position, data.length);
+    }
+
+
+    /**
+     * Copy a range of the pool to an output stream.
+     *
+     * @param position The position of the first byte to copy
+     * @param length The number of bytes to copy
+     * @param out Where to write the data
+     * @throws IOException Could not copy the data
+     */
+    public void copy (final long position, final int length, final OutputStream out) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate (Math.min (length, BUFFER_SIZE));
+        long current = position;
+        final long end = position + length;
+        while (current < end)
+        {
+            buffer.clear ().limit ((int) Math.min (buffer.capacity (), end - current));
+            final int count = this.channel.read (buffer, current);
+            if (count < 0)
+                throw new IOException ("Unexpected end of the wave pool.");
+            out.write (buffer.array (), 0, count);
+            current += count;
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void close () throws IOException
+    {
+        this.channel.close ();
+    }
+}
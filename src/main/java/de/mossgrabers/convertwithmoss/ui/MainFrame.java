@@ -24,6 +24,7 @@ import de.mossgrabers.convertwithmoss.core.ConverterBackend;
 import de.mossgrabers.convertwithmoss.core.DetectSettings;
 import de.mossgrabers.convertwithmoss.core.ICoreTask;
 import de.mossgrabers.convertwithmoss.core.INotifier;
+import de.mossgrabers.convertwithmoss.core.algorithm.Resampler;
 import de.mossgrabers.convertwithmoss.core.creator.ICreator;
 import de.mossgrabers.convertwithmoss.core.detector.IDetector;
 import de.mossgrabers.convertwithmoss.core.settings.ICoreTaskSettings;
@@ -87,6 +88,9 @@ public class MainFrame extends AbstractFrame implements INotifier
     private static final String    ENABLE_DARK_MODE                    = "EnableDarkMode";
     private static final String    DESTINATION_CREATE_FOLDER_STRUCTURE = "DestinationCreateFolderStructure";
     private static final String    DESTINATION_ADD_NEW_FILES           = "DestinationAddNewFiles";
+    private static final String    PARALLEL_CONVERSION                 = "ParallelConversion";
+    private static final String    INCREMENTAL_CONVERSION              = "IncrementalConversion";
+    private static final String    PRUNE_OUTPUT_FILES                  = "PruneOutputFiles";
     private static final String    DESTINATION_PATH                    = "DestinationPath";
     private static final String    DESTINATION_FORMAT                  = "DestinationFormat";
     private static final String    DESTINATION_TYPE                    = "DestinationType";
@@ -102,6 +106,7 @@ public class MainFrame extends AbstractFrame implements INotifier
     private static final String    PROCESSING_REDUCE_BIT_DEPTH         = "ProcessingReduceBitDepth";
     private static final String    PROCESSING_REDUCE_FREQUENCY         = "ProcessingReduceFrequency";
     private static final String    PROCESSING_ALWAYS_RESAMPLE          = "ProcessingAlwaysResample";
+    private static final String    PROCESSING_RESAMPLE_QUALITY         = "ProcessingResampleQuality";
     private static final String    PROCESSING_LOOP_CROSSFADES          = "ProcessingLoopCrossfades";
     private static final String    PROCESSING_SNAP_LOOPS               = "ProcessingSnapLoops";
     private static final String    PROCESSING_TRANSPOSE                = "ProcessingTranspose";
@@ -531,6 +536,8 @@ public class MainFrame extends AbstractFrame implements INotifier
         this.detectSettings.reduceBitDepth = this.config.getInteger (PROCESSING_REDUCE_BIT_DEPTH, 0);
         this.detectSettings.reduceFrequency = this.config.getInteger (PROCESSING_REDUCE_FREQUENCY, 0);
         this.detectSettings.alwaysResample = this.config.getBoolean (PROCESSING_ALWAYS_RESAMPLE, false);
+        final Resampler.Quality [] resampleQualities = Resampler.Quality.values ();
+        this.detectSettings.resampleQuality = resampleQualities[Math.clamp (this.config.getInteger (PROCESSING_RESAMPLE_QUALITY, Resampler.Quality.HIGH.ordinal ()), 0, resampleQualities.length - 1)];
         this.detectSettings.loopCrossfades = this.config.getInteger (PROCESSING_LOOP_CROSSFADES, 0);
         this.detectSettings.snapLoopsToZero = this.config.getBoolean (PROCESSING_SNAP_LOOPS, false);
         this.detectSettings.transposeSemitones = this.config.getInteger (PROCESSING_TRANSPOSE, 0);
@@ -540,6 +547,9 @@ public class MainFrame extends AbstractFrame implements INotifier
 
         this.detectSettings.createFolderStructure = this.config.getBoolean (DESTINATION_CREATE_FOLDER_STRUCTURE, true);
         this.addNewFiles = this.config.getBoolean (DESTINATION_ADD_NEW_FILES, false);
+        this.setParallelConversion (this.config.getBoolean (PARALLEL_CONVERSION, false));
+        this.detectSettings.incremental = this.config.getBoolean (INCREMENTAL_CONVERSION, false);
+        this.detectSettings.pruneOutputs = this.config.getBoolean (PRUNE_OUTPUT_FILES, false);
         this.enableDarkMode = this.config.getBoolean (ENABLE_DARK_MODE, false);
 
         this.setDarkMode (this.enableDarkMode);
@@ -586,6 +596,7 @@ public class MainFrame extends AbstractFrame implements INotifier
         this.config.setInteger (PROCESSING_REDUCE_BIT_DEPTH, this.detectSettings.reduceBitDepth);
         this.config.setInteger (PROCESSING_REDUCE_FREQUENCY, this.detectSettings.reduceFrequency);
         this.config.setBoolean (PROCESSING_ALWAYS_RESAMPLE, this.detectSettings.alwaysResample);
+        this.config.setInteger (PROCESSING_RESAMPLE_QUALITY, this.detectSettings.resampleQuality.ordinal ());
         this.config.setInteger (PROCESSING_LOOP_CROSSFADES, this.detectSettings.loopCrossfades);
         this.config.setBoolean (PROCESSING_SNAP_LOOPS, this.detectSettings.snapLoopsToZero);
         this.config.setInteger (PROCESSING_TRANSPOSE, this.detectSettings.transposeSemitones);
@@ -595,6 +606,9 @@ public class MainFrame extends AbstractFrame implements INotifier
 
         this.config.setBoolean (DESTINATION_CREATE_FOLDER_STRUCTURE, this.detectSettings.createFolderStructure);
         this.config.setBoolean (DESTINATION_ADD_NEW_FILES, this.addNewFiles);
+        this.config.setBoolean (PARALLEL_CONVERSION, this.detectSettings.numberOfThreads > 1);
+        this.config.setBoolean (INCREMENTAL_CONVERSION, this.detectSettings.incremental);
+        this.config.setBoolean (PRUNE_OUTPUT_FILES, this.detectSettings.pruneOutputs);
         this.config.setBoolean (ENABLE_DARK_MODE, this.enableDarkMode);
     }
 
@@ -632,12 +646,18 @@ public class MainFrame extends AbstractFrame implements INotifier
 
         this.settingsDialog.createFolderStructureCheckbox.setSelected (this.detectSettings.createFolderStructure);
         this.settingsDialog.addNewFilesCheckbox.setSelected (this.addNewFiles);
+        this.settingsDialog.parallelConversionCheckbox.setSelected (this.detectSettings.numberOfThreads > 1);
+        this.settingsDialog.incrementalCheckbox.setSelected (this.detectSettings.incremental);
+        this.settingsDialog.pruneCheckbox.setSelected (this.detectSettings.pruneOutputs);
         this.settingsDialog.enableDarkModeCheckbox.setSelected (this.enableDarkMode);
 
         if (this.settingsDialog.display ())
         {
             this.detectSettings.createFolderStructure = this.settingsDialog.createFolderStructureCheckbox.isSelected ();
             this.addNewFiles = this.settingsDialog.addNewFilesCheckbox.isSelected ();
+            this.setParallelConversion (this.settingsDialog.parallelConversionCheckbox.isSelected ());
+            this.detectSettings.incremental = this.settingsDialog.incrementalCheckbox.isSelected ();
+            this.detectSettings.pruneOutputs = this.settingsDialog.pruneCheckbox.isSelected ();
             this.enableDarkMode = this.settingsDialog.enableDarkModeCheckbox.isSelected ();
 
             this.setDarkMode (this.enableDarkMode);
@@ -645,6 +665,17 @@ public class MainFrame extends AbstractFrame implements INotifier
     }
 
 
+    /**
+     * Use all available processor cores for the conversion if enabled.
+     *
+     * @param enable True to enable the parallel conversion
+     */
+    private void setParallelConversion (final boolean enable)
+    {
+        this.detectSettings.numberOfThreads = enable ? Math.max (1, Runtime.getRuntime ().availableProcessors ()) : 1;
+    }
+
+
     /**
      * Open the processing dialog.
      */
@@ -663,6 +694,7 @@ public class MainFrame extends AbstractFrame implements INotifier
         this.processingDialog.selectBitDepth (this.detectSettings.reduceBitDepth);
         this.processingDialog.selectFrequency (this.detectSettings.reduceFrequency);
         this.processingDialog.alwaysResampleCheckbox.setSelected (this.detectSettings.alwaysResample);
+        this.processingDialog.selectResampleQuality (this.detectSettings.resampleQuality);
         this.processingDialog.selectLoopCrossfades (this.detectSettings.loopCrossfades);
         this.processingDialog.snapLoopsCheckbox.setSelected (this.detectSettings.snapLoopsToZero);
         this.processingDialog.selectTranspose (this.detectSettings.transposeSemitones);
@@ -678,6 +710,7 @@ public class MainFrame extends AbstractFrame implements INotifier
             this.detectSettings.reduceBitDepth = this.processingDialog.getBitDepth ();
             this.detectSettings.reduceFrequency = this.processingDialog.getFrequency ();
             this.detectSettings.alwaysResample = this.processingDialog.alwaysResampleCheckbox.isSelected ();
+            this.detectSettings.resampleQuality = this.processingDialog.getResampleQuality ();
             this.detectSettings.loopCrossfades = this.processingDialog.getLoopCrossfades ();
             this.detectSettings.snapLoopsToZero = this.processingDialog.snapLoopsCheckbox.isSelected ();
             this.detectSettings.transposeSemitones = this.processingDialog.getTranspose ();
@@ -722,6 +755,10 @@ public class MainFrame extends AbstractFrame implements INotifier
 
         this.detectSettings.libraryName = (detectPerformances ? this.performanceLibraryFilename : this.presetLibraryFilename).getText ().trim ();
         this.detectSettings.wantsMultipleFiles = detectPerformances ? this.wantsMultiplePerformanceFiles () : this.wantsMultiplePresetFiles ();
+
+        // The settings of the detector and creator identify the conversion in the incremental mode
+        this.detectSettings.setTaskParameters (detector.getSettings (), creator.getSettings ());
+
         Platform.runLater (() -> this.backend.detect (detector, creator, this.detectSettings, detectPerformances, onlyAnalyse));
     }
 
@@ -778,8 +815,8 @@ public class MainFrame extends AbstractFrame implements INotifier
         }
         this.destinationPathHistory.add (0, this.detectSettings.outputFolder.getAbsolutePath ());
 
-        // Output folder must be empty or add new must be active
-        return this.addNewFiles || this.isEmptyFolder (this.detectSettings.outputFolder.getPath ());
+        // Output folder must be empty or add new or incremental must be active
+        return this.addNewFiles || this.detectSettings.incremental || this.isEmptyFolder (this.detectSettings.outputFolder.getPath ());
     }
 
 
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import de.mossgrabers.convertwithmoss.core.algorithm.Resampler;
 import de.mossgrabers.tools.ui.AbstractDialog;
 import de.mossgrabers.tools.ui.ControlFunctions;
 import de.mossgrabers.tools.ui.TraversalManager;
@@ -31,11 +32,12 @@ import javafx.stage.Window;
  */
 public class ProcessingDialog extends AbstractDialog
 {
-    private static final List<String> BIT_DEPTH       = new ArrayList<> ();
-    private static final List<String> FREQ_RESOLUTiON = new ArrayList<> ();
-    private static final List<String> LOOP_CROSSFADES = new ArrayList<> ();
-    private static final List<String> TRANSPOSE       = new ArrayList<> ();
-    private static final int          TRANSPOSE_RANGE = 24;
+    private static final List<String> BIT_DEPTH        = new ArrayList<> ();
+    private static final List<String> FREQ_RESOLUTiON  = new ArrayList<> ();
+    private static final List<String> RESAMPLE_QUALITY = new ArrayList<> ();
+    private static final List<String> LOOP_CROSSFADES  = new ArrayList<> ();
+    private static final List<String> TRANSPOSE        = new ArrayList<> ();
+    private static final int          TRANSPOSE_RANGE  = 24;
 
     static
     {
@@ -43,6 +45,7 @@ public class ProcessingDialog extends AbstractDialog
             TRANSPOSE.add (i == 0 ? "Off" : String.format ("%+d", Integer.valueOf (i)));
         Collections.addAll (BIT_DEPTH, "Ignore", "24 bit", "16 bit", "8 bit");
         Collections.addAll (FREQ_RESOLUTiON, "Ignore", "48 kHz", "44.1 kHz", "32 kHz", "31.25 kHz", "30 kHz", "28 kHz", "27 kHz", "24 kHz", "22.05 kHz", "16 kHz", "12 kHz", "11.025 kHz", "8 kHz");
+        Collections.addAll (RESAMPLE_QUALITY, "Linear (fast)", "Low", "Medium", "High");
         Collections.addAll (LOOP_CROSSFADES, "Off", "0%", "1%", "2%", "3%", "4%", "5%", "6%", "7%", "8%", "9%", "10%", "11%", "12%", "13%", "14%", "15%", "16%", "17%", "18%", "19%", "20%", "21%", "22%", "23%", "24%", "25%", "26%", "27%", "28%", "29%", "30%", "31%", "32%", "33%", "34%", "35%", "36%", "37%", "38%", "39%", "40%", "41%", "42%", "43%", "44%", "45%", "46%", "47%", "48%", "49%", "50%", "51%", "52%", "53%", "54%", "55%", "56%", "57%", "58%", "59%", "60%", "61%", "62%", "63%", "64%", "65%", "66%", "67%", "68%", "69%", "70%", "71%", "72%", "73%", "74%", "75%", "76%", "77%", "78%", "79%", "80%", "81%", "82%", "83%", "84%", "85%", "86%", "87%", "88%", "89%", "90%", "91%", "92%", "93%", "94%", "95%", "96%", "97%", "98%", "99%", "100%");
     }
 
@@ -64,6 +67,8 @@ public class ProcessingDialog extends AbstractDialog
     public ComboBox<String>        reduceFrequencyCombobox;
     /** Check-box to enable always re-sample option. */
     public CheckBox                alwaysResampleCheckbox;
+    /** Combo-box for the quality of changing the sample frequency. */
+    public ComboBox<String>        resampleQualityCombobox;
     /** Combo-box for the loop cross-fades. */
     public ComboBox<String>        loopCrossfadesCombobox;
     /** Check-box to snap forward loop boundaries to zero-crossings. */
@@ -161,6 +166,29 @@ public class ProcessingDialog extends AbstractDialog
     }
 
 
+    /**
+     * Select the quality of changing the sample frequency.
+     *
+     * @param quality The quality
+     */
+    public void selectResampleQuality (final Resampler.Quality quality)
+    {
+        this.resampleQualityCombobox.getSelectionModel ().select (quality.ordinal ());
+    }
+
+
+    /**
+     * Get the quality of changing the sample frequency.
+     *
+     * @return The quality
+     */
+    public Resampler.Quality getResampleQuality ()
+    {
+        final int itemIndex = this.resampleQualityCombobox.getSelectionModel ().getSelectedIndex ();
+        return itemIndex < 0 ? Resampler.Quality.HIGH : Resampler.Quality.values ()[itemIndex];
+    }
+
+
     /**
      * Select the loop cross-fades.
      *
@@ -253,6 +281,7 @@ public class ProcessingDialog extends AbstractDialog
         final BoxPanel panel3 = new TwoColsPanel ();
         this.reduceBitDepthCombobox = panel3.createComboBox ("@IDS_PROCESSING_REDUCE_BIT_DEPTH", "@IDS_PROCESSING_REDUCE_BIT_DEPTH_TOOLTIP", BIT_DEPTH);
         this.reduceFrequencyCombobox = panel3.createComboBox ("@IDS_PROCESSING_REDUCE_FREQUENCY", "@IDS_PROCESSING_REDUCE_FREQUENCY_TOOLTIP", FREQ_RESOLUTiON);
+        this.resampleQualityCombobox = panel3.createComboBox ("@IDS_PROCESSING_RESAMPLE_QUALITY", "@IDS_PROCESSING_RESAMPLE_QUALITY_TOOLTIP", RESAMPLE_QUALITY);
         this.alwaysResampleCheckbox = panel3.createCheckBox ("@IDS_PROCESSING_ALWAYS_RESAMPLE_LABEL", "@IDS_PROCESSING_ALWAYS_RESAMPLE_TOOLTIP");
 
         final BoxPanel panel4 = new TwoColsPanel ();
@@ -277,6 +306,7 @@ public class ProcessingDialog extends AbstractDialog
         this.traversalManager.add (this.maxSamplesField);
         this.traversalManager.add (this.reduceBitDepthCombobox);
         this.traversalManager.add (this.reduceFrequencyCombobox);
+        this.traversalManager.add (this.resampleQualityCombobox);
         this.traversalManager.add (this.alwaysResampleCheckbox);
         this.traversalManager.add (this.loopCrossfadesCombobox);
         this.traversalManager.add (this.snapLoopsCheckbox);
@@ -8,14 +8,16 @@ import de.mossgrabers.convertwithmoss.core.INotifier;
 
 
 /**
- * Helper class for notifying about a progress, e.g. copying a sample.
+ * Helper class for notifying about a progress, e.g. copying a sample. The dots are counted per
+ * thread since the tasks of a parallel conversion share the logger of the creator and each task
+ * writes into its own section of the log.
  *
  * @author Jürgen Moßgraber
  */
 public class ProgressLogger
 {
-    private final INotifier notifier;
-    private int             counter = 0;
+    private final INotifier            notifier;
+    private final ThreadLocal<Integer> counter = ThreadLocal.withInitial (() -> Integer.valueOf (0));
 
 
     /**
@@ -35,8 +37,9 @@ public class ProgressLogger
     public void notifyProgress ()
     {
         this.notifier.log ("IDS_NOTIFY_PROGRESS");
-        this.counter++;
-        if (this.counter % 80 == 0)
+        final int count = this.counter.get ().intValue () + 1;
+        this.counter.set (Integer.valueOf (count));
+        if (count % 80 == 0)
             this.notifyNewline ();
     }
 
@@ -56,7 +59,7 @@ public class ProgressLogger
     public void notifyDone ()
     {
         this.notifier.log ("IDS_NOTIFY_PROGRESS_DONE");
-        this.counter = 0;
+        this.counter.remove ();
     }
 
 
@@ -66,6 +69,6 @@ public class ProgressLogger
     public void notifyFailed ()
     {
         this.notifier.log ("IDS_NOTIFY_PROGRESS_FAILED");
-        this.counter = 0;
+        this.counter.remove ();
     }
 }
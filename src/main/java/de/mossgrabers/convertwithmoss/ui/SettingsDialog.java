@@ -28,6 +28,12 @@ public class SettingsDialog extends AbstractDialog
     public CheckBox                createFolderStructureCheckbox;
     /** Check-box for only adding new files option. */
     public CheckBox                addNewFilesCheckbox;
+    /** Check-box for the parallel conversion option. */
+    public CheckBox                parallelConversionCheckbox;
+    /** Check-box for the incremental conversion option. */
+    public CheckBox                incrementalCheckbox;
+    /** Check-box for removing outdated output files option. */
+    public CheckBox                pruneCheckbox;
     /** Check-box for enabling the dark mode option. */
     public CheckBox                enableDarkModeCheckbox;
 
@@ -41,7 +47,7 @@ public class SettingsDialog extends AbstractDialog
     {
         // Non-modal and (via a null owner from the caller) independent, so the main window is
         // not repainted by macOS when it is clicked while this dialog is open
-        super (owner, "@IDS_SETTINGS_DIALOG", false, true, 400, 140);
+        super (owner, "@IDS_SETTINGS_DIALOG", false, true, 400, 220);
 
         this.setResizable (false);
 
@@ -59,12 +65,18 @@ public class SettingsDialog extends AbstractDialog
 
         this.createFolderStructureCheckbox = panel.createCheckBox ("@IDS_MAIN_CREATE_FOLDERS", "@IDS_MAIN_CREATE_FOLDERS_TOOLTIP");
         this.addNewFilesCheckbox = panel.createCheckBox ("@IDS_MAIN_ADD_NEW", "@IDS_MAIN_ADD_NEW_TOOLTIP");
+        this.parallelConversionCheckbox = panel.createCheckBox ("@IDS_MAIN_PARALLEL_CONVERSION", "@IDS_MAIN_PARALLEL_CONVERSION_TOOLTIP");
+        this.incrementalCheckbox = panel.createCheckBox ("@IDS_MAIN_INCREMENTAL", "@IDS_MAIN_INCREMENTAL_TOOLTIP");
+        this.pruneCheckbox = panel.createCheckBox ("@IDS_MAIN_PRUNE", "@IDS_MAIN_PRUNE_TOOLTIP");
         this.enableDarkModeCheckbox = panel.createCheckBox ("@IDS_MAIN_ENABLE_DARK_MODE", "@IDS_MAIN_ENABLE_DARK_MODE_TOOLTIP");
 
         this.setButtons ("@IDS_SETTINGS_DLG_OK", "@IDS_SETTINGS_DLG_CANCEL");
 
         this.traversalManager.add (this.createFolderStructureCheckbox);
         this.traversalManager.add (this.addNewFilesCheckbox);
+        this.traversalManager.add (this.parallelConversionCheckbox);
+        this.traversalManager.add (this.incrementalCheckbox);
+        this.traversalManager.add (this.pruneCheckbox);
         this.traversalManager.add (this.enableDarkModeCheckbox);
         this.traversalManager.add (this.getOKButton ());
         this.traversalManager.add (this.getCancelButton ());